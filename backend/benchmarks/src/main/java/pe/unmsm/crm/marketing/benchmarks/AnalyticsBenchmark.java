@@ -0,0 +1,60 @@
+package pe.unmsm.crm.marketing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pe.unmsm.crm.marketing.campanas.encuestas.application.service.AnalyticsService;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Encuesta;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.EncuestaRepository;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.RespuestaEncuestaRepository;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.strategy.AnalisisResultadoDto;
+import pe.unmsm.crm.marketing.campanas.encuestas.infra.analytics.EncuestaAgregadoStore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de indicadores de una encuesta (AnalyticsService.getIndicadores →
+ * processIndicadores) sobre agregados de {@code tamanio} respuestas, para el
+ * rango completo y para 28 días.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AnalyticsBenchmark {
+
+    private static final int ID_ENCUESTA = 1;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int tamanio;
+
+    private AnalyticsService analyticsService;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Encuesta encuesta = DatosSinteticos.encuesta(ID_ENCUESTA, 4);
+
+        // Sin respuestas en BD: la carga inicial queda vacía y los eventos la alimentan
+        RespuestaEncuestaRepository respuestas = Stubs.de(RespuestaEncuestaRepository.class,
+                Map.of("findMaxIdRespuesta", args -> null));
+        EncuestaRepository encuestas = Stubs.de(EncuestaRepository.class,
+                Map.of("findById", args -> Optional.of(encuesta)));
+
+        EncuestaAgregadoStore store = new EncuestaAgregadoStore(respuestas);
+        DatosSinteticos.respuestas(encuesta, tamanio).forEach(store::onRespuestaRegistrada);
+        analyticsService = new AnalyticsService(store, encuestas);
+    }
+
+    @Benchmark
+    public List<AnalisisResultadoDto> indicadoresTotal() {
+        return analyticsService.getIndicadores(ID_ENCUESTA, null);
+    }
+
+    @Benchmark
+    public List<AnalisisResultadoDto> indicadores28Dias() {
+        return analyticsService.getIndicadores(ID_ENCUESTA, "28d");
+    }
+}
@@ -0,0 +1,69 @@
+package pe.unmsm.crm.marketing.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import pe.unmsm.crm.marketing.campanas.telefonicas.domain.command.BaseCallCommand;
+import pe.unmsm.crm.marketing.campanas.telefonicas.domain.command.InMemoryCallCommandBus;
+import pe.unmsm.crm.marketing.campanas.telefonicas.domain.model.CallContext;
+import pe.unmsm.crm.marketing.campanas.telefonicas.infra.metrics.TelemarketingMetrics;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Despacho de comandos por InMemoryCallCommandBus: se encolan
+ * {@code tamanio} comandos triviales y se espera a que el worker los ejecute
+ * todos, de modo que se mide el encolado más el vaciado de la cola.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CallCommandBusBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int tamanio;
+
+    private InMemoryCallCommandBus bus;
+    private CallContext context;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        bus = new InMemoryCallCommandBus(new TelemarketingMetrics(new SimpleMeterRegistry()));
+        context = CallContext.builder().campaniaId(1L).agenteId(1L).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        bus.shutdown();
+    }
+
+    @Benchmark
+    public int despachar() throws InterruptedException {
+        CountDownLatch pendientes = new CountDownLatch(tamanio);
+        for (int i = 0; i < tamanio; i++) {
+            bus.enqueue(new ComandoBenchmark(context, pendientes));
+        }
+        if (!pendientes.await(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("El bus no procesó todos los comandos");
+        }
+        return bus.pendingSize();
+    }
+
+    static final class ComandoBenchmark extends BaseCallCommand {
+
+        private final CountDownLatch pendientes;
+
+        ComandoBenchmark(CallContext context, CountDownLatch pendientes) {
+            super(context);
+            this.pendientes = pendientes;
+        }
+
+        @Override
+        public void execute() {
+            pendientes.countDown();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pe.unmsm.crm.marketing.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara dos resultados JMH en JSON (-rf json) y lista la variación por
+ * benchmark y parámetros. Termina con código 1 si alguno empeora más que el
+ * umbral (por defecto 10%).
+ *
+ * Uso: java -cp target/benchmarks.jar pe.unmsm.crm.marketing.benchmarks.CompararResultados
+ * base.json nuevo.json [umbral%]
+ */
+public final class CompararResultados {
+
+    private CompararResultados() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararResultados <base.json> <nuevo.json> [umbral%]");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Resultado> base = leer(new File(args[0]));
+        Map<String, Resultado> nuevo = leer(new File(args[1]));
+
+        int regresiones = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "base", "nuevo", "Δ%");
+        for (Map.Entry<String, Resultado> entry : nuevo.entrySet()) {
+            Resultado anterior = base.get(entry.getKey());
+            Resultado actual = entry.getValue();
+            if (anterior == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", actual.score(), "nuevo");
+                continue;
+            }
+            double delta = (actual.score() - anterior.score()) * 100.0 / anterior.score();
+            // En modos de tiempo (AverageTime, SampleTime) mayor es peor; en Throughput, menor es peor
+            double empeora = actual.throughput() ? -delta : delta;
+            boolean regresion = empeora > umbral;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%n", entry.getKey(), anterior.score(),
+                    actual.score(), delta, regresion ? "REGRESIÓN" : "");
+        }
+
+        if (regresiones > 0) {
+            System.out.printf("%d benchmark(s) empeoran más de %.1f%%%n", regresiones, umbral);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Resultado> leer(File archivo) throws IOException {
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        for (JsonNode corrida : new ObjectMapper().readTree(archivo)) {
+            StringBuilder clave = new StringBuilder(corrida.path("benchmark").asText());
+            JsonNode params = corrida.path("params");
+            for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext();) {
+                Map.Entry<String, JsonNode> param = it.next();
+                clave.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            JsonNode metrica = corrida.path("primaryMetric");
+            resultados.put(clave.toString(), new Resultado(
+                    metrica.path("score").asDouble(),
+                    "thrpt".equals(corrida.path("mode").asText())));
+        }
+        return resultados;
+    }
+
+    private record Resultado(double score, boolean throughput) {
+    }
+}
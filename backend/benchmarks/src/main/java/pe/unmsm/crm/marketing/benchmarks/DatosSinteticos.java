@@ -0,0 +1,257 @@
+package pe.unmsm.crm.marketing.benchmarks;
+
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Encuesta;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Opcion;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Pregunta;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.RespuestaRegistradaEvent;
+import pe.unmsm.crm.marketing.leads.domain.model.staging.RegistroImportado;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.GrupoReglasAnd;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.GrupoReglasOr;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.ReglaSegmento;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.ReglaSimple;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.Segmento;
+import pe.unmsm.crm.marketing.segmentacion.infra.dto.LeadIntegrationResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generadores de datos sintéticos deterministas (semilla fija) para los
+ * benchmarks. Los tamaños habituales son 10k / 100k / 1M.
+ */
+final class DatosSinteticos {
+
+    static final long SEMILLA = 20240611L;
+
+    static final String[] DEPARTAMENTOS = { "Lima", "Arequipa", "Cusco", "La Libertad", "Piura", "Junín" };
+    static final String[] PROVINCIAS = { "Lima", "Callao", "Arequipa", "Cusco", "Trujillo", "Piura", "Huancayo" };
+    static final String[] DISTRITOS = { "Miraflores", "San Isidro", "Surco", "La Molina", "Barranco", "Lince",
+            "Jesús María", "San Borja", "Cayma", "Wanchaq", "Víctor Larco", "Castilla", "El Tambo", "Breña" };
+    static final String[] GENEROS = { "M", "F", "MASCULINO", "FEMENINO" };
+    static final String[] NIVELES = { "SECUNDARIA", "TECNICO", "UNIVERSITARIO", "POSGRADO" };
+    static final String[] ESTADOS_CIVILES = { "SOLTERO", "CASADO", "CONVIVIENTE", "DIVORCIADO" };
+    static final String[] UTM_SOURCES = { "facebook", "google", "instagram", "tiktok", "email" };
+    static final String[] TIPOS_FUENTE = { "WEB", "IMPORTACION" };
+    static final String[] OPERADORES_TEXTO = { "IGUAL", "DIFERENTE", "CONTIENE" };
+    static final String[] OPERADORES_EDAD = { "MAYOR_QUE", "MENOR_QUE", "MAYOR_IGUAL", "MENOR_IGUAL", "IGUAL" };
+
+    private DatosSinteticos() {
+    }
+
+    static String distritoId(int indice) {
+        return String.format("15%04d", indice);
+    }
+
+    static List<LeadIntegrationResponse> leads(int cantidad) {
+        SplittableRandom random = new SplittableRandom(SEMILLA);
+        List<LeadIntegrationResponse> leads = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            LeadIntegrationResponse lead = new LeadIntegrationResponse();
+            lead.setId((long) i);
+            lead.setNombre("Lead " + i);
+            lead.setEmail("lead" + i + "@example.com");
+            lead.setTelefono("9" + (10_000_000 + random.nextInt(89_999_999)));
+            lead.setEstado("CALIFICADO");
+            lead.setFechaCreacion(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i));
+            lead.setEdad(random.nextInt(10) == 0 ? null : 18 + random.nextInt(60));
+            lead.setGenero(elegir(random, GENEROS));
+            int distrito = random.nextInt(DISTRITOS.length);
+            lead.setDistritoId(distritoId(distrito));
+            lead.setDistritoNombre(DISTRITOS[distrito]);
+            lead.setProvinciaNombre(PROVINCIAS[distrito % PROVINCIAS.length]);
+            lead.setDepartamentoNombre(DEPARTAMENTOS[distrito % DEPARTAMENTOS.length]);
+            lead.setNivelEducativo(elegir(random, NIVELES));
+            lead.setEstadoCivil(elegir(random, ESTADOS_CIVILES));
+            lead.setUtmSource(elegir(random, UTM_SOURCES));
+            lead.setUtmMedium("cpc");
+            lead.setUtmCampaign("campania_" + random.nextInt(20));
+            lead.setTipoFuente(elegir(random, TIPOS_FUENTE));
+            leads.add(lead);
+        }
+        return leads;
+    }
+
+    /**
+     * Segmento representativo: AND de edad y género con un OR de ubicaciones y fuentes.
+     */
+    static Segmento segmentoTipico() {
+        GrupoReglasOr ubicacion = new GrupoReglasOr();
+        ubicacion.addRegla(regla("distrito", "IGUAL", "Miraflores"));
+        ubicacion.addRegla(regla("distrito", "IGUAL", "San Isidro"));
+        ubicacion.addRegla(regla("departamento", "CONTIENE", "are"));
+        ubicacion.addRegla(regla("utmSource", "IGUAL", "facebook"));
+
+        GrupoReglasAnd raiz = new GrupoReglasAnd();
+        raiz.addRegla(regla("edad", "MAYOR_IGUAL", "25"));
+        raiz.addRegla(regla("edad", "MENOR_QUE", "55"));
+        raiz.addRegla(regla("genero", "IGUAL", "F"));
+        raiz.addRegla(ubicacion);
+        raiz.addRegla(regla("nivelEducativo", "DIFERENTE", "SECUNDARIA"));
+
+        Segmento segmento = new Segmento();
+        segmento.setId(1L);
+        segmento.setNombre("Segmento benchmark");
+        segmento.setReglaPrincipal(raiz);
+        return segmento;
+    }
+
+    /**
+     * Segmentos con árboles de reglas aleatorios (2 niveles, 2-8 reglas por grupo).
+     */
+    static List<Segmento> segmentos(int cantidad) {
+        SplittableRandom random = new SplittableRandom(SEMILLA);
+        List<Segmento> segmentos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Segmento segmento = new Segmento();
+            segmento.setId((long) i);
+            segmento.setNombre("Segmento " + i);
+            segmento.setReglaPrincipal(grupo(random, 2));
+            segmentos.add(segmento);
+        }
+        return segmentos;
+    }
+
+    private static ReglaSegmento grupo(SplittableRandom random, int profundidad) {
+        List<ReglaSegmento> reglas = new ArrayList<>();
+        int cantidad = 2 + random.nextInt(7);
+        for (int i = 0; i < cantidad; i++) {
+            if (profundidad > 1 && random.nextInt(4) == 0) {
+                reglas.add(grupo(random, profundidad - 1));
+            } else {
+                reglas.add(reglaAleatoria(random));
+            }
+        }
+        if (random.nextBoolean()) {
+            GrupoReglasAnd and = new GrupoReglasAnd();
+            and.setReglas(reglas);
+            return and;
+        }
+        GrupoReglasOr or = new GrupoReglasOr();
+        or.setReglas(reglas);
+        return or;
+    }
+
+    private static ReglaSimple reglaAleatoria(SplittableRandom random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return regla("edad", elegir(random, OPERADORES_EDAD), String.valueOf(18 + random.nextInt(60)));
+            case 1:
+                return regla("genero", "IGUAL", elegir(random, GENEROS));
+            case 2:
+                return regla("distrito", elegir(random, OPERADORES_TEXTO), elegir(random, DISTRITOS));
+            default:
+                return regla("utmSource", elegir(random, OPERADORES_TEXTO), elegir(random, UTM_SOURCES));
+        }
+    }
+
+    static ReglaSimple regla(String campo, String operador, String valor) {
+        ReglaSimple regla = new ReglaSimple();
+        regla.setCampo(campo);
+        regla.setOperador(operador);
+        regla.setValorTexto(valor);
+        return regla;
+    }
+
+    /**
+     * Registros de staging de importación con el JSON que produce el lector de Excel.
+     */
+    static List<RegistroImportado> registrosImportados(int cantidad) {
+        SplittableRandom random = new SplittableRandom(SEMILLA);
+        List<RegistroImportado> registros = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            int distrito = random.nextInt(DISTRITOS.length);
+            // Mitad con cadena "Distrito, Provincia, Departamento", mitad con ID directo
+            String ubicacion = random.nextBoolean()
+                    ? DISTRITOS[distrito] + ", " + PROVINCIAS[distrito % PROVINCIAS.length] + ", "
+                            + DEPARTAMENTOS[distrito % DEPARTAMENTOS.length]
+                    : distritoId(distrito);
+            String json = "{\"nombre_completo\":\"Lead Importado " + i + "\","
+                    + "\"email\":\"importado" + i + "@example.com\","
+                    + "\"telefono\":\"9" + (10_000_000 + random.nextInt(89_999_999)) + "\","
+                    + "\"edad\":" + (18 + random.nextInt(60)) + ".0,"
+                    + "\"genero\":\"" + elegir(random, GENEROS) + "\","
+                    + "\"direccion\":\"" + ubicacion + "\"}";
+
+            RegistroImportado registro = new RegistroImportado();
+            registro.setId((long) i);
+            registro.setLoteId(1L + i / 5_000);
+            registro.setDatosJson(json);
+            registros.add(registro);
+        }
+        return registros;
+    }
+
+    /**
+     * Encuesta con preguntas de los tres tipos (UNICA, MULTIPLE, ESCALA) y 5 opciones cada una.
+     */
+    static Encuesta encuesta(int idEncuesta, int preguntasPorTipo) {
+        Encuesta encuesta = new Encuesta();
+        encuesta.setIdEncuesta(idEncuesta);
+        encuesta.setTitulo("Encuesta benchmark");
+        List<Pregunta> preguntas = new ArrayList<>();
+        int idPregunta = 1;
+        int idOpcion = 1;
+        for (Pregunta.TipoPregunta tipo : Pregunta.TipoPregunta.values()) {
+            for (int p = 0; p < preguntasPorTipo; p++) {
+                Pregunta pregunta = new Pregunta();
+                pregunta.setIdPregunta(idPregunta);
+                pregunta.setTextoPregunta("Pregunta " + idPregunta);
+                pregunta.setTipoPregunta(tipo);
+                pregunta.setOrden(idPregunta);
+                pregunta.setEncuesta(encuesta);
+                List<Opcion> opciones = new ArrayList<>();
+                for (int o = 1; o <= 5; o++) {
+                    Opcion opcion = new Opcion();
+                    opcion.setIdOpcion(idOpcion++);
+                    opcion.setTextoOpcion("Opción " + o);
+                    opcion.setOrden(o);
+                    opcion.setPregunta(pregunta);
+                    opciones.add(opcion);
+                }
+                pregunta.setOpciones(opciones);
+                preguntas.add(pregunta);
+                idPregunta++;
+            }
+        }
+        encuesta.setPreguntas(preguntas);
+        return encuesta;
+    }
+
+    /**
+     * Respuestas repartidas en los últimos 60 días, una por evento.
+     */
+    static List<RespuestaRegistradaEvent> respuestas(Encuesta encuesta, int cantidad) {
+        SplittableRandom random = new SplittableRandom(SEMILLA);
+        LocalDateTime ahora = LocalDateTime.now();
+        List<RespuestaRegistradaEvent> eventos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            List<RespuestaRegistradaEvent.Detalle> detalles = new ArrayList<>();
+            for (Pregunta pregunta : encuesta.getPreguntas()) {
+                List<Opcion> opciones = pregunta.getOpciones();
+                switch (pregunta.getTipoPregunta()) {
+                    case ESCALA -> detalles.add(new RespuestaRegistradaEvent.Detalle(
+                            pregunta.getIdPregunta(), null, 1 + random.nextInt(10)));
+                    case MULTIPLE -> {
+                        for (Opcion opcion : opciones) {
+                            if (random.nextInt(3) == 0) {
+                                detalles.add(new RespuestaRegistradaEvent.Detalle(
+                                        pregunta.getIdPregunta(), opcion.getIdOpcion(), null));
+                            }
+                        }
+                    }
+                    default -> detalles.add(new RespuestaRegistradaEvent.Detalle(pregunta.getIdPregunta(),
+                            opciones.get(random.nextInt(opciones.size())).getIdOpcion(), null));
+                }
+            }
+            eventos.add(new RespuestaRegistradaEvent(encuesta.getIdEncuesta(), i,
+                    ahora.minusMinutes(random.nextInt(60 * 24 * 60)), detalles, random.nextInt(50) == 0 ? 1 : 0));
+        }
+        return eventos;
+    }
+
+    private static String elegir(SplittableRandom random, String[] valores) {
+        return valores[random.nextInt(valores.length)];
+    }
+}
@@ -0,0 +1,71 @@
+package pe.unmsm.crm.marketing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pe.unmsm.crm.marketing.shared.services.HtmlTemplateService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reemplazo de placeholders de HtmlTemplateService sobre una plantilla con
+ * {@code tamanio} filas de tabla (cada fila referencia los 20 campos del mapa).
+ *
+ * {@code reemplazarPlaceholders} mide solo el método privado replacePlaceholders;
+ * {@code procesarPlantilla} incluye la normalización XHTML con Jsoup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HtmlTemplateBenchmark {
+
+    private static final int CAMPOS = 20;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int tamanio;
+
+    private final HtmlTemplateService service = new HtmlTemplateService();
+    private MethodHandle replacePlaceholders;
+    private String plantilla;
+    private Map<String, Object> datos;
+
+    @Setup(Level.Trial)
+    public void preparar() throws ReflectiveOperationException {
+        Method metodo = HtmlTemplateService.class.getDeclaredMethod("replacePlaceholders", String.class, Map.class);
+        metodo.setAccessible(true);
+        replacePlaceholders = MethodHandles.lookup().unreflect(metodo);
+
+        StringBuilder html = new StringBuilder(tamanio * 64)
+                .append("<html><head><title>{{titulo}}</title></head><body><h1>{{titulo}}</h1><table>");
+        for (int fila = 0; fila < tamanio; fila++) {
+            html.append("<tr><td>").append(fila).append("</td><td>{{campo").append(fila % CAMPOS)
+                    .append("}}</td></tr>");
+        }
+        plantilla = html.append("</table><p>{{fechaGeneracion}}</p></body></html>").toString();
+
+        datos = new LinkedHashMap<>();
+        datos.put("titulo", "Reporte benchmark");
+        datos.put("fechaGeneracion", LocalDateTime.of(2024, 6, 11, 10, 30));
+        for (int i = 0; i < CAMPOS; i++) {
+            datos.put("campo" + i, i % 3 == 0 ? LocalDate.of(2024, 1, 1).plusDays(i) : "valor " + i);
+        }
+    }
+
+    @Benchmark
+    public String reemplazarPlaceholders() throws Throwable {
+        return (String) replacePlaceholders.invoke(service, plantilla, datos);
+    }
+
+    @Benchmark
+    public String procesarPlantilla() {
+        return service.processTemplateFromString(plantilla, datos);
+    }
+}
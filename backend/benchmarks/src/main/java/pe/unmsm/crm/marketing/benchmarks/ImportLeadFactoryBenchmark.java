@@ -0,0 +1,82 @@
+package pe.unmsm.crm.marketing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pe.unmsm.crm.marketing.leads.domain.factory.ImportLeadFactory;
+import pe.unmsm.crm.marketing.leads.domain.model.staging.RegistroImportado;
+import pe.unmsm.crm.marketing.shared.application.service.UbigeoService;
+import pe.unmsm.crm.marketing.shared.domain.model.Departamento;
+import pe.unmsm.crm.marketing.shared.domain.model.Distrito;
+import pe.unmsm.crm.marketing.shared.domain.model.Provincia;
+import pe.unmsm.crm.marketing.shared.domain.repository.DistritoRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión de registros de staging a Lead (ImportLeadFactory.convertirALead):
+ * parseo del JSON, resolución de ubigeo y armado de value objects. El índice
+ * de ubigeo se arma con distritos sintéticos (el repositorio solo responde la
+ * carga inicial), así se mide el costo de CPU y no el de la BD. Cada operación convierte {@code tamanio}
+ * registros.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ImportLeadFactoryBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int tamanio;
+
+    private ImportLeadFactory factory;
+    private List<RegistroImportado> registros;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Map<String, Departamento> departamentos = new HashMap<>();
+        Map<String, Provincia> provincias = new HashMap<>();
+        List<Distrito> lista = new ArrayList<>();
+        for (int i = 0; i < DatosSinteticos.DISTRITOS.length; i++) {
+            String nombreDep = DatosSinteticos.DEPARTAMENTOS[i % DatosSinteticos.DEPARTAMENTOS.length];
+            String nombreProv = DatosSinteticos.PROVINCIAS[i % DatosSinteticos.PROVINCIAS.length];
+            Departamento departamento = departamentos.computeIfAbsent(nombreDep, nombre -> {
+                Departamento dep = new Departamento();
+                dep.setId(String.format("%02d", departamentos.size() + 1));
+                dep.setNombre(nombre);
+                return dep;
+            });
+            Provincia provincia = provincias.computeIfAbsent(nombreProv + "|" + nombreDep, clave -> {
+                Provincia prov = new Provincia();
+                prov.setId(String.format("%04d", provincias.size() + 1));
+                prov.setNombre(nombreProv);
+                prov.setDepartamento(departamento);
+                return prov;
+            });
+
+            Distrito distrito = new Distrito();
+            distrito.setId(DatosSinteticos.distritoId(i));
+            distrito.setNombre(DatosSinteticos.DISTRITOS[i]);
+            distrito.setProvincia(provincia);
+            lista.add(distrito);
+        }
+
+        DistritoRepository distritos = Stubs.de(DistritoRepository.class, Map.of(
+                "findAllConProvinciaYDepartamento", args -> lista));
+
+        factory = new ImportLeadFactory(new UbigeoService(distritos));
+        registros = DatosSinteticos.registrosImportados(tamanio);
+    }
+
+    @Benchmark
+    public void convertirALead(Blackhole bh) {
+        for (RegistroImportado registro : registros) {
+            bh.consume(factory.convertirALead(registro));
+        }
+    }
+}
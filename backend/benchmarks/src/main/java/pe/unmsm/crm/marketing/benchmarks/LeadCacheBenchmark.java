@@ -0,0 +1,70 @@
+package pe.unmsm.crm.marketing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.Segmento;
+import pe.unmsm.crm.marketing.segmentacion.infra.cache.LeadCacheService;
+import pe.unmsm.crm.marketing.segmentacion.infra.dto.LeadIntegrationResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluación en memoria de las reglas de un segmento sobre el caché de leads
+ * (LeadCacheService.filterLeadsBySegment / countLeadsBySegment).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LeadCacheBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int tamanio;
+
+    private LeadCacheService leadCacheService;
+    private Segmento segmento;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        List<LeadIntegrationResponse> leads = DatosSinteticos.leads(tamanio);
+        leadCacheService = new LeadCacheService(new RestTemplateFijo(leads));
+        leadCacheService.refreshCache();
+        segmento = DatosSinteticos.segmentoTipico();
+    }
+
+    @Benchmark
+    public List<Long> filtrarPorSegmento() {
+        return leadCacheService.filterLeadsBySegment(segmento);
+    }
+
+    @Benchmark
+    public long contarPorSegmento() {
+        return leadCacheService.countLeadsBySegment(segmento);
+    }
+
+    /**
+     * Responde la carga completa del caché sin HTTP.
+     */
+    static final class RestTemplateFijo extends RestTemplate {
+
+        private final List<LeadIntegrationResponse> leads;
+
+        RestTemplateFijo(List<LeadIntegrationResponse> leads) {
+            this.leads = leads;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+                ParameterizedTypeReference<T> responseType, Object... uriVariables) {
+            return (ResponseEntity<T>) ResponseEntity.ok(leads);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package pe.unmsm.crm.marketing.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.Segmento;
+import pe.unmsm.crm.marketing.segmentacion.domain.visitor.SqlExportVisitor;
+import pe.unmsm.crm.marketing.segmentacion.infra.query.SegmentoSqlGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación de SQL de segmentos: el visitor SqlExportVisitor sobre el árbol
+ * de reglas y la consulta completa de SegmentoSqlGenerator. Cada operación
+ * procesa {@code tamanio} segmentos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SegmentoSqlBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int tamanio;
+
+    private List<Segmento> segmentos;
+    private final SegmentoSqlGenerator generator = new SegmentoSqlGenerator();
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        segmentos = DatosSinteticos.segmentos(tamanio);
+    }
+
+    @Benchmark
+    public void visitor(Blackhole bh) {
+        SqlExportVisitor visitor = new SqlExportVisitor();
+        for (Segmento segmento : segmentos) {
+            bh.consume(segmento.getReglaPrincipal().accept(visitor));
+        }
+    }
+
+    @Benchmark
+    public void generarSql(Blackhole bh) {
+        for (Segmento segmento : segmentos) {
+            bh.consume(generator.generarSql(segmento));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package pe.unmsm.crm.marketing.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Implementaciones mínimas de interfaces (repositorios Spring Data) para
+ * ejecutar los servicios sin contexto Spring ni BD. Solo responden los
+ * métodos indicados; cualquier otro falla para no medir algo inesperado.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    static <T> T de(Class<T> tipo, Map<String, Function<Object[], Object>> respuestas) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo },
+                (proxy, method, args) -> {
+                    Function<Object[], Object> respuesta = respuestas.get(method.getName());
+                    if (respuesta != null) {
+                        return respuesta.apply(args);
+                    }
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Stub[" + tipo.getSimpleName() + "]";
+                        default:
+                            throw new UnsupportedOperationException(
+                                    tipo.getSimpleName() + "." + method.getName() + " no soportado en el benchmark");
+                    }
+                }));
+    }
+}
@@ -5,34 +5,34 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Encuesta;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Pregunta;
-import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.RespuestaEncuesta;
-import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Respuesta_Detalle;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.EncuestaRepository;
-import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.RespuestaEncuestaRepository;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.strategy.*;
+import pe.unmsm.crm.marketing.campanas.encuestas.infra.analytics.EncuestaAgregadoStore;
 
+import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Analítica de encuestas servida desde los agregados pre-calculados de
+ * EncuestaAgregadoStore: ninguna consulta materializa respuestas ni detalles.
+ */
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
-    private final RespuestaEncuestaRepository respuestaEncuestaRepository;
+    private final EncuestaAgregadoStore agregadoStore;
     private final EncuestaRepository encuestaRepository;
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getTendenciaRespuestas(Integer idEncuesta) {
-        List<Object[]> resultados = respuestaEncuestaRepository.countRespuestasByFecha(idEncuesta);
-
-        return resultados.stream()
-                .map(obj -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("fecha", obj[0].toString());
-                    map.put("cantidad", obj[1]);
-                    return map;
-                })
-                .collect(Collectors.toList());
+        List<Map<String, Object>> tendencia = new ArrayList<>();
+        agregadoStore.respuestasPorDia(idEncuesta).forEach((fecha, cantidad) -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put("fecha", fecha.toString());
+            map.put("cantidad", cantidad);
+            tendencia.add(map);
+        });
+        return tendencia;
     }
 
     @Transactional(readOnly = true)
@@ -40,88 +40,50 @@ public class AnalyticsService {
         Encuesta encuesta = encuestaRepository.findById(idEncuesta)
                 .orElseThrow(() -> new IllegalArgumentException("Encuesta no encontrada con ID: " + idEncuesta));
 
-        List<RespuestaEncuesta> respuestasEncuesta;
-
-        if (rango == null || rango.equals("all")) {
-            respuestasEncuesta = respuestaEncuestaRepository.findByEncuesta_IdEncuesta(idEncuesta);
-        } else {
-            java.time.LocalDateTime fechaInicio = java.time.LocalDateTime.now();
-            switch (rango) {
-                case "7d":
-                    fechaInicio = fechaInicio.minusDays(7);
-                    break;
-                case "14d":
-                    fechaInicio = fechaInicio.minusDays(14);
-                    break;
-                case "28d":
-                    fechaInicio = fechaInicio.minusDays(28);
-                    break;
-                default:
-                    respuestasEncuesta = respuestaEncuestaRepository.findByEncuesta_IdEncuesta(idEncuesta);
-                    return processIndicadores(encuesta, respuestasEncuesta);
-            }
-            respuestasEncuesta = respuestaEncuestaRepository.findByEncuesta_IdEncuestaAndFechaRespuestaAfter(idEncuesta,
-                    fechaInicio);
-        }
-
-        return processIndicadores(encuesta, respuestasEncuesta);
+        EncuestaAgregadoStore.BucketAgregado agregado = agregadoStore.rango(idEncuesta, fechaInicio(rango));
+        return processIndicadores(encuesta, agregado);
     }
 
     @Transactional(readOnly = true)
     public pe.unmsm.crm.marketing.campanas.encuestas.api.dto.AnalyticsSummaryDto getResumen(Integer idEncuesta,
             String rango) {
-        long totalRespuestas;
-        long alertasUrgentes;
-
-        if (rango == null || rango.equals("all")) {
-            List<RespuestaEncuesta> respuestas = respuestaEncuestaRepository.findByEncuesta_IdEncuesta(idEncuesta);
-            totalRespuestas = respuestas.size();
-            alertasUrgentes = respuestaEncuestaRepository.countAlertasUrgentes(idEncuesta);
-        } else {
-            java.time.LocalDateTime fechaInicio = java.time.LocalDateTime.now();
-            switch (rango) {
-                case "7d":
-                    fechaInicio = fechaInicio.minusDays(7);
-                    break;
-                case "14d":
-                    fechaInicio = fechaInicio.minusDays(14);
-                    break;
-                case "28d":
-                    fechaInicio = fechaInicio.minusDays(28);
-                    break;
-                default:
-                    fechaInicio = java.time.LocalDateTime.now().minusYears(100);
-            }
-            List<RespuestaEncuesta> respuestas = respuestaEncuestaRepository
-                    .findByEncuesta_IdEncuestaAndFechaRespuestaAfter(idEncuesta, fechaInicio);
-            totalRespuestas = respuestas.size();
-            alertasUrgentes = respuestaEncuestaRepository.countAlertasUrgentesAfter(idEncuesta, fechaInicio);
-        }
+        EncuestaAgregadoStore.BucketAgregado agregado = agregadoStore.rango(idEncuesta, fechaInicio(rango));
 
         return pe.unmsm.crm.marketing.campanas.encuestas.api.dto.AnalyticsSummaryDto.builder()
-                .totalRespuestas(totalRespuestas)
-                .alertasUrgentes(alertasUrgentes)
+                .totalRespuestas(agregado.getRespuestas())
+                .alertasUrgentes(agregado.getAlertasUrgentes())
                 .build();
     }
 
-    private List<AnalisisResultadoDto> processIndicadores(Encuesta encuesta,
-            List<RespuestaEncuesta> respuestasEncuesta) {
-        // Aplanar todos los detalles de todas las respuestas
-        List<Respuesta_Detalle> todosDetalles = respuestasEncuesta.stream()
-                .flatMap(r -> r.getDetalles().stream())
-                .collect(Collectors.toList());
+    /**
+     * Primer día incluido en el rango (null = todas las respuestas)
+     */
+    private LocalDate fechaInicio(String rango) {
+        if (rango == null) {
+            return null;
+        }
+        LocalDate hoy = LocalDate.now();
+        switch (rango) {
+            case "7d":
+                return hoy.minusDays(7);
+            case "14d":
+                return hoy.minusDays(14);
+            case "28d":
+                return hoy.minusDays(28);
+            default:
+                return null;
+        }
+    }
 
+    private List<AnalisisResultadoDto> processIndicadores(Encuesta encuesta,
+            EncuestaAgregadoStore.BucketAgregado agregado) {
         List<AnalisisResultadoDto> resultados = new ArrayList<>();
 
         for (Pregunta pregunta : encuesta.getPreguntas()) {
-            // Filtrar respuestas para esta pregunta específica
-            List<Respuesta_Detalle> respuestasPregunta = todosDetalles.stream()
-                    .filter(d -> d.getPregunta().getIdPregunta().equals(pregunta.getIdPregunta()))
-                    .collect(Collectors.toList());
-
             ICalculoIndicador strategy = getStrategy(pregunta.getTipoPregunta());
             if (strategy != null) {
-                AnalisisResultadoDto resultado = strategy.calcular(pregunta, respuestasPregunta);
+                AnalisisResultadoDto resultado = strategy.calcular(pregunta,
+                        agregado.getEstadistica(pregunta.getIdPregunta()));
                 // Enriquecer el DTO con información de la pregunta
                 resultado.setEtiqueta(pregunta.getTextoPregunta());
                 resultados.add(resultado);
@@ -1,6 +1,7 @@
 package pe.unmsm.crm.marketing.campanas.encuestas.application.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.unmsm.crm.marketing.campanas.encuestas.api.dto.CreateEncuestaDto;
@@ -8,6 +9,7 @@ import pe.unmsm.crm.marketing.campanas.encuestas.api.dto.EncuestaCompletaDto;
 import pe.unmsm.crm.marketing.campanas.encuestas.api.dto.EncuestaDto;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.builder.EncuestaBuilder;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Encuesta;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.EncuestaModificadaEvent;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.EncuestaRepository;
 import pe.unmsm.crm.marketing.shared.logging.AccionLog;
 import pe.unmsm.crm.marketing.shared.logging.AuditoriaService;
@@ -32,6 +34,9 @@ public class EncuestaService {
         @Autowired
         private UserAuthorizationService userAuthorizationService;
 
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
         @Transactional
         public void archivarEncuesta(Integer id) {
                 Encuesta encuesta = encuestaRepository.findById(id)
@@ -54,6 +59,9 @@ public class EncuestaService {
                 encuesta.setEstado(Encuesta.EstadoEncuesta.ARCHIVADA);
                 encuestaRepository.save(encuesta);
 
+                // Invalidar la definición cacheada (tras el commit)
+                eventPublisher.publishEvent(new EncuestaModificadaEvent(encuesta.getIdEncuesta()));
+
                 // AUDITORÍA: Registrar cambio de estado
                 auditoriaService.registrarEvento(
                                 ModuloLog.ENCUESTAS,
@@ -137,6 +145,9 @@ public class EncuestaService {
 
                 Encuesta saved = encuestaRepository.save(encuesta);
 
+                // Invalidar la definición cacheada (tras el commit)
+                eventPublisher.publishEvent(new EncuestaModificadaEvent(saved.getIdEncuesta()));
+
                 // AUDITORÍA: Registrar actualización
                 auditoriaService.registrarEvento(
                                 ModuloLog.ENCUESTAS,
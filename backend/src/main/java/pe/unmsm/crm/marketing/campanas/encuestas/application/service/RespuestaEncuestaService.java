@@ -1,90 +1,73 @@
 package pe.unmsm.crm.marketing.campanas.encuestas.application.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import pe.unmsm.crm.marketing.campanas.encuestas.api.dto.RegistrarRespuestaDto;
 import pe.unmsm.crm.marketing.campanas.encuestas.api.dto.RespuestaDetalleDto;
 import pe.unmsm.crm.marketing.campanas.encuestas.api.dto.RespuestaRegistradaDto;
-import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.AlertaUrgenteDetectadaEvent;
-import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.*;
-import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.EncuestaRepository;
-import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.RespuestaEncuestaRepository;
-import pe.unmsm.crm.marketing.leads.domain.model.Lead;
-import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.EncuestaDefinicion;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Pregunta;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.RespuestaRegistradaEvent;
+import pe.unmsm.crm.marketing.campanas.encuestas.infra.cache.EncuestaDefinicionCache;
+import pe.unmsm.crm.marketing.campanas.encuestas.infra.persistence.RespuestaEncuestaBatchWriter;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+/**
+ * Registro público de respuestas de encuesta.
+ *
+ * La validación se hace contra la definición cacheada de la encuesta (sin
+ * consultas) y la escritura pasa por RespuestaEncuestaBatchWriter. La
+ * duplicidad (un lead, una respuesta por encuesta) la garantiza la restricción
+ * uk_respuesta_encuesta_lead, no una pre-consulta.
+ */
 @Service
 @RequiredArgsConstructor
 public class RespuestaEncuestaService {
 
-    private final RespuestaEncuestaRepository respuestaEncuestaRepository;
-    private final EncuestaRepository encuestaRepository;
-    private final LeadRepository leadRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final EncuestaDefinicionCache definicionCache;
+    private final RespuestaEncuestaBatchWriter batchWriter;
 
-    @Transactional
     public RespuestaRegistradaDto registrarRespuesta(RegistrarRespuestaDto dto) {
-        // 1. Validar que el lead existe
-        Lead lead = leadRepository.findById(dto.getLeadId())
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Lead no encontrado con ID: " + dto.getLeadId()));
-
-        // 2. Validar que la encuesta existe
-        Encuesta encuesta = encuestaRepository.findById(dto.getIdEncuesta())
+        // 1. Obtener la definición de la encuesta (caché)
+        EncuestaDefinicion encuesta = definicionCache.obtener(dto.getIdEncuesta())
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Encuesta no encontrada con ID: " + dto.getIdEncuesta()));
 
-        // 3. Validar que la encuesta está ACTIVA
-        if (encuesta.getEstado() != Encuesta.EstadoEncuesta.ACTIVA) {
+        // 2. Validar que la encuesta está ACTIVA
+        if (!encuesta.estaActiva()) {
             throw new IllegalStateException(
                     "La encuesta no está disponible. Solo se pueden responder encuestas activas.");
         }
 
-        // 4. Validar que el lead no ha respondido previamente
-        if (respuestaEncuestaRepository.existsByLeadAndEncuesta(dto.getLeadId(), dto.getIdEncuesta())) {
-            throw new IllegalStateException(
-                    "Ya has respondido esta encuesta anteriormente.");
-        }
-
-        // 5. Validar que todas las preguntas fueron respondidas
+        // 3. Validar que todas las preguntas fueron respondidas
         Set<Integer> preguntasRespondidas = new HashSet<>();
         for (RespuestaDetalleDto respuesta : dto.getRespuestas()) {
             preguntasRespondidas.add(respuesta.getIdPregunta());
         }
 
-        int totalPreguntas = encuesta.getPreguntas().size();
+        int totalPreguntas = encuesta.getTotalPreguntas();
         if (preguntasRespondidas.size() != totalPreguntas) {
             throw new IllegalArgumentException(
                     "Debe responder todas las preguntas de la encuesta. " +
                             "Preguntas totales: " + totalPreguntas + ", Respondidas: " + preguntasRespondidas.size());
         }
 
-        // 6. Crear la respuesta de encuesta
-        RespuestaEncuesta respuestaEncuesta = new RespuestaEncuesta();
-        respuestaEncuesta.setEncuesta(encuesta);
-        respuestaEncuesta.setLead(lead);
-
-        // 7. Crear los detalles de respuesta
+        // 4. Validar los detalles contra la definición (búsqueda por id)
+        List<RespuestaRegistradaEvent.Detalle> detalles = new ArrayList<>(dto.getRespuestas().size());
+        long alertasUrgentes = 0;
         for (RespuestaDetalleDto detalleDto : dto.getRespuestas()) {
-            Respuesta_Detalle detalle = new Respuesta_Detalle();
-            detalle.setRespuestaEncuesta(respuestaEncuesta);
-
-            // Buscar la pregunta
-            Pregunta pregunta = encuesta.getPreguntas().stream()
-                    .filter(p -> p.getIdPregunta().equals(detalleDto.getIdPregunta()))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Pregunta no encontrada con ID: " + detalleDto.getIdPregunta()));
-
-            detalle.setPregunta(pregunta);
+            EncuestaDefinicion.PreguntaDefinicion pregunta = encuesta.getPregunta(detalleDto.getIdPregunta());
+            if (pregunta == null) {
+                throw new IllegalArgumentException("Pregunta no encontrada con ID: " + detalleDto.getIdPregunta());
+            }
 
+            Integer idOpcion = null;
             // Manejo específico según el tipo de pregunta
-            if (pregunta
-                    .getTipoPregunta() == pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Pregunta.TipoPregunta.ESCALA) {
+            if (pregunta.getTipoPregunta() == Pregunta.TipoPregunta.ESCALA) {
                 // Para preguntas de ESCALA: idOpcion debe ser null y valorRespuesta debe estar
                 // presente
                 if (detalleDto.getValorRespuesta() == null) {
@@ -92,52 +75,34 @@ public class RespuestaEncuestaService {
                             "Debe proporcionar una calificación para la pregunta de escala: "
                                     + pregunta.getTextoPregunta());
                 }
-                detalle.setValorRespuesta(detalleDto.getValorRespuesta());
             } else {
                 // Para otros tipos (UNICA, MULTIPLE): idOpcion es obligatorio
-                if (detalleDto.getIdOpcion() != null) {
-                    Opcion opcion = pregunta.getOpciones().stream()
-                            .filter(o -> o.getIdOpcion().equals(detalleDto.getIdOpcion()))
-                            .findFirst()
-                            .orElseThrow(() -> new IllegalArgumentException(
-                                    "Opción no encontrada con ID: " + detalleDto.getIdOpcion()));
-                    detalle.setOpcion(opcion);
-                } else {
-                    // Si no es escala y no tiene opción, podría ser un error dependiendo de la
-                    // lógica de negocio
-                    // Por ahora asumimos que preguntas no-escala requieren opción
+                if (detalleDto.getIdOpcion() == null) {
                     throw new IllegalArgumentException(
                             "Debe seleccionar una opción para la pregunta: " + pregunta.getTextoPregunta());
                 }
+                EncuestaDefinicion.OpcionDefinicion opcion = pregunta.getOpcion(detalleDto.getIdOpcion());
+                if (opcion == null) {
+                    throw new IllegalArgumentException("Opción no encontrada con ID: " + detalleDto.getIdOpcion());
+                }
+                idOpcion = opcion.getIdOpcion();
+                if (opcion.isAlertaUrgente()) {
+                    alertasUrgentes++;
+                }
             }
 
-            // Si hay valor de respuesta adicional (para casos mixtos si existieran),
-            // asignarlo
-            // Nota: Para ESCALA ya se asignó arriba, esto es redundante pero seguro
-            if (detalleDto.getValorRespuesta() != null && detalle.getValorRespuesta() == null) {
-                detalle.setValorRespuesta(detalleDto.getValorRespuesta());
-            }
-
-            respuestaEncuesta.getDetalles().add(detalle);
+            Integer valor = detalleDto.getValorRespuesta() != null ? detalleDto.getValorRespuesta().intValue() : null;
+            detalles.add(new RespuestaRegistradaEvent.Detalle(pregunta.getIdPregunta(), idOpcion, valor));
         }
 
-        // 8. Guardar la respuesta
-        RespuestaEncuesta respuestaGuardada = respuestaEncuestaRepository.save(respuestaEncuesta);
-
-        // 9. Verificar si hay opciones de alerta urgente y publicar evento
-        boolean tieneAlertaUrgente = respuestaGuardada.getDetalles().stream()
-                .filter(detalle -> detalle.getOpcion() != null)
-                .anyMatch(detalle -> Boolean.TRUE.equals(detalle.getOpcion().getEsAlertaUrgente()));
-
-        if (tieneAlertaUrgente) {
-            // Publicar evento - el servicio no sabe quién lo escucha (Observer Pattern)
-            eventPublisher.publishEvent(new AlertaUrgenteDetectadaEvent(dto.getLeadId(), dto.getIdEncuesta()));
-        }
+        // 5. Guardar la respuesta (lote) - publica los eventos de analítica y alerta urgente
+        RespuestaEncuestaBatchWriter.Registro registro = batchWriter.registrar(
+                encuesta.getIdEncuesta(), dto.getLeadId(), detalles, alertasUrgentes);
 
-        // 10. Retornar confirmación
+        // 6. Retornar confirmación
         return new RespuestaRegistradaDto(
-                respuestaGuardada.getIdRespuestaEncuesta(),
+                registro.getIdRespuestaEncuesta(),
                 "Respuesta registrada exitosamente. ¡Gracias por tu participación!",
-                respuestaGuardada.getFechaRespuesta());
+                registro.getFechaRespuesta());
     }
 }
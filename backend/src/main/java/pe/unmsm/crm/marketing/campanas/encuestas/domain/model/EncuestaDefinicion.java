@@ -0,0 +1,93 @@
+package pe.unmsm.crm.marketing.campanas.encuestas.domain.model;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Definición inmutable de una encuesta (preguntas y opciones indexadas por id).
+ *
+ * Es una copia desacoplada de la entidad JPA: se puede compartir entre hilos
+ * sin sesión abierta. La versión es la fecha_modificacion de la encuesta, así
+ * que cualquier edición produce una definición nueva.
+ */
+@Getter
+public final class EncuestaDefinicion {
+
+    private final Integer idEncuesta;
+    private final Encuesta.EstadoEncuesta estado;
+    private final LocalDateTime version;
+    private final Map<Integer, PreguntaDefinicion> preguntas;
+
+    private EncuestaDefinicion(Encuesta encuesta) {
+        this.idEncuesta = encuesta.getIdEncuesta();
+        this.estado = encuesta.getEstado();
+        this.version = encuesta.getFechaModificacion();
+
+        Map<Integer, PreguntaDefinicion> indice = new LinkedHashMap<>();
+        for (Pregunta pregunta : encuesta.getPreguntas()) {
+            indice.put(pregunta.getIdPregunta(), new PreguntaDefinicion(pregunta));
+        }
+        this.preguntas = Collections.unmodifiableMap(indice);
+    }
+
+    /**
+     * Copia la entidad; debe llamarse con la sesión abierta (preguntas y opciones son LAZY)
+     */
+    public static EncuestaDefinicion desde(Encuesta encuesta) {
+        return new EncuestaDefinicion(encuesta);
+    }
+
+    public boolean estaActiva() {
+        return estado == Encuesta.EstadoEncuesta.ACTIVA;
+    }
+
+    public PreguntaDefinicion getPregunta(Integer idPregunta) {
+        return preguntas.get(idPregunta);
+    }
+
+    public int getTotalPreguntas() {
+        return preguntas.size();
+    }
+
+    @Getter
+    public static final class PreguntaDefinicion {
+
+        private final Integer idPregunta;
+        private final String textoPregunta;
+        private final Pregunta.TipoPregunta tipoPregunta;
+        private final Map<Integer, OpcionDefinicion> opciones;
+
+        private PreguntaDefinicion(Pregunta pregunta) {
+            this.idPregunta = pregunta.getIdPregunta();
+            this.textoPregunta = pregunta.getTextoPregunta();
+            this.tipoPregunta = pregunta.getTipoPregunta();
+
+            Map<Integer, OpcionDefinicion> indice = new LinkedHashMap<>();
+            for (Opcion opcion : pregunta.getOpciones()) {
+                indice.put(opcion.getIdOpcion(), new OpcionDefinicion(
+                        opcion.getIdOpcion(), Boolean.TRUE.equals(opcion.getEsAlertaUrgente())));
+            }
+            this.opciones = Collections.unmodifiableMap(indice);
+        }
+
+        public OpcionDefinicion getOpcion(Integer idOpcion) {
+            return opciones.get(idOpcion);
+        }
+    }
+
+    @Getter
+    public static final class OpcionDefinicion {
+
+        private final Integer idOpcion;
+        private final boolean alertaUrgente;
+
+        private OpcionDefinicion(Integer idOpcion, boolean alertaUrgente) {
+            this.idOpcion = idOpcion;
+            this.alertaUrgente = alertaUrgente;
+        }
+    }
+}
@@ -9,7 +9,9 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "Respuesta_Encuesta")
+@Table(name = "Respuesta_Encuesta", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_respuesta_encuesta_lead", columnNames = { "id_encuesta", "lead_id" })
+})
 public class RespuestaEncuesta {
 
     @Id
@@ -7,9 +7,11 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.client.RestTemplate;
+import pe.unmsm.crm.marketing.shared.config.AsyncConfig;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -45,9 +47,13 @@ public class AlertaUrgenteEventListener {
      * Usa @TransactionalEventListener para ejecutarse después del commit de la
      * transacción,
      * garantizando que la respuesta ya está guardada en la BD antes de notificar.
+     * La llamada HTTP corre en el ejecutor de IO: el commit lo hace el hilo del
+     * escritor por lotes de respuestas y un telemarketing lento no debe frenar
+     * al resto de encuestas encoladas.
      * 
      * @param event Evento con información del lead y encuesta
      */
+    @Async(AsyncConfig.EJECUTOR_IO)
     @TransactionalEventListener
     public void handleAlertaUrgenteDetectada(AlertaUrgenteDetectadaEvent event) {
         log.info("Evento recibido: {}", event);
@@ -0,0 +1,25 @@
+package pe.unmsm.crm.marketing.campanas.encuestas.domain.observer;
+
+import lombok.Getter;
+
+/**
+ * Evento que se publica cuando se edita o archiva una encuesta.
+ * Implementa el patrón Observer mediante Spring Events.
+ *
+ * Lo consumen EncuestaDefinicionCache, para descartar la definición cacheada,
+ * y EncuestaAgregadoStore, para descartar los agregados de analítica.
+ */
+@Getter
+public class EncuestaModificadaEvent {
+
+    private final Integer idEncuesta;
+
+    public EncuestaModificadaEvent(Integer idEncuesta) {
+        this.idEncuesta = idEncuesta;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EncuestaModificadaEvent[idEncuesta=%d]", idEncuesta);
+    }
+}
@@ -0,0 +1,56 @@
+package pe.unmsm.crm.marketing.campanas.encuestas.domain.observer;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Evento que se publica cuando se registra una respuesta de encuesta.
+ * Implementa el patrón Observer mediante Spring Events.
+ *
+ * Lleva solo los datos planos de los detalles (sin entidades) para que los
+ * listeners que corren después del commit no dependan de la sesión JPA.
+ * Lo consume EncuestaAgregadoStore para actualizar los contadores de analítica.
+ */
+@Getter
+public class RespuestaRegistradaEvent {
+
+    private final Integer idEncuesta;
+    private final Integer idRespuestaEncuesta;
+    private final LocalDateTime fechaRespuesta;
+    private final List<Detalle> detalles;
+    private final long alertasUrgentes;
+
+    public RespuestaRegistradaEvent(Integer idEncuesta, Integer idRespuestaEncuesta, LocalDateTime fechaRespuesta,
+            List<Detalle> detalles, long alertasUrgentes) {
+        this.idEncuesta = idEncuesta;
+        this.idRespuestaEncuesta = idRespuestaEncuesta;
+        this.fechaRespuesta = fechaRespuesta;
+        this.detalles = List.copyOf(detalles);
+        this.alertasUrgentes = alertasUrgentes;
+    }
+
+    /**
+     * Detalle respondido: opción (UNICA / MULTIPLE) o valor (ESCALA)
+     */
+    @Getter
+    public static class Detalle {
+
+        private final Integer idPregunta;
+        private final Integer idOpcion;
+        private final Integer valor;
+
+        public Detalle(Integer idPregunta, Integer idOpcion, Integer valor) {
+            this.idPregunta = idPregunta;
+            this.idOpcion = idOpcion;
+            this.valor = valor;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RespuestaRegistradaEvent[idEncuesta=%d, idRespuestaEncuesta=%d, detalles=%d]",
+                idEncuesta, idRespuestaEncuesta, detalles.size());
+    }
+}
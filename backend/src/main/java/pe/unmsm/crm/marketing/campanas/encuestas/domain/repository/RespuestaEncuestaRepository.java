@@ -61,4 +61,49 @@ public interface RespuestaEncuestaRepository extends JpaRepository<RespuestaEncu
         @Query("SELECT COUNT(rd) FROM RespuestaEncuesta re JOIN re.detalles rd JOIN rd.opcion o WHERE re.encuesta.idEncuesta = :idEncuesta AND o.esAlertaUrgente = true AND re.fechaRespuesta >= :fechaInicio")
         Long countAlertasUrgentesAfter(@Param("idEncuesta") Integer idEncuesta,
                         @Param("fechaInicio") java.time.LocalDateTime fechaInicio);
+
+        // ========================================================================
+        // AGREGADOS PARA ANALÍTICA (EncuestaAgregadoStore)
+        // Todas acotadas por idRespuestaEncuesta <= :hasta para que la carga
+        // corresponda a una misma marca de agua.
+        // ========================================================================
+
+        @Query("SELECT MAX(r.idRespuestaEncuesta) FROM RespuestaEncuesta r WHERE r.encuesta.idEncuesta = :idEncuesta")
+        Integer findMaxIdRespuesta(@Param("idEncuesta") Integer idEncuesta);
+
+        /**
+         * Detalles agrupados por día, pregunta, opción y valor:
+         * [fecha, idPregunta, idOpcion, valor, cantidad]
+         */
+        @Query("SELECT DATE(re.fechaRespuesta), p.idPregunta, o.idOpcion, rd.valorRespuesta, COUNT(rd) " +
+                        "FROM RespuestaEncuesta re JOIN re.detalles rd JOIN rd.pregunta p LEFT JOIN rd.opcion o " +
+                        "WHERE re.encuesta.idEncuesta = :idEncuesta AND re.idRespuestaEncuesta <= :hasta " +
+                        "GROUP BY DATE(re.fechaRespuesta), p.idPregunta, o.idOpcion, rd.valorRespuesta")
+        List<Object[]> agregarDetallesPorDia(@Param("idEncuesta") Integer idEncuesta, @Param("hasta") Integer hasta);
+
+        /**
+         * Respondentes únicos por día y pregunta: [fecha, idPregunta, cantidad]
+         */
+        @Query("SELECT DATE(re.fechaRespuesta), p.idPregunta, COUNT(DISTINCT re.idRespuestaEncuesta) " +
+                        "FROM RespuestaEncuesta re JOIN re.detalles rd JOIN rd.pregunta p " +
+                        "WHERE re.encuesta.idEncuesta = :idEncuesta AND re.idRespuestaEncuesta <= :hasta " +
+                        "GROUP BY DATE(re.fechaRespuesta), p.idPregunta")
+        List<Object[]> contarRespondentesPorDia(@Param("idEncuesta") Integer idEncuesta, @Param("hasta") Integer hasta);
+
+        /**
+         * Respuestas por día: [fecha, cantidad]
+         */
+        @Query("SELECT DATE(r.fechaRespuesta), COUNT(r) FROM RespuestaEncuesta r " +
+                        "WHERE r.encuesta.idEncuesta = :idEncuesta AND r.idRespuestaEncuesta <= :hasta " +
+                        "GROUP BY DATE(r.fechaRespuesta)")
+        List<Object[]> contarRespuestasPorDia(@Param("idEncuesta") Integer idEncuesta, @Param("hasta") Integer hasta);
+
+        /**
+         * Detalles con opción de alerta urgente por día: [fecha, cantidad]
+         */
+        @Query("SELECT DATE(re.fechaRespuesta), COUNT(rd) FROM RespuestaEncuesta re JOIN re.detalles rd JOIN rd.opcion o " +
+                        "WHERE re.encuesta.idEncuesta = :idEncuesta AND re.idRespuestaEncuesta <= :hasta " +
+                        "AND o.esAlertaUrgente = true " +
+                        "GROUP BY DATE(re.fechaRespuesta)")
+        List<Object[]> contarAlertasUrgentesPorDia(@Param("idEncuesta") Integer idEncuesta, @Param("hasta") Integer hasta);
 }
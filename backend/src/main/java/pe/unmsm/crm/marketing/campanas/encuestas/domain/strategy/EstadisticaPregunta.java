@@ -0,0 +1,85 @@
+package pe.unmsm.crm.marketing.campanas.encuestas.domain.strategy;
+
+import lombok.Getter;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Respuesta_Detalle;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Contadores pre-agregados de una pregunta.
+ *
+ * Sustituye a la lista de Respuesta_Detalle como entrada de las estrategias:
+ * - Conteo por opción (UNICA / MULTIPLE)
+ * - Suma, suma de cuadrados e histograma de valores (ESCALA)
+ * - Respondentes únicos (respuestas que contestaron la pregunta)
+ *
+ * Es acumulable: el total de un rango es la suma de sus buckets diarios.
+ * No es thread-safe; quien la contiene sincroniza el acceso.
+ */
+@Getter
+public class EstadisticaPregunta {
+
+    private long totalDetalles;
+    private long respondentesUnicos;
+    private final Map<Integer, Long> conteoPorOpcion = new HashMap<>();
+
+    private long escalaCantidad;
+    private long escalaSuma;
+    private long escalaSumaCuadrados;
+    private final Map<Integer, Long> histogramaEscala = new TreeMap<>();
+
+    /**
+     * Construye la estadística recorriendo detalles ya cargados
+     */
+    public static EstadisticaPregunta desdeDetalles(List<Respuesta_Detalle> detalles) {
+        EstadisticaPregunta estadistica = new EstadisticaPregunta();
+        if (detalles == null) {
+            return estadistica;
+        }
+        for (Respuesta_Detalle detalle : detalles) {
+            estadistica.registrarDetalle(
+                    detalle.getOpcion() != null ? detalle.getOpcion().getIdOpcion() : null,
+                    detalle.getValorRespuesta() != null ? (int) detalle.getValorRespuesta() : null,
+                    1);
+        }
+        estadistica.registrarRespondentes(detalles.stream()
+                .map(d -> d.getRespuestaEncuesta().getIdRespuestaEncuesta())
+                .distinct()
+                .count());
+        return estadistica;
+    }
+
+    public void registrarDetalle(Integer idOpcion, Integer valor, long cantidad) {
+        totalDetalles += cantidad;
+        if (idOpcion != null) {
+            conteoPorOpcion.merge(idOpcion, cantidad, Long::sum);
+        }
+        if (valor != null) {
+            escalaCantidad += cantidad;
+            escalaSuma += (long) valor * cantidad;
+            escalaSumaCuadrados += (long) valor * valor * cantidad;
+            histogramaEscala.merge(valor, cantidad, Long::sum);
+        }
+    }
+
+    public void registrarRespondentes(long cantidad) {
+        respondentesUnicos += cantidad;
+    }
+
+    public void acumular(EstadisticaPregunta otra) {
+        totalDetalles += otra.totalDetalles;
+        respondentesUnicos += otra.respondentesUnicos;
+        otra.conteoPorOpcion.forEach((k, v) -> conteoPorOpcion.merge(k, v, Long::sum));
+        escalaCantidad += otra.escalaCantidad;
+        escalaSuma += otra.escalaSuma;
+        escalaSumaCuadrados += otra.escalaSumaCuadrados;
+        otra.histogramaEscala.forEach((k, v) -> histogramaEscala.merge(k, v, Long::sum));
+    }
+
+    public long conteoOpcion(Integer idOpcion) {
+        return conteoPorOpcion.getOrDefault(idOpcion, 0L);
+    }
+}
@@ -7,13 +7,17 @@ import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Respuesta_Detalle;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class FrecuenciaSimpleStrategy implements ICalculoIndicador {
 
     @Override
     public AnalisisResultadoDto calcular(Pregunta pregunta, List<Respuesta_Detalle> respuestas) {
-        if (respuestas == null || respuestas.isEmpty()) {
+        return calcular(pregunta, EstadisticaPregunta.desdeDetalles(respuestas));
+    }
+
+    @Override
+    public AnalisisResultadoDto calcular(Pregunta pregunta, EstadisticaPregunta estadistica) {
+        if (estadistica.getTotalDetalles() == 0) {
             return AnalisisResultadoDto.builder()
                     .etiqueta("Sin respuestas")
                     .valor(0.0)
@@ -22,15 +26,14 @@ public class FrecuenciaSimpleStrategy implements ICalculoIndicador {
                     .build();
         }
 
-        long totalRespuestas = respuestas.size();
-        Map<String, Long> conteoPorOpcion = respuestas.stream()
-                .filter(r -> r.getOpcion() != null)
-                .collect(Collectors.groupingBy(r -> r.getOpcion().getTextoOpcion(), Collectors.counting()));
+        long totalRespuestas = estadistica.getTotalDetalles();
 
-        // Asegurar que todas las opciones de la pregunta estén presentes, incluso con 0
+        // Todas las opciones de la pregunta están presentes, incluso con 0
+        Map<String, Long> conteoPorOpcion = new HashMap<>();
         if (pregunta.getOpciones() != null) {
             for (Opcion opcion : pregunta.getOpciones()) {
-                conteoPorOpcion.putIfAbsent(opcion.getTextoOpcion(), 0L);
+                conteoPorOpcion.merge(opcion.getTextoOpcion(), estadistica.conteoOpcion(opcion.getIdOpcion()),
+                        Long::sum);
             }
         }
 
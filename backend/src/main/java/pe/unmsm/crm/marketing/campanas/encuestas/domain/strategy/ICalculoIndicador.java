@@ -7,4 +7,9 @@ import java.util.List;
 
 public interface ICalculoIndicador {
     AnalisisResultadoDto calcular(Pregunta pregunta, List<Respuesta_Detalle> respuestas);
+
+    /**
+     * Calcula el indicador a partir de contadores pre-agregados (sin recorrer detalles)
+     */
+    AnalisisResultadoDto calcular(Pregunta pregunta, EstadisticaPregunta estadistica);
 }
@@ -6,13 +6,17 @@ import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Respuesta_Detalle;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class PromedioStrategy implements ICalculoIndicador {
 
     @Override
     public AnalisisResultadoDto calcular(Pregunta pregunta, List<Respuesta_Detalle> respuestas) {
-        if (respuestas == null || respuestas.isEmpty()) {
+        return calcular(pregunta, EstadisticaPregunta.desdeDetalles(respuestas));
+    }
+
+    @Override
+    public AnalisisResultadoDto calcular(Pregunta pregunta, EstadisticaPregunta estadistica) {
+        if (estadistica.getTotalDetalles() == 0) {
             return AnalisisResultadoDto.builder()
                     .etiqueta("Sin respuestas")
                     .valor(0.0)
@@ -21,12 +25,8 @@ public class PromedioStrategy implements ICalculoIndicador {
                     .build();
         }
 
-        List<Integer> valores = respuestas.stream()
-                .filter(r -> r.getValorRespuesta() != null)
-                .map(r -> (int) r.getValorRespuesta())
-                .collect(Collectors.toList());
-
-        if (valores.isEmpty()) {
+        long cantidad = estadistica.getEscalaCantidad();
+        if (cantidad == 0) {
             return AnalisisResultadoDto.builder()
                     .etiqueta("Sin valores numéricos")
                     .valor(0.0)
@@ -35,29 +35,26 @@ public class PromedioStrategy implements ICalculoIndicador {
                     .build();
         }
 
-        double promedio = valores.stream().mapToInt(Integer::intValue).average().orElse(0.0);
+        double promedio = (double) estadistica.getEscalaSuma() / cantidad;
 
         // Calcular moda
-        Map<Integer, Long> frecuencias = valores.stream()
-                .collect(Collectors.groupingBy(v -> v, Collectors.counting()));
+        Map<Integer, Long> frecuencias = new HashMap<>(estadistica.getHistogramaEscala());
 
         int moda = frecuencias.entrySet().stream()
                 .max(Map.Entry.comparingByValue())
                 .map(Map.Entry::getKey)
                 .orElse(0);
 
-        // Calcular desviación estándar
-        double varianza = valores.stream()
-                .mapToDouble(v -> Math.pow(v - promedio, 2))
-                .average()
-                .orElse(0.0);
+        // Calcular desviación estándar (poblacional) desde suma y suma de cuadrados
+        double varianza = Math.max(0.0,
+                (double) estadistica.getEscalaSumaCuadrados() / cantidad - promedio * promedio);
         double desviacionEstandar = Math.sqrt(varianza);
 
         Map<String, Object> metadata = new HashMap<>();
         metadata.put("moda", moda);
         metadata.put("desviacionEstandar", desviacionEstandar);
         metadata.put("histograma", frecuencias);
-        metadata.put("totalRespuestas", valores.size());
+        metadata.put("totalRespuestas", (int) cantidad);
 
         return AnalisisResultadoDto.builder()
                 .etiqueta("Promedio")
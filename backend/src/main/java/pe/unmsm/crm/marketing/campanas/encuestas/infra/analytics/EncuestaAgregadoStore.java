@@ -0,0 +1,331 @@
+package pe.unmsm.crm.marketing.campanas.encuestas.infra.analytics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.EncuestaModificadaEvent;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.RespuestaRegistradaEvent;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.RespuestaEncuestaRepository;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.strategy.EstadisticaPregunta;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agregados de analítica por encuesta, actualizados de forma incremental.
+ *
+ * Por cada encuesta mantiene buckets diarios con:
+ * - Respuestas y alertas urgentes del día
+ * - Un EstadisticaPregunta por pregunta (conteo por opción, suma/histograma de escala,
+ *   respondentes únicos)
+ * Además de un bucket acumulado para el rango "all".
+ *
+ * CICLO DE VIDA:
+ * - Cada encuesta se carga bajo demanda con consultas GROUP BY (sin materializar
+ *   entidades), acotadas por una marca de agua (MAX id_respuesta_encuesta)
+ * - Tras el commit de cada respuesta se aplica el RespuestaRegistradaEvent si su
+ *   id supera la marca de agua y no se aplicó ya (evita contar dos veces lo ya
+ *   cargado). Los ids aplicados por encima de la marca se recuerdan uno a uno:
+ *   los commits, y por tanto los eventos, pueden llegar fuera de orden de id
+ * - Cada 15 minutos se reconstruyen las encuestas cargadas, corrigiendo cualquier
+ *   desfase (p. ej. una respuesta con id menor que la marca de agua que aún no
+ *   estaba confirmada al cargar)
+ * - Las consultas de carga corren fuera de las operaciones del mapa (no
+ *   bloquean otras encuestas ni los eventos). Al reemplazar, las respuestas que
+ *   el agregado anterior aplicó por encima de la nueva marca de agua se pasan
+ *   al nuevo, y un evento que llega al anterior ya retirado se reintenta
+ * - Al editar una encuesta (EncuestaModificadaEvent) se descartan sus agregados,
+ *   porque sus preguntas se reconstruyen
+ *
+ * Los rangos 7d/14d/28d se resuelven con granularidad de día: incluyen los
+ * buckets desde (hoy - N días), es decir, como máximo N + 1 buckets.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EncuestaAgregadoStore {
+
+    private final RespuestaEncuestaRepository respuestaEncuestaRepository;
+
+    private final Map<Integer, AgregadoEncuesta> agregados = new ConcurrentHashMap<>();
+
+    /**
+     * Acumula los buckets de la encuesta desde la fecha indicada (null = todo)
+     */
+    public BucketAgregado rango(Integer idEncuesta, LocalDate desde) {
+        return obtener(idEncuesta).rango(desde);
+    }
+
+    /**
+     * Respuestas por día, ordenadas por fecha ascendente
+     */
+    public SortedMap<LocalDate, Long> respuestasPorDia(Integer idEncuesta) {
+        return obtener(idEncuesta).respuestasPorDia();
+    }
+
+    /**
+     * Aplica la respuesta a los contadores una vez confirmada en la BD
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRespuestaRegistrada(RespuestaRegistradaEvent evento) {
+        try {
+            // Si la encuesta no estaba cargada, la carga ya incluye esta respuesta.
+            // Si el agregado se retiró al reconstruirse, se aplica al nuevo
+            while (!obtener(evento.getIdEncuesta()).aplicar(evento)) {
+                Thread.onSpinWait();
+            }
+        } catch (Exception e) {
+            // No afecta al registro de la respuesta: la reconstrucción periódica corrige
+            log.error("Error actualizando agregados de encuesta {}: {}", evento.getIdEncuesta(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEncuestaModificada(EncuestaModificadaEvent evento) {
+        invalidar(evento.getIdEncuesta());
+    }
+
+    /**
+     * Reconstruye las encuestas cargadas desde la BD
+     */
+    @Scheduled(fixedDelayString = "${app.encuestas.analytics.rebuild-ms:900000}",
+            initialDelayString = "${app.encuestas.analytics.rebuild-ms:900000}")
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        int total = 0;
+        for (Integer idEncuesta : new ArrayList<>(agregados.keySet())) {
+            try {
+                AgregadoEncuesta anterior = agregados.get(idEncuesta);
+                if (anterior == null) {
+                    continue;
+                }
+                if (anterior.reemplazarPor(cargar(idEncuesta), agregados, idEncuesta)) {
+                    total++;
+                }
+            } catch (Exception e) {
+                log.error("Error reconstruyendo agregados de encuesta {}: {}", idEncuesta, e.getMessage());
+            }
+        }
+        if (total > 0) {
+            log.debug("Agregados de analítica reconstruidos: {} encuestas en {}ms",
+                    total, System.currentTimeMillis() - inicio);
+        }
+    }
+
+    /**
+     * Descarta los agregados de una encuesta (se recargan en el siguiente acceso)
+     */
+    public void invalidar(Integer idEncuesta) {
+        agregados.remove(idEncuesta);
+    }
+
+    /**
+     * Agregado de la encuesta, cargándolo si hace falta. Dos cargas concurrentes
+     * de la misma encuesta pueden coincidir; se queda la primera.
+     */
+    private AgregadoEncuesta obtener(Integer idEncuesta) {
+        AgregadoEncuesta actual = agregados.get(idEncuesta);
+        if (actual != null) {
+            return actual;
+        }
+        AgregadoEncuesta cargado = cargar(idEncuesta);
+        AgregadoEncuesta previo = agregados.putIfAbsent(idEncuesta, cargado);
+        return previo != null ? previo : cargado;
+    }
+
+    private AgregadoEncuesta cargar(Integer idEncuesta) {
+        Integer marcaAgua = respuestaEncuestaRepository.findMaxIdRespuesta(idEncuesta);
+        AgregadoEncuesta agregado = new AgregadoEncuesta(marcaAgua != null ? marcaAgua : 0);
+        if (marcaAgua == null) {
+            return agregado;
+        }
+
+        for (Object[] fila : respuestaEncuestaRepository.contarRespuestasPorDia(idEncuesta, marcaAgua)) {
+            agregado.bucket(aFecha(fila[0])).respuestas += ((Number) fila[1]).longValue();
+        }
+        for (Object[] fila : respuestaEncuestaRepository.contarAlertasUrgentesPorDia(idEncuesta, marcaAgua)) {
+            agregado.bucket(aFecha(fila[0])).alertasUrgentes += ((Number) fila[1]).longValue();
+        }
+        for (Object[] fila : respuestaEncuestaRepository.agregarDetallesPorDia(idEncuesta, marcaAgua)) {
+            agregado.bucket(aFecha(fila[0]))
+                    .estadistica((Integer) fila[1])
+                    .registrarDetalle(
+                            (Integer) fila[2],
+                            fila[3] != null ? ((Number) fila[3]).intValue() : null,
+                            ((Number) fila[4]).longValue());
+        }
+        for (Object[] fila : respuestaEncuestaRepository.contarRespondentesPorDia(idEncuesta, marcaAgua)) {
+            agregado.bucket(aFecha(fila[0]))
+                    .estadistica((Integer) fila[1])
+                    .registrarRespondentes(((Number) fila[2]).longValue());
+        }
+
+        agregado.recalcularTotal();
+        log.debug("Agregados de encuesta {} cargados: {} días, marca de agua {}",
+                idEncuesta, agregado.buckets.size(), marcaAgua);
+        return agregado;
+    }
+
+    private static LocalDate aFecha(Object valor) {
+        if (valor instanceof LocalDate fecha) {
+            return fecha;
+        }
+        if (valor instanceof java.sql.Date fecha) {
+            return fecha.toLocalDate();
+        }
+        if (valor instanceof LocalDateTime fecha) {
+            return fecha.toLocalDate();
+        }
+        return LocalDate.parse(valor.toString());
+    }
+
+    /**
+     * Contadores de un día (o de un rango ya acumulado)
+     */
+    public static class BucketAgregado {
+
+        private long respuestas;
+        private long alertasUrgentes;
+        private final Map<Integer, EstadisticaPregunta> porPregunta = new HashMap<>();
+
+        public long getRespuestas() {
+            return respuestas;
+        }
+
+        public long getAlertasUrgentes() {
+            return alertasUrgentes;
+        }
+
+        /**
+         * Estadística de la pregunta (vacía si no tiene respuestas en el rango)
+         */
+        public EstadisticaPregunta getEstadistica(Integer idPregunta) {
+            return porPregunta.getOrDefault(idPregunta, new EstadisticaPregunta());
+        }
+
+        EstadisticaPregunta estadistica(Integer idPregunta) {
+            return porPregunta.computeIfAbsent(idPregunta, k -> new EstadisticaPregunta());
+        }
+
+        void acumular(BucketAgregado otro) {
+            respuestas += otro.respuestas;
+            alertasUrgentes += otro.alertasUrgentes;
+            otro.porPregunta.forEach((idPregunta, estadistica) -> estadistica(idPregunta).acumular(estadistica));
+        }
+    }
+
+    /**
+     * Buckets diarios de una encuesta. El acceso se sincroniza por encuesta.
+     */
+    static final class AgregadoEncuesta {
+
+        private final NavigableMap<LocalDate, BucketAgregado> buckets = new TreeMap<>();
+        private BucketAgregado total = new BucketAgregado();
+        // Todo id <= marcaAgua está incluido en la carga desde la BD
+        private final int marcaAgua;
+        // Respuestas por encima de la marca ya aplicadas, por id (se vacía en cada
+        // reconstrucción; se conservan para pasarlas al agregado que reemplaza a este)
+        private final Map<Integer, RespuestaRegistradaEvent> aplicadas = new HashMap<>();
+        private boolean retirado;
+
+        AgregadoEncuesta(int marcaAgua) {
+            this.marcaAgua = marcaAgua;
+        }
+
+        /**
+         * @return false si el agregado ya fue reemplazado (hay que aplicar el
+         *         evento al actual)
+         */
+        synchronized boolean aplicar(RespuestaRegistradaEvent evento) {
+            if (retirado) {
+                return false;
+            }
+            if (evento.getIdRespuestaEncuesta() <= marcaAgua
+                    || aplicadas.putIfAbsent(evento.getIdRespuestaEncuesta(), evento) != null) {
+                return true;
+            }
+
+            LocalDate fecha = evento.getFechaRespuesta() != null
+                    ? evento.getFechaRespuesta().toLocalDate()
+                    : LocalDate.now();
+            BucketAgregado bucket = bucket(fecha);
+            aplicar(bucket, evento);
+            aplicar(total, evento);
+            return true;
+        }
+
+        /**
+         * Publica {@code nuevo} en lugar de este agregado si sigue siendo el
+         * actual, pasándole las respuestas aplicadas aquí que su carga no
+         * incluye. Con el lock tomado ningún evento se aplica entre el traspaso
+         * y el reemplazo; los que esperaban el lock lo reintentan sobre el nuevo.
+         *
+         * @return false si la encuesta se invalidó o reemplazó mientras tanto
+         */
+        synchronized boolean reemplazarPor(AgregadoEncuesta nuevo, Map<Integer, AgregadoEncuesta> agregados,
+                Integer idEncuesta) {
+            if (retirado || agregados.get(idEncuesta) != this) {
+                return false;
+            }
+            aplicadas.values().forEach(nuevo::aplicar);
+            agregados.replace(idEncuesta, this, nuevo);
+            retirado = true;
+            return true;
+        }
+
+        synchronized BucketAgregado rango(LocalDate desde) {
+            BucketAgregado resultado = new BucketAgregado();
+            if (desde == null) {
+                resultado.acumular(total);
+            } else {
+                buckets.tailMap(desde, true).values().forEach(resultado::acumular);
+            }
+            return resultado;
+        }
+
+        synchronized SortedMap<LocalDate, Long> respuestasPorDia() {
+            SortedMap<LocalDate, Long> resultado = new TreeMap<>();
+            buckets.forEach((fecha, bucket) -> {
+                if (bucket.respuestas > 0) {
+                    resultado.put(fecha, bucket.respuestas);
+                }
+            });
+            return resultado;
+        }
+
+        BucketAgregado bucket(LocalDate fecha) {
+            return buckets.computeIfAbsent(fecha, k -> new BucketAgregado());
+        }
+
+        void recalcularTotal() {
+            total = new BucketAgregado();
+            buckets.values().forEach(total::acumular);
+        }
+
+        private static void aplicar(BucketAgregado bucket, RespuestaRegistradaEvent evento) {
+            bucket.respuestas++;
+            bucket.alertasUrgentes += evento.getAlertasUrgentes();
+
+            Set<Integer> preguntasVistas = new HashSet<>();
+            for (RespuestaRegistradaEvent.Detalle detalle : evento.getDetalles()) {
+                EstadisticaPregunta estadistica = bucket.estadistica(detalle.getIdPregunta());
+                estadistica.registrarDetalle(detalle.getIdOpcion(), detalle.getValor(), 1);
+                if (preguntasVistas.add(detalle.getIdPregunta())) {
+                    estadistica.registrarRespondentes(1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package pe.unmsm.crm.marketing.campanas.encuestas.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.EncuestaDefinicion;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.EncuestaModificadaEvent;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.EncuestaRepository;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de definiciones inmutables de encuestas para el registro público de respuestas.
+ *
+ * - Carga bajo demanda: una sola consulta por encuesta aunque lleguen miles de
+ *   envíos simultáneos (Caffeine bloquea la clave mientras carga)
+ * - Se invalida tras el commit de cada edición o archivado (EncuestaModificadaEvent);
+ *   una carga en curso durante la invalidación no queda en la caché
+ * - Las encuestas inexistentes no se cachean
+ */
+@Component
+@Slf4j
+public class EncuestaDefinicionCache {
+
+    private final EncuestaRepository encuestaRepository;
+    private final TransactionTemplate lecturaTx;
+
+    private final Cache<Integer, EncuestaDefinicion> definiciones = Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .recordStats()
+            .build();
+
+    public EncuestaDefinicionCache(EncuestaRepository encuestaRepository,
+            PlatformTransactionManager transactionManager) {
+        this.encuestaRepository = encuestaRepository;
+        this.lecturaTx = new TransactionTemplate(transactionManager);
+        this.lecturaTx.setReadOnly(true);
+    }
+
+    public Optional<EncuestaDefinicion> obtener(Integer idEncuesta) {
+        return Optional.ofNullable(definiciones.get(idEncuesta, this::cargar));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEncuestaModificada(EncuestaModificadaEvent evento) {
+        invalidar(evento.getIdEncuesta());
+    }
+
+    public void invalidar(Integer idEncuesta) {
+        definiciones.invalidate(idEncuesta);
+        log.debug("Definición de encuesta {} invalidada", idEncuesta);
+    }
+
+    private EncuestaDefinicion cargar(Integer idEncuesta) {
+        return lecturaTx.execute(status -> encuestaRepository.findById(idEncuesta)
+                .map(EncuestaDefinicion::desde)
+                .orElse(null));
+    }
+}
@@ -0,0 +1,302 @@
+package pe.unmsm.crm.marketing.campanas.encuestas.infra.persistence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.AlertaUrgenteDetectadaEvent;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.RespuestaRegistradaEvent;
+import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Escritura agrupada de respuestas de encuesta.
+ *
+ * Los envíos públicos se encolan y un único worker los escribe en lotes: un
+ * solo commit por lote en lugar de uno por respuesta, así que la latencia se
+ * mantiene estable ante ráfagas (p. ej. cuando se dispara el CTA de un mailing).
+ *
+ * - Un lote se cierra al llegar a {@code tamanio-lote} o tras {@code ventana-ms}
+ *   desde el primer envío
+ * - La cabecera se inserta con INSERT IGNORE: la restricción
+ *   uk_respuesta_encuesta_lead descarta duplicados sin abortar el lote
+ * - Si el lote falla, se reintenta cada envío en su propia transacción para
+ *   aislar al culpable
+ * - Los eventos (analítica, alerta urgente) se publican dentro de la transacción
+ *   del lote, así que sus listeners AFTER_COMMIT se disparan tras confirmar
+ */
+@Component
+@Slf4j
+public class RespuestaEncuestaBatchWriter {
+
+    private static final String SQL_CABECERA = """
+            INSERT IGNORE INTO Respuesta_Encuesta (id_encuesta, lead_id, fecha_respuesta)
+            VALUES (?, ?, ?)
+            """;
+
+    private static final String SQL_DETALLE = """
+            INSERT INTO Respuesta_Detalle (id_respuesta_encuesta, id_pregunta, id_opcion, valor_respuesta)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LeadRepository leadRepository;
+
+    @Value("${app.encuestas.respuestas.tamanio-lote:200}")
+    private int tamanioLote;
+
+    @Value("${app.encuestas.respuestas.ventana-ms:10}")
+    private long ventanaMs;
+
+    @Value("${app.encuestas.respuestas.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private final BlockingQueue<Pendiente> cola;
+    private Thread worker;
+    private volatile boolean activo = true;
+
+    public RespuestaEncuestaBatchWriter(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            LeadRepository leadRepository,
+            @Value("${app.encuestas.respuestas.capacidad-cola:10000}") int capacidadCola) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.leadRepository = leadRepository;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        worker = new Thread(this::procesar, "RespuestaEncuestaWriter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Encola la respuesta y espera a que su lote se confirme.
+     *
+     * @throws IllegalStateException    si el lead ya respondió la encuesta o la cola está llena
+     * @throws IllegalArgumentException si el lead no existe
+     */
+    public Registro registrar(Integer idEncuesta, Long leadId, List<RespuestaRegistradaEvent.Detalle> detalles,
+            long alertasUrgentes) {
+        Pendiente pendiente = new Pendiente(idEncuesta, leadId, detalles, alertasUrgentes);
+        if (!cola.offer(pendiente)) {
+            throw new IllegalStateException("Hay demasiadas respuestas en proceso. Intente nuevamente en unos segundos.");
+        }
+
+        try {
+            return pendiente.resultado.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error al registrar la respuesta", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Tiempo de espera agotado al registrar la respuesta", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Registro de respuesta interrumpido", e);
+        }
+    }
+
+    public int pendientes() {
+        return cola.size();
+    }
+
+    private void procesar() {
+        List<Pendiente> lote = new ArrayList<>(tamanioLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                Pendiente primero = cola.poll(1, TimeUnit.SECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+                while (lote.size() < tamanioLote) {
+                    long restante = limite - System.nanoTime();
+                    Pendiente siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : cola.poll();
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                if (activo) {
+                    continue;
+                }
+                // Apagado: vaciar lo pendiente sin esperar la ventana
+                cola.drainTo(lote);
+                escribirLote(lote);
+            } catch (Exception e) {
+                log.error("Error inesperado en el writer de respuestas: {}", e.getMessage(), e);
+                lote.forEach(p -> p.resultado.completeExceptionally(e));
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribirLote(List<Pendiente> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertar(lote));
+        } catch (Exception e) {
+            if (lote.size() == 1) {
+                lote.get(0).resultado.completeExceptionally(e);
+                return;
+            }
+            log.warn("Falló el lote de {} respuestas ({}), reintentando una por una", lote.size(), e.getMessage());
+            for (Pendiente pendiente : lote) {
+                pendiente.registro = null;
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertar(List.of(pendiente)));
+                } catch (Exception individual) {
+                    pendiente.resultado.completeExceptionally(individual);
+                }
+            }
+        }
+
+        for (Pendiente pendiente : lote) {
+            if (pendiente.resultado.isDone()) {
+                continue;
+            }
+            if (pendiente.registro != null) {
+                pendiente.resultado.complete(pendiente.registro);
+            } else {
+                pendiente.resultado.completeExceptionally(rechazo(pendiente));
+            }
+        }
+    }
+
+    /**
+     * Inserta cabeceras y detalles del lote; debe ejecutarse dentro de una transacción
+     */
+    private void insertar(List<Pendiente> lote) {
+        List<Pendiente> aceptados = new ArrayList<>(lote.size());
+        for (Pendiente pendiente : lote) {
+            LocalDateTime fecha = LocalDateTime.now();
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            int filas = jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_CABECERA, Statement.RETURN_GENERATED_KEYS);
+                ps.setInt(1, pendiente.idEncuesta);
+                ps.setLong(2, pendiente.leadId);
+                ps.setTimestamp(3, Timestamp.valueOf(fecha));
+                return ps;
+            }, keyHolder);
+
+            if (filas == 0) {
+                // Duplicado (o lead inexistente): se resuelve fuera de la transacción
+                continue;
+            }
+            pendiente.registro = new Registro(keyHolder.getKey().intValue(), fecha);
+            aceptados.add(pendiente);
+        }
+
+        List<Object[]> filasDetalle = new ArrayList<>();
+        for (Pendiente pendiente : aceptados) {
+            for (RespuestaRegistradaEvent.Detalle detalle : pendiente.detalles) {
+                filasDetalle.add(new Object[] {
+                        pendiente.registro.getIdRespuestaEncuesta(),
+                        detalle.getIdPregunta(),
+                        detalle.getIdOpcion(),
+                        detalle.getValor() });
+            }
+        }
+        if (!filasDetalle.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_DETALLE, filasDetalle,
+                    new int[] { Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.TINYINT });
+        }
+
+        for (Pendiente pendiente : aceptados) {
+            eventPublisher.publishEvent(new RespuestaRegistradaEvent(
+                    pendiente.idEncuesta,
+                    pendiente.registro.getIdRespuestaEncuesta(),
+                    pendiente.registro.getFechaRespuesta(),
+                    pendiente.detalles,
+                    pendiente.alertasUrgentes));
+            if (pendiente.alertasUrgentes > 0) {
+                // Publicar evento - el writer no sabe quién lo escucha (Observer Pattern)
+                eventPublisher.publishEvent(new AlertaUrgenteDetectadaEvent(pendiente.leadId, pendiente.idEncuesta));
+            }
+        }
+    }
+
+    private RuntimeException rechazo(Pendiente pendiente) {
+        if (!leadRepository.existsById(pendiente.leadId)) {
+            return new IllegalArgumentException("Lead no encontrado con ID: " + pendiente.leadId);
+        }
+        return new IllegalStateException("Ya has respondido esta encuesta anteriormente.");
+    }
+
+    /**
+     * Respuesta confirmada en la BD
+     */
+    @Getter
+    public static class Registro {
+
+        private final Integer idRespuestaEncuesta;
+        private final LocalDateTime fechaRespuesta;
+
+        Registro(Integer idRespuestaEncuesta, LocalDateTime fechaRespuesta) {
+            this.idRespuestaEncuesta = idRespuestaEncuesta;
+            this.fechaRespuesta = fechaRespuesta;
+        }
+    }
+
+    private static final class Pendiente {
+
+        private final Integer idEncuesta;
+        private final Long leadId;
+        private final List<RespuestaRegistradaEvent.Detalle> detalles;
+        private final long alertasUrgentes;
+        private final CompletableFuture<Registro> resultado = new CompletableFuture<>();
+        private Registro registro;
+
+        private Pendiente(Integer idEncuesta, Long leadId, List<RespuestaRegistradaEvent.Detalle> detalles,
+                long alertasUrgentes) {
+            this.idEncuesta = idEncuesta;
+            this.leadId = leadId;
+            this.detalles = detalles;
+            this.alertasUrgentes = alertasUrgentes;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -253,4 +254,42 @@ public class CampanaController {
 
                 return ResponseEntity.ok(response);
         }
+
+        /**
+         * GET /api/v1/campanas/{id}/historial - Historial de una campaña, más
+         * reciente primero, paginado por cursor (fecha_accion, id_historial).
+         * Para la página siguiente se envían next_fecha_accion y
+         * next_id_historial de la respuesta anterior como antesDeFecha/antesDeId.
+         */
+        @GetMapping("/{id}/historial")
+        public ResponseEntity<Map<String, Object>> historialCampana(
+                        @PathVariable Long id,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime antesDeFecha,
+                        @RequestParam(required = false) Long antesDeId,
+                        @RequestParam(defaultValue = "20") int size) {
+
+                int safeSize = (size <= 0 || size > 100) ? 20 : size;
+
+                // Se pide uno de más para saber si hay página siguiente
+                List<HistorialCampana> filas = historialRepository.findPaginaPorCampana(
+                                id, antesDeFecha, antesDeId, safeSize + 1);
+                boolean hasMore = filas.size() > safeSize;
+                List<HistorialCampana> pagina = hasMore ? filas.subList(0, safeSize) : filas;
+
+                List<HistorialItemResponse> content = pagina.stream()
+                                .map(mapper::toHistorialResponse)
+                                .collect(Collectors.toList());
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("content", content);
+                response.put("size", safeSize);
+                response.put("has_more", hasMore);
+                if (hasMore) {
+                        HistorialCampana ultimo = pagina.get(pagina.size() - 1);
+                        response.put("next_fecha_accion", ultimo.getFechaAccion());
+                        response.put("next_id_historial", ultimo.getIdHistorial());
+                }
+
+                return ResponseEntity.ok(response);
+        }
 }
@@ -3,11 +3,15 @@ package pe.unmsm.crm.marketing.campanas.gestor.api.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pe.unmsm.crm.marketing.campanas.gestor.api.dto.GestorReportFilterDTO;
 import pe.unmsm.crm.marketing.campanas.gestor.application.service.GestorReportService;
+import pe.unmsm.crm.marketing.shared.api.dto.ReportJobResponse;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService.ReportJob;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -18,6 +22,7 @@ import java.time.LocalDate;
 public class GestorReportController {
 
     private final GestorReportService reportService;
+    private final ReportJobService reportJobService;
 
     @GetMapping("/general")
     public ResponseEntity<byte[]> getGeneralReport(
@@ -64,4 +69,44 @@ public class GestorReportController {
                 .contentType(MediaType.APPLICATION_PDF)
                 .body(pdfBytes);
     }
+
+    /**
+     * Encola la generación del reporte y responde 202 con el job.
+     * tipo: general, eficiencia o uso.
+     * El estado y la descarga se consultan en /api/v1/reportes/jobs/{id}
+     */
+    @PostMapping("/{tipo}/jobs")
+    public ResponseEntity<ReportJobResponse> encolarReporte(
+            @PathVariable String tipo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String canal) {
+
+        ReportJobService.ReportGenerator generador;
+        String filename;
+        switch (tipo) {
+            case "general" -> {
+                GestorReportFilterDTO filtros = new GestorReportFilterDTO(fechaInicio, fechaFin, estado, canal);
+                generador = () -> reportService.generateGeneralReport(filtros);
+                filename = "reporte-campanas-general.pdf";
+            }
+            case "eficiencia" -> {
+                GestorReportFilterDTO filtros = new GestorReportFilterDTO(fechaInicio, fechaFin, null, null);
+                generador = () -> reportService.generateEfficiencyReport(filtros);
+                filename = "reporte-campanas-eficiencia.pdf";
+            }
+            case "uso" -> {
+                GestorReportFilterDTO filtros = new GestorReportFilterDTO(fechaInicio, fechaFin, null, null);
+                generador = () -> reportService.generateResourceUsageReport(filtros);
+                filename = "reporte-campanas-uso-recursos.pdf";
+            }
+            default -> {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        ReportJob job = reportJobService.enviar("gestor-" + tipo, filename, generador);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ReportJobResponse.from(job));
+    }
 }
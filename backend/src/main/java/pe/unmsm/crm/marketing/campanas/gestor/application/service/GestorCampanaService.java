@@ -13,6 +13,7 @@ import pe.unmsm.crm.marketing.campanas.gestor.domain.model.TipoAccion;
 import pe.unmsm.crm.marketing.campanas.gestor.domain.port.input.IGestorCampanaUseCase;
 import pe.unmsm.crm.marketing.campanas.gestor.domain.port.output.CampanaRepositoryPort;
 import pe.unmsm.crm.marketing.shared.application.service.UserContextService;
+import pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler.AccionProgramada;
 import pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler.CampaignActivationManager;
 import pe.unmsm.crm.marketing.shared.logging.AccionLog;
 import pe.unmsm.crm.marketing.shared.logging.AuditoriaService;
@@ -162,8 +163,9 @@ public class GestorCampanaService implements IGestorCampanaUseCase {
         // Publicar evento
         publicarEvento(idCampana, estadoAnterior, "Programada", TipoAccion.PROGRAMACION, null);
 
-        // Programar activación dinámica
+        // Programar activación y finalización automática en fecha_fin (timers durables)
         activationManager.scheduleActivation(idCampana, fechaInicio);
+        activationManager.programar(idCampana, AccionProgramada.FINALIZAR, fechaFin);
 
         // AUDITORÍA
         auditoriaService.registrarEvento(ModuloLog.CAMPANIAS_GESTOR, AccionLog.CAMBIAR_ESTADO, idCampana, null,
@@ -207,7 +209,10 @@ public class GestorCampanaService implements IGestorCampanaUseCase {
 
     @Override
     public Campana pausar(Long idCampana, String motivo) {
+        // Una campaña pausada no se puede finalizar: la finalización programada
+        // se retira y reanudar() la vuelve a programar
         activationManager.cancelActivation(idCampana);
+        activationManager.cancelar(idCampana, AccionProgramada.FINALIZAR);
         Campana campana = obtenerPorId(idCampana);
         String estadoAnterior = campana.getEstado().getNombre();
 
@@ -243,6 +248,11 @@ public class GestorCampanaService implements IGestorCampanaUseCase {
         // Notificar al canal
         canalEjecucionPort.notificarReanudacion(idCampana);
 
+        // Restaurar la finalización programada (inmediata si fecha_fin ya pasó)
+        if (campana.getFechaProgramadaFin() != null) {
+            activationManager.programar(idCampana, AccionProgramada.FINALIZAR, campana.getFechaProgramadaFin());
+        }
+
         // Publicar evento
         publicarEvento(idCampana, estadoAnterior, "Vigente", TipoAccion.REANUDACION, null);
 
@@ -256,7 +266,7 @@ public class GestorCampanaService implements IGestorCampanaUseCase {
 
     @Override
     public Campana cancelar(Long idCampana, String motivo) {
-        activationManager.cancelActivation(idCampana);
+        activationManager.cancelarTodas(idCampana);
         Campana campana = obtenerPorId(idCampana);
         String estadoAnterior = campana.getEstado().getNombre();
 
@@ -281,7 +291,7 @@ public class GestorCampanaService implements IGestorCampanaUseCase {
 
     @Override
     public Campana finalizar(Long idCampana) {
-        activationManager.cancelActivation(idCampana);
+        activationManager.cancelarTodas(idCampana);
         Campana campana = obtenerPorId(idCampana);
         String estadoAnterior = campana.getEstado().getNombre();
 
@@ -332,8 +342,9 @@ public class GestorCampanaService implements IGestorCampanaUseCase {
         // Publicar evento
         publicarEvento(idCampana, estadoAnterior, "Programada", TipoAccion.REPROGRAMACION, null);
 
-        // Reprogramar activación dinámica
+        // Reprogramar activación y finalización
         activationManager.scheduleActivation(idCampana, nuevaFechaInicio);
+        activationManager.programar(idCampana, AccionProgramada.FINALIZAR, nuevaFechaFin);
 
         // AUDITORÍA
         auditoriaService.registrarEvento(ModuloLog.CAMPANIAS_GESTOR, AccionLog.CAMBIAR_ESTADO, idCampana, null,
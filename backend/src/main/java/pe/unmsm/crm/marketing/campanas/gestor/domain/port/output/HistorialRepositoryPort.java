@@ -33,4 +33,11 @@ public interface HistorialRepositoryPort {
      * Lista todo el historial
      */
     List<HistorialCampana> findAll();
+
+    /**
+     * Página keyset del historial de una campaña, más recientes primero.
+     * Sin cursor (antesDeFecha/antesDeId null) devuelve la primera página.
+     */
+    List<HistorialCampana> findPaginaPorCampana(Long idCampana, LocalDateTime antesDeFecha, Long antesDeId,
+            int limite);
 }
@@ -2,36 +2,32 @@ package pe.unmsm.crm.marketing.campanas.gestor.infra.listener;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import pe.unmsm.crm.marketing.campanas.gestor.application.event.CampanaEstadoCambiadoEvent;
 import pe.unmsm.crm.marketing.campanas.gestor.domain.model.HistorialCampana;
 import pe.unmsm.crm.marketing.campanas.gestor.domain.model.TipoAccion;
-import pe.unmsm.crm.marketing.campanas.gestor.domain.port.output.HistorialRepositoryPort;
+import pe.unmsm.crm.marketing.campanas.gestor.infra.persistence.HistorialBatchWriter;
 
 /**
  * Listener que escucha eventos de cambio de estado de campanas
  * y registra la auditoría en el historial.
  * 
- * Usa @Async y @Transactional(REQUIRES_NEW) para ejecutar en una transacción
- * independiente y evitar conflictos con la transacción principal.
+ * Se ejecuta tras el commit del cambio (solo se registran cambios confirmados)
+ * y solo encola: HistorialBatchWriter inserta en lote, en orden de llegada.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class HistorialEventListener {
 
-    private final HistorialRepositoryPort historialRepository;
+    private final HistorialBatchWriter historialWriter;
 
-    @Async
-    @EventListener
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void onCampanaEstadoCambiado(CampanaEstadoCambiadoEvent event) {
         try {
-            log.info("=== EVENTO RECIBIDO: {} para campaña {} ===", event.getTipoAccion(), event.getIdCampana());
+            log.debug("=== EVENTO RECIBIDO: {} para campaña {} ===", event.getTipoAccion(), event.getIdCampana());
 
             // Mapear el tipoAccion del evento a TipoAccion enum
             TipoAccion tipoAccion = TipoAccion.valueOf(event.getTipoAccion());
@@ -48,9 +44,7 @@ public class HistorialEventListener {
                     .usuarioResponsable(event.getUsuarioResponsable())
                     .build();
 
-            historialRepository.save(historial);
-
-            log.info("=== HISTORIAL GUARDADO: {} para campaña {} ===", tipoAccion, event.getIdCampana());
+            historialWriter.encolar(historial);
 
         } catch (Exception e) {
             log.error("=== ERROR al registrar historial para campaña {}: {} ===",
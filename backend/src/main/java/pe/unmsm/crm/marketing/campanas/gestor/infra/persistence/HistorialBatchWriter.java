@@ -0,0 +1,254 @@
+package pe.unmsm.crm.marketing.campanas.gestor.infra.persistence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.model.HistorialCampana;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Escritura agrupada del historial de campañas.
+ *
+ * Los registros se encolan en un buffer acotado y un único worker los inserta
+ * con JDBC batch: una transacción por lote en lugar de una por cambio de estado.
+ *
+ * - Un lote se cierra al llegar a {@code tamanio-lote} o tras {@code ventana-ms}
+ *   desde el primer registro
+ * - Orden: un solo buffer FIFO y un solo worker, así que los registros de una
+ *   campaña se insertan (y reciben id_historial) en el orden en que se encolaron
+ * - Con el buffer lleno el llamador espera hasta {@code espera-ms}; si sigue
+ *   lleno el registro se escribe solo en el log
+ * - Si un lote falla se reintenta registro por registro, en el mismo orden
+ * - Al apagar deja de encolar: el worker vacía el buffer y lo que llegue
+ *   después se escribe de forma síncrona en el hilo del llamador
+ */
+@Component
+@Slf4j
+public class HistorialBatchWriter {
+
+    private static final String SQL_INSERTAR = """
+            INSERT INTO historial_campana (id_campana, fecha_accion, tipo_accion, usuario_responsable, descripcion_detalle)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<HistorialCampana> buffer;
+
+    @Value("${app.gestor.historial.tamanio-lote:200}")
+    private int tamanioLote;
+
+    @Value("${app.gestor.historial.ventana-ms:100}")
+    private long ventanaMs;
+
+    @Value("${app.gestor.historial.espera-ms:2000}")
+    private long esperaMs;
+
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong perdidos = new AtomicLong();
+
+    /**
+     * Los encolados toman la lectura y el apagado la escritura: ningún registro
+     * entra al buffer después de que el worker vea {@code activo = false}.
+     */
+    private final ReadWriteLock cierre = new ReentrantReadWriteLock();
+
+    private Thread worker;
+    private volatile boolean activo = true;
+
+    public HistorialBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${app.gestor.historial.capacidad:10000}") int capacidad) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(capacidad);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        worker = new Thread(this::procesar, "HistorialCampanaWriter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Deja de encolar y espera a que el worker vacíe el buffer. No interrumpe
+     * al worker para no cortar un batch a medio escribir; el poll de 1 s lo
+     * hace salir.
+     *
+     * Si el worker terminó y quedó algo (lo interrumpió la JVM) se escribe
+     * aquí. Si sigue escribiendo pasado el plazo, el buffer queda a su cargo:
+     * vaciarlo desde aquí escribiría en paralelo y sin orden.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        cierre.writeLock().lock();
+        try {
+            activo = false;
+        } finally {
+            cierre.writeLock().unlock();
+        }
+
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        if (worker.isAlive()) {
+            log.warn("El writer de historial sigue escribiendo al apagar; quedan {} registros en el buffer",
+                    buffer.size());
+            return;
+        }
+
+        List<HistorialCampana> restantes = new ArrayList<>();
+        buffer.drainTo(restantes);
+        for (int i = 0; i < restantes.size(); i += tamanioLote) {
+            escribir(restantes.subList(i, Math.min(i + tamanioLote, restantes.size())));
+        }
+    }
+
+    /**
+     * Encola el registro. Solo bloquea (hasta {@code espera-ms}) con el buffer
+     * lleno. Durante el apagado lo escribe directamente.
+     */
+    public void encolar(HistorialCampana historial) {
+        cierre.readLock().lock();
+        try {
+            if (activo) {
+                if (buffer.offer(historial) || buffer.offer(historial, esperaMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                registrarPerdido(historial);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            registrarPerdido(historial);
+            return;
+        } finally {
+            cierre.readLock().unlock();
+        }
+        escribir(List.of(historial));
+    }
+
+    public int pendientes() {
+        return buffer.size();
+    }
+
+    public long getEscritos() {
+        return escritos.get();
+    }
+
+    public long getPerdidos() {
+        return perdidos.get();
+    }
+
+    private void procesar() {
+        List<HistorialCampana> lote = new ArrayList<>(tamanioLote);
+        while (activo || !buffer.isEmpty()) {
+            try {
+                HistorialCampana primero = buffer.poll(1, TimeUnit.SECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+                while (lote.size() < tamanioLote) {
+                    long restante = limite - System.nanoTime();
+                    // Apagándose: no esperar la ventana
+                    HistorialCampana siguiente = restante > 0 && activo
+                            ? buffer.poll(restante, TimeUnit.NANOSECONDS)
+                            : buffer.poll();
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+
+                escribir(lote);
+            } catch (InterruptedException e) {
+                // Solo por apagado de la JVM; el lote en curso se escribe igual
+                escribir(lote);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error inesperado en el writer de historial: {}", e.getMessage(), e);
+                lote.forEach(this::registrarPerdido);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribir(List<HistorialCampana> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            insertar(lote);
+            escritos.addAndGet(lote.size());
+            return;
+        } catch (Exception e) {
+            if (lote.size() == 1) {
+                log.error("No se pudo insertar el historial de la campaña {}: {}",
+                        lote.get(0).getIdCampana(), e.getMessage());
+                registrarPerdido(lote.get(0));
+                return;
+            }
+            log.warn("Falló el lote de {} registros de historial ({}), reintentando uno por uno",
+                    lote.size(), e.getMessage());
+        }
+
+        for (HistorialCampana historial : lote) {
+            try {
+                insertar(List.of(historial));
+                escritos.incrementAndGet();
+            } catch (Exception individual) {
+                log.error("No se pudo insertar el historial de la campaña {}: {}",
+                        historial.getIdCampana(), individual.getMessage());
+                registrarPerdido(historial);
+            }
+        }
+    }
+
+    private void insertar(List<HistorialCampana> lote) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(SQL_INSERTAR, lote, lote.size(), (ps, historial) -> {
+            ps.setLong(1, historial.getIdCampana());
+            ps.setTimestamp(2, Timestamp.valueOf(historial.getFechaAccion() != null
+                    ? historial.getFechaAccion()
+                    : LocalDateTime.now()));
+            ps.setString(3, historial.getTipoAccion().name());
+            setString(ps, 4, historial.getUsuarioResponsable());
+            setString(ps, 5, historial.getDescripcionDetalle());
+        }));
+    }
+
+    private void registrarPerdido(HistorialCampana historial) {
+        perdidos.incrementAndGet();
+        log.error("HISTORIAL NO PERSISTIDO: campana={}, fecha={}, accion={}, usuario={}, detalle={}",
+                historial.getIdCampana(), historial.getFechaAccion(), historial.getTipoAccion(),
+                historial.getUsuarioResponsable(), historial.getDescripcionDetalle());
+    }
+
+    private static void setString(PreparedStatement ps, int indice, String valor) throws SQLException {
+        if (valor != null) {
+            ps.setString(indice, valor);
+        } else {
+            ps.setNull(indice, Types.VARCHAR);
+        }
+    }
+}
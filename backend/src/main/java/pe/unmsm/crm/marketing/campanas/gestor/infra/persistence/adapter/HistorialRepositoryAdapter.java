@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 /**
@@ -51,4 +52,14 @@ public class HistorialRepositoryAdapter implements HistorialRepositoryPort {
     public List<HistorialCampana> findAll() {
         return jpaRepository.findAll();
     }
+
+    @Override
+    public List<HistorialCampana> findPaginaPorCampana(Long idCampana, LocalDateTime antesDeFecha, Long antesDeId,
+            int limite) {
+        Pageable pageable = PageRequest.of(0, limite);
+        if (antesDeFecha == null || antesDeId == null) {
+            return jpaRepository.findPrimeraPaginaPorCampana(idCampana, pageable);
+        }
+        return jpaRepository.findPaginaPorCampanaAntesDe(idCampana, antesDeFecha, antesDeId, pageable);
+    }
 }
@@ -39,6 +39,25 @@ public interface JpaHistorialRepository extends JpaRepository<HistorialCampana,
                         @Param("fechaHasta") LocalDateTime fechaHasta,
                         Pageable pageable);
 
+        /**
+         * Primera página del historial de una campaña (keyset), más recientes primero.
+         * Usa el índice (id_campana, fecha_accion); id_historial desempata.
+         */
+        @Query("SELECT h FROM HistorialCampana h WHERE h.idCampana = :idCampana " +
+                        "ORDER BY h.fechaAccion DESC, h.idHistorial DESC")
+        List<HistorialCampana> findPrimeraPaginaPorCampana(@Param("idCampana") Long idCampana, Pageable pageable);
+
+        /**
+         * Página siguiente: registros estrictamente anteriores a (fechaAccion, idHistorial).
+         */
+        @Query("SELECT h FROM HistorialCampana h WHERE h.idCampana = :idCampana AND " +
+                        "(h.fechaAccion < :fechaAccion OR (h.fechaAccion = :fechaAccion AND h.idHistorial < :idHistorial)) " +
+                        "ORDER BY h.fechaAccion DESC, h.idHistorial DESC")
+        List<HistorialCampana> findPaginaPorCampanaAntesDe(@Param("idCampana") Long idCampana,
+                        @Param("fechaAccion") LocalDateTime fechaAccion,
+                        @Param("idHistorial") Long idHistorial,
+                        Pageable pageable);
+
         /**
          * Busca historial por tipo de acción
          */
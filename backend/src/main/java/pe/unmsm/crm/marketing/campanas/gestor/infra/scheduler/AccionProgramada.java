@@ -0,0 +1,8 @@
+package pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler;
+
+/**
+ * Transición de estado que un timer de campaña ejecuta al vencer.
+ */
+public enum AccionProgramada {
+    ACTIVAR, PAUSAR, FINALIZAR
+}
@@ -2,64 +2,66 @@ package pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
-import pe.unmsm.crm.marketing.campanas.gestor.domain.port.input.IGestorCampanaUseCase;
 
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
 
+/**
+ * Registro de las transiciones programadas de campañas.
+ *
+ * Cada transición se guarda como una fila en campana_timer dentro de la
+ * transacción del llamador, así que sobrevive a reinicios y se confirma (o
+ * descarta) junto con el cambio de estado que la origina. CampanaTimerPoller
+ * la dispara al vencer.
+ *
+ * Transiciones que registra GestorCampanaService:
+ * - programar / reprogramar: ACTIVAR en fecha_programada_inicio y FINALIZAR en
+ *   fecha_programada_fin. La finalización automática es nueva: antes una
+ *   campaña Vigente seguía así hasta que alguien la finalizaba a mano
+ * - pausar: retira ACTIVAR y FINALIZAR (una campaña pausada no admite
+ *   finalizar); reanudar vuelve a programar FINALIZAR en fecha_programada_fin,
+ *   de inmediato si esa fecha ya pasó
+ * - cancelar / finalizar: retiran todas
+ */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class CampaignActivationManager {
 
-    private final TaskScheduler taskScheduler;
-    private final IGestorCampanaUseCase gestorCampanaUseCase;
-    private final Map<Long, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
+    private final CampanaTimerRepository timerRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CampaignActivationManager(TaskScheduler taskScheduler,
-            @org.springframework.context.annotation.Lazy IGestorCampanaUseCase gestorCampanaUseCase) {
-        this.taskScheduler = taskScheduler;
-        this.gestorCampanaUseCase = gestorCampanaUseCase;
+    /**
+     * Programa la activación (reemplaza la anterior). Si la fecha ya pasó se
+     * activa en el siguiente ciclo del poller.
+     */
+    public void scheduleActivation(Long campanaId, LocalDateTime activationTime) {
+        programar(campanaId, AccionProgramada.ACTIVAR, activationTime);
     }
 
-    public void scheduleActivation(Long campanaId, LocalDateTime activationTime) {
-        // Cancelar tarea previa si existe (para reprogramaciones)
-        cancelActivation(campanaId);
+    public void cancelActivation(Long campanaId) {
+        timerRepository.cancelar(campanaId, AccionProgramada.ACTIVAR);
+    }
 
-        if (activationTime.isBefore(LocalDateTime.now())) {
-            log.warn("La fecha de activación {} para la campaña {} ya pasó. Se activará inmediatamente.",
-                    activationTime, campanaId);
-            activarCampana(campanaId);
-            return;
+    public void programar(Long campanaId, AccionProgramada accion, LocalDateTime dueAt) {
+        if (dueAt.isBefore(LocalDateTime.now())) {
+            log.warn("La fecha {} de {} para la campaña {} ya pasó. Se ejecutará de inmediato.",
+                    dueAt, accion, campanaId);
         }
-
-        ScheduledFuture<?> future = taskScheduler.schedule(
-                () -> activarCampana(campanaId),
-                activationTime.atZone(ZoneId.systemDefault()).toInstant());
-
-        scheduledTasks.put(campanaId, future);
-        log.info("Activación programada para campaña {} a las {}", campanaId, activationTime);
+        timerRepository.programar(campanaId, accion, dueAt);
+        eventPublisher.publishEvent(new CampanaTimerProgramadoEvent(dueAt));
+        log.info("{} programada para campaña {} a las {}", accion, campanaId, dueAt);
     }
 
-    public void cancelActivation(Long campanaId) {
-        ScheduledFuture<?> future = scheduledTasks.remove(campanaId);
-        if (future != null) {
-            future.cancel(false);
-            log.info("Activación programada cancelada para campaña {}", campanaId);
-        }
+    public void cancelar(Long campanaId, AccionProgramada accion) {
+        timerRepository.cancelar(campanaId, accion);
     }
 
-    private void activarCampana(Long campanaId) {
-        try {
-            log.info(">>> EJECUTANDO ACTIVACIÓN DINÁMICA para campaña {}", campanaId);
-            gestorCampanaUseCase.activar(campanaId);
-            scheduledTasks.remove(campanaId); // Limpiar referencia una vez ejecutado
-        } catch (Exception e) {
-            log.error("Error en activación dinámica de campaña {}: {}", campanaId, e.getMessage(), e);
-        }
+    /**
+     * Cancela todas las transiciones pendientes (campaña cancelada o finalizada).
+     */
+    public void cancelarTodas(Long campanaId) {
+        timerRepository.cancelarTodos(campanaId);
     }
 }
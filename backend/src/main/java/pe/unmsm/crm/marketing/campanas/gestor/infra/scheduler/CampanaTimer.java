@@ -0,0 +1,20 @@
+package pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de campana_timer.
+ */
+@Getter
+@AllArgsConstructor
+public class CampanaTimer {
+
+    private final Long id;
+    private final Long idCampana;
+    private final AccionProgramada accion;
+    private final LocalDateTime dueAt;
+    private final int intentos;
+}
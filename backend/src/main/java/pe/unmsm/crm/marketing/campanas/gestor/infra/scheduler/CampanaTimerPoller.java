@@ -0,0 +1,197 @@
+package pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.exception.EstadoIlegalException;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.port.input.IGestorCampanaUseCase;
+import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispara las transiciones programadas de campañas (tabla campana_timer).
+ *
+ * Un único hilo por instancia:
+ * - reclama los timers vencidos con un bloqueo temporal (varias instancias
+ *   nunca disparan el mismo timer a la vez)
+ * - ejecuta la transición en IGestorCampanaUseCase y borra el timer
+ * - duerme hasta el próximo vencimiento (acotado por
+ *   {@code app.gestor.timers.max-espera-ms}) o hasta que se programe uno
+ *   anterior en esta instancia
+ *
+ * El disparo es idempotente: si la campaña ya no admite la transición (ya
+ * activada, cancelada, eliminada...) el timer se descarta. Los demás errores
+ * se reintentan con backoff hasta {@code app.gestor.timers.max-intentos}.
+ */
+@Component
+@Profile("!console")
+@Slf4j
+public class CampanaTimerPoller {
+
+    private static final String MOTIVO_PAUSA = "Pausa programada";
+
+    private final CampanaTimerRepository timerRepository;
+    private final IGestorCampanaUseCase gestorCampanaUseCase;
+
+    @Value("${app.gestor.timers.tamanio-lote:50}")
+    private int tamanioLote;
+
+    @Value("${app.gestor.timers.max-espera-ms:30000}")
+    private long maxEsperaMs;
+
+    @Value("${app.gestor.timers.bloqueo-seg:120}")
+    private long bloqueoSeg;
+
+    @Value("${app.gestor.timers.max-intentos:5}")
+    private int maxIntentos;
+
+    private final Object monitor = new Object();
+    // Guardados por 'monitor'
+    private boolean aviso;
+    private LocalDateTime esperandoHasta;
+
+    private Thread worker;
+    private volatile boolean activo = true;
+
+    public CampanaTimerPoller(CampanaTimerRepository timerRepository,
+            @org.springframework.context.annotation.Lazy IGestorCampanaUseCase gestorCampanaUseCase) {
+        this.timerRepository = timerRepository;
+        this.gestorCampanaUseCase = gestorCampanaUseCase;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        worker = new Thread(this::procesar, "CampanaTimerPoller");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Despierta al poller si el timer nuevo vence antes de lo que está esperando.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTimerProgramado(CampanaTimerProgramadoEvent evento) {
+        synchronized (monitor) {
+            if (esperandoHasta == null || evento.getDueAt().isBefore(esperandoHasta)) {
+                aviso = true;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    private void procesar() {
+        while (activo) {
+            try {
+                synchronized (monitor) {
+                    aviso = false;
+                }
+                if (dispararVencidos() == tamanioLote) {
+                    // Quedan más vencidos
+                    continue;
+                }
+                esperar(timerRepository.proximoVencimiento(LocalDateTime.now()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("[TIMERS] Error en el ciclo de timers de campañas: {}", e.getMessage(), e);
+                try {
+                    esperar(null);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    int dispararVencidos() {
+        LocalDateTime ahora = LocalDateTime.now();
+        String token = UUID.randomUUID().toString();
+        List<CampanaTimer> vencidos = timerRepository.reclamarVencidos(token, tamanioLote, ahora,
+                ahora.plusSeconds(bloqueoSeg));
+        for (CampanaTimer timer : vencidos) {
+            disparar(timer, token);
+        }
+        return vencidos.size();
+    }
+
+    private void disparar(CampanaTimer timer, String token) {
+        Long idCampana = timer.getIdCampana();
+        try {
+            log.info(">>> EJECUTANDO {} PROGRAMADA para campaña {} (vencía {})",
+                    timer.getAccion(), idCampana, timer.getDueAt());
+            switch (timer.getAccion()) {
+                case ACTIVAR -> gestorCampanaUseCase.activar(idCampana);
+                case PAUSAR -> gestorCampanaUseCase.pausar(idCampana, MOTIVO_PAUSA);
+                case FINALIZAR -> gestorCampanaUseCase.finalizar(idCampana);
+            }
+            timerRepository.completar(timer.getId(), token);
+        } catch (EstadoIlegalException | NotFoundException e) {
+            // Ya se aplicó por otra vía o la campaña ya no la admite
+            log.info("[TIMERS] {} de campaña {} descartada: {}", timer.getAccion(), idCampana, e.getMessage());
+            timerRepository.completar(timer.getId(), token);
+        } catch (Exception e) {
+            int intentos = timer.getIntentos() + 1;
+            if (intentos >= maxIntentos) {
+                log.error("[TIMERS] {} de campaña {} descartada tras {} intentos: {}",
+                        timer.getAccion(), idCampana, intentos, e.getMessage(), e);
+                timerRepository.completar(timer.getId(), token);
+                return;
+            }
+            LocalDateTime reintento = LocalDateTime.now().plus(backoff(intentos));
+            log.warn("[TIMERS] Error en {} de campaña {} (intento {}); se reintenta a las {}: {}",
+                    timer.getAccion(), idCampana, intentos, reintento, e.getMessage());
+            timerRepository.reintentar(timer.getId(), token, reintento, e.getMessage());
+        }
+    }
+
+    /**
+     * Espera hasta {@code proximo} (o {@code max-espera-ms} si es null o más
+     * lejano), salvo que llegue un aviso antes.
+     */
+    private void esperar(LocalDateTime proximo) throws InterruptedException {
+        LocalDateTime ahora = LocalDateTime.now();
+        long esperaMs = maxEsperaMs;
+        if (proximo != null) {
+            esperaMs = Math.min(esperaMs, Math.max(Duration.between(ahora, proximo).toMillis(), 0));
+        }
+        synchronized (monitor) {
+            esperandoHasta = ahora.plus(Duration.ofMillis(esperaMs));
+            try {
+                long limite = System.currentTimeMillis() + esperaMs;
+                long restante = esperaMs;
+                while (!aviso && activo && restante > 0) {
+                    monitor.wait(restante);
+                    restante = limite - System.currentTimeMillis();
+                }
+            } finally {
+                esperandoHasta = null;
+            }
+        }
+    }
+
+    private static Duration backoff(int intentos) {
+        return Duration.ofSeconds(Math.min(30L << Math.min(intentos - 1, 10), 3600));
+    }
+}
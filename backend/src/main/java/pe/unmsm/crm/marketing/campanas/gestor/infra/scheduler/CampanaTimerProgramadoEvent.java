@@ -0,0 +1,18 @@
+package pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado al registrar un timer de campaña.
+ *
+ * CampanaTimerPoller lo escucha tras el commit y, si vence antes que el timer
+ * que está esperando, se despierta para no dormir de más.
+ */
+@Getter
+@AllArgsConstructor
+public class CampanaTimerProgramadoEvent {
+    private LocalDateTime dueAt;
+}
@@ -0,0 +1,103 @@
+package pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acceso JDBC a campana_timer.
+ *
+ * Hay a lo sumo un timer por campaña y acción: reprogramar reemplaza la fecha
+ * y anula cualquier reclamo en curso. Los vencidos se reclaman con un
+ * UPDATE ... ORDER BY due_at LIMIT que los marca con un token propio y un
+ * bloqueo temporal; borrar o reprogramar tras el disparo exige el mismo token,
+ * así que un poller que llega tarde no pisa una reprogramación posterior.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CampanaTimerRepository {
+
+    private static final RowMapper<CampanaTimer> MAPPER = (rs, i) -> new CampanaTimer(
+            rs.getLong("id_timer"),
+            rs.getLong("id_campana"),
+            AccionProgramada.valueOf(rs.getString("accion")),
+            rs.getTimestamp("due_at").toLocalDateTime(),
+            rs.getInt("intentos"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Crea el timer o mueve el existente a la nueva fecha.
+     */
+    public void programar(Long idCampana, AccionProgramada accion, LocalDateTime dueAt) {
+        jdbcTemplate.update(
+                "INSERT INTO campana_timer (id_campana, accion, due_at) VALUES (?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE due_at = VALUES(due_at), intentos = 0, token_reclamo = NULL, " +
+                        "bloqueado_hasta = NULL, ultimo_error = NULL",
+                idCampana, accion.name(), dueAt);
+    }
+
+    public void cancelar(Long idCampana, AccionProgramada accion) {
+        jdbcTemplate.update("DELETE FROM campana_timer WHERE id_campana = ? AND accion = ?",
+                idCampana, accion.name());
+    }
+
+    public void cancelarTodos(Long idCampana) {
+        jdbcTemplate.update("DELETE FROM campana_timer WHERE id_campana = ?", idCampana);
+    }
+
+    /**
+     * Reclama hasta {@code limite} timers vencidos, los más antiguos primero.
+     */
+    public List<CampanaTimer> reclamarVencidos(String token, int limite, LocalDateTime ahora,
+            LocalDateTime bloqueadoHasta) {
+        int reclamados = jdbcTemplate.update(
+                "UPDATE campana_timer SET token_reclamo = ?, bloqueado_hasta = ? " +
+                        "WHERE due_at <= ? AND (bloqueado_hasta IS NULL OR bloqueado_hasta < ?) " +
+                        "ORDER BY due_at LIMIT ?",
+                token, bloqueadoHasta, ahora, ahora, limite);
+        if (reclamados == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT id_timer, id_campana, accion, due_at, intentos FROM campana_timer " +
+                        "WHERE token_reclamo = ? ORDER BY due_at",
+                MAPPER, token);
+    }
+
+    /**
+     * Fecha del próximo timer futuro, o null si no hay.
+     */
+    public LocalDateTime proximoVencimiento(LocalDateTime ahora) {
+        Timestamp proximo = jdbcTemplate.queryForObject(
+                "SELECT MIN(due_at) FROM campana_timer WHERE due_at > ?", Timestamp.class, ahora);
+        return proximo != null ? proximo.toLocalDateTime() : null;
+    }
+
+    /**
+     * Borra un timer ya disparado si sigue reclamado con este token.
+     */
+    public void completar(long idTimer, String token) {
+        jdbcTemplate.update("DELETE FROM campana_timer WHERE id_timer = ? AND token_reclamo = ?",
+                idTimer, token);
+    }
+
+    /**
+     * Devuelve un timer fallido a la cola para un nuevo intento.
+     */
+    public void reintentar(long idTimer, String token, LocalDateTime dueAt, String error) {
+        jdbcTemplate.update(
+                "UPDATE campana_timer SET due_at = ?, intentos = intentos + 1, token_reclamo = NULL, " +
+                        "bloqueado_hasta = NULL, ultimo_error = ? WHERE id_timer = ? AND token_reclamo = ?",
+                dueAt, truncar(error), idTimer, token);
+    }
+
+    private static String truncar(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
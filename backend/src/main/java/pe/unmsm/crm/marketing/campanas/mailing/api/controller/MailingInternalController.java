@@ -72,7 +72,6 @@ public class MailingInternalController {
      * - mailing_campanias_lista
      * - mailing_campania_detalle
      * - mailing_metricas
-     * - mailing_segmento_emails
      * - mailing_segmento_count
      */
     @PreAuthorize("hasRole('ADMIN')")
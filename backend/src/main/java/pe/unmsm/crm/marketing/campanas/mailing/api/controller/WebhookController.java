@@ -136,7 +136,8 @@ public class WebhookController {
         } catch (Exception e) {
             log.error("Error en tracking de clic: {}", e.getMessage());
             // Continuar con la redirección aunque falle el tracking
-            // La experiencia del usuario es prioritaria
+            // La experiencia del usuario es prioritaria; el clic se revirtió
+            // completo y el siguiente se registra y deriva de nuevo
         }
 
         // Decodificar URL de destino
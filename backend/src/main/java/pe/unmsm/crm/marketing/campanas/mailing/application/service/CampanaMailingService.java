@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +16,7 @@ import pe.unmsm.crm.marketing.campanas.mailing.api.dto.response.MetricasMailingR
 import pe.unmsm.crm.marketing.campanas.mailing.application.mapper.MailingMapper;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.*;
 import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.*;
+import pe.unmsm.crm.marketing.security.service.AsignacionCampaniaCambiadaEvent;
 import pe.unmsm.crm.marketing.shared.infra.exception.*;
 
 import java.util.List;
@@ -28,6 +30,7 @@ public class CampanaMailingService {
     private final JpaCampanaMailingRepository campanaRepo;
     private final JpaMetricaMailingRepository metricasRepo;
     private final MailingMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ========================================================================
     // OPERACIONES DE ESCRITURA (Invalidan caché)
@@ -60,6 +63,10 @@ public class CampanaMailingService {
                 .build();
         metricasRepo.save(m);
 
+        if (saved.getIdAgenteAsignado() != null) {
+            eventPublisher.publishEvent(new AsignacionCampaniaCambiadaEvent(saved.getIdAgenteAsignado()));
+        }
+
         log.info("✓ Campaña {} creada con ID: {}", req.getNombre(), saved.getId());
         return saved;
     }
@@ -91,6 +98,7 @@ public class CampanaMailingService {
         }
 
         campanaRepo.save(c);
+        eventPublisher.publishEvent(new CampanaMailingProgramacionEvent(c.getId()));
         log.info("✓ Borrador guardado para campaña {}", id);
     }
 
@@ -113,6 +121,9 @@ public class CampanaMailingService {
 
         c.setIdEstado(2); // LISTO
         campanaRepo.save(c);
+
+        // Registra el trigger de envío a la hora exacta de fecha_inicio (tras el commit)
+        eventPublisher.publishEvent(new CampanaMailingProgramacionEvent(c.getId()));
         
         log.info("✓ Campaña {} marcada como LISTO", id);
     }
@@ -138,6 +149,7 @@ public class CampanaMailingService {
 
         c.setIdEstado(6);
         campanaRepo.save(c);
+        eventPublisher.publishEvent(new CampanaMailingProgramacionEvent(c.getId()));
 
         log.info("✓ Campaña {} pausada por Gestor (estado=CANCELADO)", c.getId());
     }
@@ -163,6 +175,7 @@ public class CampanaMailingService {
 
         c.setIdEstado(6); // CANCELADO
         campanaRepo.save(c);
+        eventPublisher.publishEvent(new CampanaMailingProgramacionEvent(c.getId()));
 
         log.info("✓ Campaña {} cancelada (idCampanaGestion={})", c.getId(), idCampanaGestion);
     }
@@ -200,6 +213,7 @@ public class CampanaMailingService {
         }
 
         campanaRepo.save(c);
+        eventPublisher.publishEvent(new CampanaMailingProgramacionEvent(c.getId()));
         log.info("✓ Campaña {} reprogramada: {} a {}", c.getId(), req.getFechaInicio(), req.getFechaFin());
     }
 
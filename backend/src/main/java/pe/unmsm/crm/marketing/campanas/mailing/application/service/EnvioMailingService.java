@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.DestinatarioMailing;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EventoInteraccion;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.MetricaCampana;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IMailingPort;
@@ -16,6 +17,7 @@ import pe.unmsm.crm.marketing.shared.infra.exception.ExternalServiceException;
 import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
 import pe.unmsm.crm.marketing.shared.infra.exception.ValidationException;
 
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -33,7 +35,7 @@ public class EnvioMailingService {
     /**
      * Envía una campaña de mailing
      * 1. Valida que esté en estado LISTO
-     * 2. Obtiene emails del segmento
+     * 2. Recorre los destinatarios del segmento con un cursor por bloques
      * 3. Envía via Resend
      * 4. Actualiza estado a ENVIADO
      */
@@ -48,17 +50,18 @@ public class EnvioMailingService {
         validacionService.validarParaEnviar(campana);
         
         try {
-            // Obtener emails del segmento
-            List<String> emails = segmentoPort.obtenerEmailsSegmento(campana.getIdSegmento());
+            // Abrir cursor de destinatarios del segmento
+            Iterator<DestinatarioMailing> destinatarios =
+                    segmentoPort.abrirCursorDestinatarios(campana.getIdSegmento());
             
-            if (emails.isEmpty()) {
+            if (!destinatarios.hasNext()) {
                 throw new ValidationException("El segmento no tiene emails para enviar");
             }
             
-            log.info("Enviando {} emails para campaña {}", emails.size(), idCampana);
+            log.info("Enviando emails para campaña {}", idCampana);
             
-            // Enviar via SendGrid
-            mailPort.enviarEmails(campana, emails);
+            // Enviar via Resend consumiendo el cursor
+            int enviados = mailPort.enviarEmails(campana, destinatarios);
             
             // Actualizar estado a ENVIADO (3)
             campana.setIdEstado(3);
@@ -68,10 +71,10 @@ public class EnvioMailingService {
             MetricaCampana metricas = metricasRepo.findByCampanaMailingId(idCampana)
                     .orElseThrow(() -> new NotFoundException("Métricas", idCampana.longValue()));
             
-            metricas.setEnviados(emails.size());
+            metricas.setEnviados(enviados);
             metricasRepo.save(metricas);
             
-            log.info("✓ Campaña {} enviada exitosamente a {} destinatarios", idCampana, emails.size());
+            log.info("✓ Campaña {} enviada exitosamente a {} destinatarios", idCampana, enviados);
             
         } catch (ExternalServiceException e) {
             log.error("Error en servicio externo al enviar campaña {}: {}", idCampana, e.getMessage());
@@ -21,19 +21,17 @@ public class EventoInteraccionPublisher {
     /**
      * Publica un evento de interacción
      * Los observers suscritos (ActualizarMetricasObserver, DerivarAVentasObserver, etc)
-     * serán notificados automáticamente
+     * serán notificados automáticamente.
+     *
+     * Los errores de los observers síncronos (DerivarAVentasObserver) se
+     * propagan: la derivación debe quedar en la misma transacción que el clic.
      */
     public void publicarEvento(EventoInteraccion evento) {
         log.debug("Publicando evento: {} - Email: {}", 
             evento.getTipoEvento(), evento.getEmailContacto());
         
-        try {
-            eventPublisher.publishEvent(evento);
-            log.debug("✓ Evento publicado correctamente");
-        } catch (Exception e) {
-            log.error("Error publicando evento: {}", e.getMessage(), e);
-            // No lanzar excepción para no afectar el flujo principal
-        }
+        eventPublisher.publishEvent(evento);
+        log.debug("✓ Evento publicado correctamente");
     }
 
     /**
@@ -6,6 +6,8 @@ import java.util.Optional;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,8 +18,8 @@ import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EventoInteraccion;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.MetricaCampana;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.TipoInteraccion;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.ILeadPort;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.cache.InteraccionDedupIndex;
 import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaEmailMetadataRepository;
-import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaInteraccionLogRepository;
 import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaMetricaMailingRepository;
 import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
 
@@ -28,7 +30,7 @@ import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
 @Slf4j
 public class WebhookResendService {
 
-    private final JpaInteraccionLogRepository interaccionRepo;
+    private final InteraccionDedupIndex dedupIndex;
     private final JpaMetricaMailingRepository metricasRepo;
     private final JpaEmailMetadataRepository emailMetadataRepo;
     private final ILeadPort leadPort;
@@ -216,6 +218,11 @@ public class WebhookResendService {
     // TRACKING PROPIO
     // ========================================================================
 
+    /**
+     * Registra un clic y lo deriva a Ventas en la misma transacción. Si la
+     * derivación falla la excepción se propaga, la transacción se revierte y
+     * la clave de deduplicación se libera: el siguiente clic se procesa.
+     */
     @CacheEvict(value = "mailing_metricas", key = "#idCampana")
     public void procesarClicTracking(Integer idCampana, String email) {
         log.info("╔══════════════════════════════════════════════════════════════╗");
@@ -225,43 +232,38 @@ public class WebhookResendService {
         log.info("║  Email: {}", email);
         log.info("╚══════════════════════════════════════════════════════════════╝");
         
-        try {
-            Optional<LeadInfoDTO> leadInfoOpt = leadPort.findLeadInfoByEmail(email);
-            
-            if (leadInfoOpt.isEmpty()) {
-                log.warn("  ⚠ Lead no encontrado");
-                return;
-            }
-
-            LeadInfoDTO leadInfo = leadInfoOpt.get();
-            Long idLead = leadInfo.getLeadId();
-            
-            log.info("  ✓ Lead: {} (ID: {})", leadInfo.getNombreCompleto(), idLead);
+        Optional<LeadInfoDTO> leadInfoOpt = leadPort.findLeadInfoByEmail(email);
+        
+        if (leadInfoOpt.isEmpty()) {
+            log.warn("  ⚠ Lead no encontrado");
+            return;
+        }
 
-            if (yaExisteInteraccion(idCampana, idLead, TipoInteraccion.CLIC.getId())) {
-                log.info("  ℹ Clic duplicado, ignorando");
-                return;
-            }
+        LeadInfoDTO leadInfo = leadInfoOpt.get();
+        Long idLead = leadInfo.getLeadId();
+        
+        log.info("  ✓ Lead: {} (ID: {})", leadInfo.getNombreCompleto(), idLead);
 
-            // PATRÓN OBSERVER: Publicar evento CLIC
-            EventoInteraccion evento = EventoInteraccion.builder()
-                    .idCampanaMailingId(idCampana)
-                    .tipoEvento(TipoInteraccion.CLIC)
-                    .emailContacto(email)
-                    .idContactoCrm(idLead)
-                    .fechaEvento(LocalDateTime.now())
-                    .build();
-            
-            log.info("  📤 Publicando evento CLIC...");
-            eventoPublisher.publicarClic(evento);
+        if (yaExisteInteraccion(idCampana, idLead, TipoInteraccion.CLIC.getId())) {
+            log.info("  ℹ Clic duplicado, ignorando");
+            return;
+        }
 
-            log.info("═══════════════════════════════════════════════════════════════");
-            log.info("  ✓ Evento CLIC publicado - Observers procesarán");
-            log.info("═══════════════════════════════════════════════════════════════");
+        // PATRÓN OBSERVER: Publicar evento CLIC (DerivarAVentasObserver corre aquí mismo)
+        EventoInteraccion evento = EventoInteraccion.builder()
+                .idCampanaMailingId(idCampana)
+                .tipoEvento(TipoInteraccion.CLIC)
+                .emailContacto(email)
+                .idContactoCrm(idLead)
+                .fechaEvento(LocalDateTime.now())
+                .build();
+        
+        log.info("  📤 Publicando evento CLIC...");
+        eventoPublisher.publicarClic(evento);
 
-        } catch (Exception e) {
-            log.error("  ✗ Error: {}", e.getMessage(), e);
-        }
+        log.info("═══════════════════════════════════════════════════════════════");
+        log.info("  ✓ Evento CLIC publicado - Observers procesarán");
+        log.info("═══════════════════════════════════════════════════════════════");
     }
 
     @CacheEvict(value = "mailing_metricas", key = "#idCampana")
@@ -305,10 +307,27 @@ public class WebhookResendService {
     }
     // MÉTODOS AUXILIARES
 
+    /**
+     * Deduplicación contra el índice en memoria (filtro de Bloom + Set exacto).
+     * Si la interacción es nueva su clave queda reservada; se libera si esta
+     * transacción se revierte o si RegistrarInteraccionObserver no consigue
+     * guardarla.
+     */
     private boolean yaExisteInteraccion(Integer idCampana, Long idLead, Integer tipoEvento) {
-        return interaccionRepo.existsByIdCampanaMailingIdAndIdContactoCrmAndIdTipoEvento(
-            idCampana, idLead, tipoEvento
-        );
+        if (!dedupIndex.registrarSiNueva(idCampana, idLead, tipoEvento)) {
+            return true;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        dedupIndex.liberar(idCampana, idLead, tipoEvento);
+                    }
+                }
+            });
+        }
+        return false;
     }
 
     private void actualizarMetricaEntregado(Integer idCampana) {
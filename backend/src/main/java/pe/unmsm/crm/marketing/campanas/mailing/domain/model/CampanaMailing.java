@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 @Table(name = "campanas_mailing", indexes = {
     @Index(name = "idx_mailing_estado", columnList = "id_estado"),
     @Index(name = "idx_mailing_agente_estado", columnList = "id_agente_asignado, id_estado"),
-    @Index(name = "idx_mailing_fecha_inicio", columnList = "fecha_inicio")
+    @Index(name = "idx_mailing_fecha_inicio", columnList = "fecha_inicio"),
+    @Index(name = "idx_mailing_estado_fecha_inicio", columnList = "id_estado, fecha_inicio"),
+    @Index(name = "idx_mailing_estado_fecha_fin", columnList = "id_estado, fecha_fin")
 })
 @Data
 @Builder
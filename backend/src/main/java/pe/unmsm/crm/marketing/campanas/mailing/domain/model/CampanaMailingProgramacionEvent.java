@@ -0,0 +1,16 @@
+package pe.unmsm.crm.marketing.campanas.mailing.domain.model;
+
+import lombok.*;
+
+/**
+ * Evento publicado cuando cambia el estado o las fechas de una campaña de mailing
+ * (marcada LISTO, reprogramada, editada, pausada o cancelada).
+ *
+ * MailingDispatchScheduler lo escucha tras el commit para registrar o cancelar
+ * el trigger de envío a la hora exacta de fecha_inicio.
+ */
+@Getter
+@AllArgsConstructor
+public class CampanaMailingProgramacionEvent {
+    private Integer idCampana;
+}
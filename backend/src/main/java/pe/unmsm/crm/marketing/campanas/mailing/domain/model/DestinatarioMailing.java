@@ -0,0 +1,16 @@
+package pe.unmsm.crm.marketing.campanas.mailing.domain.model;
+
+import lombok.*;
+
+/**
+ * Destinatario de una campaña de mailing resuelto desde el segmento.
+ * Trae lead_id y nombre junto al email para no volver a consultar leads al enviar.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class DestinatarioMailing {
+    private Long idLead;
+    private String email;
+    private String nombre;
+}
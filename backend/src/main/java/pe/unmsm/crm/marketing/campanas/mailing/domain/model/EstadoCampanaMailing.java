@@ -24,12 +24,25 @@ public enum EstadoCampanaMailing {
         return nombre;
     }
 
-    public static EstadoCampanaMailing fromId(Integer id) {
+    // Índice por id: fromId es una lectura de arreglo
+    private static final EstadoCampanaMailing[] POR_ID;
+
+    static {
+        int max = 0;
+        for (EstadoCampanaMailing estado : values()) {
+            max = Math.max(max, estado.id);
+        }
+        POR_ID = new EstadoCampanaMailing[max + 1];
         for (EstadoCampanaMailing estado : values()) {
-            if (estado.id.equals(id)) {
-                return estado;
-            }
+            POR_ID[estado.id] = estado;
+        }
+    }
+
+    public static EstadoCampanaMailing fromId(Integer id) {
+        EstadoCampanaMailing estado = id != null && id >= 0 && id < POR_ID.length ? POR_ID[id] : null;
+        if (estado == null) {
+            throw new IllegalArgumentException("Estado desconocido: " + id);
         }
-        throw new IllegalArgumentException("Estado desconocido: " + id);
+        return estado;
     }
 }
@@ -2,13 +2,16 @@ package pe.unmsm.crm.marketing.campanas.mailing.domain.observer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EventoInteraccion;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.MetricaCampana;
 import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaMetricaMailingRepository;
+import pe.unmsm.crm.marketing.shared.config.AsyncConfig;
 import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
 
 import java.time.LocalDateTime;
@@ -27,6 +30,8 @@ import java.time.LocalDateTime;
  * - CLIC → Incrementa clics
  * - REBOTE → Incrementa rebotes
  * - BAJA → Incrementa bajas
+ *
+ * Corre tras el commit del webhook: una interacción revertida no se cuenta.
  */
 @Component
 @RequiredArgsConstructor
@@ -35,9 +40,9 @@ public class ActualizarMetricasObserver {
 
     private final JpaMetricaMailingRepository metricasRepo;
 
-    @EventListener
-    @Async
-    @Transactional
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Async(AsyncConfig.EJECUTOR_LATENCIA)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void onEventoInteraccion(EventoInteraccion evento) {
         try {
             log.debug("Observer [MÉTRICAS]: {} - Campaña {}", 
@@ -3,7 +3,6 @@ package pe.unmsm.crm.marketing.campanas.mailing.domain.observer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import pe.unmsm.crm.marketing.campanas.mailing.api.dto.request.LeadVentasRequest;
 import pe.unmsm.crm.marketing.campanas.mailing.api.dto.response.LeadInfoDTO;
@@ -30,8 +29,13 @@ import java.util.Optional;
  * 
  * VENTAJA DEL OBSERVER:
  * - Desacoplamiento total
- * - Se ejecuta de forma asíncrona
- * - No afecta el flujo principal si falla
+ * - Se ejecuta dentro de la transacción que procesa el clic: la derivación
+ *   queda en el outbox junto con ella o no queda. Los errores se propagan y
+ *   revierten el clic completo (incluida la reserva en el índice de
+ *   deduplicación), así que el siguiente clic vuelve a derivar
+ * - La clave de idempotencia del outbox (INSERT IGNORE) evita derivar dos
+ *   veces el mismo lead por campaña; el envío HTTP a Ventas lo hace
+ *   OutboxRelay
  */
 @Component
 @RequiredArgsConstructor
@@ -43,66 +47,58 @@ public class DerivarAVentasObserver {
     private final ILeadPort leadPort;
 
     @EventListener
-    @Async
     public void onEventoInteraccion(EventoInteraccion evento) {
-        try {
-            // Solo derivar cuando hay CLIC
-            if (evento.getTipoEvento() != TipoInteraccion.CLIC) {
-                return;
-            }
-            
-            log.info("Observer [VENTAS]: Derivando lead...");
-            log.info("  Campaña: {}", evento.getIdCampanaMailingId());
-            log.info("  Lead: {}", evento.getIdContactoCrm());
-            
-            // Obtener campaña
-            CampanaMailing campana = campanaRepo
-                    .findById(evento.getIdCampanaMailingId())
-                    .orElse(null);
-            
-            if (campana == null) {
-                log.warn("  ⚠ Campaña no encontrada");
-                return;
-            }
-            
-            // Obtener información completa del lead
-            Optional<LeadInfoDTO> leadInfoOpt = leadPort
-                    .findLeadInfoById(evento.getIdContactoCrm());
-            
-            if (leadInfoOpt.isEmpty()) {
-                log.warn("  ⚠ Lead no encontrado");
-                return;
-            }
-            
-            LeadInfoDTO leadInfo = leadInfoOpt.get();
-            
-            // Construir request para Ventas
-            LeadVentasRequest request = LeadVentasRequest.builder()
-                    .idLeadMarketing(leadInfo.getLeadId())
-                    .nombres(leadInfo.getNombresParaVentas())
-                    .apellidos(leadInfo.getApellidosParaVentas())
-                    .correo(evento.getEmailContacto())
-                    .telefono(leadInfo.getTelefonoParaVentas())
-                    .canalOrigen("CAMPANIA_MAILING")
-                    .idCampaniaMarketing(campana.getIdCampanaGestion())
-                    .nombreCampania(campana.getNombre())
-                    .tematica(campana.getTematica())
-                    .descripcion(campana.getDescripcion())
-                    .notasLlamada(generarNotas(campana, leadInfo))
-                    .fechaEnvio(LocalDateTime.now())
-                    .build();
-            
-            // Derivar a Ventas
-            boolean exito = ventasPort.derivarLeadInteresado(request);
-            
-            if (exito) {
-                log.info("  ✓ Lead derivado exitosamente");
-            } else {
-                log.warn("  ⚠ No se pudo derivar");
-            }
-            
-        } catch (Exception e) {
-            log.error("Observer [VENTAS]: Error - {}", e.getMessage());
+        // Solo derivar cuando hay CLIC
+        if (evento.getTipoEvento() != TipoInteraccion.CLIC) {
+            return;
+        }
+        
+        log.info("Observer [VENTAS]: Derivando lead...");
+        log.info("  Campaña: {}", evento.getIdCampanaMailingId());
+        log.info("  Lead: {}", evento.getIdContactoCrm());
+        
+        // Obtener campaña
+        CampanaMailing campana = campanaRepo
+                .findById(evento.getIdCampanaMailingId())
+                .orElse(null);
+        
+        if (campana == null) {
+            log.warn("  ⚠ Campaña no encontrada");
+            return;
+        }
+        
+        // Obtener información completa del lead
+        Optional<LeadInfoDTO> leadInfoOpt = leadPort
+                .findLeadInfoById(evento.getIdContactoCrm());
+        
+        if (leadInfoOpt.isEmpty()) {
+            log.warn("  ⚠ Lead no encontrado");
+            return;
+        }
+        
+        LeadInfoDTO leadInfo = leadInfoOpt.get();
+        
+        // Construir request para Ventas
+        LeadVentasRequest request = LeadVentasRequest.builder()
+                .idLeadMarketing(leadInfo.getLeadId())
+                .nombres(leadInfo.getNombresParaVentas())
+                .apellidos(leadInfo.getApellidosParaVentas())
+                .correo(evento.getEmailContacto())
+                .telefono(leadInfo.getTelefonoParaVentas())
+                .canalOrigen("CAMPANIA_MAILING")
+                .idCampaniaMarketing(campana.getIdCampanaGestion())
+                .nombreCampania(campana.getNombre())
+                .tematica(campana.getTematica())
+                .descripcion(campana.getDescripcion())
+                .notasLlamada(generarNotas(campana, leadInfo))
+                .fechaEnvio(LocalDateTime.now())
+                .build();
+        
+        // Derivar a Ventas (un error del outbox revierte el clic)
+        if (ventasPort.derivarLeadInteresado(request)) {
+            log.info("  ✓ Lead derivado exitosamente");
+        } else {
+            log.warn("  ⚠ No se pudo derivar: datos incompletos");
         }
     }
 
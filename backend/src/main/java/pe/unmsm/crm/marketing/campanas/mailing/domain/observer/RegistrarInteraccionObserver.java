@@ -1,14 +1,17 @@
 package pe.unmsm.crm.marketing.campanas.mailing.domain.observer;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EventoInteraccion;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.InteraccionLog;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.cache.InteraccionDedupIndex;
 import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaInteraccionLogRepository;
+import pe.unmsm.crm.marketing.shared.config.AsyncConfig;
 
 /**
  * ✅ PATRÓN OBSERVER
@@ -20,18 +23,32 @@ import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaI
  * - Guardar en la tabla interacciones_log
  * 
  * NOTA: Este observer se ejecuta de forma asíncrona
- * para no bloquear el hilo principal.
+ * para no bloquear el hilo principal, tras el commit del webhook (un clic
+ * revertido por fallar su derivación a Ventas no se registra).
+ *
+ * El guardado corre en su propia transacción: si falla (incluido el commit)
+ * se libera la clave que WebhookResendService reservó en el índice de
+ * deduplicación, para que el reintento del webhook se procese; si se guarda
+ * se confirma.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class RegistrarInteraccionObserver {
 
     private final JpaInteraccionLogRepository interaccionRepo;
+    private final InteraccionDedupIndex dedupIndex;
+    private final TransactionTemplate transactionTemplate;
 
-    @EventListener
-    @Async
-    @Transactional
+    public RegistrarInteraccionObserver(JpaInteraccionLogRepository interaccionRepo,
+            InteraccionDedupIndex dedupIndex,
+            PlatformTransactionManager transactionManager) {
+        this.interaccionRepo = interaccionRepo;
+        this.dedupIndex = dedupIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Async(AsyncConfig.EJECUTOR_LATENCIA)
     public void onEventoInteraccion(EventoInteraccion evento) {
         try {
             log.debug("Observer [LOG]: {} - Campaña {}", 
@@ -45,11 +62,15 @@ public class RegistrarInteraccionObserver {
                     .fechaEvento(evento.getFechaEvento())
                     .build();
             
-            interaccionRepo.save(interaccion);
+            transactionTemplate.executeWithoutResult(status -> interaccionRepo.save(interaccion));
+            dedupIndex.confirmar(evento.getIdCampanaMailingId(), evento.getIdContactoCrm(),
+                    evento.getTipoEvento().getId());
             
             log.debug("  ✓ Interacción guardada en BD");
             
         } catch (Exception e) {
+            dedupIndex.liberar(evento.getIdCampanaMailingId(), evento.getIdContactoCrm(),
+                    evento.getTipoEvento().getId());
             log.error("Observer [LOG]: Error - {}", e.getMessage());
         }
     }
@@ -1,8 +1,23 @@
 package pe.unmsm.crm.marketing.campanas.mailing.domain.port.output;
 
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
-import java.util.List;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.DestinatarioMailing;
+
+import java.util.Iterator;
 
 public interface IMailingPort {
-    void enviarEmails(CampanaMailing campaña, List<String> emails);
-}
\ No newline at end of file
+
+    /**
+     * Envía la campaña consumiendo los destinatarios de forma perezosa.
+     *
+     * @return cantidad de emails enviados exitosamente
+     */
+    int enviarEmails(CampanaMailing campaña, Iterator<DestinatarioMailing> destinatarios);
+
+    /**
+     * Envía la campaña a un único destinatario.
+     *
+     * @throws pe.unmsm.crm.marketing.shared.infra.exception.ExternalServiceException si el envío falla
+     */
+    void enviarEmail(CampanaMailing campaña, DestinatarioMailing destinatario);
+}
@@ -1,8 +1,23 @@
 package pe.unmsm.crm.marketing.campanas.mailing.domain.port.output;
 
-import java.util.List;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.DestinatarioMailing;
+
+import java.util.Iterator;
 
 public interface ISegmentoPort {
-    List<String> obtenerEmailsSegmento(Long idSegmento);
+
+    /**
+     * Abre un cursor perezoso sobre los destinatarios del segmento.
+     * Los registros se leen por bloques, así que la memoria no depende del tamaño del segmento.
+     */
+    Iterator<DestinatarioMailing> abrirCursorDestinatarios(Long idSegmento);
+
+    /**
+     * Como {@link #abrirCursorDestinatarios(Long)}, pero empieza después del
+     * lead indicado (los destinatarios salen ordenados por lead). Sirve para
+     * retomar un envío interrumpido.
+     */
+    Iterator<DestinatarioMailing> abrirCursorDestinatarios(Long idSegmento, long despuesDeLead);
+
     Integer contarMiembros(Long idSegmento);
-}
\ No newline at end of file
+}
@@ -0,0 +1,349 @@
+package pe.unmsm.crm.marketing.campanas.mailing.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EstadoCampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.TipoInteraccion;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.ISegmentoPort;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaCampanaMailingRepository;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaInteraccionLogRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Índice en memoria para la deduplicación de interacciones de mailing.
+ *
+ * Por cada campaña ENVIADA mantiene:
+ * - Un filtro de Bloom dimensionado con los destinatarios de la campaña
+ *   (destinatarios × tipos de interacción, hasta {@link #MAX_CLAVES_FILTRO})
+ * - Un Set concurrente exacto de claves (lead, tipo), hasta {@link #MAX_CLAVES_EXACTAS}
+ *
+ * MEMORIA:
+ * - Solo se indexan campañas que están ENVIADAS; se comprueba antes de
+ *   reservar el filtro. El resto (o un id inexistente, la URL de tracking es
+ *   pública) se deduplica contra interacciones_log
+ * - A lo sumo {@code app.mailing.dedup.max-campanas} índices; el menos usado
+ *   se expulsa y, si vuelve a hacer falta, se reconstruye desde la BD
+ *
+ * SATURACIÓN: cuando el Set exacto se llena, las claves nuevas solo quedan
+ * en el Set mientras su interacción está pendiente de guardar. Los positivos
+ * del filtro se confirman entonces contra la BD, con la clave ya reservada
+ * en el Set, así que el check-and-add sigue siendo atómico.
+ *
+ * RESERVA: {@link #registrarSiNueva} deja la clave registrada antes de que la
+ * interacción se guarde (así dos webhooks concurrentes no pasan ambos).
+ * RegistrarInteraccionObserver llama a {@link #confirmar} cuando la guarda, o
+ * a {@link #liberar} si falla, para que el reintento no se descarte como duplicado.
+ *
+ * CICLO DE VIDA:
+ * - Se precarga al iniciar con las campañas ENVIADAS
+ * - Campañas ENVIADAS no precargadas se cargan bajo demanda la primera vez
+ * - MailingScheduler descarta el índice cuando la campaña pasa a FINALIZADO
+ */
+@Component
+@Slf4j
+public class InteraccionDedupIndex {
+
+    static final int MAX_CLAVES_EXACTAS = 200_000;
+    static final int MAX_CLAVES_FILTRO = 4_000_000;
+    private static final int TIPOS_INTERACCION = TipoInteraccion.values().length;
+
+    private final JpaInteraccionLogRepository interaccionRepo;
+    private final JpaCampanaMailingRepository campanaRepo;
+    private final ISegmentoPort segmentoPort;
+
+    private final Cache<Integer, IndiceCampana> indices;
+
+    /**
+     * Campañas que no se indexan (no ENVIADAS o inexistentes). Evita repetir
+     * la consulta de estado en cada webhook; caduca por si la campaña pasa
+     * a ENVIADO más tarde.
+     */
+    private final Cache<Integer, Boolean> noIndexables = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(5, TimeUnit.MINUTES)
+            .build();
+
+    public InteraccionDedupIndex(JpaInteraccionLogRepository interaccionRepo,
+            JpaCampanaMailingRepository campanaRepo,
+            ISegmentoPort segmentoPort,
+            @Value("${app.mailing.dedup.max-campanas:100}") long maxCampanas) {
+        this.interaccionRepo = interaccionRepo;
+        this.campanaRepo = campanaRepo;
+        this.segmentoPort = segmentoPort;
+        this.indices = Caffeine.newBuilder()
+                .maximumSize(maxCampanas)
+                .build();
+    }
+
+    /**
+     * Precarga los índices de las campañas ENVIADAS al iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long inicio = System.currentTimeMillis();
+        try {
+            List<Integer> enviadas = campanaRepo.findIdsByIdEstado(EstadoCampanaMailing.ENVIADO.getId());
+            enviadas.forEach(this::indice);
+            log.info("✓ Índice de deduplicación cargado: {} campañas en {}ms",
+                    campanasIndexadas(), System.currentTimeMillis() - inicio);
+        } catch (Exception e) {
+            log.error("✗ Error precargando índice de deduplicación: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registra la interacción si es nueva.
+     *
+     * Operación atómica check-and-add: dos webhooks concurrentes del mismo
+     * evento no pueden devolver true ambos. La clave queda reservada hasta
+     * que la interacción se guarda ({@link #confirmar}); si no se guarda hay
+     * que llamar a {@link #liberar}.
+     *
+     * @return true si la interacción no se había visto (debe publicarse),
+     *         false si es duplicada
+     */
+    public boolean registrarSiNueva(Integer idCampana, Long idLead, Integer idTipo) {
+        IndiceCampana indice = indice(idCampana);
+        if (indice == null) {
+            return !existeEnBD(idCampana, idLead, idTipo);
+        }
+        return indice.registrar(clave(idLead, idTipo), () -> existeEnBD(idCampana, idLead, idTipo));
+    }
+
+    /**
+     * La interacción reservada ya está guardada: con el índice saturado la
+     * clave deja de ocupar el Set y pasa a responderla el filtro + la BD.
+     */
+    public void confirmar(Integer idCampana, Long idLead, Integer idTipo) {
+        IndiceCampana indice = indices.getIfPresent(idCampana);
+        if (indice != null) {
+            indice.confirmar(clave(idLead, idTipo));
+        }
+    }
+
+    /**
+     * Quita una clave reservada por {@link #registrarSiNueva} cuya interacción
+     * no se llegó a guardar.
+     *
+     * El filtro de Bloom no admite borrados, pero mientras el Set exacto no
+     * está saturado es él quien decide; saturado, el positivo del filtro se
+     * confirma contra la BD, donde la interacción no existe.
+     */
+    public void liberar(Integer idCampana, Long idLead, Integer idTipo) {
+        IndiceCampana indice = indices.getIfPresent(idCampana);
+        if (indice != null) {
+            indice.quitar(clave(idLead, idTipo));
+        }
+    }
+
+    /**
+     * Libera el índice de una campaña finalizada
+     */
+    public void descartarCampana(Integer idCampana) {
+        noIndexables.put(idCampana, Boolean.TRUE);
+        IndiceCampana eliminado = indices.asMap().remove(idCampana);
+        if (eliminado != null) {
+            log.debug("Índice de deduplicación liberado para campaña {} ({} claves)",
+                    idCampana, eliminado.tamanio());
+        }
+    }
+
+    public int campanasIndexadas() {
+        indices.cleanUp();
+        return (int) indices.estimatedSize();
+    }
+
+    /**
+     * Índice de la campaña, cargándolo si está ENVIADA; null si no se indexa
+     */
+    private IndiceCampana indice(Integer idCampana) {
+        if (noIndexables.getIfPresent(idCampana) != null) {
+            return null;
+        }
+        return indices.get(idCampana, this::cargarIndice);
+    }
+
+    private IndiceCampana cargarIndice(Integer idCampana) {
+        var campana = campanaRepo.findById(idCampana)
+                .filter(c -> EstadoCampanaMailing.ENVIADO.getId().equals(c.getIdEstado()))
+                .orElse(null);
+        if (campana == null) {
+            noIndexables.put(idCampana, Boolean.TRUE);
+            return null;
+        }
+
+        Integer destinatarios = segmentoPort.contarMiembros(campana.getIdSegmento());
+        List<Object[]> claves = interaccionRepo.findClavesByCampana(idCampana);
+        long esperadas = Math.max((long) (destinatarios != null ? destinatarios : 0) * TIPOS_INTERACCION,
+                claves.size());
+
+        IndiceCampana indice = new IndiceCampana((int) Math.min(esperadas, MAX_CLAVES_FILTRO),
+                MAX_CLAVES_EXACTAS);
+        for (Object[] fila : claves) {
+            indice.cargar(clave(((Number) fila[0]).longValue(), ((Number) fila[1]).intValue()));
+        }
+        log.debug("Índice de deduplicación cargado para campaña {}: {} claves ({} esperadas)",
+                idCampana, claves.size(), esperadas);
+        return indice;
+    }
+
+    private boolean existeEnBD(Integer idCampana, Long idLead, Integer idTipo) {
+        return interaccionRepo.existsByIdCampanaMailingIdAndIdContactoCrmAndIdTipoEvento(
+                idCampana, idLead, idTipo);
+    }
+
+    /**
+     * Empaqueta (lead, tipo) en un long: los tipos de interacción caben en 3 bits
+     */
+    static long clave(long idLead, int idTipo) {
+        return (idLead << 3) | (idTipo & 0x7);
+    }
+
+    /**
+     * Filtro de Bloom + Set exacto de una campaña
+     */
+    static final class IndiceCampana {
+
+        private static final int BITS_POR_CLAVE = 10;
+        private static final int NUM_HASHES = 7;
+
+        private final AtomicLongArray bits;
+        private final int numBits;
+        private final int maxExactas;
+        private final Set<Long> exactas = ConcurrentHashMap.newKeySet();
+        /** Claves registradas ya saturado, en el Set solo hasta confirmarse */
+        private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+        /** Una vez saturado no se vuelve atrás: las claves confirmadas ya no están en el Set */
+        private volatile boolean saturado;
+
+        IndiceCampana(int clavesEsperadas, int maxExactas) {
+            this.maxExactas = Math.max(1, Math.min(clavesEsperadas, maxExactas));
+            int palabras = (int) Math.max(1, ((long) clavesEsperadas * BITS_POR_CLAVE + 63) / 64);
+            this.bits = new AtomicLongArray(palabras);
+            this.numBits = palabras * 64;
+        }
+
+        /**
+         * Check-and-add atómico: el add del Set es la reserva de la clave.
+         * Mientras hay espacio la clave se queda en el Set; saturado, un
+         * positivo del filtro se confirma con existeEnBD ya con la clave
+         * reservada, así que un segundo registro concurrente no puede pasar.
+         *
+         * @return true si la clave no estaba registrada
+         */
+        boolean registrar(long clave, BooleanSupplier existeEnBD) {
+            if (!exactas.add(clave)) {
+                return false;
+            }
+            if (!saturado) {
+                marcar(clave);
+                if (exactas.size() >= maxExactas) {
+                    saturado = true;
+                }
+                return true;
+            }
+
+            boolean existe;
+            try {
+                existe = posiblementeContiene(clave) && existeEnBD.getAsBoolean();
+            } catch (RuntimeException e) {
+                exactas.remove(clave);
+                throw e;
+            }
+            if (existe) {
+                exactas.remove(clave);
+                return false;
+            }
+            pendientes.add(clave);
+            marcar(clave);
+            return true;
+        }
+
+        /**
+         * Carga una clave ya guardada en la BD
+         */
+        void cargar(long clave) {
+            marcar(clave);
+            if (!saturado) {
+                exactas.add(clave);
+                if (exactas.size() >= maxExactas) {
+                    saturado = true;
+                }
+            }
+        }
+
+        /**
+         * La clave ya está en la BD: si se registró saturado deja el Set
+         * (el filtro queda marcado, así que un repetido se confirma en la BD)
+         */
+        void confirmar(long clave) {
+            if (pendientes.remove(clave)) {
+                exactas.remove(clave);
+            }
+        }
+
+        void quitar(long clave) {
+            pendientes.remove(clave);
+            exactas.remove(clave);
+        }
+
+        int tamanio() {
+            return exactas.size();
+        }
+
+        boolean saturado() {
+            return saturado;
+        }
+
+        boolean posiblementeContiene(long clave) {
+            long h = mezclar(clave);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, numBits);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void marcar(long clave) {
+            long h = mezclar(clave);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, numBits);
+                int palabra = bit >>> 6;
+                long mascara = 1L << bit;
+                long actual;
+                do {
+                    actual = bits.get(palabra);
+                    if ((actual & mascara) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+            }
+        }
+
+        /**
+         * Mezclador de SplitMix64 para repartir bien claves consecutivas
+         */
+        private static long mezclar(long x) {
+            x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+            x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+            return x ^ (x >>> 31);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package pe.unmsm.crm.marketing.campanas.mailing.infra.client;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.DestinatarioMailing;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Cursor sobre los destinatarios de un segmento con paginación keyset.
+ *
+ * Cada bloque es un JOIN segmento_miembro + leads ordenado por id_miembro y
+ * filtrado con "id_miembro > último visto", así que cada página es un rango
+ * sobre la PK (id_segmento, tipo_miembro, id_miembro) y cuesta lo mismo sin
+ * importar cuántas se hayan leído antes (sin OFFSET).
+ * Solo se mantiene en memoria un bloque a la vez.
+ */
+class DestinatariosSegmentoCursor implements Iterator<DestinatarioMailing> {
+
+    private static final String SQL_BLOQUE = """
+            SELECT l.lead_id, l.email, l.nombre_completo
+            FROM segmento_miembro sm
+            INNER JOIN leads l ON sm.id_miembro = l.lead_id
+            WHERE sm.id_segmento = ?
+            AND sm.tipo_miembro = 'LEAD'
+            AND sm.id_miembro > ?
+            AND l.email IS NOT NULL
+            AND l.email != ''
+            ORDER BY sm.id_miembro
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Long idSegmento;
+    private final int tamanioBloque;
+
+    private List<DestinatarioMailing> bloque = List.of();
+    private int posicion = 0;
+    private long ultimoLeadId;
+    private boolean agotado = false;
+
+    DestinatariosSegmentoCursor(JdbcTemplate jdbcTemplate, Long idSegmento, int tamanioBloque, long despuesDeLead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idSegmento = idSegmento;
+        this.tamanioBloque = tamanioBloque;
+        this.ultimoLeadId = despuesDeLead;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (posicion < bloque.size()) {
+            return true;
+        }
+        if (agotado) {
+            return false;
+        }
+        cargarSiguienteBloque();
+        return posicion < bloque.size();
+    }
+
+    @Override
+    public DestinatarioMailing next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No hay más destinatarios en el segmento " + idSegmento);
+        }
+        return bloque.get(posicion++);
+    }
+
+    private void cargarSiguienteBloque() {
+        bloque = jdbcTemplate.query(SQL_BLOQUE,
+                (rs, rowNum) -> DestinatarioMailing.builder()
+                        .idLead(rs.getLong("lead_id"))
+                        .email(rs.getString("email"))
+                        .nombre(rs.getString("nombre_completo"))
+                        .build(),
+                idSegmento, ultimoLeadId, tamanioBloque);
+        posicion = 0;
+
+        if (bloque.size() < tamanioBloque) {
+            agotado = true;
+        }
+        if (!bloque.isEmpty()) {
+            ultimoLeadId = bloque.get(bloque.size() - 1).getIdLead();
+        }
+    }
+}
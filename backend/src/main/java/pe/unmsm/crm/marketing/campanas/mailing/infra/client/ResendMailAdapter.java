@@ -8,9 +8,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.DestinatarioMailing;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EmailMetadata;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IMailingPort;
-import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.ILeadPort;
 import pe.unmsm.crm.marketing.campanas.mailing.infra.config.ResendConfig;
 import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaEmailMetadataRepository;
 import pe.unmsm.crm.marketing.shared.infra.exception.ExternalServiceException;
@@ -18,7 +18,7 @@ import pe.unmsm.crm.marketing.shared.infra.exception.ExternalServiceException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Iterator;
 
 /**
  * Adapter para envío de emails usando Resend.
@@ -37,11 +37,10 @@ public class ResendMailAdapter implements IMailingPort {
     private final Resend resend;
     private final ResendConfig resendConfig;
     private final JpaEmailMetadataRepository emailMetadataRepo;
-    private final ILeadPort leadPort;
 
     @Override
-    public void enviarEmails(CampanaMailing campana, List<String> emails) {
-        if (emails == null || emails.isEmpty()) {
+    public int enviarEmails(CampanaMailing campana, Iterator<DestinatarioMailing> destinatarios) {
+        if (destinatarios == null || !destinatarios.hasNext()) {
             throw new ExternalServiceException("Resend", "Lista de emails vacía");
         }
 
@@ -50,7 +49,6 @@ public class ResendMailAdapter implements IMailingPort {
         log.info("╠════════════════════════════════════════════════════════════╣");
         log.info("║ Campaña: {} (ID: {})", campana.getNombre(), campana.getId());
         log.info("║ Encuesta ID: {}", campana.getIdEncuesta());
-        log.info("║ Total destinatarios: {}", emails.size());
         log.info("║ From: {}", resendConfig.getFormattedFrom());
         log.info("║ Backend URL: {}", resendConfig.getBackendUrl());
         log.info("║ Frontend URL: {}", resendConfig.getFrontendUrl());
@@ -59,14 +57,15 @@ public class ResendMailAdapter implements IMailingPort {
         int enviados = 0;
         int fallidos = 0;
 
-        for (String email : emails) {
+        while (destinatarios.hasNext()) {
+            DestinatarioMailing destinatario = destinatarios.next();
             try {
-                enviarEmailIndividual(campana, email);
+                enviarEmailIndividual(campana, destinatario.getEmail(), destinatario.getIdLead());
                 enviados++;
-                log.debug("  ✓ Email enviado a: {}", email);
+                log.debug("  ✓ Email enviado a: {}", destinatario.getEmail());
             } catch (Exception e) {
                 fallidos++;
-                log.error("  ✗ Error enviando a {}: {}", email, e.getMessage());
+                log.error("  ✗ Error enviando a {}: {}", destinatario.getEmail(), e.getMessage());
             }
         }
 
@@ -81,19 +80,20 @@ public class ResendMailAdapter implements IMailingPort {
             throw new ExternalServiceException("Resend", 
                 "No se pudo enviar ningún email. Total fallidos: " + fallidos);
         }
+        return enviados;
     }
 
-    private void enviarEmailIndividual(CampanaMailing campana, String destinatario) {
-        try {
-            // ✅ BUSCAR LEAD_ID ANTES DE CONSTRUIR EL HTML
-            Long leadId = leadPort.findLeadIdByEmail(destinatario);
-            
-            if (leadId == null) {
-                log.warn("    ⚠ No se encontró lead_id para {}, se enviará sin tracking de encuesta", destinatario);
-            } else {
-                log.debug("    ✓ Lead encontrado: {} -> lead_id: {}", destinatario, leadId);
-            }
+    @Override
+    public void enviarEmail(CampanaMailing campana, DestinatarioMailing destinatario) {
+        enviarEmailIndividual(campana, destinatario.getEmail(), destinatario.getIdLead());
+    }
 
+    /**
+     * El lead_id llega resuelto desde el cursor del segmento,
+     * así que no se consulta leads por cada destinatario.
+     */
+    private void enviarEmailIndividual(CampanaMailing campana, String destinatario, Long leadId) {
+        try {
             // ✅ CONSTRUIR HTML CON LA URL DE ENCUESTA CORRECTA
             String htmlContent = construirHtmlConTracking(campana, destinatario, leadId);
 
@@ -1,19 +1,12 @@
 package pe.unmsm.crm.marketing.campanas.mailing.infra.client;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.RestClient;
-import org.springframework.web.client.RestClientException;
+import org.springframework.transaction.annotation.Transactional;
 import pe.unmsm.crm.marketing.campanas.mailing.api.dto.request.LeadVentasRequest;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IVentasPort;
+import pe.unmsm.crm.marketing.shared.infra.outbox.OutboxService;
 
 /**
  * Adapter para integración con el módulo de Ventas.
@@ -21,34 +14,20 @@ import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IVentasPort;
  * ENDPOINT DE VENTAS: POST /api/venta/lead/desde-marketing
  * 
  * Este adapter se encarga de:
- * 1. Construir el payload con el formato exacto que espera Ventas
- * 2. Enviar la petición HTTP POST
- * 3. Manejar errores de forma resiliente (no romper el flujo principal)
- * 4. Registrar logs para debugging
+ * 1. Validar el payload con el formato exacto que espera Ventas
+ * 2. Registrarlo en el outbox dentro de la transacción del llamador (la del
+ *    clic); si el INSERT falla la excepción se propaga y revierte el clic
+ * 3. Registrar logs para debugging
+ *
+ * El POST lo hace OutboxRelay en segundo plano, con reintentos y circuito
+ * por destino (ver {@link VentasOutboxDestino}).
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class VentasAdapter implements IVentasPort {
 
-    private final RestClient restClient;
-
-    /**
-     * URL base del módulo de Ventas.
-     * 
-     * IMPORTANTE: Actualiza esto en application.yml o como variable de entorno
-     * cuando tengas la URL real del backend de Ventas.
-     */
-    @Value("${app.ventas.url:http://localhost:8080}")
-    private String ventasBaseUrl;
-
-    /**
-     * Endpoint específico para recibir leads desde Marketing
-     */
-    private static final String ENDPOINT_LEAD_DESDE_MARKETING = "/api/venta/lead/desde-marketing";
-
-    private final ObjectMapper objectMapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule());
+    private final OutboxService outboxService;
 
     /**
      * Deriva un lead interesado al módulo de Ventas.
@@ -57,9 +36,10 @@ public class VentasAdapter implements IVentasPort {
      * indicando interés en la oferta de la campaña.
      * 
      * @param request DTO con toda la información requerida por Ventas
-     * @return true si se derivó correctamente, false si hubo error
+     * @return true si quedó encolado (o ya lo estaba), false si es inválido
      */
     @Override
+    @Transactional
     public boolean derivarLeadInteresado(LeadVentasRequest request) {
         log.info("╔══════════════════════════════════════════════════════════════╗");
         log.info("║          DERIVANDO LEAD A VENTAS                             ║");
@@ -77,56 +57,16 @@ public class VentasAdapter implements IVentasPort {
             return false;
         }
 
-        String url = ventasBaseUrl + ENDPOINT_LEAD_DESDE_MARKETING;
-        log.info("  → URL: {}", url);
-
-        try {
-            // Log del payload para debugging
-            logRequestDetallado(request);
-
-            // Enviar petición a Ventas
-            var response = restClient.post()
-                    .uri(url)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(request)
-                    .retrieve()
-                    .toBodilessEntity();
+        logRequestDetallado(request);
 
-            HttpStatus status = (HttpStatus) response.getStatusCode();
-
-            if (status.is2xxSuccessful()) {
-                log.info("  ✓ Lead derivado exitosamente a Ventas");
-                log.info("    Status: {}", status.value());
-                return true;
-            } else {
-                log.warn("  ⚠ Respuesta inesperada de Ventas: {}", status.value());
-                return false;
-            }
-
-        } catch (HttpClientErrorException e) {
-            // Errores 4xx (bad request, not found, etc.)
-            log.error("  ✗ Error de cliente al derivar a Ventas: {} - {}", 
-                e.getStatusCode(), e.getResponseBodyAsString());
-            logRequestDetallado(request);
-            return false;
-
-        } catch (HttpServerErrorException e) {
-            // Errores 5xx (server error)
-            log.error("  ✗ Error del servidor de Ventas: {} - {}", 
-                e.getStatusCode(), e.getResponseBodyAsString());
-            return false;
-
-        } catch (RestClientException e) {
-            // Errores de conexión, timeout, etc.
-            log.error("  ✗ Error de conexión con Ventas: {}", e.getMessage());
-            log.warn("    Verifica que la URL {} sea correcta y el servicio esté disponible", url);
-            return false;
-
-        } catch (Exception e) {
-            // Cualquier otro error
-            log.error("  ✗ Error inesperado al derivar a Ventas: {}", e.getMessage(), e);
-            return false;
+        // Un mismo lead se deriva una sola vez por campaña aunque haga varios clics
+        String clave = "MAILING:" + request.getIdCampaniaMarketing() + ":" + request.getIdLeadMarketing();
+        if (outboxService.encolar(VentasOutboxDestino.NOMBRE, clave, request)) {
+            log.info("  ✓ Lead encolado para Ventas");
+        } else {
+            log.info("  ✓ Lead ya derivado previamente a Ventas ({})", clave);
         }
+        return true;
     }
 
     /**
@@ -0,0 +1,39 @@
+package pe.unmsm.crm.marketing.campanas.mailing.infra.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pe.unmsm.crm.marketing.shared.infra.outbox.OutboxDestino;
+
+/**
+ * Destino del outbox para los leads derivados desde mailing (CLIC en el CTA).
+ *
+ * ENDPOINT DE VENTAS: POST /api/venta/lead/desde-marketing
+ */
+@Component
+public class VentasOutboxDestino implements OutboxDestino {
+
+    public static final String NOMBRE = "VENTAS";
+
+    private static final String ENDPOINT_LEAD_DESDE_MARKETING = "/api/venta/lead/desde-marketing";
+
+    @Value("${app.ventas.url:http://localhost:8080}")
+    private String ventasBaseUrl;
+
+    @Value("${app.outbox.concurrencia.ventas:4}")
+    private int concurrencia;
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public String getUrl() {
+        return ventasBaseUrl + ENDPOINT_LEAD_DESDE_MARKETING;
+    }
+
+    @Override
+    public int getConcurrencia() {
+        return concurrencia;
+    }
+}
@@ -30,10 +30,10 @@ import java.util.concurrent.TimeUnit;
  *    - TTL: 30 segundos (se actualiza frecuentemente con webhooks)
  *    - Uso: Panel de métricas en campañas enviadas
  * 
- * 4. mailing_segmento_emails
- *    - Almacena: Lista de emails de un segmento
- *    - TTL: 10 minutos (los segmentos no cambian muy frecuentemente)
- *    - Uso: Al preparar envío de campaña
+ * 4. mailing_segmento_count
+ *    - Almacena: Cantidad de miembros de un segmento
+ *    - Uso: Preview de destinatarios (los destinatarios del envío se leen
+ *      con cursor por bloques, no se cachean)
  * 
  * NOTA: El caché se invalida automáticamente en las operaciones de escritura
  * usando @CacheEvict en los métodos correspondientes.
@@ -1,9 +1,11 @@
 package pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
 
 import java.time.LocalDateTime;
@@ -65,6 +67,48 @@ public interface JpaCampanaMailingRepository extends JpaRepository<CampanaMailin
      */
     List<CampanaMailing> findByIdEstadoAndFechaFinBefore(Integer idEstado, LocalDateTime ahora);
 
+    /**
+     * Obtiene solo los IDs de campañas en un estado
+     * Usada para precargar el índice de deduplicación de interacciones
+     */
+    @Query("SELECT c.id FROM CampanaMailing c WHERE c.idEstado = :idEstado")
+    List<Integer> findIdsByIdEstado(@Param("idEstado") Integer idEstado);
+
+    /**
+     * Campañas en un estado (usada al iniciar para registrar los triggers de envío)
+     */
+    List<CampanaMailing> findByIdEstado(Integer idEstado);
+
+    /**
+     * IDs de campañas en un estado cuya fecha_inicio ya llegó
+     * Barrido liviano sobre idx_mailing_estado_fecha_inicio
+     */
+    @Query("SELECT c.id FROM CampanaMailing c WHERE c.idEstado = :idEstado AND c.fechaInicio <= :ahora")
+    List<Integer> findIdsByIdEstadoAndFechaInicioHasta(@Param("idEstado") Integer idEstado,
+                                                        @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * IDs de campañas en un estado cuya fecha_fin ya pasó
+     * Barrido liviano sobre idx_mailing_estado_fecha_fin
+     */
+    @Query("SELECT c.id FROM CampanaMailing c WHERE c.idEstado = :idEstado AND c.fechaFin < :ahora")
+    List<Integer> findIdsByIdEstadoAndFechaFinAntes(@Param("idEstado") Integer idEstado,
+                                                     @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Transición de estado condicional (compare-and-set).
+     * Devuelve 1 solo si la campaña seguía en estadoActual: así dos instancias
+     * no pueden procesar la misma transición.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CampanaMailing c SET c.idEstado = :estadoNuevo, c.fechaActualizacion = :ahora " +
+           "WHERE c.id = :id AND c.idEstado = :estadoActual")
+    int cambiarEstadoSiCoincide(@Param("id") Integer id,
+                                @Param("estadoActual") Integer estadoActual,
+                                @Param("estadoNuevo") Integer estadoNuevo,
+                                @Param("ahora") LocalDateTime ahora);
+
     // ========================================================================
     // QUERIES PARA INTEGRACIÓN CON GESTOR
     // ========================================================================
@@ -86,6 +130,13 @@ public interface JpaCampanaMailingRepository extends JpaRepository<CampanaMailin
     @Query("SELECT c.id FROM CampanaMailing c WHERE c.idAgenteAsignado = :idAgente")
     List<Integer> findIdsByIdAgenteAsignado(@Param("idAgente") Integer idAgente);
 
+    /**
+     * Obtiene solo los IDs de todas las campañas
+     * Usada para el alcance de administradores sin cargar entidades
+     */
+    @Query("SELECT c.id FROM CampanaMailing c")
+    List<Integer> findAllIds();
+
     /**
      * Verifica si una campaña pertenece a un agente
      */
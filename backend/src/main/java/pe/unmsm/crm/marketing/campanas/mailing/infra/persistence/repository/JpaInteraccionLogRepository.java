@@ -55,6 +55,13 @@ public interface JpaInteraccionLogRepository extends JpaRepository<InteraccionLo
         Integer idTipo
     );
 
+    /**
+     * Obtiene solo las claves (id_contacto_crm, id_tipo_evento) de una campaña.
+     * Usada para precargar InteraccionDedupIndex sin materializar entidades.
+     */
+    @Query("SELECT i.idContactoCrm, i.idTipoEvento FROM InteraccionLog i WHERE i.idCampanaMailingId = :idCampana")
+    List<Object[]> findClavesByCampana(@Param("idCampana") Integer idCampana);
+
     /**
      * Cuenta interacciones por campaña y tipo
      * Útil para métricas rápidas
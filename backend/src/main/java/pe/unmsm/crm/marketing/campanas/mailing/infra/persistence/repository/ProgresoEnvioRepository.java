@@ -0,0 +1,145 @@
+package pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+/**
+ * Progreso de los envíos de mailing.
+ *
+ * Tabla: mailing_envio_progreso (id_campana_mailing PK, token, ultimo_lead,
+ * enviados, fallidos, latido, completado_en, intentos_fallidos,
+ * reintentar_desde)
+ *
+ * Cada ejecución que reclama o retoma un envío recibe un token nuevo y solo
+ * puede avanzar mientras ese token siga vigente: si otra ejecución retoma el
+ * envío (la primera se colgó), la anterior deja de poder escribir y se detiene.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProgresoEnvioRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Progreso(Integer idCampana, long token, long ultimoLead, int enviados, int fallidos) {
+    }
+
+    /**
+     * Registra el inicio de un envío (o lo reinicia si había uno pospuesto;
+     * conserva sus intentos fallidos). Debe correr en la transacción que
+     * reclama la campaña.
+     *
+     * @return progreso inicial con el token de esta ejecución
+     */
+    public Progreso iniciar(Integer idCampana) {
+        jdbcTemplate.update(
+                "INSERT INTO mailing_envio_progreso " +
+                "(id_campana_mailing, token, ultimo_lead, enviados, fallidos, latido, completado_en) " +
+                "VALUES (?, 1, 0, 0, 0, ?, NULL) " +
+                "ON DUPLICATE KEY UPDATE token = token + 1, ultimo_lead = 0, enviados = 0, fallidos = 0, " +
+                "latido = VALUES(latido), completado_en = NULL, reintentar_desde = NULL",
+                idCampana, LocalDateTime.now());
+        return buscar(idCampana).orElseThrow();
+    }
+
+    /**
+     * Toma un envío sin completar cuyo último avance es anterior a latidoAntesDe.
+     *
+     * @return progreso con el token nuevo, o vacío si otra ejecución lo tomó o avanzó
+     */
+    public Optional<Progreso> retomar(Integer idCampana, LocalDateTime latidoAntesDe) {
+        int tomados = jdbcTemplate.update(
+                "UPDATE mailing_envio_progreso SET token = token + 1, latido = ? " +
+                "WHERE id_campana_mailing = ? AND completado_en IS NULL AND latido < ?",
+                LocalDateTime.now(), idCampana, latidoAntesDe);
+        return tomados == 1 ? buscar(idCampana) : Optional.empty();
+    }
+
+    /**
+     * Registra un destinatario procesado.
+     *
+     * @return false si el token ya no es el vigente (otra ejecución retomó el envío)
+     */
+    public boolean avanzar(Integer idCampana, long token, long idLead, boolean enviado) {
+        return jdbcTemplate.update(
+                "UPDATE mailing_envio_progreso SET ultimo_lead = ?, enviados = enviados + ?, " +
+                "fallidos = fallidos + ?, latido = ? " +
+                "WHERE id_campana_mailing = ? AND token = ? AND completado_en IS NULL",
+                idLead, enviado ? 1 : 0, enviado ? 0 : 1, LocalDateTime.now(), idCampana, token) == 1;
+    }
+
+    /**
+     * Marca el envío como completado.
+     *
+     * @return totales del envío, o vacío si el token ya no es el vigente
+     */
+    public Optional<Progreso> completar(Integer idCampana, long token) {
+        int completados = jdbcTemplate.update(
+                "UPDATE mailing_envio_progreso SET completado_en = ? " +
+                "WHERE id_campana_mailing = ? AND token = ? AND completado_en IS NULL",
+                LocalDateTime.now(), idCampana, token);
+        return completados == 1 ? buscar(idCampana) : Optional.empty();
+    }
+
+    /**
+     * Registra un envío en el que no salió ningún correo: se reintentará desde
+     * el principio, no antes de la fecha que devuelve reintentarDesde para el
+     * número de intentos fallidos. Debe correr en una transacción.
+     *
+     * @return intentos fallidos seguidos, o 0 si el token ya no es el vigente
+     */
+    public int posponer(Integer idCampana, long token, IntFunction<LocalDateTime> reintentarDesde) {
+        int actualizados = jdbcTemplate.update(
+                "UPDATE mailing_envio_progreso SET intentos_fallidos = intentos_fallidos + 1, " +
+                "ultimo_lead = 0, enviados = 0, fallidos = 0 " +
+                "WHERE id_campana_mailing = ? AND token = ?",
+                idCampana, token);
+        if (actualizados == 0) {
+            return 0;
+        }
+        int intentos = jdbcTemplate.queryForObject(
+                "SELECT intentos_fallidos FROM mailing_envio_progreso WHERE id_campana_mailing = ?",
+                Integer.class, idCampana);
+        jdbcTemplate.update(
+                "UPDATE mailing_envio_progreso SET reintentar_desde = ? WHERE id_campana_mailing = ?",
+                reintentarDesde.apply(intentos), idCampana);
+        return intentos;
+    }
+
+    /**
+     * true si un envío fallido de la campaña está esperando su backoff.
+     */
+    public boolean enEspera(Integer idCampana, LocalDateTime ahora) {
+        return !jdbcTemplate.queryForList(
+                "SELECT 1 FROM mailing_envio_progreso WHERE id_campana_mailing = ? AND reintentar_desde > ?",
+                Integer.class, idCampana, ahora).isEmpty();
+    }
+
+    /**
+     * Envíos sin completar cuyo último avance es anterior a latidoAntesDe
+     */
+    public List<Integer> findIdsEstancados(LocalDateTime latidoAntesDe) {
+        return jdbcTemplate.queryForList(
+                "SELECT id_campana_mailing FROM mailing_envio_progreso " +
+                "WHERE completado_en IS NULL AND latido < ?",
+                Integer.class, latidoAntesDe);
+    }
+
+    public Optional<Progreso> buscar(Integer idCampana) {
+        return jdbcTemplate.query(
+                "SELECT id_campana_mailing, token, ultimo_lead, enviados, fallidos " +
+                "FROM mailing_envio_progreso WHERE id_campana_mailing = ?",
+                (rs, i) -> new Progreso(
+                        rs.getInt("id_campana_mailing"),
+                        rs.getLong("token"),
+                        rs.getLong("ultimo_lead"),
+                        rs.getInt("enviados"),
+                        rs.getInt("fallidos")),
+                idCampana).stream().findFirst();
+    }
+}
@@ -1,5 +1,300 @@
 package pe.unmsm.crm.marketing.campanas.mailing.infra.scheduler;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.DestinatarioMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EstadoCampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.MetricaCampana;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IGestorCampanaPort;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IMailingPort;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.ISegmentoPort;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaCampanaMailingRepository;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaMetricaMailingRepository;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.ProgresoEnvioRepository;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.ProgresoEnvioRepository.Progreso;
+import pe.unmsm.crm.marketing.shared.config.AsyncConfig;
+import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Job de envío de UNA campaña de mailing.
+ *
+ * 1. Reclama la campaña con una transición condicional LISTO -> ENVIADO y
+ *    registra el progreso del envío, en una transacción corta propia, en el
+ *    hilo del llamador. Si otra instancia ya la reclamó, dejó de estar LISTO
+ *    o está esperando el backoff de un intento fallido, no hace nada.
+ * 2. Entrega el envío al ejecutor {@link AsyncConfig#EJECUTOR_ENVIOS} y
+ *    retorna: el trigger y el barrido no quedan ocupados durante el envío.
+ * 3. Recorre los destinatarios del segmento y envía via Resend, fuera de
+ *    transacción. Tras cada destinatario guarda el último lead procesado
+ *    (mailing_envio_progreso), así que un envío interrumpido (o rechazado por
+ *    la cola llena del ejecutor) se retoma con {@link #reanudar} desde donde
+ *    quedó, sin reenviar a nadie.
+ * 4. Marca el envío como completado y actualiza las métricas.
+ *
+ * Segmento sin destinatarios: la campaña pasa a CANCELADO (no hay nada que
+ * enviar y así no se reclama en cada barrido). Si no se pudo enviar ningún
+ * correo (p. ej. Resend caído) la campaña vuelve a LISTO y no se reclama de
+ * nuevo hasta pasado un backoff exponencial
+ * ({@code app.mailing.envio.backoff-min} minutos, duplicándose); tras
+ * {@code app.mailing.envio.max-intentos} intentos seguidos pasa a CANCELADO.
+ * Nadie recibió nada, no hay duplicados.
+ */
+@Component
+@Slf4j
 public class EnvioMailingTask {
-    
+
+    private final JpaCampanaMailingRepository campanaRepo;
+    private final JpaMetricaMailingRepository metricasRepo;
+    private final ProgresoEnvioRepository progresoRepo;
+    private final IMailingPort mailAdapter;
+    private final ISegmentoPort segmentoPort;
+    private final IGestorCampanaPort gestorPort;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor ejecutorEnvios;
+
+    @Value("${app.mailing.envio.max-intentos:5}")
+    private int maxIntentos;
+
+    @Value("${app.mailing.envio.backoff-min:5}")
+    private long backoffMin;
+
+    private static final DateTimeFormatter DTF = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    public EnvioMailingTask(JpaCampanaMailingRepository campanaRepo,
+            JpaMetricaMailingRepository metricasRepo,
+            ProgresoEnvioRepository progresoRepo,
+            IMailingPort mailAdapter,
+            ISegmentoPort segmentoPort,
+            IGestorCampanaPort gestorPort,
+            PlatformTransactionManager transactionManager,
+            @Qualifier(AsyncConfig.EJECUTOR_ENVIOS) Executor ejecutorEnvios) {
+        this.campanaRepo = campanaRepo;
+        this.metricasRepo = metricasRepo;
+        this.progresoRepo = progresoRepo;
+        this.mailAdapter = mailAdapter;
+        this.segmentoPort = segmentoPort;
+        this.gestorPort = gestorPort;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ejecutorEnvios = ejecutorEnvios;
+    }
+
+    /**
+     * Reclama una campaña LISTO y entrega su envío al ejecutor de envíos.
+     */
+    public void ejecutar(Integer idCampana) {
+        ejecutar(idCampana, () -> { });
+    }
+
+    /**
+     * Como {@link #ejecutar(Integer)}, corriendo {@code guarda} dentro de la
+     * transacción del reclamo, antes de escribir (p. ej. lease.verificar()).
+     */
+    public void ejecutar(Integer idCampana, Runnable guarda) {
+        Optional<Progreso> reclamo = transactionTemplate.execute(status -> {
+            guarda.run();
+            if (progresoRepo.enEspera(idCampana, LocalDateTime.now())) {
+                log.debug("    Campaña {} esperando el backoff de un envío fallido", idCampana);
+                return Optional.<Progreso>empty();
+            }
+            int reclamadas = campanaRepo.cambiarEstadoSiCoincide(idCampana,
+                    EstadoCampanaMailing.LISTO.getId(), EstadoCampanaMailing.ENVIADO.getId(), LocalDateTime.now());
+            return reclamadas == 0 ? Optional.<Progreso>empty() : Optional.of(progresoRepo.iniciar(idCampana));
+        });
+
+        if (reclamo.isEmpty()) {
+            log.info("    Campaña {} no reclamada (ya no está LISTO o espera un reintento), omitiendo", idCampana);
+            return;
+        }
+        despachar(reclamo.get());
+    }
+
+    /**
+     * Retoma un envío interrumpido cuyo último avance es anterior a latidoAntesDe.
+     */
+    public void reanudar(Integer idCampana, LocalDateTime latidoAntesDe) {
+        reanudar(idCampana, latidoAntesDe, () -> { });
+    }
+
+    /**
+     * Como {@link #reanudar(Integer, LocalDateTime)}, con {@code guarda} dentro
+     * de la transacción que retoma el envío.
+     */
+    public void reanudar(Integer idCampana, LocalDateTime latidoAntesDe, Runnable guarda) {
+        Optional<Progreso> retomado = transactionTemplate.execute(status -> {
+            guarda.run();
+            return progresoRepo.retomar(idCampana, latidoAntesDe);
+        });
+
+        if (retomado.isEmpty()) {
+            return;
+        }
+        log.warn("    Retomando envío interrumpido de campaña {} desde el lead {} ({} ya enviados)",
+                idCampana, retomado.get().ultimoLead(), retomado.get().enviados());
+        despachar(retomado.get());
+    }
+
+    private void despachar(Progreso progreso) {
+        Integer idCampana = progreso.idCampana();
+        try {
+            ejecutorEnvios.execute(() -> {
+                try {
+                    enviar(progreso);
+                } catch (Exception e) {
+                    // Un envío cortado a mitad lo retoma el barrido de MailingScheduler desde su progreso
+                    log.error("    ✗ Error enviando campaña {}: {}", idCampana, e.getMessage(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("    Cola de envíos llena; el barrido retomará la campaña {} cuando venza su latido", idCampana);
+        }
+    }
+
+    private void enviar(Progreso progreso) {
+        Integer idCampana = progreso.idCampana();
+        long token = progreso.token();
+
+        CampanaMailing campana = campanaRepo.findById(idCampana)
+                .orElseThrow(() -> new NotFoundException("CampanaMailing", idCampana.longValue()));
+
+        if (!EstadoCampanaMailing.ENVIADO.getId().equals(campana.getIdEstado())) {
+            // Envío retomado de una campaña que ya se finalizó o canceló
+            progresoRepo.completar(idCampana, token);
+            log.info("    Campaña {} ya no está ENVIADO, se cierra su envío pendiente", idCampana);
+            return;
+        }
+
+        log.info("    ┌─ Procesando campaña ID: {} - '{}'", campana.getId(), campana.getNombre());
+        log.info("    │  Fecha inicio: {}", campana.getFechaInicio().format(DTF));
+        log.info("    │  Segmento ID: {}", campana.getIdSegmento());
+
+        // 1. Abrir cursor de destinatarios del segmento (lectura por bloques)
+        Iterator<DestinatarioMailing> destinatarios =
+                segmentoPort.abrirCursorDestinatarios(campana.getIdSegmento(), progreso.ultimoLead());
+
+        if (progreso.ultimoLead() == 0 && !destinatarios.hasNext()) {
+            cancelarSinDestinatarios(campana, token);
+            return;
+        }
+
+        // 2. Enviar emails via Resend, registrando el avance por destinatario
+        log.info("    │  Enviando via RESEND...");
+        while (destinatarios.hasNext()) {
+            DestinatarioMailing destinatario = destinatarios.next();
+            boolean enviado;
+            try {
+                mailAdapter.enviarEmail(campana, destinatario);
+                enviado = true;
+            } catch (Exception e) {
+                enviado = false;
+                log.error("  ✗ Error enviando a {}: {}", destinatario.getEmail(), e.getMessage());
+            }
+            if (!progresoRepo.avanzar(idCampana, token, destinatario.getIdLead(), enviado)) {
+                log.warn("    └─ Otra ejecución retomó el envío de la campaña {}, deteniendo", idCampana);
+                return;
+            }
+        }
+
+        // 3. Cerrar el envío y actualizar métricas con lo enviado
+        Boolean cancelada = transactionTemplate.execute(status -> {
+            Optional<Progreso> totales = progresoRepo.completar(idCampana, token);
+            if (totales.isEmpty()) {
+                log.warn("    └─ Otra ejecución retomó el envío de la campaña {}, no se cierra", idCampana);
+                return false;
+            }
+            Progreso total = totales.get();
+
+            if (total.enviados() == 0 && total.fallidos() > 0) {
+                return posponer(idCampana, token, total.fallidos());
+            }
+
+            MetricaCampana metricas = metricasRepo.findByCampanaMailingId(idCampana)
+                    .orElseThrow(() -> new NotFoundException("Métricas", idCampana.longValue()));
+            metricas.setEnviados(total.enviados());
+            metricas.setEntregados(total.enviados()); // Asumimos entrega inicial
+            metricas.setActualizadoEn(LocalDateTime.now());
+            metricasRepo.save(metricas);
+
+            log.info("    └─ ✓ Campaña {} enviada a {} destinatarios ({} fallidos)",
+                    idCampana, total.enviados(), total.fallidos());
+            return false;
+        });
+
+        if (Boolean.TRUE.equals(cancelada)) {
+            notificarCancelacion(campana, "Campaña cancelada: fallaron todos los envíos en " + maxIntentos + " intentos");
+        }
+    }
+
+    /**
+     * Ningún correo salió: la campaña vuelve a LISTO para reintentar desde el
+     * principio tras el backoff, o pasa a CANCELADO si agotó los intentos.
+     * Corre en la transacción que cierra el envío.
+     *
+     * @return true si la campaña quedó CANCELADO
+     */
+    private boolean posponer(Integer idCampana, long token, int fallidos) {
+        LocalDateTime ahora = LocalDateTime.now();
+        int intentos = progresoRepo.posponer(idCampana, token, n -> ahora.plus(backoff(n)));
+        if (intentos == 0) {
+            return false;
+        }
+        if (intentos >= maxIntentos) {
+            log.error("    └─ ✗ Campaña {}: fallaron los {} envíos (intento {} de {}), marcada como CANCELADO",
+                    idCampana, fallidos, intentos, maxIntentos);
+            return campanaRepo.cambiarEstadoSiCoincide(idCampana,
+                    EstadoCampanaMailing.ENVIADO.getId(), EstadoCampanaMailing.CANCELADO.getId(), ahora) > 0;
+        }
+        campanaRepo.cambiarEstadoSiCoincide(idCampana,
+                EstadoCampanaMailing.ENVIADO.getId(), EstadoCampanaMailing.LISTO.getId(), ahora);
+        log.error("    └─ ✗ Campaña {}: fallaron los {} envíos (intento {} de {}), vuelve a LISTO tras {} min",
+                idCampana, fallidos, intentos, maxIntentos, backoff(intentos).toMinutes());
+        return false;
+    }
+
+    /**
+     * backoff-min * 2^(intentos-1) minutos, acotado a 24 h.
+     */
+    private Duration backoff(int intentos) {
+        return Duration.ofMinutes(Math.min(backoffMin << Math.min(intentos - 1, 10), 24 * 60));
+    }
+
+    private void cancelarSinDestinatarios(CampanaMailing campana, long token) {
+        Integer idCampana = campana.getId();
+        Boolean cancelada = transactionTemplate.execute(status -> {
+            if (progresoRepo.completar(idCampana, token).isEmpty()) {
+                return false;
+            }
+            return campanaRepo.cambiarEstadoSiCoincide(idCampana, EstadoCampanaMailing.ENVIADO.getId(),
+                    EstadoCampanaMailing.CANCELADO.getId(), LocalDateTime.now()) > 0;
+        });
+        if (!Boolean.TRUE.equals(cancelada)) {
+            return;
+        }
+
+        log.warn("    └─ ⚠ Segmento {} sin emails, campaña {} marcada como CANCELADO",
+                campana.getIdSegmento(), idCampana);
+        notificarCancelacion(campana, "Campaña cancelada: el segmento no tiene destinatarios con email");
+    }
+
+    private void notificarCancelacion(CampanaMailing campana, String motivo) {
+        try {
+            gestorPort.pausarCampana(campana.getIdCampanaGestion(), motivo);
+        } catch (Exception e) {
+            log.warn("    No se pudo notificar al Gestor: {}", e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,118 @@
+package pe.unmsm.crm.marketing.campanas.mailing.infra.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailingProgramacionEvent;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EstadoCampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaCampanaMailingRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Dispatcher de envíos de mailing por trigger a hora exacta.
+ *
+ * Cuando una campaña pasa a LISTO (o se reprograma) se agenda un trigger en el
+ * TaskScheduler para su fecha_inicio. Si la campaña deja de estar LISTO el trigger se cancela.
+ *
+ * Cada trigger ejecuta EnvioMailingTask, que reclama la campaña con un UPDATE
+ * condicional en su propia transacción, así que triggers duplicados en varias
+ * instancias no producen envíos duplicados. El trigger solo reclama: el envío
+ * corre en el ejecutor de envíos, no en los hilos del TaskScheduler que
+ * comparten todos los @Scheduled.
+ *
+ * Al iniciar registra los triggers de todas las campañas LISTO.
+ */
+@Component
+@Profile("!console")
+@RequiredArgsConstructor
+@Slf4j
+public class MailingDispatchScheduler implements ApplicationRunner {
+
+    private final TaskScheduler taskScheduler;
+    private final JpaCampanaMailingRepository campanaRepo;
+    private final EnvioMailingTask envioTask;
+
+    private final Map<Integer, ScheduledFuture<?>> triggers = new ConcurrentHashMap<>();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("=== MAILING DISPATCH: Registrando triggers de campañas LISTO ===");
+
+        List<CampanaMailing> listas = campanaRepo.findByIdEstado(EstadoCampanaMailing.LISTO.getId());
+        for (CampanaMailing campana : listas) {
+            programarEnvio(campana.getId(), campana.getFechaInicio());
+        }
+
+        log.info("=== MAILING DISPATCH: {} triggers registrados ===", listas.size());
+    }
+
+    /**
+     * Re-evalúa el trigger de una campaña tras el commit del cambio que lo originó
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProgramacionCambiada(CampanaMailingProgramacionEvent evento) {
+        Integer idCampana = evento.getIdCampana();
+        campanaRepo.findById(idCampana).ifPresentOrElse(campana -> {
+            if (EstadoCampanaMailing.LISTO.getId().equals(campana.getIdEstado())) {
+                programarEnvio(idCampana, campana.getFechaInicio());
+            } else {
+                cancelarEnvio(idCampana);
+            }
+        }, () -> cancelarEnvio(idCampana));
+    }
+
+    public void programarEnvio(Integer idCampana, LocalDateTime fechaInicio) {
+        // Cancelar trigger previo si existe (para reprogramaciones)
+        cancelarEnvio(idCampana);
+
+        if (!fechaInicio.isAfter(LocalDateTime.now())) {
+            log.info("Fecha de inicio de campaña {} ya llegó, enviando inmediatamente", idCampana);
+            taskScheduler.schedule(() -> ejecutarEnvio(idCampana), Instant.now());
+            return;
+        }
+
+        ScheduledFuture<?> future = taskScheduler.schedule(
+                () -> ejecutarEnvio(idCampana),
+                fechaInicio.atZone(ZoneId.systemDefault()).toInstant());
+
+        triggers.put(idCampana, future);
+        log.info("Envío programado para campaña de mailing {} a las {}", idCampana, fechaInicio);
+    }
+
+    public void cancelarEnvio(Integer idCampana) {
+        ScheduledFuture<?> future = triggers.remove(idCampana);
+        if (future != null) {
+            future.cancel(false);
+            log.info("Envío programado cancelado para campaña de mailing {}", idCampana);
+        }
+    }
+
+    public boolean tieneEnvioProgramado(Integer idCampana) {
+        return triggers.containsKey(idCampana);
+    }
+
+    private void ejecutarEnvio(Integer idCampana) {
+        triggers.remove(idCampana);
+        try {
+            log.info(">>> EJECUTANDO ENVÍO PROGRAMADO para campaña de mailing {}", idCampana);
+            envioTask.ejecutar(idCampana);
+        } catch (Exception e) {
+            // Un envío cortado a mitad lo retoma el barrido de MailingScheduler desde su progreso
+            log.error("Error en envío programado de campaña {}: {}", idCampana, e.getMessage(), e);
+        }
+    }
+}
@@ -1,34 +1,41 @@
 package pe.unmsm.crm.marketing.campanas.mailing.infra.scheduler;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
-import pe.unmsm.crm.marketing.campanas.mailing.domain.model.MetricaCampana;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EstadoCampanaMailing;
 import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IGestorCampanaPort;
-import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IMailingPort;
-import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.ISegmentoPort;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.cache.InteraccionDedupIndex;
 import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaCampanaMailingRepository;
-import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaMetricaMailingRepository;
-import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.ProgresoEnvioRepository;
+import pe.unmsm.crm.marketing.shared.infra.lease.CoordinadorJobs;
+import pe.unmsm.crm.marketing.shared.infra.lease.LeaseJob;
+import pe.unmsm.crm.marketing.shared.infra.lease.LeaseVencidoException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 /**
- * Scheduler para envío automático de campañas de mailing.
+ * Barridos de estado de campañas de mailing.
  * 
- * Ejecuta cada 5 minutos y realiza 3 tareas:
+ * Los envíos ya no dependen de este barrido: MailingDispatchScheduler registra
+ * un trigger a la hora exacta de fecha_inicio cuando la campaña pasa a LISTO.
+ * Aquí solo quedan consultas livianas por índice (estado, fecha), cada una
+ * con transiciones condicionales cortas e independientes:
  * 
- * 1. ENVIAR: Campañas en estado LISTO cuya fecha_inicio ya llegó
- *    - Obtiene emails del segmento
- *    - Envía via RESEND (antes era SendGrid)
- *    - Cambia estado a ENVIADO
- *    - Actualiza métricas con cantidad enviada
+ * 1. REINTENTAR: Campañas LISTO cuya fecha_inicio ya llegó y siguen sin enviar
+ *    (envío fallido cuyo backoff venció o instancia reiniciada). También
+ *    retoma los envíos ENVIADO que quedaron a medias (sin avance en
+ *    {@code app.mailing.envio.latido-max-min} minutos) desde el último
+ *    destinatario procesado. El barrido solo reclama cada campaña; el envío
+ *    corre en el ejecutor de envíos, así que uno grande no retrasa VENCER ni
+ *    FINALIZAR.
  * 
  * 2. VENCER: Campañas en estado PENDIENTE cuya fecha_inicio ya pasó
  *    - Cambia estado a VENCIDO
@@ -36,162 +43,159 @@ import java.util.List;
  * 
  * 3. FINALIZAR: Campañas en estado ENVIADO cuya fecha_fin ya pasó
  *    - Cambia estado a FINALIZADO
+ *    - Libera su índice de deduplicación de interacciones
  * 
- * NOTA: La inyección de IMailingSendGridPort ahora inyecta ResendMailAdapter
- * (el nombre de la interfaz se mantiene por compatibilidad)
+ * MULTI-INSTANCIA: el barrido solo corre en la instancia que posee el lease
+ * "mailing-scheduler" (CoordinadorJobs). El token de fencing se verifica en la
+ * misma transacción que cada transición (que además es un UPDATE
+ * condicional), así que un propietario anterior no puede escribir una vez que
+ * otra instancia tomó el lease.
  */
 @Component
 @Profile("!console")  // No ejecutar en modo consola/tests
-@RequiredArgsConstructor
 @Slf4j
 public class MailingScheduler {
 
+    private static final String LEASE_JOB = "mailing-scheduler";
+    private static final Duration LEASE_TTL = Duration.ofMinutes(2);
+
     private final JpaCampanaMailingRepository campanaRepo;
-    private final JpaMetricaMailingRepository metricasRepo;
-    private final IMailingPort mailAdapter;
-    private final ISegmentoPort segmentoPort;
     private final IGestorCampanaPort gestorPort;
+    private final InteraccionDedupIndex dedupIndex;
+    private final EnvioMailingTask envioTask;
+    private final CoordinadorJobs coordinadorJobs;
+    private final ProgresoEnvioRepository progresoRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.mailing.envio.latido-max-min:10}")
+    private long latidoMaxMin;
 
     private static final DateTimeFormatter DTF = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
 
+    public MailingScheduler(JpaCampanaMailingRepository campanaRepo,
+            IGestorCampanaPort gestorPort,
+            InteraccionDedupIndex dedupIndex,
+            EnvioMailingTask envioTask,
+            CoordinadorJobs coordinadorJobs,
+            ProgresoEnvioRepository progresoRepo,
+            PlatformTransactionManager transactionManager) {
+        this.campanaRepo = campanaRepo;
+        this.gestorPort = gestorPort;
+        this.dedupIndex = dedupIndex;
+        this.envioTask = envioTask;
+        this.coordinadorJobs = coordinadorJobs;
+        this.progresoRepo = progresoRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     /**
-     * Ejecuta cada 5 minutos (300000 ms)
+     * Ejecuta cada minuto (60000 ms). Sin transacción global: cada campaña
+     * se procesa en su propia transacción corta.
      */
-    @Scheduled(fixedDelay = 300000)
-    @Transactional
+    @Scheduled(fixedDelay = 60000)
     public void ejecutarTareasScheduler() {
+        coordinadorJobs.ejecutar(LEASE_JOB, LEASE_TTL, this::barrer);
+    }
+
+    private void barrer(LeaseJob lease) {
         LocalDateTime ahora = LocalDateTime.now();
-        
-        log.info("╔════════════════════════════════════════════════════════════════╗");
-        log.info("║              SCHEDULER MAILING - RESEND                        ║");
-        log.info("╠════════════════════════════════════════════════════════════════╣");
-        log.info("║  Hora actual: {}", ahora.format(DTF));
-        log.info("╚════════════════════════════════════════════════════════════════╝");
+        log.debug("Barrido de mailing: {}", ahora.format(DTF));
 
-        // Tarea 1: Enviar campañas LISTO que llegaron a fecha_inicio
-        enviarCampanasListas(ahora);
+        // Tarea 1: Reintentar campañas LISTO cuyo trigger no llegó a enviarlas
+        reintentarCampanasListas(ahora, lease);
+        reanudarEnviosInterrumpidos(ahora, lease);
 
         // Tarea 2: Marcar como VENCIDO las PENDIENTE que pasaron fecha_inicio
-        marcarComoVencidas(ahora);
+        marcarComoVencidas(ahora, lease);
 
         // Tarea 3: Marcar como FINALIZADO las ENVIADO que pasaron fecha_fin
-        marcarComoFinalizadas(ahora);
-
-        log.info("════════════════════════════════════════════════════════════════");
-        log.info("  SCHEDULER COMPLETADO");
-        log.info("════════════════════════════════════════════════════════════════");
+        marcarComoFinalizadas(ahora, lease);
     }
 
     /**
-     * TAREA 1: Enviar campañas que están LISTAS y cuya fecha_inicio ya llegó
+     * TAREA 1: Campañas LISTO con fecha_inicio ya cumplida (red de seguridad de los triggers)
      */
-    private void enviarCampanasListas(LocalDateTime ahora) {
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│  TAREA 1: Buscando campañas LISTAS para enviar...          │");
-        log.info("└─────────────────────────────────────────────────────────────┘");
-        
-        // Estado LISTO = 2
-        List<CampanaMailing> listosParaEnviar = campanaRepo.findListosParaEnviar(2, ahora);
-
-        if (listosParaEnviar.isEmpty()) {
-            log.info("    No hay campañas listas para enviar");
+    private void reintentarCampanasListas(LocalDateTime ahora, LeaseJob lease) {
+        List<Integer> pendientesDeEnvio = campanaRepo.findIdsByIdEstadoAndFechaInicioHasta(
+                EstadoCampanaMailing.LISTO.getId(), ahora);
+
+        if (pendientesDeEnvio.isEmpty()) {
             return;
         }
 
-        log.info("    Encontradas {} campañas para enviar", listosParaEnviar.size());
+        log.info("  Reintentando {} campañas LISTO sin enviar", pendientesDeEnvio.size());
 
-        for (CampanaMailing campana : listosParaEnviar) {
-            enviarCampanaIndividual(campana);
+        for (Integer idCampana : pendientesDeEnvio) {
+            try {
+                envioTask.ejecutar(idCampana, lease::verificar);
+            } catch (LeaseVencidoException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("    ✗ Error enviando campaña {}: {}", idCampana, e.getMessage(), e);
+                // Si el reclamo no llegó a confirmarse la campaña sigue LISTO y se
+                // reintenta; si ya se estaba enviando, se retoma desde el progreso
+            }
         }
     }
 
     /**
-     * Envía una campaña individual usando Resend
+     * TAREA 1b: Envíos que se cortaron a mitad (instancia caída durante el envío)
      */
-    private void enviarCampanaIndividual(CampanaMailing campana) {
-        try {
-            log.info("    ┌─ Procesando campaña ID: {} - '{}'", campana.getId(), campana.getNombre());
-            log.info("    │  Fecha inicio: {}", campana.getFechaInicio().format(DTF));
-            log.info("    │  Segmento ID: {}", campana.getIdSegmento());
-
-            // 1. Obtener emails del segmento
-            List<String> emails = segmentoPort.obtenerEmailsSegmento(campana.getIdSegmento());
-
-            if (emails.isEmpty()) {
-                log.warn("    │  ⚠ Segmento {} sin emails, saltando campaña", campana.getIdSegmento());
-                return;
-            }
-
-            log.info("    │  Destinatarios: {}", emails.size());
-
-            // 2. Enviar emails via Resend
-            log.info("    │  Enviando via RESEND...");
-            mailAdapter.enviarEmails(campana, emails);
-
-            // 3. Actualizar estado a ENVIADO (3)
-            campana.setIdEstado(3);
-            campanaRepo.save(campana);
-
-            // 4. Actualizar métricas con cantidad enviada
-            MetricaCampana metricas = metricasRepo.findByCampanaMailingId(campana.getId())
-                    .orElseThrow(() -> new NotFoundException("Métricas", campana.getId().longValue()));
+    private void reanudarEnviosInterrumpidos(LocalDateTime ahora, LeaseJob lease) {
+        LocalDateTime latidoAntesDe = ahora.minusMinutes(latidoMaxMin);
+        List<Integer> interrumpidos = progresoRepo.findIdsEstancados(latidoAntesDe);
 
-            metricas.setEnviados(emails.size());
-            metricas.setEntregados(emails.size()); // Asumimos entrega inicial
-            metricas.setActualizadoEn(LocalDateTime.now());
-            metricasRepo.save(metricas);
-
-            log.info("    └─ ✓ Campaña {} enviada exitosamente a {} destinatarios", 
-                campana.getId(), emails.size());
-
-        } catch (Exception e) {
-            log.error("    └─ ✗ Error enviando campaña {}: {}", campana.getId(), e.getMessage(), e);
-            // No cambiar estado - se reintentará en próxima ejecución
+        for (Integer idCampana : interrumpidos) {
+            try {
+                envioTask.reanudar(idCampana, latidoAntesDe, lease::verificar);
+            } catch (LeaseVencidoException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("    ✗ Error retomando envío de campaña {}: {}", idCampana, e.getMessage(), e);
+            }
         }
     }
 
     /**
      * TAREA 2: Marcar como VENCIDO las campañas PENDIENTE cuya fecha_inicio ya pasó
      */
-    private void marcarComoVencidas(LocalDateTime ahora) {
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│  TAREA 2: Buscando campañas vencidas...                     │");
-        log.info("└─────────────────────────────────────────────────────────────┘");
-        
-        List<CampanaMailing> vencidas = campanaRepo.findVencidas(ahora);
+    private void marcarComoVencidas(LocalDateTime ahora, LeaseJob lease) {
+        List<Integer> vencidas = campanaRepo.findIdsByIdEstadoAndFechaInicioHasta(
+                EstadoCampanaMailing.PENDIENTE.getId(), ahora);
 
         if (vencidas.isEmpty()) {
-            log.info("    No hay campañas vencidas");
             return;
         }
 
-        log.info("    Encontradas {} campañas vencidas", vencidas.size());
+        log.info("  Encontradas {} campañas vencidas", vencidas.size());
 
-        for (CampanaMailing campana : vencidas) {
+        for (Integer idCampana : vencidas) {
             try {
-                log.warn("    ┌─ Campaña {} vencida (pasó fecha_inicio sin estar LISTO)", campana.getId());
-                log.warn("    │  Nombre: {}", campana.getNombre());
-                log.warn("    │  Fecha inicio: {}", campana.getFechaInicio().format(DTF));
-
-                // Cambiar a VENCIDO (4)
-                campana.setIdEstado(4);
-                campanaRepo.save(campana);
-
-                // Notificar al Gestor de Campañas
-                try {
-                    gestorPort.pausarCampana(
-                        campana.getIdCampanaGestion(),
-                        "Campaña vencida: pasó fecha_inicio sin estar en estado LISTO"
-                    );
-                    log.info("    │  Gestor notificado");
-                } catch (Exception e) {
-                    log.warn("    │  No se pudo notificar al Gestor: {}", e.getMessage());
+                if (!cambiarEstado(idCampana, EstadoCampanaMailing.PENDIENTE, EstadoCampanaMailing.VENCIDO, ahora, lease)) {
+                    continue;
                 }
 
-                log.info("    └─ ✓ Campaña {} marcada como VENCIDO", campana.getId());
+                log.warn("    ┌─ Campaña {} vencida (pasó fecha_inicio sin estar LISTO)", idCampana);
 
+                // Notificar al Gestor de Campañas
+                campanaRepo.findById(idCampana).ifPresent(campana -> {
+                    try {
+                        gestorPort.pausarCampana(
+                            campana.getIdCampanaGestion(),
+                            "Campaña vencida: pasó fecha_inicio sin estar en estado LISTO"
+                        );
+                        log.info("    │  Gestor notificado");
+                    } catch (Exception e) {
+                        log.warn("    │  No se pudo notificar al Gestor: {}", e.getMessage());
+                    }
+                });
+
+                log.info("    └─ ✓ Campaña {} marcada como VENCIDO", idCampana);
+
+            } catch (LeaseVencidoException e) {
+                throw e;
             } catch (Exception e) {
-                log.error("    └─ ✗ Error procesando campaña vencida {}: {}", campana.getId(), e.getMessage());
+                log.error("    └─ ✗ Error procesando campaña vencida {}: {}", idCampana, e.getMessage());
             }
         }
     }
@@ -199,35 +203,45 @@ public class MailingScheduler {
     /**
      * TAREA 3: Marcar como FINALIZADO las campañas ENVIADO cuya fecha_fin ya pasó
      */
-    private void marcarComoFinalizadas(LocalDateTime ahora) {
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│  TAREA 3: Buscando campañas para finalizar...               │");
-        log.info("└─────────────────────────────────────────────────────────────┘");
-        
-        // Buscar campañas en estado ENVIADO (3) cuya fecha_fin ya pasó
-        List<CampanaMailing> paraFinalizar = campanaRepo.findByIdEstadoAndFechaFinBefore(3, ahora);
-
-        if (paraFinalizar == null || paraFinalizar.isEmpty()) {
-            log.info("    No hay campañas para finalizar");
+    private void marcarComoFinalizadas(LocalDateTime ahora, LeaseJob lease) {
+        List<Integer> paraFinalizar = campanaRepo.findIdsByIdEstadoAndFechaFinAntes(
+                EstadoCampanaMailing.ENVIADO.getId(), ahora);
+
+        if (paraFinalizar.isEmpty()) {
             return;
         }
 
-        log.info("    Encontradas {} campañas para finalizar", paraFinalizar.size());
+        log.info("  Encontradas {} campañas para finalizar", paraFinalizar.size());
 
-        for (CampanaMailing campana : paraFinalizar) {
+        for (Integer idCampana : paraFinalizar) {
             try {
-                log.info("    ┌─ Finalizando campaña ID: {} - '{}'", campana.getId(), campana.getNombre());
-                log.info("    │  Fecha fin: {}", campana.getFechaFin().format(DTF));
+                boolean finalizada = cambiarEstado(idCampana,
+                        EstadoCampanaMailing.ENVIADO, EstadoCampanaMailing.FINALIZADO, ahora, lease);
+                dedupIndex.descartarCampana(idCampana);
 
-                // Cambiar a FINALIZADO (5)
-                campana.setIdEstado(5);
-                campanaRepo.save(campana);
-
-                log.info("    └─ ✓ Campaña {} marcada como FINALIZADO", campana.getId());
+                if (finalizada) {
+                    log.info("    ✓ Campaña {} marcada como FINALIZADO", idCampana);
+                }
 
+            } catch (LeaseVencidoException e) {
+                throw e;
             } catch (Exception e) {
-                log.error("    └─ ✗ Error finalizando campaña {}: {}", campana.getId(), e.getMessage());
+                log.error("    ✗ Error finalizando campaña {}: {}", idCampana, e.getMessage());
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Transición condicional con el token del lease verificado en la misma transacción.
+     *
+     * @throws LeaseVencidoException si se perdió el lease
+     */
+    private boolean cambiarEstado(Integer idCampana, EstadoCampanaMailing desde, EstadoCampanaMailing hacia,
+            LocalDateTime ahora, LeaseJob lease) {
+        Integer actualizadas = transactionTemplate.execute(status -> {
+            lease.verificar();
+            return campanaRepo.cambiarEstadoSiCoincide(idCampana, desde.getId(), hacia.getId(), ahora);
+        });
+        return actualizadas != null && actualizadas > 0;
+    }
+}
@@ -11,6 +11,9 @@ import org.springframework.web.bind.annotation.*;
 import pe.unmsm.crm.marketing.campanas.telefonicas.api.dto.TelemarketingReportFilterDTO;
 import pe.unmsm.crm.marketing.campanas.telefonicas.application.TelemarketingReportService;
 import pe.unmsm.crm.marketing.security.service.UserAuthorizationService;
+import pe.unmsm.crm.marketing.shared.api.dto.ReportJobResponse;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService.ReportJob;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -26,6 +29,7 @@ public class TelemarketingReportController {
 
     private final TelemarketingReportService reportService;
     private final UserAuthorizationService userAuthorizationService;
+    private final ReportJobService reportJobService;
 
     /**
      * Genera un reporte PDF de una campaña telefónica.
@@ -76,6 +80,31 @@ public class TelemarketingReportController {
         }
     }
 
+    /**
+     * Encola la generación del reporte de la campaña y responde 202 con el job.
+     * Los permisos se validan al encolar; el estado y la descarga se consultan
+     * en /api/v1/reportes/jobs/{id}
+     */
+    @PostMapping("/{id}/reporte/pdf/jobs")
+    public ResponseEntity<ReportJobResponse> encolarReporteCampania(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(required = false) Long idAgente) {
+
+        userAuthorizationService.ensureCampaniaTelefonicaAccess(id);
+
+        TelemarketingReportFilterDTO filtros = TelemarketingReportFilterDTO.builder()
+                .fechaInicio(fechaInicio)
+                .fechaFin(fechaFin)
+                .idAgente(resolveAgentForReport(idAgente))
+                .build();
+
+        ReportJob job = reportJobService.enviar("telemarketing-campania-" + id, "reporte-campania-" + id + ".pdf",
+                () -> reportService.generateCampaignReport(id, filtros));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ReportJobResponse.from(job));
+    }
+
     /**
      * Resuelve el agente para el reporte según el rol del usuario.
      * - Si es ADMIN y no se especifica agente, devuelve null (todos los agentes).
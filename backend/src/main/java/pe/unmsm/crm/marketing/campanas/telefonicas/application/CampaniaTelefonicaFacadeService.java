@@ -2,10 +2,12 @@ package pe.unmsm.crm.marketing.campanas.telefonicas.application;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.entity.*;
 import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.repository.*;
+import pe.unmsm.crm.marketing.security.service.AsignacionCampaniaCambiadaEvent;
 import pe.unmsm.crm.marketing.segmentacion.application.SegmentoService;
 import pe.unmsm.crm.marketing.shared.logging.AuditoriaService;
 import pe.unmsm.crm.marketing.shared.logging.ModuloLog;
@@ -33,6 +35,7 @@ public class CampaniaTelefonicaFacadeService {
     private final ColaLlamadaRepository colaLlamadaRepository;
     private final SegmentoService segmentoService;
     private final AuditoriaService auditoriaService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Crea una campaña telefónica completa con:
@@ -291,6 +294,7 @@ public class CampaniaTelefonicaFacadeService {
         asignacion.setIdAgente(idAgente);
 
         campaniaAgenteRepository.save(asignacion);
+        eventPublisher.publishEvent(new AsignacionCampaniaCambiadaEvent(idAgente));
     }
 
     private void poblarColaLlamadas(Integer idCampaniaTelefonica, Long idSegmento) {
@@ -2,33 +2,27 @@ package pe.unmsm.crm.marketing.campanas.telefonicas.application.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 import pe.unmsm.crm.marketing.campanas.telefonicas.api.dto.ExternalLeadDTO;
+import pe.unmsm.crm.marketing.campanas.telefonicas.infra.ExternalLeadOutboxDestino;
 import pe.unmsm.crm.marketing.campanas.telefonicas.infra.config.ExternalLeadNotificationProperties;
 import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.entity.CampaniaTelefonicaEntity;
 import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.entity.LlamadaEntity;
 import pe.unmsm.crm.marketing.leads.domain.model.Lead;
+import pe.unmsm.crm.marketing.shared.infra.outbox.OutboxService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Servicio para notificar leads interesados a sistema externo.
  * 
- * Envía datos de leads marcados como INTERESADO a un endpoint HTTP externo
- * de forma asíncrona para no afectar el flujo principal de registro de
- * llamadas.
+ * Registra en el outbox los leads marcados como INTERESADO, dentro de la
+ * transacción que guarda la llamada. El envío HTTP al endpoint externo lo
+ * hace OutboxRelay en segundo plano (ver {@link ExternalLeadOutboxDestino}),
+ * con reintentos y sin afectar el registro de la llamada.
  */
 @Slf4j
 @Service
@@ -36,19 +30,19 @@ import java.time.format.DateTimeFormatter;
 public class ExternalLeadNotificationService {
 
     private final ExternalLeadNotificationProperties properties;
-    private final RestClient restClient;
+    private final OutboxService outboxService;
     private final ObjectMapper objectMapper = new ObjectMapper()
             .registerModule(new JavaTimeModule())
             .enable(SerializationFeature.INDENT_OUTPUT);
 
     /**
-     * Notifica un lead interesado al sistema externo de forma asíncrona.
+     * Encola la notificación de un lead interesado al sistema externo.
+     * Una llamada genera a lo sumo una notificación.
      * 
      * @param llamada  Entidad de la llamada registrada
      * @param campania Campaña telefónica asociada
      * @param lead     Lead que fue marcado como interesado
      */
-    @Async
     public void notificarLeadInteresado(
             LlamadaEntity llamada,
             CampaniaTelefonicaEntity campania,
@@ -62,75 +56,33 @@ public class ExternalLeadNotificationService {
         log.info("  Canal: CAMPANIA_TELEFONICA");
         log.info("----------------------------------------------------------------");
 
-        try {
-            // Construir payload
-            ExternalLeadDTO payload = construirPayload(llamada, campania, lead);
-
-            // Verificar configuración
-            if (!properties.isEnabled()) {
-                log.warn("  [WARN] Notificación HTTP DESHABILITADA");
-                log.warn("    El payload se generó correctamente pero NO se enviará HTTP");
-                log.warn("    Para habilitar: EXTERNAL_LEAD_NOTIFICATION_ENABLED=true");
-                logPayloadDetallado(payload);
-                return;
-            }
-
-            if (properties.getEndpointUrl() == null || properties.getEndpointUrl().trim().isEmpty()) {
-                log.error("  [ERROR] URL de endpoint NO CONFIGURADA");
-                log.error("    Configure VENTAS_URL en variables de entorno");
-                logPayloadDetallado(payload);
-                return;
-            }
+        // Construir payload
+        ExternalLeadDTO payload = construirPayload(llamada, campania, lead);
 
-            // Log del endpoint y payload antes de enviar
-            log.info("  -> Endpoint: {}", properties.getEndpointUrl());
-            log.info("  -> Timeout: {} segundos", properties.getTimeoutSeconds());
-
-            // Mostrar payload detallado
+        // Verificar configuración
+        if (!properties.isEnabled()) {
+            log.warn("  [WARN] Notificación HTTP DESHABILITADA");
+            log.warn("    El payload se generó correctamente pero NO se enviará HTTP");
+            log.warn("    Para habilitar: EXTERNAL_LEAD_NOTIFICATION_ENABLED=true");
             logPayloadDetallado(payload);
-
-            // Enviar HTTP
-            enviarHttp(payload);
-
-            log.info("  [SUCCESS] Notificación enviada exitosamente");
-            log.info("    Lead ID: {}", lead.getId());
-            log.info("    Endpoint: {}", properties.getEndpointUrl());
-
-        } catch (Exception e) {
-            log.error("  [ERROR] Error al procesar notificación externa");
-            log.error("    Lead ID: {}", lead.getId());
-            log.error("    Error: {}", e.getMessage());
-            if (log.isDebugEnabled()) {
-                log.error("    Stacktrace:", e);
-            }
-        } finally {
             log.info("----------------------------------------------------------------");
+            return;
         }
-    }
 
-    /**
-     * Guarda el payload JSON en un archivo de texto para debugging.
-     */
-    private void guardarPayloadEnArchivo(ExternalLeadDTO payload) {
-        try {
-            // Crear directorio si no existe
-            Path logsDir = Paths.get("logs", "external-lead-notifications");
-            Files.createDirectories(logsDir);
-
-            // Generar nombre de archivo con timestamp
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String fileName = String.format("lead-%d-%s.txt", payload.getIdLeadMarketing(), timestamp);
-            Path filePath = logsDir.resolve(fileName);
+        if (properties.getEndpointUrl() == null || properties.getEndpointUrl().trim().isEmpty()) {
+            log.warn("  [WARN] URL de endpoint NO CONFIGURADA; la notificación queda pendiente");
+            log.warn("    Configure VENTAS_URL en variables de entorno");
+        }
 
-            // Escribir JSON al archivo
-            String jsonContent = objectMapper.writeValueAsString(payload);
-            Files.writeString(filePath, jsonContent, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        logPayloadDetallado(payload);
 
-            log.info("  [FILE] JSON guardado en: {}", filePath.toAbsolutePath());
+        // Se confirma (o se descarta) junto con la llamada
+        outboxService.encolar(ExternalLeadOutboxDestino.NOMBRE, "LLAMADA:" + llamada.getId(), payload);
 
-        } catch (IOException e) {
-            log.warn("  [WARN] No se pudo guardar JSON en archivo: {}", e.getMessage());
-        }
+        log.info("  [OUTBOX] Notificación encolada");
+        log.info("    Lead ID: {}", lead.getId());
+        log.info("    Destino: {}", ExternalLeadOutboxDestino.NOMBRE);
+        log.info("----------------------------------------------------------------");
     }
 
     /**
@@ -160,9 +112,6 @@ public class ExternalLeadNotificationService {
             String jsonPayload = objectMapper.writeValueAsString(payload);
             log.info("  JSON Completo (Copy-Paste):\n{}", jsonPayload);
 
-            // Guardar en archivo para debugging
-            guardarPayloadEnArchivo(payload);
-
         } catch (Exception e) {
             log.warn("  Error al loguear payload: {}", e.getMessage());
         }
@@ -261,53 +210,6 @@ public class ExternalLeadNotificationService {
         return new String[] { nombres, apellidos };
     }
 
-    /**
-     * Realiza el envío HTTP POST al endpoint externo.
-     */
-    private void enviarHttp(ExternalLeadDTO payload) {
-        RestClient.RequestHeadersSpec<?> request = restClient.post()
-                .uri(properties.getEndpointUrl())
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(payload);
-
-        // Agregar API Key si está configurada
-        if (properties.getApiKey() != null && !properties.getApiKey().trim().isEmpty()) {
-            request = request.header("Authorization", "Bearer " + properties.getApiKey());
-            log.info("  -> Usando API Key configurada");
-        }
-
-        // Ejecutar request y capturar respuesta
-        try {
-            org.springframework.http.ResponseEntity<String> response = request
-                    .retrieve()
-                    .toEntity(String.class);
-
-            log.info("  ---------------------------------------------------------");
-            log.info("  |  RESPUESTA DEL ENDPOINT EXTERNO                     |");
-            log.info("  ---------------------------------------------------------");
-            log.info("  |  Status Code: {}", response.getStatusCode());
-            log.info("  |  Status: {}", response.getStatusCode().is2xxSuccessful() ? "✓ SUCCESS" : "✗ ERROR");
-
-            if (response.hasBody() && response.getBody() != null) {
-                String responseBody = response.getBody();
-                log.info("  |  Response Body:");
-                log.info("  |  {}", responseBody);
-            } else {
-                log.info("  |  Response Body: (vacío)");
-            }
-
-            log.info("  ---------------------------------------------------------");
-
-        } catch (Exception e) {
-            log.error("  ---------------------------------------------------------");
-            log.error("  |  ERROR EN RESPUESTA DEL ENDPOINT                    |");
-            log.error("  ---------------------------------------------------------");
-            log.error("  |  Error: {}", e.getMessage());
-            log.error("  ---------------------------------------------------------");
-            throw e; // Re-lanzar para que se maneje en el try-catch superior
-        }
-    }
-
     private String truncate(String text, int maxLength) {
         if (text == null)
             return "null";
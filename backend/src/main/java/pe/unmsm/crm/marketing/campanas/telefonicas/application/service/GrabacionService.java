@@ -2,11 +2,15 @@ package pe.unmsm.crm.marketing.campanas.telefonicas.application.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import pe.unmsm.crm.marketing.campanas.telefonicas.api.dto.GrabacionDTO;
 import pe.unmsm.crm.marketing.campanas.telefonicas.api.dto.SubirGrabacionRequest;
@@ -21,6 +25,7 @@ import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.repository.Campania
 import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.repository.GrabacionLlamadaRepository;
 import pe.unmsm.crm.marketing.leads.domain.model.Lead;
 import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
+import pe.unmsm.crm.marketing.shared.config.AsyncConfig;
 import pe.unmsm.crm.marketing.shared.services.FirebaseStorageService;
 import pe.unmsm.crm.marketing.shared.services.SupabaseStorageService;
 
@@ -54,6 +59,11 @@ public class GrabacionService {
     @Autowired(required = false)
     private TelemarketingEventPublisher eventPublisher;
 
+    // Proxy propio: la transcripción debe pasar por @Async para correr en el ejecutor de I/O
+    @Autowired
+    @Lazy
+    private GrabacionService self;
+
     public GrabacionService(
             GrabacionLlamadaRepository grabacionRepository,
             AgenteMarketingRepository agenteRepository,
@@ -119,8 +129,8 @@ public class GrabacionService {
             firebaseStorage.subirAudio(rutaFirebase, request.getArchivo());
             log.info("Audio subido a Firebase Storage: {}", rutaFirebase);
 
-            // 5. Procesar transcripción de forma asíncrona
-            procesarTranscripcionAsync(grabacion.getId(), request.getArchivo().getBytes());
+            // 5. Procesar transcripción de forma asíncrona, cuando la grabación ya está confirmada
+            transcribirTrasCommit(grabacion.getId(), request.getArchivo().getBytes());
 
             // 6. Publicar evento de grabación subida
             publishEventIfAvailable(new RecordingUploadedEvent(
@@ -142,10 +152,32 @@ public class GrabacionService {
         }
     }
 
+    private void transcribirTrasCommit(Long idGrabacion, byte[] audioBytes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            encolarTranscripcion(idGrabacion, audioBytes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                encolarTranscripcion(idGrabacion, audioBytes);
+            }
+        });
+    }
+
+    private void encolarTranscripcion(Long idGrabacion, byte[] audioBytes) {
+        try {
+            self.procesarTranscripcionAsync(idGrabacion, audioBytes);
+        } catch (TaskRejectedException e) {
+            // Cola de I/O llena: la grabación queda PENDIENTE
+            log.warn("Transcripción de la grabación {} no encolada: {}", idGrabacion, e.getMessage());
+        }
+    }
+
     /**
      * Procesa la transcripción de forma asíncrona
      */
-    @Async
+    @Async(AsyncConfig.EJECUTOR_IO)
     @Transactional
     public void procesarTranscripcionAsync(Long idGrabacion, byte[] audioBytes) {
         Optional<GrabacionLlamadaEntity> optGrabacion = grabacionRepository.findById(idGrabacion);
@@ -0,0 +1,51 @@
+package pe.unmsm.crm.marketing.campanas.telefonicas.infra;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pe.unmsm.crm.marketing.campanas.telefonicas.infra.config.ExternalLeadNotificationProperties;
+import pe.unmsm.crm.marketing.shared.infra.outbox.OutboxDestino;
+
+import java.util.Map;
+
+/**
+ * Destino del outbox para los leads INTERESADO de campañas telefónicas.
+ *
+ * URL y API Key salen de {@link ExternalLeadNotificationProperties}; sin URL
+ * configurada los mensajes quedan pendientes.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExternalLeadOutboxDestino implements OutboxDestino {
+
+    public static final String NOMBRE = "VENTAS_TELEFONIA";
+
+    private final ExternalLeadNotificationProperties properties;
+
+    @Value("${app.outbox.concurrencia.ventas-telefonia:2}")
+    private int concurrencia;
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public String getUrl() {
+        return properties.getEndpointUrl();
+    }
+
+    @Override
+    public Map<String, String> getCabeceras() {
+        String apiKey = properties.getApiKey();
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            return Map.of();
+        }
+        return Map.of("Authorization", "Bearer " + apiKey);
+    }
+
+    @Override
+    public int getConcurrencia() {
+        return concurrencia;
+    }
+}
@@ -2,34 +2,40 @@ package pe.unmsm.crm.marketing.campanas.telefonicas.infra;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 import pe.unmsm.crm.marketing.campanas.telefonicas.domain.event.CallQueuedEvent;
 import pe.unmsm.crm.marketing.campanas.telefonicas.domain.event.CallResultRegisteredEvent;
 import pe.unmsm.crm.marketing.campanas.telefonicas.domain.event.MetricsUpdatedEvent;
+import pe.unmsm.crm.marketing.shared.infra.websocket.PublicadorWebSocket;
 
 /**
  * Notificador via WebSocket para eventos de telemarketing.
+ *
+ * Pasa por PublicadorWebSocket: cola y métricas se conflan por contacto y por
+ * agente (solo sale el último estado); las llamadas se agrupan por intervalo
+ * pero no se conflan (clave = id de llamada).
  */
 @Component
 @RequiredArgsConstructor
 public class TelemarketingWsNotifier {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final PublicadorWebSocket publicador;
 
     @EventListener
     public void onCallQueued(CallQueuedEvent event) {
-        messagingTemplate.convertAndSend("/topic/cola", event);
+        Long idContacto = event.getContacto() != null ? event.getContacto().getId() : null;
+        publicador.publicar("/topic/cola", event.getCampaniaId() + ":" + idContacto, event);
     }
 
     @EventListener
     public void onCallResult(CallResultRegisteredEvent event) {
-        messagingTemplate.convertAndSend("/topic/llamadas", event);
+        Long idLlamada = event.getLlamada() != null ? event.getLlamada().getId() : null;
+        // Sin id no hay con qué conflar: se usa la identidad del evento
+        publicador.publicar("/topic/llamadas", idLlamada != null ? idLlamada : event, event);
     }
 
     @EventListener
     public void onMetricsUpdated(MetricsUpdatedEvent event) {
-        messagingTemplate.convertAndSend("/topic/metricas", event);
+        publicador.publicar("/topic/metricas", event.getCampaniaId() + ":" + event.getAgenteId(), event);
     }
 }
-
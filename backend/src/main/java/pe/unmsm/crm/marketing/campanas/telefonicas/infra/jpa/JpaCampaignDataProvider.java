@@ -27,7 +27,7 @@ public class JpaCampaignDataProvider implements CampaignDataProvider {
         private final ColaLlamadaRepository colaRepo;
         private final LlamadaRepository llamadaRepo;
         private final GuionRepository guionRepo;
-        private final ResultadoLlamadaRepository resultadoRepo;
+        private final ResultadosLlamadaReferencia resultadosReferencia;
         private final CampaignMapper mapper;
         private final pe.unmsm.crm.marketing.campanas.telefonicas.application.service.EncuestaLlamadaService encuestaLlamadaService;
         private final pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository leadRepository;
@@ -301,8 +301,7 @@ public class JpaCampaignDataProvider implements CampaignDataProvider {
                 }
                 // 2. Si no viene ID, buscar por cÃ³digo (string)
                 else if (request.getResultado() != null) {
-                        idResultado = resultadoRepo.findByResultado(request.getResultado())
-                                        .map(ResultadoLlamadaEntity::getId)
+                        idResultado = resultadosReferencia.idPorCodigo(request.getResultado())
                                         .orElse(null);
 
                         if (idResultado == null) {
@@ -406,7 +405,7 @@ public class JpaCampaignDataProvider implements CampaignDataProvider {
 
                         if (request.getIdLead() != null && campaniaEntity != null) {
                                 leadRepository.findById(request.getIdLead()).ifPresent(lead -> {
-                                        // Llamar al servicio de notificación de forma asíncrona
+                                        // Se encola en el outbox dentro de esta transacción
                                         externalLeadNotificationService.notificarLeadInteresado(
                                                         llamadaFinal,
                                                         campaniaEntity,
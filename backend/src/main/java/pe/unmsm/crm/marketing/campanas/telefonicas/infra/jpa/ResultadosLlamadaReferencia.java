@@ -0,0 +1,48 @@
+package pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa;
+
+import org.springframework.stereotype.Component;
+import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.entity.ResultadoLlamadaEntity;
+import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.repository.ResultadoLlamadaRepository;
+import pe.unmsm.crm.marketing.shared.infra.referencia.DatosReferencia;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Catálogo resultado_llamada en memoria: código de resultado -> id.
+ * Evita una consulta por cada llamada registrada con código en lugar de id.
+ */
+@Component
+public class ResultadosLlamadaReferencia extends DatosReferencia<Map<String, Integer>> {
+
+    private final ResultadoLlamadaRepository repository;
+
+    public ResultadosLlamadaReferencia(ResultadoLlamadaRepository repository) {
+        super("resultado-llamada");
+        this.repository = repository;
+    }
+
+    @Override
+    protected Map<String, Integer> construir() {
+        Map<String, Integer> porCodigo = new HashMap<>();
+        for (ResultadoLlamadaEntity resultado : repository.findAll()) {
+            if (resultado.getResultado() != null) {
+                porCodigo.putIfAbsent(normalizar(resultado.getResultado()), resultado.getId());
+            }
+        }
+        return Map.copyOf(porCodigo);
+    }
+
+    /**
+     * Id del resultado por código, sin distinguir mayúsculas (como la collation de la tabla)
+     */
+    public Optional<Integer> idPorCodigo(String codigo) {
+        return codigo == null ? Optional.empty() : Optional.ofNullable(datos().get(normalizar(codigo)));
+    }
+
+    private static String normalizar(String codigo) {
+        return codigo.trim().toUpperCase(Locale.ROOT);
+    }
+}
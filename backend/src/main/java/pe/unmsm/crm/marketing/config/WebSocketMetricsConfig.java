@@ -0,0 +1,41 @@
+package pe.unmsm.crm.marketing.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+
+/**
+ * Publica en Micrometer los pools de los canales STOMP (hilos activos,
+ * tamaño del pool y mensajes en cola, como executor.* con tag name).
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebSocketMetricsConfig {
+
+    private static final List<String> EJECUTORES = List.of(
+            "clientInboundChannelExecutor",
+            "clientOutboundChannelExecutor",
+            "brokerChannelExecutor");
+
+    private final ListableBeanFactory beanFactory;
+    private final MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarMetricas() {
+        for (String nombre : EJECUTORES) {
+            if (beanFactory.containsBean(nombre)
+                    && beanFactory.getBean(nombre) instanceof ThreadPoolTaskExecutor executor) {
+                new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), nombre, Tags.of("modulo", "websocket"))
+                        .bindTo(meterRegistry);
+            }
+        }
+    }
+}
@@ -67,4 +67,14 @@ public class LeadIntegrationController {
         }
         return ResponseEntity.ok(lead);
     }
-}
\ No newline at end of file
+
+    /**
+     * Varios leads por ID en una sola llamada (refresco del caché tras
+     * operaciones masivas). Los que no existen o no están en NUEVO/CALIFICADO
+     * no se devuelven
+     */
+    @PostMapping("/by-ids")
+    public ResponseEntity<List<LeadIntegrationDTO>> obtenerLeadsPorIds(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(integrationService.obtenerLeadsPorIds(ids));
+    }
+}
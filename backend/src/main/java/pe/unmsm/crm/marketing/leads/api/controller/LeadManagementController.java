@@ -2,34 +2,45 @@ package pe.unmsm.crm.marketing.leads.api.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import pe.unmsm.crm.marketing.leads.api.dto.CambioEstadoRequest;
 import pe.unmsm.crm.marketing.leads.api.dto.CambioEstadoLoteRequest;
 import pe.unmsm.crm.marketing.leads.api.dto.LeadResponse;
+import pe.unmsm.crm.marketing.leads.api.dto.OperacionLoteRequest;
 import pe.unmsm.crm.marketing.leads.api.mapper.LeadMapper;
+import pe.unmsm.crm.marketing.leads.application.service.LeadBulkService;
 import pe.unmsm.crm.marketing.leads.application.service.LeadManagementService;
 import pe.unmsm.crm.marketing.leads.application.service.LeadExportService;
+import pe.unmsm.crm.marketing.leads.application.service.LeadSearchService;
 import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
 import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
 import pe.unmsm.crm.marketing.leads.domain.model.Lead;
 import pe.unmsm.crm.marketing.leads.domain.repository.HistorialRepository;
 import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
+import pe.unmsm.crm.marketing.leads.infra.search.LeadSearchIndex;
 import pe.unmsm.crm.marketing.shared.utils.PaginationUtils;
 import pe.unmsm.crm.marketing.shared.utils.ResponseUtils;
 import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
+import pe.unmsm.crm.marketing.shared.application.service.FormatoExportacion;
 import pe.unmsm.crm.marketing.shared.application.service.UbigeoService;
 
 import jakarta.validation.Valid;
-import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -43,6 +54,8 @@ public class LeadManagementController {
     private final HistorialRepository historialRepository;
     private final UbigeoService ubigeoService;
     private final LeadExportService exportService;
+    private final LeadSearchService searchService;
+    private final LeadBulkService bulkService;
 
     // --- ENDPOINT 1: LISTAR CON FILTROS ---
     @GetMapping
@@ -68,6 +81,17 @@ public class LeadManagementController {
 
         Pageable pageable = PaginationUtils.buildPageable(page, size, dbSort, direction);
 
+        // Con texto de búsqueda se usa el índice en memoria (orden por relevancia);
+        // si aún no está listo o la consulta es muy corta, se consulta la BD
+        if (search != null && !search.isBlank()) {
+            Optional<LeadSearchIndex.Resultado> resultado = searchService.buscar(
+                    search, estado, fuenteTipo, pageable.getPageNumber(), pageable.getPageSize());
+            if (resultado.isPresent()) {
+                return ResponseUtils.success(paginaPorRelevancia(resultado.get(), pageable),
+                        "Listado de leads recuperado correctamente");
+            }
+        }
+
         // Usamos el método 'buscarLeads' con todos los filtros
         Page<Lead> leadsPage = leadRepository.buscarLeads(estado, fuenteTipo, search, pageable);
 
@@ -76,6 +100,29 @@ public class LeadManagementController {
         return ResponseUtils.success(responsePage, "Listado de leads recuperado correctamente");
     }
 
+    private Page<LeadResponse> paginaPorRelevancia(LeadSearchIndex.Resultado resultado, Pageable pageable) {
+        List<Long> ids = resultado.coincidencias().stream()
+                .map(LeadSearchIndex.Coincidencia::id)
+                .collect(Collectors.toList());
+        Map<Long, Lead> leads = leadRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Lead::getId, Function.identity()));
+
+        List<LeadResponse> contenido = resultado.coincidencias().stream()
+                .map(coincidencia -> {
+                    Lead lead = leads.get(coincidencia.id());
+                    if (lead == null) {
+                        return null;
+                    }
+                    LeadResponse response = LeadMapper.toResponse(lead);
+                    response.setRelevancia(Math.round(coincidencia.relevancia() * 1000) / 1000.0);
+                    return response;
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(contenido, pageable, resultado.total());
+    }
+
     // --- ENDPOINT 2: DETALLE POR ID ---
     @GetMapping("/{id}")
     public ResponseEntity<Map<String, Object>> obtenerLead(@PathVariable Long id) {
@@ -158,44 +205,75 @@ public class LeadManagementController {
                 eliminados + " lead(s) eliminado(s) correctamente");
     }
 
+    // --- ENDPOINT 6b: OPERACIÓN MASIVA EN SEGUNDO PLANO ---
+    // Para selecciones grandes: responde 202 con el job y se consulta el progreso
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/batch/jobs")
+    public ResponseEntity<Map<String, Object>> enviarOperacionLote(@RequestBody @Valid OperacionLoteRequest request) {
+        LeadBulkService.OperacionLoteJob job = bulkService.enviar(
+                request.getOperacion(), request.getIds(), request.getNuevoEstado(), request.getMotivo());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toJobResponse(job));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/batch/jobs/{id}")
+    public ResponseEntity<Map<String, Object>> estadoOperacionLote(@PathVariable String id) {
+        return ResponseEntity.ok(toJobResponse(bulkService.obtener(id)));
+    }
+
+    private Map<String, Object> toJobResponse(LeadBulkService.OperacionLoteJob job) {
+        LeadBulkService.Resultado resultado = job.getResultado();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", job.getId());
+        response.put("operacion", job.getOperacion());
+        response.put("estado", job.getEstado());
+        response.put("solicitados", resultado.getSolicitados());
+        response.put("procesados", resultado.getProcesados());
+        response.put("afectados", resultado.getAfectados());
+        response.put("omitidos", Map.copyOf(resultado.getOmitidos()));
+        response.put("fechaCreacion", job.getFechaCreacion());
+        response.put("fechaFin", job.getFechaFin());
+        response.put("error", job.getError());
+        return response;
+    }
+
     // --- ENDPOINT 7: EXPORTAR TODOS LOS LEADS ---
+    // Se escribe en streaming sobre la respuesta (xlsx por defecto, o csv)
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportarTodosLosLeads(
+    public ResponseEntity<StreamingResponseBody> exportarTodosLosLeads(
             @RequestParam(required = false) EstadoLead estado,
             @RequestParam(required = false) TipoFuente fuenteTipo,
-            @RequestParam(required = false) String search) throws IOException {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String formato) {
 
-        List<Lead> leads = leadRepository.buscarLeadsParaExportacion(estado, fuenteTipo, search);
-        byte[] excelBytes = exportService.exportLeadsToExcel(leads);
-        String filename = "leads_" + java.time.LocalDate.now() + ".xlsx";
+        FormatoExportacion formatoExportacion = FormatoExportacion.desde(formato);
+        String filename = "leads_" + java.time.LocalDate.now() + "." + formatoExportacion.getExtension();
 
         return ResponseEntity.ok()
-                .contentType(
-                        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .contentType(MediaType.parseMediaType(formatoExportacion.getContentType()))
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .body(excelBytes);
+                .body(out -> exportService.exportLeads(estado, fuenteTipo, search, formatoExportacion, out));
     }
 
     // --- ENDPOINT 8: EXPORTAR LEADS SELECCIONADOS ---
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/export/selected")
-    public ResponseEntity<byte[]> exportarLeadsSeleccionados(@RequestBody Map<String, List<Long>> request)
-            throws IOException {
+    public ResponseEntity<StreamingResponseBody> exportarLeadsSeleccionados(
+            @RequestBody Map<String, List<Long>> request,
+            @RequestParam(required = false) String formato) {
         List<Long> ids = request.get("ids");
         if (ids == null || ids.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
-        List<Lead> leads = leadRepository.findAllById(ids);
-        byte[] excelBytes = exportService.exportLeadsToExcel(leads);
-        String filename = "leads_selected_" + java.time.LocalDate.now() + ".xlsx";
+        FormatoExportacion formatoExportacion = FormatoExportacion.desde(formato);
+        String filename = "leads_selected_" + java.time.LocalDate.now() + "." + formatoExportacion.getExtension();
 
         return ResponseEntity.ok()
-                .contentType(
-                        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .contentType(MediaType.parseMediaType(formatoExportacion.getContentType()))
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .body(excelBytes);
+                .body(out -> exportService.exportLeadsSeleccionados(ids, formatoExportacion, out));
     }
 
     // --- ENDPOINT 9: OBTENER LEADS EN LOTE ---
@@ -222,4 +300,20 @@ public class LeadManagementController {
         return ResponseUtils.success(responses, "Leads obtenidos exitosamente");
     }
 
+    // --- ENDPOINT 10: ÍNDICE DE BÚSQUEDA ---
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/busqueda/indice")
+    public ResponseEntity<Map<String, Object>> estadoIndiceBusqueda() {
+        return ResponseUtils.success(searchService.estado(), "Estado del índice de búsqueda");
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/busqueda/indice/reconstruir")
+    public ResponseEntity<Map<String, Object>> reconstruirIndiceBusqueda() {
+        if (searchService.isReconstruyendo()) {
+            return ResponseUtils.accepted(searchService.estado(), "Ya hay una reconstrucción del índice en curso");
+        }
+        searchService.reconstruirAsync();
+        return ResponseUtils.accepted(searchService.estado(), "Reconstrucción del índice de búsqueda iniciada");
+    }
 }
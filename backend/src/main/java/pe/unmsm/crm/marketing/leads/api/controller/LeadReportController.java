@@ -10,6 +10,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pe.unmsm.crm.marketing.leads.api.dto.LeadReportFilterDTO;
 import pe.unmsm.crm.marketing.leads.application.service.LeadReportService;
+import pe.unmsm.crm.marketing.shared.api.dto.ReportJobResponse;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService.ReportJob;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -24,6 +27,7 @@ import java.time.LocalDate;
 public class LeadReportController {
 
     private final LeadReportService leadReportService;
+    private final ReportJobService reportJobService;
 
     @GetMapping("/general/pdf")
     public ResponseEntity<byte[]> generarReporteGeneral(
@@ -111,6 +115,54 @@ public class LeadReportController {
         }
     }
 
+    /**
+     * Encola la generación del reporte y responde 202 con el job.
+     * tipo: general, fuentes, conversion, tendencias o demografico.
+     * El estado y la descarga se consultan en /api/v1/reportes/jobs/{id}
+     */
+    @PostMapping("/{tipo}/jobs")
+    public ResponseEntity<ReportJobResponse> encolarReporte(
+            @PathVariable String tipo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "DIARIO") String granularidad) {
+        LeadReportFilterDTO filtros = LeadReportFilterDTO.builder()
+                .fechaInicio(fechaInicio)
+                .fechaFin(fechaFin)
+                .build();
+
+        ReportJobService.ReportGenerator generador;
+        String filename;
+        switch (tipo) {
+            case "general" -> {
+                generador = () -> leadReportService.generateGeneralReport(filtros);
+                filename = "reporte-general-leads.pdf";
+            }
+            case "fuentes" -> {
+                generador = () -> leadReportService.generateSourceReport(filtros);
+                filename = "reporte-fuentes-leads.pdf";
+            }
+            case "conversion" -> {
+                generador = () -> leadReportService.generateConversionReport(filtros);
+                filename = "reporte-conversion-leads.pdf";
+            }
+            case "tendencias" -> {
+                generador = () -> leadReportService.generateTrendsReport(filtros, granularidad);
+                filename = "reporte-tendencias-leads.pdf";
+            }
+            case "demografico" -> {
+                generador = () -> leadReportService.generateDemographicReport(filtros);
+                filename = "reporte-demografico-leads.pdf";
+            }
+            default -> {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        ReportJob job = reportJobService.enviar("leads-" + tipo, filename, generador);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ReportJobResponse.from(job));
+    }
+
     private ResponseEntity<byte[]> buildPdfResponse(byte[] pdfBytes, String filename) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
@@ -1,5 +1,6 @@
 package pe.unmsm.crm.marketing.leads.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -20,4 +21,8 @@ public class LeadResponse {
     private TrackingUTMDTO tracking;
     private String fuenteTipo;
     private java.util.List<HistorialEstadoLeadDTO> historial;
+
+    // Solo en búsquedas resueltas por el índice: 0..1, mayor es mejor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double relevancia;
 }
@@ -0,0 +1,30 @@
+package pe.unmsm.crm.marketing.leads.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.unmsm.crm.marketing.leads.application.service.LeadBulkService.Operacion;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperacionLoteRequest {
+
+    @NotNull(message = "La operación es obligatoria")
+    private Operacion operacion;
+
+    @NotEmpty(message = "La lista de IDs no puede estar vacía")
+    private List<Long> ids;
+
+    // Solo para CAMBIAR_ESTADO
+    private EstadoLead nuevoEstado;
+
+    private String motivo;
+}
@@ -4,8 +4,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import pe.unmsm.crm.marketing.leads.domain.event.LeadEstadoCambiadoEvent;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEstadoCambiadoEnLoteEvent;
 import pe.unmsm.crm.marketing.leads.domain.model.HistorialEstadoLead;
 import pe.unmsm.crm.marketing.leads.domain.repository.HistorialRepository;
+import pe.unmsm.crm.marketing.leads.infra.persistence.LeadBulkJdbcRepository;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -15,6 +17,7 @@ import java.util.Objects;
 public class LeadHistorialObserver {
 
     private final HistorialRepository historialRepository;
+    private final LeadBulkJdbcRepository bulkRepository;
 
     @EventListener
     public void alCambiarEstado(LeadEstadoCambiadoEvent evento) {
@@ -29,4 +32,14 @@ public class LeadHistorialObserver {
         historialRepository.save(Objects.requireNonNull(historial, "Historial no puede ser null"));
         System.out.println("OBSERVER: Auditoría registrada para Lead ID " + evento.getLeadId());
     }
+
+    /**
+     * Cambio masivo: el historial del bloque se inserta con JDBC batch, en la
+     * misma transacción que el UPDATE
+     */
+    @EventListener
+    public void alCambiarEstadoEnLote(LeadsEstadoCambiadoEnLoteEvent evento) {
+        bulkRepository.insertarHistorial(evento.getEstadosAnteriores(), evento.getEstadoNuevo(),
+                evento.getMotivo(), LocalDateTime.now());
+    }
 }
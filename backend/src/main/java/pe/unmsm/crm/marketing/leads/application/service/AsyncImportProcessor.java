@@ -1,19 +1,29 @@
 package pe.unmsm.crm.marketing.leads.application.service;
 
-import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
 import pe.unmsm.crm.marketing.leads.domain.event.ImportProgressUpdate;
 import pe.unmsm.crm.marketing.leads.domain.model.staging.LoteImportacion;
 import pe.unmsm.crm.marketing.leads.domain.model.staging.RegistroImportado;
 import pe.unmsm.crm.marketing.leads.domain.repository.LoteRepository;
-import pe.unmsm.crm.marketing.leads.domain.repository.RegistroImportadoRepository;
 import pe.unmsm.crm.marketing.leads.domain.enums.EstadoCaptacion;
+import pe.unmsm.crm.marketing.leads.infra.importacion.ExcelStreamingReader;
+import pe.unmsm.crm.marketing.leads.infra.persistence.RegistroImportadoJdbcRepository;
+import pe.unmsm.crm.marketing.shared.config.AsyncConfig;
+import pe.unmsm.crm.marketing.shared.infra.websocket.PublicadorWebSocket;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -22,43 +32,68 @@ import java.util.Map;
  * IMPORTANTE: Debe ser una clase separada para que @Async funcione
  * correctamente
  * (Spring AOP no puede interceptar llamadas this.metodoAsync())
+ *
+ * PIPELINE (memoria constante):
+ * 0. Una pasada previa cuenta las filas para el total del lote (así el
+ *    progreso tiene porcentaje y la petición de subida no espera el conteo)
+ * 1. ExcelStreamingReader entrega las filas por eventos SAX
+ * 2. Cada {@link #TAMANIO_LOTE} filas se insertan en registros_importados con JDBC batch
+ * 3. LeadProcessingService procesa el lote con deduplicación por conjuntos
+ * 4. Se actualizan estados, contadores del lote y progreso (WebSocket)
+ *
+ * Al terminar se registran en el LoteImportacion el throughput (filas/seg) y
+ * el heap pico observado.
  */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class AsyncImportProcessor {
 
-    private final RegistroImportadoRepository registroRepository;
+    static final int TAMANIO_LOTE = 500;
+
+    private final RegistroImportadoJdbcRepository registroJdbcRepository;
     private final LoteRepository loteRepository;
     private final LeadProcessingService processingService;
+    private final ExcelStreamingReader excelReader;
     private final ObjectMapper objectMapper;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final PublicadorWebSocket publicador;
+    private final TransactionTemplate transactionTemplate;
+    private final MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+
+    public AsyncImportProcessor(RegistroImportadoJdbcRepository registroJdbcRepository,
+            LoteRepository loteRepository,
+            LeadProcessingService processingService,
+            ExcelStreamingReader excelReader,
+            ObjectMapper objectMapper,
+            PublicadorWebSocket publicador,
+            PlatformTransactionManager transactionManager) {
+        this.registroJdbcRepository = registroJdbcRepository;
+        this.loteRepository = loteRepository;
+        this.processingService = processingService;
+        this.excelReader = excelReader;
+        this.objectMapper = objectMapper;
+        this.publicador = publicador;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /**
-     * Procesa las filas en segundo plano.
+     * Procesa el archivo en segundo plano y lo elimina al terminar.
      * IMPORTANTE: Este método se ejecuta async porque es llamado desde
      * ImportService (otra clase)
      */
-    @Async
+    @Async(AsyncConfig.EJECUTOR_CPU)
     @SuppressWarnings("null")
-    public void procesarFilasAsync(long loteId, List<Map<String, String>> filas) {
+    public void procesarArchivoAsync(long loteId, Path archivo) {
+        long inicio = System.nanoTime();
         try {
-            // Obtener nombre de archivo para el progreso
             LoteImportacion lote = loteRepository.findById(loteId).orElseThrow();
-            String nombreArchivo = lote.getNombreArchivo();
+
+            // Contar filas en streaming (sin cargar el libro en memoria)
+            lote.setTotalRegistros(excelReader.contarFilas(archivo));
+            loteRepository.save(lote);
+            Progreso progreso = new Progreso(lote);
 
             // ** ENVIAR MENSAJE INICIAL DE PROGRESO AL 0% INMEDIATAMENTE **
-            ImportProgressUpdate initialProgress = ImportProgressUpdate.builder()
-                    .loteId(loteId)
-                    .nombreArchivo(nombreArchivo)
-                    .totalRegistros(filas.size())
-                    .procesados(0)
-                    .exitosos(0)
-                    .duplicados(0)
-                    .conErrores(0)
-                    .completado(false)
-                    .build();
-
-            messagingTemplate.convertAndSend("/topic/import-progress/" + loteId, (Object) initialProgress);
+            enviarProgreso(progreso, false);
 
             // IMPORTANTE: Dar tiempo al frontend para conectarse al WebSocket
             try {
@@ -67,103 +102,156 @@ public class AsyncImportProcessor {
                 Thread.currentThread().interrupt();
             }
 
-            int exitosos = 0;
-            int duplicados = 0;
-            int conErrores = 0;
-            int batchSize = 50;
-
-            for (int i = 0; i < filas.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, filas.size());
-                List<Map<String, String>> batchFilas = filas.subList(i, end);
-                List<RegistroImportado> registrosBatch = new java.util.ArrayList<>();
-
-                // 1. Preparar y guardar lote inicial de registros (Bulk Insert)
-                for (Map<String, String> fila : batchFilas) {
-                    RegistroImportado registro = new RegistroImportado();
-                    registro.setLoteId(loteId);
-                    registro.setEstadoProcesoId(EstadoCaptacion.EN_PROCESO);
-                    try {
-                        registro.setDatosJson(objectMapper.writeValueAsString(fila));
-                    } catch (Exception e) {
-                        registro.setDatosJson("{}");
-                    }
-                    registrosBatch.add(registro);
+            List<Map<String, String>> buffer = new ArrayList<>(TAMANIO_LOTE);
+            excelReader.leer(archivo, fila -> {
+                buffer.add(fila);
+                if (buffer.size() >= TAMANIO_LOTE) {
+                    procesarBatch(lote, buffer, progreso);
+                    buffer.clear();
                 }
+            });
+            if (!buffer.isEmpty()) {
+                procesarBatch(lote, buffer, progreso);
+            }
 
-                // Guardamos el batch inicial para obtener IDs
-                registrosBatch = registroRepository.saveAll(registrosBatch);
-
-                // 2. Procesar cada registro del batch Y enviar actualización después de cada
-                // uno
-                int procesadosEnBatch = 0;
-                for (RegistroImportado registro : registrosBatch) {
-                    try {
-                        processingService.procesarDesdeStaging(TipoFuente.IMPORTACION, registro);
-                        registro.setEstadoProcesoId(EstadoCaptacion.VALIDADO);
-                        exitosos++;
-                    } catch (pe.unmsm.crm.marketing.shared.infra.exception.DuplicateLeadException e) {
-                        registro.setEstadoProcesoId(EstadoCaptacion.RECHAZADO);
-                        registro.setMotivoRechazo("DUPLICADO: " + e.getMessage());
-                        duplicados++;
-                    } catch (Exception e) {
-                        registro.setEstadoProcesoId(EstadoCaptacion.RECHAZADO);
-                        registro.setMotivoRechazo(
-                                e.getMessage() != null
-                                        ? e.getMessage().substring(0, Math.min(500, e.getMessage().length()))
-                                        : "Error desconocido");
-                        conErrores++;
-                    }
-
-                    procesadosEnBatch++;
-                    int totalProcesado = i + procesadosEnBatch;
-
-                    // ** ENVIAR ACTUALIZACIÓN DESPUÉS DE CADA LEAD **
-                    // Esto asegura que el usuario vea progreso en tiempo real
-                    ImportProgressUpdate progress = ImportProgressUpdate.builder()
-                            .loteId(loteId)
-                            .nombreArchivo(nombreArchivo)
-                            .totalRegistros(filas.size())
-                            .procesados(totalProcesado)
-                            .exitosos(exitosos)
-                            .duplicados(duplicados)
-                            .conErrores(conErrores)
-                            .completado(false)
-                            .build();
-
-                    messagingTemplate.convertAndSend("/topic/import-progress/" + loteId, (Object) progress);
-                }
+            // Métricas finales del lote
+            long duracionMs = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+            progreso.muestrearHeap(memoria);
+            lote.setDuracionMs(duracionMs);
+            lote.setFilasPorSegundo(Math.round(progreso.procesados * 1000.0 / duracionMs * 100.0) / 100.0);
+            lote.setHeapPicoMb(progreso.heapPicoMb());
+            loteRepository.save(lote);
 
-                // 3. Actualizar estados del batch (Bulk Update)
-                registroRepository.saveAll(registrosBatch);
+            log.info("Importación lote {} completada: {} filas en {}ms ({} filas/seg, heap pico {}MB)",
+                    loteId, progreso.procesados, duracionMs, lote.getFilasPorSegundo(), lote.getHeapPicoMb());
 
-                // --- ACTUALIZACIÓN INCREMENTAL DEL LOTE ---
-                // Esto permite que el polling funcione si el WebSocket falla
-                lote.setExitosos(exitosos);
-                lote.setDuplicados(duplicados);
-                lote.setConErrores(conErrores);
-                lote.setRechazados(duplicados + conErrores);
-                loteRepository.save(lote);
+            // Enviar actualización final de completado
+            enviarProgreso(progreso, true);
+
+        } catch (Exception e) {
+            // En caso de error fatal el lote queda EN_PROCESO con los contadores parciales
+            log.error("Error fatal procesando lote de importación {}: {}", loteId, e.getMessage(), e);
+        } finally {
+            try {
+                Files.deleteIfExists(archivo);
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el archivo temporal {}: {}", archivo, e.getMessage());
             }
+        }
+    }
 
-            // Enviar actualización final de completado
-            ImportProgressUpdate finalProgress = ImportProgressUpdate.builder()
-                    .loteId(loteId)
-                    .nombreArchivo(nombreArchivo)
-                    .totalRegistros(filas.size())
-                    .procesados(filas.size())
-                    .exitosos(exitosos)
-                    .duplicados(duplicados)
-                    .conErrores(conErrores)
-                    .completado(true)
-                    .build();
-
-            messagingTemplate.convertAndSend("/topic/import-progress/" + loteId, (Object) finalProgress);
+    private void procesarBatch(LoteImportacion lote, List<Map<String, String>> filas, Progreso progreso) {
+        // 1. Preparar y guardar registros del batch (Bulk Insert)
+        List<RegistroImportado> registros = new ArrayList<>(filas.size());
+        for (Map<String, String> fila : filas) {
+            RegistroImportado registro = new RegistroImportado();
+            registro.setLoteId(lote.getId());
+            registro.setEstadoProcesoId(EstadoCaptacion.EN_PROCESO);
+            try {
+                registro.setDatosJson(objectMapper.writeValueAsString(fila));
+            } catch (Exception e) {
+                registro.setDatosJson("{}");
+            }
+            registros.add(registro);
+        }
+        transactionTemplate.executeWithoutResult(status -> registroJdbcRepository.insertarLote(registros));
+
+        // 2. Procesar el batch con deduplicación por conjuntos
+        try {
+            processingService.procesarLoteImportacion(registros);
+        } catch (Exception e) {
+            log.warn("Lote {}: falló el procesamiento por conjunto ({}), reprocesando fila por fila",
+                    lote.getId(), e.getMessage());
+            registros.forEach(this::procesarIndividual);
+        }
+
+        // 3. Actualizar estados del batch (Bulk Update)
+        transactionTemplate.executeWithoutResult(status -> registroJdbcRepository.actualizarEstados(registros));
 
+        // --- ACTUALIZACIÓN INCREMENTAL DEL LOTE ---
+        // Esto permite que el polling funcione si el WebSocket falla
+        progreso.acumular(registros);
+        progreso.muestrearHeap(memoria);
+        lote.setExitosos(progreso.exitosos);
+        lote.setDuplicados(progreso.duplicados);
+        lote.setConErrores(progreso.conErrores);
+        lote.setRechazados(progreso.duplicados + progreso.conErrores);
+        loteRepository.save(lote);
+
+        // ** ENVIAR ACTUALIZACIÓN DESPUÉS DE CADA BATCH **
+        enviarProgreso(progreso, false);
+    }
+
+    private void procesarIndividual(RegistroImportado registro) {
+        try {
+            processingService.procesarDesdeStaging(TipoFuente.IMPORTACION, registro);
+            registro.setEstadoProcesoId(EstadoCaptacion.VALIDADO);
+            registro.setMotivoRechazo(null);
+        } catch (pe.unmsm.crm.marketing.shared.infra.exception.DuplicateLeadException e) {
+            registro.setEstadoProcesoId(EstadoCaptacion.RECHAZADO);
+            registro.setMotivoRechazo("DUPLICADO: " + e.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
-            // En caso de error fatal, intentar marcar el lote como fallido si fuera posible
-            // O al menos loguearlo.
+            registro.setEstadoProcesoId(EstadoCaptacion.RECHAZADO);
+            registro.setMotivoRechazo(
+                    e.getMessage() != null
+                            ? e.getMessage().substring(0, Math.min(500, e.getMessage().length()))
+                            : "Error desconocido");
         }
     }
 
+    private void enviarProgreso(Progreso progreso, boolean completado) {
+        ImportProgressUpdate update = ImportProgressUpdate.builder()
+                .loteId(progreso.lote.getId())
+                .nombreArchivo(progreso.lote.getNombreArchivo())
+                .totalRegistros(progreso.lote.getTotalRegistros())
+                .procesados(progreso.procesados)
+                .exitosos(progreso.exitosos)
+                .duplicados(progreso.duplicados)
+                .conErrores(progreso.conErrores)
+                .completado(completado)
+                .filasPorSegundo(progreso.lote.getFilasPorSegundo())
+                .heapPicoMb(progreso.lote.getHeapPicoMb())
+                .build();
+
+        // Conflado: si el cliente va atrás solo recibe el último progreso del lote
+        publicador.publicar("/topic/import-progress/" + progreso.lote.getId(), null, update);
+    }
+
+    /**
+     * Contadores acumulados del lote y heap pico observado
+     */
+    private static final class Progreso {
+
+        private final LoteImportacion lote;
+        private int procesados;
+        private int exitosos;
+        private int duplicados;
+        private int conErrores;
+        private long heapPicoBytes;
+
+        private Progreso(LoteImportacion lote) {
+            this.lote = lote;
+        }
+
+        private void acumular(List<RegistroImportado> registros) {
+            for (RegistroImportado registro : registros) {
+                procesados++;
+                if (registro.getEstadoProcesoId() == EstadoCaptacion.VALIDADO) {
+                    exitosos++;
+                } else if (registro.getMotivoRechazo() != null && registro.getMotivoRechazo().startsWith("DUPLICADO")) {
+                    duplicados++;
+                } else {
+                    conErrores++;
+                }
+            }
+        }
+
+        private void muestrearHeap(MemoryMXBean memoria) {
+            heapPicoBytes = Math.max(heapPicoBytes, memoria.getHeapMemoryUsage().getUsed());
+        }
+
+        private int heapPicoMb() {
+            return (int) (heapPicoBytes / (1024 * 1024));
+        }
+    }
 }
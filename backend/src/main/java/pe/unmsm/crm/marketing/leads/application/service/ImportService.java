@@ -2,9 +2,7 @@ package pe.unmsm.crm.marketing.leads.application.service;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -13,9 +11,11 @@ import org.springframework.web.multipart.MultipartFile;
 
 import pe.unmsm.crm.marketing.leads.domain.model.staging.LoteImportacion;
 import pe.unmsm.crm.marketing.leads.domain.repository.LoteRepository;
+import pe.unmsm.crm.marketing.shared.infra.exception.BusinessException;
 
 import java.io.IOException;
-import java.util.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @Service
 @RequiredArgsConstructor
@@ -27,21 +27,34 @@ public class ImportService {
     // 1. Método Síncrono: Inicia el proceso y retorna el ID
     // NO tiene @Transactional para evitar que errores en async marquen rollback
     public LoteImportacion iniciarImportacion(MultipartFile file) {
+        Path archivo = null;
         try {
+            // Copiar a un temporal propio: el multipart se elimina al terminar la petición
+            archivo = Files.createTempFile("importacion-", ".xlsx");
+            file.transferTo(archivo);
+
             // Crear Lote Inicial
             LoteImportacion lote = crearLoteInicial(file.getOriginalFilename());
 
-            // Leer Excel en memoria (rápido para 30-100 registros)
-            List<Map<String, String>> filas = leerExcel(file);
-            lote.setTotalRegistros(filas.size());
-            lote = loteRepository.save(lote);
-
             // Disparar proceso asíncrono EN OTRA CLASE (esto sí funciona con @Async)
-            asyncProcessor.procesarFilasAsync(lote.getId(), filas);
+            // El procesador cuenta las filas (fuera del hilo de la petición) y
+            // elimina el archivo al terminar
+            try {
+                asyncProcessor.procesarArchivoAsync(lote.getId(), archivo);
+            } catch (TaskRejectedException e) {
+                // Ejecutor de importaciones saturado: no queda un lote EN_PROCESO huérfano
+                loteRepository.delete(lote);
+                throw new BusinessException("IMPORT_QUEUE_FULL",
+                        "Hay demasiadas importaciones en curso, intente nuevamente en unos minutos");
+            }
 
             return lote; // Retornar inmediatamente "EN_PROCESO"
         } catch (IOException e) {
+            eliminarTemporal(archivo);
             throw new RuntimeException("Error al leer archivo Excel", e);
+        } catch (RuntimeException e) {
+            eliminarTemporal(archivo);
+            throw e;
         }
     }
 
@@ -63,76 +76,14 @@ public class ImportService {
                         "LoteImportacion", id));
     }
 
-    // Utilidad simple para leer Excel a Map
-    private List<Map<String, String>> leerExcel(MultipartFile file) throws IOException {
-        List<Map<String, String>> lista = new ArrayList<>();
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Row headerRow = sheet.getRow(0);
-
-            // Mapeo de columnas
-            List<String> headers = new ArrayList<>();
-            for (Cell cell : headerRow)
-                headers.add(cell.getStringCellValue());
-
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null)
-                    continue;
-
-                Map<String, String> datos = new HashMap<>();
-                boolean hasData = false; // Flag para verificar si la fila tiene datos
-
-                for (int j = 0; j < headers.size(); j++) {
-                    Cell cell = row.getCell(j);
-                    String valor = "";
-
-                    if (cell != null) {
-                        // Manejo mejorado de tipos de celda para evitar .toString() genérico
-                        switch (cell.getCellType()) {
-                            case STRING:
-                                valor = cell.getStringCellValue().trim();
-                                break;
-                            case NUMERIC:
-                                if (DateUtil.isCellDateFormatted(cell)) {
-                                    valor = cell.getDateCellValue().toString();
-                                } else {
-                                    // Evitar notación científica en números (ej: teléfonos)
-                                    double num = cell.getNumericCellValue();
-                                    if (num == (long) num) {
-                                        valor = String.format("%d", (long) num);
-                                    } else {
-                                        valor = String.valueOf(num);
-                                    }
-                                }
-                                break;
-                            case BOOLEAN:
-                                valor = String.valueOf(cell.getBooleanCellValue());
-                                break;
-                            case FORMULA:
-                                try {
-                                    valor = cell.getStringCellValue();
-                                } catch (Exception e) {
-                                    valor = String.valueOf(cell.getNumericCellValue());
-                                }
-                                break;
-                            default:
-                                valor = "";
-                        }
-                    }
-
-                    if (!valor.isEmpty()) {
-                        hasData = true;
-                    }
-                    datos.put(headers.get(j), valor);
-                }
-
-                // Solo agregar si la fila tiene al menos un dato no vacío
-                if (hasData) {
-                    lista.add(datos);
-                }
-            }
+    private void eliminarTemporal(Path archivo) {
+        if (archivo == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException ignored) {
+            // El temporal lo limpia el sistema operativo
         }
-        return lista;
     }
 }
@@ -0,0 +1,349 @@
+package pe.unmsm.crm.marketing.leads.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEliminadosEnLoteEvent;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEstadoCambiadoEnLoteEvent;
+import pe.unmsm.crm.marketing.leads.infra.persistence.LeadBulkJdbcRepository;
+import pe.unmsm.crm.marketing.leads.infra.persistence.LeadBulkJdbcRepository.FilaEstado;
+import pe.unmsm.crm.marketing.security.service.UserAuthorizationService;
+import pe.unmsm.crm.marketing.shared.infra.exception.BusinessException;
+import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
+import pe.unmsm.crm.marketing.shared.logging.AccionLog;
+import pe.unmsm.crm.marketing.shared.logging.AuditoriaService;
+import pe.unmsm.crm.marketing.shared.logging.ModuloLog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Operaciones masivas sobre leads (cambio de estado y eliminación) por bloques.
+ *
+ * Por cada bloque de {@code app.leads.lote.tamanio-bloque} ids, en una
+ * transacción:
+ * - bloquea las filas existentes y valida en memoria las transiciones (mismas
+ *   reglas que el cambio individual: para CALIFICADO se requiere teléfono y
+ *   distrito)
+ * - un UPDATE o DELETE por conjunto sobre los ids válidos
+ * - un único evento agregado con los ids afectados y una entrada de auditoría
+ *   a nombre del usuario que pidió la operación
+ *
+ * Los ids omitidos se cuentan por motivo. Para selecciones grandes
+ * {@link #enviar} ejecuta la operación en segundo plano y devuelve un job con
+ * el progreso, con el mismo esquema que ReportJobService.
+ */
+@Service
+@Slf4j
+public class LeadBulkService {
+
+    private final LeadBulkJdbcRepository bulkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuditoriaService auditoriaService;
+    private final UserAuthorizationService userAuthorizationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, OperacionLoteJob> jobs;
+
+    @Value("${app.leads.lote.tamanio-bloque:1000}")
+    private int tamanioBloque;
+
+    public LeadBulkService(LeadBulkJdbcRepository bulkRepository,
+            ApplicationEventPublisher eventPublisher,
+            AuditoriaService auditoriaService,
+            UserAuthorizationService userAuthorizationService,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.leads.lote.jobs.hilos:1}") int hilos,
+            @Value("${app.leads.lote.jobs.capacidad:10}") int capacidad,
+            @Value("${app.leads.lote.jobs.retencion-min:30}") long retencionMin) {
+        this.bulkRepository = bulkRepository;
+        this.eventPublisher = eventPublisher;
+        this.auditoriaService = auditoriaService;
+        this.userAuthorizationService = userAuthorizationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidad),
+                r -> {
+                    Thread t = new Thread(r, "lead-bulk-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(capacidad * 10L)
+                .expireAfterWrite(retencionMin, TimeUnit.MINUTES)
+                .build();
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    public enum Operacion {
+        CAMBIAR_ESTADO, ELIMINAR
+    }
+
+    /**
+     * Resultado acumulado de una operación masiva
+     */
+    @Getter
+    public static class Resultado {
+
+        private final int solicitados;
+        private volatile int procesados;
+        private volatile int afectados;
+        private final Map<String, Integer> omitidos = new ConcurrentHashMap<>();
+
+        Resultado(int solicitados) {
+            this.solicitados = solicitados;
+        }
+
+        void omitir(String motivo, int cantidad) {
+            if (cantidad > 0) {
+                omitidos.merge(motivo, cantidad, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Cambia el estado de los leads indicados, bloque por bloque
+     */
+    public Resultado cambiarEstado(List<Long> ids, EstadoLead nuevoEstado, String motivo) {
+        Resultado resultado = new Resultado(ids.size());
+        cambiarEstado(ids, nuevoEstado, motivo, resultado, idUsuarioActual());
+        return resultado;
+    }
+
+    /**
+     * Elimina los leads indicados, bloque por bloque
+     */
+    public Resultado eliminar(List<Long> ids) {
+        Resultado resultado = new Resultado(ids.size());
+        eliminar(ids, resultado, idUsuarioActual());
+        return resultado;
+    }
+
+    /**
+     * Encola la operación para ejecutarla en segundo plano
+     *
+     * @throws BusinessException si la cola de operaciones está llena
+     */
+    public OperacionLoteJob enviar(Operacion operacion, List<Long> ids, EstadoLead nuevoEstado, String motivo) {
+        if (operacion == Operacion.CAMBIAR_ESTADO && nuevoEstado == null) {
+            throw new BusinessException("VALIDATION_ERROR", "El nuevo estado es obligatorio.");
+        }
+        List<Long> copia = new ArrayList<>(ids);
+        Long idUsuario = idUsuarioActual();
+        OperacionLoteJob job = new OperacionLoteJob(UUID.randomUUID().toString(), operacion,
+                new Resultado(copia.size()), usuarioActual());
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(new DelegatingSecurityContextRunnable(() -> ejecutar(job, copia, nuevoEstado, motivo, idUsuario)));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            throw new BusinessException("BULK_QUEUE_FULL",
+                    "Hay demasiadas operaciones masivas en proceso. Intente nuevamente en unos minutos.");
+        }
+        log.info("Operación masiva {} sobre {} leads encolada (job {})", operacion, copia.size(), job.getId());
+        return job;
+    }
+
+    /**
+     * Estado del job del usuario actual
+     *
+     * @throws NotFoundException si no existe, expiró o pertenece a otro usuario
+     */
+    public OperacionLoteJob obtener(String id) {
+        OperacionLoteJob job = jobs.getIfPresent(id);
+        if (job == null || !Objects.equals(job.getUsuario(), usuarioActual())) {
+            throw new NotFoundException("Operación masiva", id);
+        }
+        return job;
+    }
+
+    private void ejecutar(OperacionLoteJob job, List<Long> ids, EstadoLead nuevoEstado, String motivo,
+            Long idUsuario) {
+        job.estado = EstadoJob.EN_PROCESO;
+        try {
+            if (job.getOperacion() == Operacion.CAMBIAR_ESTADO) {
+                cambiarEstado(ids, nuevoEstado, motivo, job.getResultado(), idUsuario);
+            } else {
+                eliminar(ids, job.getResultado(), idUsuario);
+            }
+            job.estado = EstadoJob.COMPLETADO;
+        } catch (Exception e) {
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.estado = EstadoJob.ERROR;
+            log.error("Error en operación masiva {} (job {}): {}", job.getOperacion(), job.getId(), e.getMessage(), e);
+        }
+        job.fechaFin = LocalDateTime.now();
+        // Reinicia la retención desde el fin de la operación
+        jobs.put(job.getId(), job);
+    }
+
+    private void cambiarEstado(List<Long> ids, EstadoLead nuevoEstado, String motivo, Resultado resultado,
+            Long idUsuario) {
+        String motivoEfectivo = motivo != null ? motivo : "Cambio masivo";
+        for (List<Long> bloque : bloques(ids)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<FilaEstado> filas = bulkRepository.bloquearParaCambioEstado(bloque);
+                resultado.omitir("NO_ENCONTRADO", bloque.size() - filas.size());
+
+                Map<Long, EstadoLead> validos = new LinkedHashMap<>();
+                for (FilaEstado fila : filas) {
+                    String rechazo = validarTransicion(fila, nuevoEstado);
+                    if (rechazo != null) {
+                        resultado.omitir(rechazo, 1);
+                    } else {
+                        validos.put(fila.id(), fila.estado());
+                    }
+                }
+                if (validos.isEmpty()) {
+                    return;
+                }
+
+                bulkRepository.actualizarEstado(new ArrayList<>(validos.keySet()), nuevoEstado);
+                eventPublisher.publishEvent(new LeadsEstadoCambiadoEnLoteEvent(validos, nuevoEstado, motivoEfectivo));
+                auditoriaService.registrarEvento(
+                        ModuloLog.LEADS,
+                        AccionLog.CAMBIAR_ESTADO,
+                        null, // Operación en lote
+                        idUsuario,
+                        String.format("Cambio de estado en lote: %d leads a estado %s (ids %d..%d). Motivo: %s",
+                                validos.size(), nuevoEstado, bloque.get(0), bloque.get(bloque.size() - 1),
+                                motivoEfectivo));
+                resultado.afectados += validos.size();
+            });
+            resultado.procesados += bloque.size();
+        }
+    }
+
+    private void eliminar(List<Long> ids, Resultado resultado, Long idUsuario) {
+        for (List<Long> bloque : bloques(ids)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> eliminables = bulkRepository.bloquearEliminables(bloque);
+                if (eliminables.isEmpty()) {
+                    resultado.omitir("NO_ENCONTRADO_O_EN_USO", bloque.size());
+                    return;
+                }
+                int eliminados = bulkRepository.eliminar(eliminables);
+                resultado.omitir("NO_ENCONTRADO_O_EN_USO", bloque.size() - eliminados);
+
+                eventPublisher.publishEvent(new LeadsEliminadosEnLoteEvent(this, eliminables));
+                auditoriaService.registrarEvento(
+                        ModuloLog.LEADS,
+                        AccionLog.ELIMINAR,
+                        null, // Operación en lote, no hay un solo ID
+                        idUsuario,
+                        String.format("Eliminación en lote: %d leads eliminados (ids %d..%d)",
+                                eliminados, bloque.get(0), bloque.get(bloque.size() - 1)));
+                resultado.afectados += eliminados;
+            });
+            resultado.procesados += bloque.size();
+        }
+    }
+
+    /**
+     * @return motivo de rechazo, o null si la transición es válida
+     */
+    static String validarTransicion(FilaEstado fila, EstadoLead nuevoEstado) {
+        if (fila.estado() == nuevoEstado) {
+            return "SIN_CAMBIO";
+        }
+        if (nuevoEstado == EstadoLead.CALIFICADO) {
+            if (!fila.tieneTelefono()) {
+                return "SIN_TELEFONO";
+            }
+            if (!fila.tieneDistrito()) {
+                return "SIN_DISTRITO";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ids sin nulos ni repetidos, ordenados (orden de bloqueo estable entre
+     * operaciones concurrentes) y partidos en bloques
+     */
+    private List<List<Long>> bloques(List<Long> ids) {
+        Set<Long> unicos = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                unicos.add(id);
+            }
+        }
+        List<Long> ordenados = new ArrayList<>(unicos);
+        ordenados.sort(null);
+
+        List<List<Long>> bloques = new ArrayList<>();
+        for (int i = 0; i < ordenados.size(); i += tamanioBloque) {
+            bloques.add(ordenados.subList(i, Math.min(i + tamanioBloque, ordenados.size())));
+        }
+        return bloques;
+    }
+
+    /**
+     * Se resuelve en el hilo del request: el job corre en el executor
+     */
+    private Long idUsuarioActual() {
+        return userAuthorizationService.requireCurrentUsuario().getIdUsuario();
+    }
+
+    private static String usuarioActual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : null;
+    }
+
+    public enum EstadoJob {
+        PENDIENTE, EN_PROCESO, COMPLETADO, ERROR
+    }
+
+    /**
+     * Job de operación masiva. Los cambios de estado los hace el hilo del executor.
+     */
+    @Getter
+    public static class OperacionLoteJob {
+
+        private final String id;
+        private final Operacion operacion;
+        private final Resultado resultado;
+        private final String usuario;
+        private final LocalDateTime fechaCreacion = LocalDateTime.now();
+        private volatile EstadoJob estado = EstadoJob.PENDIENTE;
+        private volatile LocalDateTime fechaFin;
+        private volatile String error;
+
+        OperacionLoteJob(String id, Operacion operacion, Resultado resultado, String usuario) {
+            this.id = id;
+            this.operacion = operacion;
+            this.resultado = resultado;
+            this.usuario = usuario;
+        }
+    }
+}
@@ -2,16 +2,14 @@ package pe.unmsm.crm.marketing.leads.application.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
-import pe.unmsm.crm.marketing.leads.domain.model.Lead;
-import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
+import pe.unmsm.crm.marketing.leads.infra.retencion.LeadsDescartadosRetencion;
+import pe.unmsm.crm.marketing.shared.infra.lease.CoordinadorJobs;
+import pe.unmsm.crm.marketing.shared.infra.retencion.MotorRetencion;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.time.Duration;
 
 @Service
 @RequiredArgsConstructor
@@ -19,27 +17,26 @@ import java.util.List;
 @org.springframework.context.annotation.Profile("!console")
 public class LeadCleanupService {
 
-    private final LeadRepository leadRepository;
+    private final MotorRetencion motorRetencion;
+    private final LeadsDescartadosRetencion politica;
+    private final CoordinadorJobs coordinadorJobs;
+
+    @Value("${app.retencion.lease-minutos:10}")
+    private long leaseMinutos;
 
     /**
      * Se ejecuta todos los días a las 3:00 AM
      * Cron: "0 0 3 * * ?" = segundo 0, minuto 0, hora 3, todos los días
+     *
+     * Borra por bloques los leads descartados hace más de
+     * app.retencion.leads.dias (30 por defecto), ver LeadsDescartadosRetencion.
+     * Solo corre en la instancia que obtiene el lease "leads-retencion".
      */
-    @Scheduled(cron = "0 0 3 * * ?")
-    @Transactional
+    @Scheduled(cron = "${app.retencion.leads.cron:0 0 3 * * ?}")
     public void eliminarLeadsDescartadosAntiguos() {
-        log.info("Iniciando limpieza automática de leads descartados...");
-
-        // Configuración: Borrar si llevan más de 30 días descartados (sin actualizarse)
-        Instant fechaCorte = Instant.now().minus(30, ChronoUnit.DAYS);
-
-        List<Lead> leadsViejos = leadRepository.findByEstadoAndUpdatedAtBefore(EstadoLead.DESCARTADO, fechaCorte);
-
-        if (!leadsViejos.isEmpty()) {
-            leadRepository.deleteAll(leadsViejos);
-            log.info("Eliminados {} leads descartados antiguos.", leadsViejos.size());
-        } else {
-            log.info("No se encontraron leads antiguos para eliminar.");
-        }
+        coordinadorJobs.ejecutar("leads-retencion", Duration.ofMinutes(leaseMinutos), lease -> {
+            log.info("Iniciando limpieza automática de leads descartados...");
+            motorRetencion.ejecutar(politica, lease);
+        });
     }
 }
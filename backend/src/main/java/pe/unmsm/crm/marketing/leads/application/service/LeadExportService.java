@@ -1,131 +1,150 @@
 package pe.unmsm.crm.marketing.leads.application.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import pe.unmsm.crm.marketing.leads.domain.model.Lead;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
+import pe.unmsm.crm.marketing.leads.domain.model.LeadExportRow;
+import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
 import pe.unmsm.crm.marketing.shared.application.service.ExcelExportService;
 import pe.unmsm.crm.marketing.shared.application.service.ExcelExportService.ExcelConfig;
 import pe.unmsm.crm.marketing.shared.application.service.ExcelExportService.ColumnConfig;
+import pe.unmsm.crm.marketing.shared.application.service.FormatoExportacion;
+import pe.unmsm.crm.marketing.shared.application.service.KeysetIterator;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Service for exporting Leads to Excel format
  * Uses the generic ExcelExportService for actual Excel generation
+ *
+ * Rows are read in keyset pages of LeadExportRow and streamed to the output,
+ * so exporting the whole table does not load it into memory.
  */
 @Service
 @RequiredArgsConstructor
 public class LeadExportService {
 
         private final ExcelExportService excelExportService;
+        private final LeadRepository leadRepository;
 
         private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
+        public static final int TAMANIO_PAGINA = 1000;
+
+        /**
+         * Exports the leads matching the filters
+         *
+         * @param estado     Optional state filter
+         * @param fuenteTipo Optional source filter
+         * @param search     Optional name search
+         * @param formato    Output format
+         * @param out        Destination stream
+         * @throws IOException if file generation fails
+         */
+        public void exportLeads(EstadoLead estado, TipoFuente fuenteTipo, String search,
+                        FormatoExportacion formato, OutputStream out) throws IOException {
+                Iterator<LeadExportRow> filas = new KeysetIterator<>(
+                                ultimoId -> leadRepository.buscarPaginaExportacion(estado, fuenteTipo, search,
+                                                ultimoId, PageRequest.of(0, TAMANIO_PAGINA)),
+                                LeadExportRow::getId,
+                                TAMANIO_PAGINA);
+                write(filas, formato, out);
+        }
+
         /**
-         * Exports a list of leads to Excel format
-         * 
-         * @param leads List of leads to export
-         * @return Byte array containing the Excel file
-         * @throws IOException if Excel generation fails
+         * Exports the selected leads
+         *
+         * @param ids     IDs of the leads to export
+         * @param formato Output format
+         * @param out     Destination stream
+         * @throws IOException if file generation fails
          */
-        public byte[] exportLeadsToExcel(List<Lead> leads) throws IOException {
-                ExcelConfig<Lead> config = buildLeadExcelConfig();
-                return excelExportService.exportToExcel(leads, config);
+        public void exportLeadsSeleccionados(List<Long> ids, FormatoExportacion formato, OutputStream out)
+                        throws IOException {
+                Iterator<LeadExportRow> filas = new KeysetIterator<>(
+                                ultimoId -> leadRepository.buscarPaginaExportacionPorIds(ids, ultimoId,
+                                                PageRequest.of(0, TAMANIO_PAGINA)),
+                                LeadExportRow::getId,
+                                TAMANIO_PAGINA);
+                write(filas, formato, out);
+        }
+
+        private void write(Iterator<LeadExportRow> filas, FormatoExportacion formato, OutputStream out)
+                        throws IOException {
+                ExcelConfig<LeadExportRow> config = new ExcelConfig<>("Leads", buildColumns(true));
+                if (formato == FormatoExportacion.CSV) {
+                        excelExportService.exportToCsv(filas, config, out);
+                } else {
+                        excelExportService.exportToExcel(filas, config, out);
+                }
         }
 
         /**
-         * Builds the Excel configuration for Lead export
-         * Defines which columns to include and how to extract values
+         * Builds the column configuration for Lead export
+         * Defines which columns to include, how to extract values and their widths
+         *
+         * @param incluirEstadoYFuente whether to include the Estado and Fuente columns
+         *                             (segment reports omit them)
          */
-        private ExcelConfig<Lead> buildLeadExcelConfig() {
-                List<ColumnConfig<Lead>> columns = new ArrayList<>();
+        public List<ColumnConfig<LeadExportRow>> buildColumns(boolean incluirEstadoYFuente) {
+                List<ColumnConfig<LeadExportRow>> columns = new ArrayList<>();
 
                 // ID
-                columns.add(new ColumnConfig<>("ID", Lead::getId));
+                columns.add(new ColumnConfig<>("ID", LeadExportRow::getId, 10));
 
                 // Nombre Completo
                 columns.add(new ColumnConfig<>("Nombre Completo",
-                                lead -> lead.getNombre() != null ? lead.getNombre() : ""));
+                                lead -> lead.getNombre() != null ? lead.getNombre() : "", 35));
 
                 // Email
                 columns.add(new ColumnConfig<>("Email",
-                                lead -> lead.getContacto() != null && lead.getContacto().getEmail() != null
-                                                ? lead.getContacto().getEmail()
-                                                : ""));
+                                lead -> lead.getEmail() != null ? lead.getEmail() : "", 32));
 
                 // Teléfono
                 columns.add(new ColumnConfig<>("Teléfono",
-                                lead -> lead.getContacto() != null && lead.getContacto().getTelefono() != null
-                                                ? lead.getContacto().getTelefono()
-                                                : ""));
+                                lead -> lead.getTelefono() != null ? lead.getTelefono() : "", 15));
 
                 // Edad
                 columns.add(new ColumnConfig<>("Edad",
-                                lead -> lead.getDemograficos() != null && lead.getDemograficos().getEdad() != null
-                                                ? lead.getDemograficos().getEdad()
-                                                : 0));
+                                lead -> lead.getEdad() != null ? lead.getEdad() : 0, 8));
 
                 // Género
                 columns.add(new ColumnConfig<>("Género",
-                                lead -> lead.getDemograficos() != null && lead.getDemograficos().getGenero() != null
-                                                ? lead.getDemograficos().getGenero().toString()
-                                                : ""));
-
-                // Estado
-                columns.add(new ColumnConfig<>("Estado",
-                                lead -> lead.getEstado() != null ? lead.getEstado().toString() : ""));
+                                lead -> lead.getGenero() != null ? lead.getGenero() : "", 10));
 
-                // Fuente
-                columns.add(new ColumnConfig<>("Fuente",
-                                lead -> lead.getFuenteTipo() != null ? lead.getFuenteTipo().toString() : ""));
+                if (incluirEstadoYFuente) {
+                        // Estado
+                        columns.add(new ColumnConfig<>("Estado",
+                                        lead -> lead.getEstado() != null ? lead.getEstado().toString() : "", 14));
 
-                // Distrito (using object graph)
-                columns.add(new ColumnConfig<>("Distrito", this::getDistritoName));
-
-                // Provincia (using object graph)
-                columns.add(new ColumnConfig<>("Provincia", this::getProvinciaName));
+                        // Fuente
+                        columns.add(new ColumnConfig<>("Fuente",
+                                        lead -> lead.getFuenteTipo() != null ? lead.getFuenteTipo().toString() : "",
+                                        12));
+                }
 
-                // Departamento (using object graph)
-                columns.add(new ColumnConfig<>("Departamento", this::getDepartamentoName));
+                // Ubigeo (resuelto en la consulta)
+                columns.add(new ColumnConfig<>("Distrito",
+                                lead -> lead.getDistrito() != null ? lead.getDistrito() : "", 22));
+                columns.add(new ColumnConfig<>("Provincia",
+                                lead -> lead.getProvincia() != null ? lead.getProvincia() : "", 18));
+                columns.add(new ColumnConfig<>("Departamento",
+                                lead -> lead.getDepartamento() != null ? lead.getDepartamento() : "", 16));
 
                 // Fecha Creación
                 columns.add(new ColumnConfig<>("Fecha Creación",
                                 lead -> lead.getFechaCreacion() != null
                                                 ? lead.getFechaCreacion().format(DATE_FORMATTER)
-                                                : ""));
+                                                : "",
+                                16));
 
-                return new ExcelConfig<>("Leads", columns);
-        }
-
-        /**
-         * Helper methods using object graph for location names
-         */
-        private String getDistritoName(Lead lead) {
-                if (lead.getDemograficos() == null || lead.getDemograficos().getDistrito() == null) {
-                        return "";
-                }
-                return lead.getDemograficos().getDistrito().getNombre();
-        }
-
-        private String getProvinciaName(Lead lead) {
-                if (lead.getDemograficos() == null || lead.getDemograficos().getDistrito() == null) {
-                        return "";
-                }
-                var distrito = lead.getDemograficos().getDistrito();
-                return distrito.getProvincia() != null ? distrito.getProvincia().getNombre() : "";
-        }
-
-        private String getDepartamentoName(Lead lead) {
-                if (lead.getDemograficos() == null || lead.getDemograficos().getDistrito() == null) {
-                        return "";
-                }
-                var distrito = lead.getDemograficos().getDistrito();
-                if (distrito.getProvincia() != null && distrito.getProvincia().getDepartamento() != null) {
-                        return distrito.getProvincia().getDepartamento().getNombre();
-                }
-                return "";
+                return columns;
         }
 }
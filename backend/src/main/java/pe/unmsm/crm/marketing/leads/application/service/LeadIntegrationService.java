@@ -140,4 +140,20 @@ public class LeadIntegrationService {
 
                 return mapToDTO(lead);
         }
+
+        /**
+         * Leads por IDs (solo NUEVO o CALIFICADO) con datos de ubicación.
+         * Para refrescar el caché de segmentación tras una operación masiva
+         */
+        @Transactional(readOnly = true)
+        public List<LeadIntegrationDTO> obtenerLeadsPorIds(List<Long> ids) {
+                if (ids == null || ids.isEmpty()) {
+                        return List.of();
+                }
+                List<EstadoLead> estadosPermitidos = Arrays.asList(EstadoLead.NUEVO, EstadoLead.CALIFICADO);
+                return leadRepository.findAllByIdWithLocation(ids).stream()
+                                .filter(lead -> estadosPermitidos.contains(lead.getEstado()))
+                                .map(this::mapToDTO)
+                                .collect(Collectors.toList());
+        }
 }
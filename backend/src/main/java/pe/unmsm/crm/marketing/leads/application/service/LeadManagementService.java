@@ -18,7 +18,6 @@ import pe.unmsm.crm.marketing.shared.logging.ModuloLog;
 import pe.unmsm.crm.marketing.shared.logging.AccionLog;
 
 import java.util.List;
-import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +26,7 @@ public class LeadManagementService {
     private final LeadRepository leadRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final AuditoriaService auditoriaService;
+    private final LeadBulkService leadBulkService;
 
     @Transactional
     public void cualificarLead(@NonNull Long leadId, @NonNull EstadoLead nuevoEstado, String motivo) {
@@ -105,68 +105,22 @@ public class LeadManagementService {
         return leadRepository.findById(id).orElse(null);
     }
 
-    @Transactional
+    /**
+     * Eliminación masiva por bloques (ver LeadBulkService)
+     *
+     * @return leads eliminados; los inexistentes o con llamadas/respuestas se omiten
+     */
     public int eliminarLeadsEnLote(@NonNull List<@NonNull Long> ids) {
-        int eliminados = 0;
-        for (Long id : ids) {
-            // Validación explícita de null para satisfacer el análisis de null-safety
-            @NonNull
-            Long nonNullId = Objects.requireNonNull(id, "El ID no puede ser null");
-            if (leadRepository.existsById(nonNullId)) {
-                leadRepository.deleteById(nonNullId);
-
-                // PATRÓN OBSERVER: Notificar eliminación individual
-                eventPublisher.publishEvent(new LeadEliminadoEvent(this, nonNullId));
-
-                eliminados++;
-            }
-        }
-
-        // AUDITORÍA: Registrar eliminación en lote
-        if (eliminados > 0) {
-            auditoriaService.registrarEvento(
-                    ModuloLog.LEADS,
-                    AccionLog.ELIMINAR,
-                    null, // Operación en lote, no hay un solo ID
-                    null, // TODO: Agregar ID de usuario
-                    String.format("Eliminación en lote: %d leads eliminados de %d solicitados",
-                            eliminados, ids.size()));
-        }
-
-        return eliminados;
+        return leadBulkService.eliminar(ids).getAfectados();
     }
 
-    @Transactional
+    /**
+     * Cambio de estado masivo por bloques (ver LeadBulkService)
+     *
+     * @return leads actualizados; los que no cumplen la transición se omiten
+     */
     public int cualificarLeadsEnLote(@NonNull List<@NonNull Long> ids, @NonNull EstadoLead nuevoEstado, String motivo) {
-        int actualizados = 0;
-        for (Long id : ids) {
-            // Validación explícita de null para satisfacer el análisis de null-safety
-            @NonNull
-            Long nonNullId = Objects.requireNonNull(id, "El ID no puede ser null");
-            if (leadRepository.existsById(nonNullId)) {
-                try {
-                    cualificarLead(nonNullId, nuevoEstado, motivo);
-                    actualizados++;
-                } catch (Exception e) {
-                    // Si falla uno, continuamos con los demás
-                    // Podrías loggear el error aquí si es necesario
-                }
-            }
-        }
-
-        // AUDITORÍA: Registrar calificación en lote
-        if (actualizados > 0) {
-            auditoriaService.registrarEvento(
-                    ModuloLog.LEADS,
-                    AccionLog.CAMBIAR_ESTADO,
-                    null, // Operación en lote
-                    null, // TODO: Agregar ID de usuario
-                    String.format(
-                            "Calificación en lote: %d leads actualizados a estado %s de %d solicitados. Motivo: %s",
-                            actualizados, nuevoEstado, ids.size(), motivo != null ? motivo : "No especificado"));
-        }
-
-        return actualizados;
+        return leadBulkService.cambiarEstado(ids, nuevoEstado, motivo).getAfectados();
     }
 
     public List<Lead> obtenerLeadsPorIds(@NonNull List<@NonNull Long> ids) {
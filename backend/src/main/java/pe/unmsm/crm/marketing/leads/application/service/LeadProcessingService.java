@@ -11,6 +11,8 @@ import pe.unmsm.crm.marketing.leads.domain.strategy.DeduplicationStrategy; // <-
 import pe.unmsm.crm.marketing.leads.domain.event.LeadEstadoCambiadoEvent; // <--- EVENTO
 
 import pe.unmsm.crm.marketing.leads.domain.model.Lead;
+import pe.unmsm.crm.marketing.leads.domain.model.staging.RegistroImportado;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoCaptacion;
 import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
 import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
 import pe.unmsm.crm.marketing.shared.infra.exception.DuplicateLeadException;
@@ -18,9 +20,12 @@ import pe.unmsm.crm.marketing.shared.logging.AuditoriaService;
 import pe.unmsm.crm.marketing.shared.logging.ModuloLog;
 import pe.unmsm.crm.marketing.shared.logging.AccionLog;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -34,10 +39,7 @@ public class LeadProcessingService {
 
     @Transactional
     public void procesarDesdeStaging(TipoFuente tipo, Object datoStaging) {
-        LeadFactory factory = factories.stream()
-                .filter(f -> f.soporta(tipo))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("No factory for: " + tipo));
+        LeadFactory factory = obtenerFactory(tipo);
 
         Lead leadEntrante = factory.convertirALead(datoStaging);
 
@@ -84,4 +86,118 @@ public class LeadProcessingService {
                             nuevoLead.getContacto() != null ? nuevoLead.getContacto().getEmail() : "N/A"));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Procesa un lote de registros importados en una sola transacción.
+     *
+     * La deduplicación se resuelve por conjuntos: una consulta IN de emails y otra
+     * de teléfonos por lote (en lugar de dos consultas por fila), más los
+     * duplicados dentro del mismo lote. Deja en cada registro su estado final
+     * (VALIDADO o RECHAZADO con motivo, igual que el procesamiento por fila).
+     *
+     * Si el guardado falla (p. ej. un lead creado en paralelo desde la web) la
+     * excepción se propaga y el llamador debe reprocesar el lote fila por fila.
+     */
+    @Transactional
+    public void procesarLoteImportacion(List<RegistroImportado> registros) {
+        LeadFactory factory = obtenerFactory(TipoFuente.IMPORTACION);
+
+        // 1. Convertir filas a leads
+        List<RegistroImportado> convertidos = new ArrayList<>(registros.size());
+        List<Lead> leads = new ArrayList<>(registros.size());
+        for (RegistroImportado registro : registros) {
+            try {
+                leads.add(factory.convertirALead(registro));
+                convertidos.add(registro);
+            } catch (Exception e) {
+                rechazar(registro, e.getMessage() != null ? e.getMessage() : "Error desconocido");
+            }
+        }
+
+        // 2. Consultas por conjunto (emails sin distinguir mayúsculas, como la collation de leads)
+        Set<String> emails = new HashSet<>();
+        Set<String> telefonos = new HashSet<>();
+        for (Lead lead : leads) {
+            if (lead.getContacto() == null) {
+                continue;
+            }
+            if (lead.getContacto().getEmail() != null) {
+                emails.add(lead.getContacto().getEmail());
+            }
+            if (lead.getContacto().getTelefono() != null && !lead.getContacto().getTelefono().isBlank()) {
+                telefonos.add(lead.getContacto().getTelefono());
+            }
+        }
+
+        Set<String> emailsVistos = new HashSet<>();
+        if (!emails.isEmpty()) {
+            leadRepository.findEmailsExistentes(emails).forEach(e -> emailsVistos.add(e.toLowerCase()));
+        }
+        Set<String> telefonosVistos = new HashSet<>();
+        if (!telefonos.isEmpty()) {
+            telefonosVistos.addAll(leadRepository.findTelefonosExistentes(telefonos));
+        }
+
+        // 3. Decidir por fila (incluye duplicados dentro del mismo lote)
+        List<Lead> nuevos = new ArrayList<>(leads.size());
+        List<RegistroImportado> aceptados = new ArrayList<>(leads.size());
+        for (int i = 0; i < leads.size(); i++) {
+            Lead lead = leads.get(i);
+            RegistroImportado registro = convertidos.get(i);
+            String email = lead.getContacto() != null ? lead.getContacto().getEmail() : null;
+            String telefono = lead.getContacto() != null ? lead.getContacto().getTelefono() : null;
+            boolean tieneTelefono = telefono != null && !telefono.isBlank();
+
+            if (email != null && emailsVistos.contains(email.toLowerCase())) {
+                rechazar(registro, "DUPLICADO: " + new DuplicateLeadException("email", email).getMessage());
+                continue;
+            }
+            if (tieneTelefono && telefonosVistos.contains(telefono)) {
+                rechazar(registro, "DUPLICADO: " + new DuplicateLeadException("teléfono", telefono).getMessage());
+                continue;
+            }
+
+            if (email != null) {
+                emailsVistos.add(email.toLowerCase());
+            }
+            if (tieneTelefono) {
+                telefonosVistos.add(telefono);
+            }
+            nuevos.add(lead);
+            aceptados.add(registro);
+        }
+
+        // 4. Guardar los nuevos y publicar eventos
+        List<Lead> guardados = leadRepository.saveAll(nuevos);
+        for (int i = 0; i < guardados.size(); i++) {
+            Lead nuevoLead = guardados.get(i);
+            aceptados.get(i).setEstadoProcesoId(EstadoCaptacion.VALIDADO);
+            aceptados.get(i).setMotivoRechazo(null);
+
+            eventPublisher.publishEvent(new LeadEstadoCambiadoEvent(
+                    nuevoLead.getId(), null, nuevoLead.getEstado(), "Creación inicial (" + TipoFuente.IMPORTACION + ")"));
+
+            // AUDITORÍA: Registrar procesamiento exitoso
+            auditoriaService.registrarEvento(
+                    ModuloLog.LEADS,
+                    AccionLog.CREAR,
+                    nuevoLead.getId(),
+                    null,
+                    String.format("Lead procesado desde staging. Tipo: %s, Estado inicial: %s, Email: %s",
+                            TipoFuente.IMPORTACION, nuevoLead.getEstado(),
+                            nuevoLead.getContacto() != null ? nuevoLead.getContacto().getEmail() : "N/A"));
+        }
+    }
+
+    private LeadFactory obtenerFactory(TipoFuente tipo) {
+        return factories.stream()
+                .filter(f -> f.soporta(tipo))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No factory for: " + tipo));
+    }
+
+    private void rechazar(RegistroImportado registro, String motivo) {
+        registro.setEstadoProcesoId(EstadoCaptacion.RECHAZADO);
+        registro.setMotivoRechazo(motivo.substring(0, Math.min(500, motivo.length())));
+    }
+}
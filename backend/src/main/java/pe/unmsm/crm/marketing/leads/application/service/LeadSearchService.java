@@ -0,0 +1,256 @@
+package pe.unmsm.crm.marketing.leads.application.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadEliminadoEvent;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadEstadoCambiadoEvent;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEliminadosEnLoteEvent;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEstadoCambiadoEnLoteEvent;
+import pe.unmsm.crm.marketing.leads.domain.model.LeadBusquedaRow;
+import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
+import pe.unmsm.crm.marketing.leads.infra.search.LeadSearchIndex;
+import pe.unmsm.crm.marketing.shared.application.service.KeysetIterator;
+import pe.unmsm.crm.marketing.shared.config.AsyncConfig;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Búsqueda de leads sobre el índice en memoria {@link LeadSearchIndex}.
+ *
+ * - El índice se construye en segundo plano al arrancar; mientras no esté listo
+ *   {@link #buscar} devuelve vacío y el llamador usa la consulta a BD
+ * - Creaciones y cambios de estado (LeadEstadoCambiadoEvent) encolan el id; una
+ *   tarea programada relee los encolados en lote y los reindexa
+ * - Las eliminaciones (LeadEliminadoEvent) se aplican directamente
+ * - {@link #reconstruir()} arma un índice nuevo y lo intercambia al terminar;
+ *   los ids modificados durante la construcción se reaplican sobre el nuevo
+ */
+@Service
+@Slf4j
+public class LeadSearchService {
+
+    private static final int TAMANIO_PAGINA_CARGA = 5000;
+    private static final int TAMANIO_LOTE_REFRESCO = 1000;
+
+    private final LeadRepository leadRepository;
+    private final boolean habilitada;
+    private final double maxBorrados;
+
+    private volatile LeadSearchIndex indice;
+
+    private final Queue<Long> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+    // Ids tocados mientras se construye un índice nuevo (guardado por 'this')
+    private Set<Long> tocadosDuranteReconstruccion;
+
+    public LeadSearchService(LeadRepository leadRepository,
+            @Value("${app.leads.busqueda.habilitada:true}") boolean habilitada,
+            @Value("${app.leads.busqueda.max-borrados:0.25}") double maxBorrados) {
+        this.leadRepository = leadRepository;
+        this.habilitada = habilitada;
+        this.maxBorrados = maxBorrados;
+    }
+
+    public record Estadisticas(int documentos, int borrados, long duracionMs) {
+    }
+
+    /**
+     * @return vacío si el índice no está listo o la consulta no tiene ningún
+     *         término indexable; en ese caso se debe buscar en BD
+     */
+    public Optional<LeadSearchIndex.Resultado> buscar(String consulta, EstadoLead estado, TipoFuente fuente,
+            int pagina, int tamanio) {
+        LeadSearchIndex actual = indice;
+        if (actual == null) {
+            return Optional.empty();
+        }
+        return actual.buscar(consulta, estado, fuente, pagina, tamanio);
+    }
+
+    public boolean isListo() {
+        return indice != null;
+    }
+
+    @Async(AsyncConfig.EJECUTOR_CPU)
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAlIniciar() {
+        if (habilitada) {
+            reconstruir();
+        }
+    }
+
+    public boolean isReconstruyendo() {
+        return reconstruyendo.get();
+    }
+
+    /**
+     * Reconstrucción en segundo plano (endpoint de administración).
+     */
+    @Async(AsyncConfig.EJECUTOR_CPU)
+    public void reconstruirAsync() {
+        reconstruir();
+    }
+
+    /**
+     * Construye un índice nuevo desde la BD y lo publica. Las búsquedas siguen
+     * usando el anterior mientras tanto.
+     */
+    public Estadisticas reconstruir() {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            log.info("[BUSQUEDA] Reconstrucción ya en curso; se omite");
+            return null;
+        }
+        try {
+            long inicio = System.currentTimeMillis();
+            synchronized (this) {
+                tocadosDuranteReconstruccion = new HashSet<>();
+            }
+
+            LeadSearchIndex nuevo = new LeadSearchIndex();
+            KeysetIterator<LeadBusquedaRow> filas = new KeysetIterator<>(
+                    ultimoId -> leadRepository.buscarPaginaIndice(ultimoId,
+                            PageRequest.of(0, TAMANIO_PAGINA_CARGA)),
+                    LeadBusquedaRow::getId,
+                    TAMANIO_PAGINA_CARGA);
+            filas.forEachRemaining(nuevo::actualizar);
+            nuevo.compactar();
+
+            Set<Long> tocados;
+            synchronized (this) {
+                tocados = tocadosDuranteReconstruccion;
+                tocadosDuranteReconstruccion = null;
+                indice = nuevo;
+            }
+            // Lo cambiado durante la carga puede haberse leído antes del cambio
+            refrescar(nuevo, new ArrayList<>(tocados));
+
+            Estadisticas estadisticas = new Estadisticas(nuevo.getDocumentos(), nuevo.getBorrados(),
+                    System.currentTimeMillis() - inicio);
+            log.info("[BUSQUEDA] Índice de leads construido: {} documentos en {} ms ({} reaplicados)",
+                    estadisticas.documentos(), estadisticas.duracionMs(), tocados.size());
+            return estadisticas;
+        } catch (Exception e) {
+            synchronized (this) {
+                tocadosDuranteReconstruccion = null;
+            }
+            log.error("[BUSQUEDA] Error al construir el índice de leads: {}", e.getMessage(), e);
+            return null;
+        } finally {
+            reconstruyendo.set(false);
+        }
+    }
+
+    public Map<String, Object> estado() {
+        LeadSearchIndex actual = indice;
+        return Map.of(
+                "listo", actual != null,
+                "reconstruyendo", reconstruyendo.get(),
+                "documentos", actual != null ? actual.getDocumentos() : 0,
+                "borrados", actual != null ? actual.getBorrados() : 0,
+                "pendientes", pendientes.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLeadEstadoCambiado(LeadEstadoCambiadoEvent event) {
+        if (!habilitada) {
+            return;
+        }
+        pendientes.add(event.getLeadId());
+        marcarTocado(event.getLeadId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLeadEliminado(LeadEliminadoEvent event) {
+        marcarTocado(event.getLeadId());
+        LeadSearchIndex actual = indice;
+        if (actual != null) {
+            actual.eliminar(event.getLeadId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLeadsEstadoCambiadoEnLote(LeadsEstadoCambiadoEnLoteEvent event) {
+        if (!habilitada) {
+            return;
+        }
+        for (Long leadId : event.getLeadIds()) {
+            pendientes.add(leadId);
+            marcarTocado(leadId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLeadsEliminadosEnLote(LeadsEliminadosEnLoteEvent event) {
+        LeadSearchIndex actual = indice;
+        for (Long leadId : event.getLeadIds()) {
+            marcarTocado(leadId);
+            if (actual != null) {
+                actual.eliminar(leadId);
+            }
+        }
+    }
+
+    /**
+     * Reindexa en lote los leads encolados por eventos y, si los documentos
+     * borrados superan {@code app.leads.busqueda.max-borrados}, reconstruye.
+     */
+    @Scheduled(fixedDelayString = "${app.leads.busqueda.refresco-ms:1000}")
+    public void procesarPendientes() {
+        LeadSearchIndex actual = indice;
+        if (actual == null || pendientes.isEmpty()) {
+            return;
+        }
+        List<Long> lote = new ArrayList<>(TAMANIO_LOTE_REFRESCO);
+        Long id;
+        while ((id = pendientes.poll()) != null) {
+            lote.add(id);
+            if (lote.size() == TAMANIO_LOTE_REFRESCO) {
+                refrescar(actual, lote);
+                lote.clear();
+            }
+        }
+        refrescar(actual, lote);
+
+        if (actual.getBorrados() > maxBorrados * Math.max(actual.getDocumentos(), 1000)) {
+            log.info("[BUSQUEDA] {} documentos borrados en el índice; se reconstruye", actual.getBorrados());
+            reconstruir();
+        }
+    }
+
+    private void refrescar(LeadSearchIndex destino, List<Long> ids) {
+        for (int desde = 0; desde < ids.size(); desde += TAMANIO_LOTE_REFRESCO) {
+            List<Long> lote = ids.subList(desde, Math.min(desde + TAMANIO_LOTE_REFRESCO, ids.size()));
+            Set<Long> sinFila = new HashSet<>(lote);
+            for (LeadBusquedaRow fila : leadRepository.buscarFilasIndice(lote)) {
+                destino.actualizar(fila);
+                sinFila.remove(fila.getId());
+            }
+            // Ya no existe en BD
+            sinFila.forEach(destino::eliminar);
+        }
+    }
+
+    private synchronized void marcarTocado(Long leadId) {
+        if (tocadosDuranteReconstruccion != null) {
+            tocadosDuranteReconstruccion.add(leadId);
+        }
+    }
+}
@@ -12,13 +12,26 @@ public enum EstadoLead {
 
     private final int dbId;
 
+    // Índice por dbId: fromId es una lectura de arreglo
+    private static final EstadoLead[] POR_ID;
+
+    static {
+        int max = 0;
+        for (EstadoLead e : values()) {
+            max = Math.max(max, e.dbId);
+        }
+        POR_ID = new EstadoLead[max + 1];
+        for (EstadoLead e : values()) {
+            POR_ID[e.dbId] = e;
+        }
+    }
+
     public static EstadoLead fromId(Integer id) {
         if (id == null)
             return null;
-        for (EstadoLead e : values()) {
-            if (e.dbId == id)
-                return e;
-        }
-        throw new IllegalArgumentException("ID desconocido para EstadoLead: " + id);
+        EstadoLead estado = id >= 0 && id < POR_ID.length ? POR_ID[id] : null;
+        if (estado == null)
+            throw new IllegalArgumentException("ID desconocido para EstadoLead: " + id);
+        return estado;
     }
 }
\ No newline at end of file
@@ -23,6 +23,10 @@ public class ImportProgressUpdate {
     private int conErrores;
     private boolean completado;
 
+    // Métricas de rendimiento (filas/seg y heap pico observado)
+    private Double filasPorSegundo;
+    private Integer heapPicoMb;
+
     /**
      * Calcula el porcentaje de progreso (0-100)
      */
@@ -0,0 +1,21 @@
+package pe.unmsm.crm.marketing.leads.domain.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Eliminación de un bloque de leads en una operación masiva. Reemplaza a un
+ * LeadEliminadoEvent por lead.
+ */
+@Getter
+public class LeadsEliminadosEnLoteEvent extends ApplicationEvent {
+
+    private final List<Long> leadIds;
+
+    public LeadsEliminadosEnLoteEvent(Object source, List<Long> leadIds) {
+        super(source);
+        this.leadIds = List.copyOf(leadIds);
+    }
+}
@@ -0,0 +1,34 @@
+package pe.unmsm.crm.marketing.leads.domain.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.shared.domain.DomainEvent;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cambio de estado de un bloque de leads en una operación masiva. Reemplaza
+ * a un LeadEstadoCambiadoEvent por lead.
+ */
+@Getter
+@RequiredArgsConstructor
+public class LeadsEstadoCambiadoEnLoteEvent extends DomainEvent {
+
+    /**
+     * Estado anterior de cada lead afectado
+     */
+    private final Map<Long, EstadoLead> estadosAnteriores;
+    private final EstadoLead estadoNuevo;
+    private final String motivo;
+
+    public List<Long> getLeadIds() {
+        return List.copyOf(estadosAnteriores.keySet());
+    }
+
+    @Override
+    public String getType() {
+        return "LEADS_ESTADO_CAMBIADO_EN_LOTE";
+    }
+}
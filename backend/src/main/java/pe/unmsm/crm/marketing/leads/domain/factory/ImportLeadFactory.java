@@ -14,7 +14,6 @@ import pe.unmsm.crm.marketing.leads.domain.vo.DatosDemograficos;
 import pe.unmsm.crm.marketing.leads.domain.vo.TrackingUTM;
 import pe.unmsm.crm.marketing.shared.application.service.UbigeoService;
 import pe.unmsm.crm.marketing.shared.domain.model.Distrito;
-import pe.unmsm.crm.marketing.shared.domain.repository.DistritoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,7 +24,6 @@ public class ImportLeadFactory implements LeadFactory {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final UbigeoService ubigeoService;
-    private final DistritoRepository distritoRepository;
 
     @Override
     public Lead convertirALead(Object origenStaging) {
@@ -58,31 +56,14 @@ public class ImportLeadFactory implements LeadFactory {
                 rawDistrito = (String) datos.get("direccion");
             }
 
-            log.debug("🏠 [IMPORT] Dato direccion/distrito_id: '{}'", rawDistrito);
-
-            String distritoId = null;
-
+            // Resolución en memoria (UbigeoIndex): sin consultas por fila
+            Distrito distrito = null;
             if (rawDistrito != null && !rawDistrito.trim().isEmpty()) {
-                // 1. Intentar resolver como cadena "Distrito, Provincia, Departamento"
-                distritoId = ubigeoService.buscarUbigeoPorCadena(rawDistrito);
-                log.debug("🔎 [IMPORT] Resultado de buscarUbigeoPorCadena: '{}'", distritoId);
-
-                // 2. Si devuelve null, verificar si era un ID directo
-                if (distritoId == null && rawDistrito.matches("\\d{6}")) {
-                    distritoId = rawDistrito;
-                    log.debug("✅ [IMPORT] Usando ID directo: {}", distritoId);
-                }
-            } else {
-                log.warn("⚠️ [IMPORT] No hay dato de dirección/distrito en el registro");
+                distrito = ubigeoService.resolverDistrito(rawDistrito).orElse(null);
             }
 
-            log.info("🎯 [IMPORT] DistritoId final asignado: '{}' para lead: {}", distritoId, nombre);
-
-            // Buscar la entidad Distrito desde el ID
-            Distrito distrito = null;
-            if (distritoId != null) {
-                distrito = distritoRepository.findById(distritoId).orElse(null);
-            }
+            log.debug("[IMPORT] Dirección '{}' -> distrito {} para lead: {}", rawDistrito,
+                    distrito != null ? distrito.getId() : null, nombre);
 
             // DatosContacto: solo email y telefono (distrito va en demograficos)
             DatosContacto contacto = new DatosContacto(
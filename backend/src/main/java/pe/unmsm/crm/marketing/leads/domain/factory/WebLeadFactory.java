@@ -12,14 +12,14 @@ import pe.unmsm.crm.marketing.leads.domain.vo.DatosContacto;
 import pe.unmsm.crm.marketing.leads.domain.vo.DatosDemograficos;
 import pe.unmsm.crm.marketing.leads.domain.vo.TrackingUTM;
 import pe.unmsm.crm.marketing.shared.domain.model.Distrito;
-import pe.unmsm.crm.marketing.shared.domain.repository.DistritoRepository;
+import pe.unmsm.crm.marketing.shared.application.service.UbigeoService;
 import lombok.RequiredArgsConstructor;
 
 @Component
 @RequiredArgsConstructor
 public class WebLeadFactory implements LeadFactory {
 
-    private final DistritoRepository distritoRepository;
+    private final UbigeoService ubigeoService;
 
     @Override
     public Lead convertirALead(Object origenStaging) {
@@ -40,11 +40,11 @@ public class WebLeadFactory implements LeadFactory {
 
         lead.setEstado(EstadoLead.NUEVO);
 
-        // Distrito: buscar entidad desde el ID
+        // Distrito: entidad precargada en el índice de ubigeo (sin consulta)
         String distritoId = respuestas.get("distrito_id");
         Distrito distrito = null;
         if (distritoId != null && !distritoId.isBlank()) {
-            distrito = distritoRepository.findById(distritoId).orElse(null);
+            distrito = ubigeoService.buscarDistrito(distritoId).orElse(null);
         }
 
         DatosContacto contacto = new DatosContacto(
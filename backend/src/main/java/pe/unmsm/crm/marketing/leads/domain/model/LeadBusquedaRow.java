@@ -0,0 +1,21 @@
+package pe.unmsm.crm.marketing.leads.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
+
+/**
+ * Fila mínima de lead para el índice de búsqueda en memoria (proyección JPQL).
+ */
+@Getter
+@AllArgsConstructor
+public class LeadBusquedaRow {
+
+    private final Long id;
+    private final String nombre;
+    private final String email;
+    private final String telefono;
+    private final EstadoLead estado;
+    private final TipoFuente fuenteTipo;
+}
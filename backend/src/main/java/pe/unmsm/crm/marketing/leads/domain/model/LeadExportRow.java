@@ -0,0 +1,32 @@
+package pe.unmsm.crm.marketing.leads.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila plana de lead para exportación (proyección JPQL).
+ *
+ * No es una entidad gestionada: las páginas de exportación no se acumulan en
+ * el contexto de persistencia y el ubigeo llega resuelto en la misma consulta.
+ */
+@Getter
+@AllArgsConstructor
+public class LeadExportRow {
+
+    private final Long id;
+    private final String nombre;
+    private final String email;
+    private final String telefono;
+    private final Integer edad;
+    private final String genero;
+    private final EstadoLead estado;
+    private final TipoFuente fuenteTipo;
+    private final String distrito;
+    private final String provincia;
+    private final String departamento;
+    private final LocalDateTime fechaCreacion;
+}
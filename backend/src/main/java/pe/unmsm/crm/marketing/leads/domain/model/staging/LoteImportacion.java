@@ -34,6 +34,16 @@ public class LoteImportacion extends BaseEntity {
     @Column(name = "con_errores")
     private Integer conErrores = 0;
 
+    // Métricas de rendimiento de la importación
+    @Column(name = "duracion_ms")
+    private Long duracionMs;
+
+    @Column(name = "filas_por_segundo")
+    private Double filasPorSegundo;
+
+    @Column(name = "heap_pico_mb")
+    private Integer heapPicoMb;
+
     // Estado del lote (simulado para el frontend)
     @Transient
     public String getEstadoCalculado() {
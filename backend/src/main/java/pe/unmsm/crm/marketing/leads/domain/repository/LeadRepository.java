@@ -8,8 +8,10 @@ import org.springframework.data.repository.query.Param;
 import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
 import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
 import pe.unmsm.crm.marketing.leads.domain.model.Lead;
-import java.time.Instant;
+import pe.unmsm.crm.marketing.leads.domain.model.LeadBusquedaRow;
+import pe.unmsm.crm.marketing.leads.domain.model.LeadExportRow;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,9 +35,6 @@ public interface LeadRepository extends JpaRepository<Lead, Long> {
                         @Param("search") String search,
                         Pageable pageable);
 
-        // NUEVO: Para limpieza automática de leads descartados antiguos
-        List<Lead> findByEstadoAndUpdatedAtBefore(EstadoLead estado, Instant fechaCorte);
-
         // NUEVO: Para API de Integración (Segmentación)
         // Usa LEFT JOIN para incluir leads sin ubicación
         @Query("SELECT DISTINCT l FROM Lead l " +
@@ -65,16 +64,6 @@ public interface LeadRepository extends JpaRepository<Lead, Long> {
                         @Param("nivelEducativo") String nivelEducativo,
                         @Param("estadoCivil") String estadoCivil);
 
-        // NUEVO: Para exportación de leads (sin paginación)
-        @Query(value = "SELECT * FROM leads l WHERE " +
-                        "(:estado IS NULL OR l.estado_lead_id = :#{#estado?.dbId}) AND " +
-                        "(:fuenteTipo IS NULL OR l.fuente_tipo = :#{#fuenteTipo?.name()}) AND " +
-                        "(:search IS NULL OR :search = '' OR LOWER(l.nombre_completo) LIKE LOWER(CONCAT('%', :search, '%')))", nativeQuery = true)
-        List<Lead> buscarLeadsParaExportacion(
-                        @Param("estado") EstadoLead estado,
-                        @Param("fuenteTipo") TipoFuente fuenteTipo,
-                        @Param("search") String search);
-
         // REPORTES
         long countByEstado(EstadoLead estado);
 
@@ -109,4 +98,55 @@ public interface LeadRepository extends JpaRepository<Lead, Long> {
                         "LEFT JOIN FETCH p.departamento " +
                         "WHERE l.id IN :ids")
         List<Lead> findAllByIdWithLocation(@Param("ids") List<Long> ids);
-}
\ No newline at end of file
+
+        // DEDUPLICACIÓN POR LOTE (importación): una consulta por lote en lugar de
+        // una por fila
+        @Query("SELECT l.contacto.email FROM Lead l WHERE l.contacto.email IN :emails")
+        List<String> findEmailsExistentes(@Param("emails") Collection<String> emails);
+
+        @Query("SELECT l.contacto.telefono FROM Lead l WHERE l.contacto.telefono IN :telefonos")
+        List<String> findTelefonosExistentes(@Param("telefonos") Collection<String> telefonos);
+
+        // EXPORTACIÓN POR STREAMING: páginas por clave (id > :ultimoId) proyectadas a
+        // LeadExportRow, con el ubigeo resuelto en la misma consulta
+        String SELECT_EXPORT_ROW = "SELECT new pe.unmsm.crm.marketing.leads.domain.model.LeadExportRow(" +
+                        "l.id, l.nombre, l.contacto.email, l.contacto.telefono, l.demograficos.edad, " +
+                        "l.demograficos.genero, l.estado, l.fuenteTipo, d.nombre, p.nombre, dep.nombre, " +
+                        "l.fechaCreacion) " +
+                        "FROM Lead l " +
+                        "LEFT JOIN l.demograficos.distrito d " +
+                        "LEFT JOIN d.provincia p " +
+                        "LEFT JOIN p.departamento dep ";
+
+        @Query(SELECT_EXPORT_ROW +
+                        "WHERE l.id > :ultimoId AND " +
+                        "(:estado IS NULL OR l.estado = :estado) AND " +
+                        "(:fuenteTipo IS NULL OR l.fuenteTipo = :fuenteTipo) AND " +
+                        "(:search IS NULL OR :search = '' OR LOWER(l.nombre) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+                        "ORDER BY l.id")
+        List<LeadExportRow> buscarPaginaExportacion(
+                        @Param("estado") EstadoLead estado,
+                        @Param("fuenteTipo") TipoFuente fuenteTipo,
+                        @Param("search") String search,
+                        @Param("ultimoId") Long ultimoId,
+                        Pageable pageable);
+
+        @Query(SELECT_EXPORT_ROW +
+                        "WHERE l.id IN :ids AND l.id > :ultimoId " +
+                        "ORDER BY l.id")
+        List<LeadExportRow> buscarPaginaExportacionPorIds(
+                        @Param("ids") Collection<Long> ids,
+                        @Param("ultimoId") Long ultimoId,
+                        Pageable pageable);
+
+        // ÍNDICE DE BÚSQUEDA: carga por clave y refresco por lotes de ids
+        String SELECT_BUSQUEDA_ROW = "SELECT new pe.unmsm.crm.marketing.leads.domain.model.LeadBusquedaRow(" +
+                        "l.id, l.nombre, l.contacto.email, l.contacto.telefono, l.estado, l.fuenteTipo) " +
+                        "FROM Lead l ";
+
+        @Query(SELECT_BUSQUEDA_ROW + "WHERE l.id > :ultimoId ORDER BY l.id")
+        List<LeadBusquedaRow> buscarPaginaIndice(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+        @Query(SELECT_BUSQUEDA_ROW + "WHERE l.id IN :ids")
+        List<LeadBusquedaRow> buscarFilasIndice(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,151 @@
+package pe.unmsm.crm.marketing.leads.infra.importacion;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Lector de Excel (.xlsx) por eventos SAX.
+ *
+ * A diferencia de XSSFWorkbook no construye el modelo de la hoja en memoria:
+ * recorre el XML de la primera hoja y entrega cada fila como un Map
+ * cabecera → valor, así que la memoria usada no depende del número de filas
+ * (solo la tabla de textos compartidos se carga completa).
+ *
+ * Mantiene el formato de la lectura anterior:
+ * - Números enteros sin notación científica (ej: teléfonos)
+ * - Valores recortados y filas sin datos omitidas
+ */
+@Component
+public class ExcelStreamingReader {
+
+    /**
+     * Cuenta las filas con datos (sin la cabecera) en una pasada rápida
+     */
+    public int contarFilas(Path archivo) throws IOException {
+        int[] total = { 0 };
+        leer(archivo, fila -> total[0]++);
+        return total[0];
+    }
+
+    /**
+     * Recorre la primera hoja y entrega cada fila con datos al consumidor
+     */
+    public void leer(Path archivo, Consumer<Map<String, String>> consumidor) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(archivo.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable estilos = reader.getStylesTable();
+
+            Iterator<InputStream> hojas = reader.getSheetsData();
+            if (!hojas.hasNext()) {
+                return;
+            }
+
+            try (InputStream hoja = hojas.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        estilos, textos, new FilaHandler(consumidor), new FormatoImportacion(), false));
+                parser.parse(new InputSource(hoja));
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Error al leer archivo Excel: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Arma las filas: la primera define las cabeceras por columna
+     */
+    private static final class FilaHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Consumer<Map<String, String>> consumidor;
+        private final List<String> cabeceras = new ArrayList<>();
+        private final Map<Integer, String> valores = new HashMap<>();
+        private boolean enCabecera = true;
+
+        private FilaHandler(Consumer<Map<String, String>> consumidor) {
+            this.consumidor = consumidor;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            valores.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null || formattedValue == null) {
+                return;
+            }
+            int columna = new CellReference(cellReference).getCol();
+            valores.put(columna, formattedValue.trim());
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (enCabecera) {
+                int ultima = valores.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+                for (int i = 0; i <= ultima; i++) {
+                    cabeceras.add(valores.getOrDefault(i, ""));
+                }
+                enCabecera = false;
+                return;
+            }
+
+            Map<String, String> datos = new HashMap<>();
+            boolean hasData = false; // Flag para verificar si la fila tiene datos
+            for (int j = 0; j < cabeceras.size(); j++) {
+                String valor = valores.getOrDefault(j, "");
+                if (!valor.isEmpty()) {
+                    hasData = true;
+                }
+                datos.put(cabeceras.get(j), valor);
+            }
+
+            // Solo entregar si la fila tiene al menos un dato no vacío
+            if (hasData) {
+                consumidor.accept(datos);
+            }
+        }
+    }
+
+    /**
+     * Evitar notación científica en números enteros (ej: teléfonos)
+     */
+    private static final class FormatoImportacion extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return super.formatRawCellContents(value, formatIndex, formatString);
+            }
+            if (value == (long) value) {
+                return String.format("%d", (long) value);
+            }
+            return String.valueOf(value);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package pe.unmsm.crm.marketing.leads.infra.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones masivas sobre leads por conjuntos (un bloque de ids por
+ * sentencia). Deben llamarse dentro de una transacción: las consultas de
+ * bloqueo usan FOR UPDATE.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LeadBulkJdbcRepository {
+
+    private static final String SQL_INSERTAR_HISTORIAL = """
+            INSERT INTO historial_estado_lead (lead_id, estado_anterior_id, estado_nuevo_id, fecha_cambio, motivo)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Datos mínimos para validar un cambio de estado sin cargar la entidad
+     */
+    public record FilaEstado(Long id, EstadoLead estado, boolean tieneTelefono, boolean tieneDistrito) {
+    }
+
+    /**
+     * Bloquea los leads existentes del bloque y devuelve su estado actual
+     */
+    public List<FilaEstado> bloquearParaCambioEstado(List<Long> ids) {
+        return jdbcTemplate.query(
+                "SELECT lead_id, estado_lead_id, " +
+                "(telefono IS NOT NULL AND TRIM(telefono) <> '') AS tiene_telefono, " +
+                "(distrito_id IS NOT NULL) AS tiene_distrito " +
+                "FROM leads WHERE lead_id IN (" + marcadores(ids) + ") FOR UPDATE",
+                (rs, i) -> new FilaEstado(
+                        rs.getLong("lead_id"),
+                        EstadoLead.fromId(rs.getInt("estado_lead_id")),
+                        rs.getBoolean("tiene_telefono"),
+                        rs.getBoolean("tiene_distrito")),
+                ids.toArray());
+    }
+
+    public int actualizarEstado(List<Long> ids, EstadoLead nuevoEstado) {
+        List<Object> parametros = new ArrayList<>(ids.size() + 1);
+        parametros.add(nuevoEstado.getDbId());
+        parametros.addAll(ids);
+        return jdbcTemplate.update(
+                "UPDATE leads SET estado_lead_id = ?, updated_at = NOW() WHERE lead_id IN (" + marcadores(ids) + ")",
+                parametros.toArray());
+    }
+
+    /**
+     * Una fila de historial_estado_lead por lead, con JDBC batch
+     */
+    public void insertarHistorial(Map<Long, EstadoLead> estadosAnteriores, EstadoLead nuevoEstado, String motivo,
+            LocalDateTime fecha) {
+        if (estadosAnteriores.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, EstadoLead>> filas = new ArrayList<>(estadosAnteriores.entrySet());
+        jdbcTemplate.batchUpdate(SQL_INSERTAR_HISTORIAL, filas, filas.size(), (ps, fila) -> {
+            ps.setLong(1, fila.getKey());
+            if (fila.getValue() != null) {
+                ps.setInt(2, fila.getValue().getDbId());
+            } else {
+                ps.setNull(2, Types.INTEGER);
+            }
+            ps.setInt(3, nuevoEstado.getDbId());
+            ps.setTimestamp(4, Timestamp.valueOf(fecha));
+            if (motivo != null) {
+                ps.setString(5, motivo);
+            } else {
+                ps.setNull(5, Types.VARCHAR);
+            }
+        });
+    }
+
+    /**
+     * Bloquea y devuelve los leads del bloque que se pueden borrar: los que
+     * tienen respuestas de encuesta, llamadas o entradas en cola de llamadas
+     * (FK sin ON DELETE) quedan fuera.
+     */
+    public List<Long> bloquearEliminables(List<Long> ids) {
+        return jdbcTemplate.queryForList(
+                "SELECT lead_id FROM leads WHERE lead_id IN (" + marcadores(ids) + ")" +
+                " AND NOT EXISTS (SELECT 1 FROM Respuesta_Encuesta re WHERE re.lead_id = leads.lead_id)" +
+                " AND NOT EXISTS (SELECT 1 FROM llamada ll WHERE ll.id_lead = leads.lead_id)" +
+                " AND NOT EXISTS (SELECT 1 FROM cola_llamada cl WHERE cl.id_lead = leads.lead_id)" +
+                " FOR UPDATE OF leads",
+                Long.class, ids.toArray());
+    }
+
+    /**
+     * Borra los leads y su pertenencia a segmentos (sin FK). El historial de
+     * estados y las grabaciones caen por ON DELETE CASCADE.
+     */
+    public int eliminar(List<Long> ids) {
+        jdbcTemplate.update(
+                "DELETE FROM segmento_miembro WHERE tipo_miembro = 'LEAD' AND id_miembro IN (" + marcadores(ids) + ")",
+                ids.toArray());
+        return jdbcTemplate.update("DELETE FROM leads WHERE lead_id IN (" + marcadores(ids) + ")", ids.toArray());
+    }
+
+    private static String marcadores(List<?> valores) {
+        return String.join(",", Collections.nCopies(valores.size(), "?"));
+    }
+}
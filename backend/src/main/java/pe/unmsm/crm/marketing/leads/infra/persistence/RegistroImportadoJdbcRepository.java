@@ -0,0 +1,95 @@
+package pe.unmsm.crm.marketing.leads.infra.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoCaptacion;
+import pe.unmsm.crm.marketing.leads.domain.model.staging.RegistroImportado;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escrituras masivas sobre registros_importados con JDBC batch.
+ *
+ * Usado por la importación por streaming: un lote de filas se inserta (y luego
+ * se actualiza su estado) en una sola llamada batch en lugar de un
+ * save por registro.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RegistroImportadoJdbcRepository {
+
+    private static final String SQL_INSERTAR = """
+            INSERT INTO registros_importados (lote_id, estado_proceso_id, datos_originales, created_at, updated_at)
+            VALUES (?, ?, ?, NOW(), NOW())
+            """;
+
+    private static final String SQL_ACTUALIZAR_ESTADO = """
+            UPDATE registros_importados
+            SET estado_proceso_id = ?, motivo_rechazo = ?, updated_at = NOW()
+            WHERE registro_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta los registros en estado EN_PROCESO y asigna los IDs generados
+     */
+    public void insertarLote(List<RegistroImportado> registros) {
+        if (registros.isEmpty()) {
+            return;
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(SQL_INSERTAR, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        RegistroImportado registro = registros.get(i);
+                        ps.setLong(1, registro.getLoteId());
+                        ps.setInt(2, registro.getEstadoProcesoId().getDbId());
+                        ps.setString(3, registro.getDatosJson());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return registros.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> claves = keyHolder.getKeyList();
+        for (int i = 0; i < registros.size(); i++) {
+            Object id = claves.get(i).values().iterator().next();
+            registros.get(i).setId(((Number) id).longValue());
+        }
+    }
+
+    /**
+     * Persiste el estado final (y motivo de rechazo) de cada registro
+     */
+    public void actualizarEstados(List<RegistroImportado> registros) {
+        if (registros.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(SQL_ACTUALIZAR_ESTADO, registros, registros.size(), (ps, registro) -> {
+            ps.setInt(1, registro.getEstadoProcesoId().getDbId());
+            if (registro.getMotivoRechazo() != null) {
+                ps.setString(2, registro.getMotivoRechazo());
+            } else {
+                ps.setNull(2, Types.VARCHAR);
+            }
+            ps.setLong(3, registro.getId());
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package pe.unmsm.crm.marketing.leads.infra.retencion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEliminadosEnLoteEvent;
+import pe.unmsm.crm.marketing.shared.infra.retencion.DependienteRetencion;
+import pe.unmsm.crm.marketing.shared.infra.retencion.PoliticaRetencion;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Leads DESCARTADO sin actualizarse en {@code app.retencion.leads.dias}.
+ *
+ * Se conservan los leads con respuestas de encuesta, llamadas o entradas en
+ * cola de llamadas (FK sin ON DELETE). El historial de estados y las
+ * grabaciones caen por ON DELETE CASCADE; la pertenencia a segmentos no tiene
+ * FK y se borra en trozos acotados antes que el lead.
+ */
+@Component
+@RequiredArgsConstructor
+public class LeadsDescartadosRetencion implements PoliticaRetencion {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.retencion.leads.dias:30}")
+    private long dias;
+
+    @Override
+    public String getNombre() {
+        return "leads-descartados";
+    }
+
+    @Override
+    public String getTabla() {
+        return "leads";
+    }
+
+    @Override
+    public String getColumnaId() {
+        return "lead_id";
+    }
+
+    @Override
+    public String getColumnaFecha() {
+        return "updated_at";
+    }
+
+    @Override
+    public String getCondicion() {
+        return "estado_lead_id = " + EstadoLead.DESCARTADO.getDbId() +
+                " AND NOT EXISTS (SELECT 1 FROM Respuesta_Encuesta re WHERE re.lead_id = leads.lead_id)" +
+                " AND NOT EXISTS (SELECT 1 FROM llamada ll WHERE ll.id_lead = leads.lead_id)" +
+                " AND NOT EXISTS (SELECT 1 FROM cola_llamada cl WHERE cl.id_lead = leads.lead_id)";
+    }
+
+    @Override
+    public Duration getAntiguedad() {
+        return Duration.ofDays(dias);
+    }
+
+    @Override
+    public List<DependienteRetencion> getDependientes() {
+        return List.of(new DependienteRetencion("segmento_miembro", "id_miembro", "tipo_miembro = 'LEAD'"));
+    }
+
+    /**
+     * Cachés e índice de búsqueda se actualizan tras el commit de cada bloque,
+     * con un único evento por bloque.
+     */
+    @Override
+    public void alEliminar(List<Long> ids) {
+        eventPublisher.publishEvent(new LeadsEliminadosEnLoteEvent(this, ids));
+    }
+}
@@ -0,0 +1,474 @@
+package pe.unmsm.crm.marketing.leads.infra.search;
+
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
+import pe.unmsm.crm.marketing.leads.domain.model.LeadBusquedaRow;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre nombre, email y teléfono de los leads.
+ *
+ * - Los textos se normalizan (NFD sin diacríticos, minúsculas; solo se
+ *   conservan letras, dígitos y {@code @ . _ -}); el teléfono se reduce a dígitos
+ * - Cada trigrama de cada palabra apunta a la lista ordenada de documentos que
+ *   lo contienen
+ * - Una consulta intersecta las listas de los trigramas de sus términos (de la
+ *   más corta a la más larga) y verifica cada candidato por subcadena, así que
+ *   no hay falsos positivos
+ * - Si el texto de un lead cambia, su documento anterior queda marcado como
+ *   borrado y se agrega uno nuevo; los borrados se eliminan al reconstruir
+ *
+ * Lecturas concurrentes; escrituras exclusivas (ReentrantReadWriteLock).
+ */
+public class LeadSearchIndex {
+
+    /** Longitud mínima de término que puede resolverse con el índice. */
+    public static final int LONGITUD_MINIMA = 3;
+
+    static final char SEPARADOR = '\u0001';
+
+    // a-z (1..26), 0-9 (27..36), @ . _ - (37..40); 0 = separador de palabra
+    private static final int BASE = 41;
+    private static final int TRIGRAMAS = BASE * BASE * BASE;
+
+    private static final double PESO_NOMBRE = 1.0;
+    private static final double PESO_CONTACTO = 0.9;
+
+    private static final double EXACTO = 1.0;
+    private static final double PREFIJO = 0.8;
+    private static final double INICIO_PALABRA = 0.6;
+    private static final double CONTIENE = 0.4;
+
+    private static final Comparator<Coincidencia> ORDEN = (a, b) -> antes(a.relevancia(), a.id(), b) ? -1
+            : antes(b.relevancia(), b.id(), a) ? 1 : 0;
+
+    public record Coincidencia(Long id, double relevancia) {
+    }
+
+    public record Resultado(List<Coincidencia> coincidencias, long total) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int[][] postings = new int[TRIGRAMAS][];
+    private final int[] largos = new int[TRIGRAMAS];
+
+    private long[] ids = new long[1024];
+    private String[] textos = new String[1024];
+    private byte[] estados = new byte[1024];
+    private byte[] fuentes = new byte[1024];
+    private int documentos;
+
+    private final BitSet borrados = new BitSet();
+    private final Map<Long, Integer> ordinales = new HashMap<>();
+
+    /**
+     * Agrega el lead o actualiza su documento.
+     */
+    public void actualizar(LeadBusquedaRow fila) {
+        String texto = textoDe(fila);
+        lock.writeLock().lock();
+        try {
+            Integer actual = ordinales.get(fila.getId());
+            if (actual != null) {
+                if (texto.equals(textos[actual])) {
+                    estados[actual] = codigo(fila.getEstado());
+                    fuentes[actual] = codigo(fila.getFuenteTipo());
+                    return;
+                }
+                marcarBorrado(actual);
+            }
+            ordinales.put(fila.getId(), insertar(fila, texto));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true si el lead estaba indexado
+     */
+    public boolean eliminar(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer actual = ordinales.remove(id);
+            if (actual == null) {
+                return false;
+            }
+            marcarBorrado(actual);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ajusta las listas al tamaño usado. Pensado para después de una carga masiva.
+     */
+    public void compactar() {
+        lock.writeLock().lock();
+        try {
+            for (int codigo = 0; codigo < TRIGRAMAS; codigo++) {
+                int[] lista = postings[codigo];
+                if (lista != null && lista.length > largos[codigo]) {
+                    postings[codigo] = Arrays.copyOf(lista, largos[codigo]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca leads cuyos campos contengan todos los términos de la consulta.
+     * Resultados por relevancia descendente y, a igual relevancia, más recientes
+     * (id mayor) primero.
+     *
+     * @return vacío si la consulta no tiene ningún término de al menos
+     *         {@link #LONGITUD_MINIMA} caracteres (no se puede resolver con el índice)
+     */
+    public Optional<Resultado> buscar(String consulta, EstadoLead estado, TipoFuente fuente, int pagina, int tamanio) {
+        String[] terminos = terminos(consulta);
+        if (Arrays.stream(terminos).noneMatch(t -> t.length() >= LONGITUD_MINIMA)) {
+            return Optional.empty();
+        }
+        byte filtroEstado = codigo(estado);
+        byte filtroFuente = codigo(fuente);
+        int limite = (int) Math.min((long) (pagina + 1) * tamanio, Integer.MAX_VALUE);
+
+        lock.readLock().lock();
+        try {
+            // Cola con el peor candidato en la cabeza: conserva solo los primeros 'limite'
+            PriorityQueue<Coincidencia> mejores = new PriorityQueue<>(Math.min(limite, 1024), ORDEN.reversed());
+            long total = 0;
+            for (int ordinal : candidatos(terminos)) {
+                if (borrados.get(ordinal)
+                        || (filtroEstado >= 0 && estados[ordinal] != filtroEstado)
+                        || (filtroFuente >= 0 && fuentes[ordinal] != filtroFuente)) {
+                    continue;
+                }
+                double relevancia = puntuar(textos[ordinal], terminos);
+                if (relevancia <= 0) {
+                    continue;
+                }
+                total++;
+                long id = ids[ordinal];
+                if (mejores.size() < limite) {
+                    mejores.add(new Coincidencia(id, relevancia));
+                } else if (antes(relevancia, id, mejores.peek())) {
+                    mejores.poll();
+                    mejores.add(new Coincidencia(id, relevancia));
+                }
+            }
+
+            List<Coincidencia> ordenadas = new ArrayList<>(mejores);
+            ordenadas.sort(ORDEN);
+            int desde = (int) Math.min((long) pagina * tamanio, ordenadas.size());
+            return Optional.of(new Resultado(List.copyOf(ordenadas.subList(desde, ordenadas.size())), total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Orden del resultado: relevancia descendente y luego id descendente
+    private static boolean antes(double relevancia, long id, Coincidencia otra) {
+        return relevancia > otra.relevancia() || (relevancia == otra.relevancia() && id > otra.id());
+    }
+
+    public int getDocumentos() {
+        lock.readLock().lock();
+        try {
+            return ordinales.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getBorrados() {
+        lock.readLock().lock();
+        try {
+            return borrados.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Normalización
+    // ---------------------------------------------------------------------
+
+    /**
+     * NFD sin marcas diacríticas, minúsculas; los caracteres no indexables pasan
+     * a espacio y los espacios se colapsan.
+     */
+    static String normalizar(String valor) {
+        if (valor == null || valor.isEmpty()) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(valor, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (codigoCaracter(c) > 0) {
+                sb.append(c);
+            } else if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        int largo = sb.length();
+        if (largo > 0 && sb.charAt(largo - 1) == ' ') {
+            sb.setLength(largo - 1);
+        }
+        return sb.toString();
+    }
+
+    static String soloDigitos(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String textoDe(LeadBusquedaRow fila) {
+        return normalizar(fila.getNombre()) + SEPARADOR + normalizar(fila.getEmail()) + SEPARADOR
+                + soloDigitos(fila.getTelefono());
+    }
+
+    /**
+     * Términos de la consulta. Un término formado solo por dígitos y separadores
+     * (p.ej. "987-654") se reduce a dígitos para casar con el teléfono.
+     */
+    static String[] terminos(String consulta) {
+        String normalizada = normalizar(consulta);
+        if (normalizada.isEmpty()) {
+            return new String[0];
+        }
+        String[] terminos = normalizada.split(" ");
+        for (int i = 0; i < terminos.length; i++) {
+            String digitos = soloDigitos(terminos[i]);
+            if (!digitos.isEmpty() && terminos[i].chars().allMatch(c -> Character.isDigit(c) || c == '-' || c == '.')) {
+                terminos[i] = digitos;
+            }
+        }
+        return terminos;
+    }
+
+    static int codigoCaracter(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return switch (c) {
+            case '@' -> 37;
+            case '.' -> 38;
+            case '_' -> 39;
+            case '-' -> 40;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Códigos distintos de los trigramas de cada palabra del texto, ordenados.
+     */
+    static int[] trigramas(String texto) {
+        int[] codigos = new int[texto.length()];
+        int n = 0;
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            int c = codigoCaracter(texto.charAt(i));
+            if (c == 0) {
+                a = 0;
+                b = 0;
+                continue;
+            }
+            if (a > 0) {
+                codigos[n++] = (a * BASE + b) * BASE + c;
+            }
+            a = b;
+            b = c;
+        }
+        Arrays.sort(codigos, 0, n);
+        int distintos = 0;
+        for (int i = 0; i < n; i++) {
+            if (distintos == 0 || codigos[distintos - 1] != codigos[i]) {
+                codigos[distintos++] = codigos[i];
+            }
+        }
+        return Arrays.copyOf(codigos, distintos);
+    }
+
+    // ---------------------------------------------------------------------
+    // Consulta
+    // ---------------------------------------------------------------------
+
+    private int[] candidatos(String[] terminos) {
+        int[] codigos = trigramas(String.join(" ", terminos));
+        for (int codigo : codigos) {
+            if (largos[codigo] == 0) {
+                return new int[0];
+            }
+        }
+        Integer[] porLargo = Arrays.stream(codigos).boxed().toArray(Integer[]::new);
+        Arrays.sort(porLargo, Comparator.comparingInt(codigo -> largos[codigo]));
+
+        int primero = porLargo[0];
+        int[] resultado = Arrays.copyOf(postings[primero], largos[primero]);
+        int n = resultado.length;
+        for (int i = 1; i < porLargo.length && n > 0; i++) {
+            n = intersectar(resultado, n, postings[porLargo[i]], largos[porLargo[i]]);
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    /**
+     * Intersecta en sitio a[0..n) con b[0..largoB) (ambos ordenados). Si b es
+     * mucho más larga se avanza sobre ella por búsqueda binaria.
+     */
+    static int intersectar(int[] a, int n, int[] b, int largoB) {
+        boolean binaria = largoB > 8L * n;
+        int escritos = 0;
+        int j = 0;
+        for (int i = 0; i < n && j < largoB; i++) {
+            int x = a[i];
+            if (binaria) {
+                int pos = Arrays.binarySearch(b, j, largoB, x);
+                if (pos >= 0) {
+                    a[escritos++] = x;
+                    j = pos + 1;
+                } else {
+                    j = -pos - 1;
+                }
+            } else {
+                while (j < largoB && b[j] < x) {
+                    j++;
+                }
+                if (j < largoB && b[j] == x) {
+                    a[escritos++] = x;
+                    j++;
+                }
+            }
+        }
+        return escritos;
+    }
+
+    /**
+     * Promedio, por término, de la mejor coincidencia entre los tres campos
+     * (exacto > prefijo > inicio de palabra > contiene), ponderada por campo.
+     * 0 si algún término no aparece.
+     */
+    static double puntuar(String texto, String[] terminos) {
+        int finNombre = texto.indexOf(SEPARADOR);
+        int finEmail = texto.indexOf(SEPARADOR, finNombre + 1);
+        double suma = 0;
+        for (String termino : terminos) {
+            double mejor = Math.max(
+                    PESO_NOMBRE * coincidencia(texto, 0, finNombre, termino),
+                    PESO_CONTACTO * Math.max(
+                            coincidencia(texto, finNombre + 1, finEmail, termino),
+                            coincidencia(texto, finEmail + 1, texto.length(), termino)));
+            if (mejor == 0) {
+                return 0;
+            }
+            suma += mejor;
+        }
+        return suma / terminos.length;
+    }
+
+    private static double coincidencia(String texto, int inicio, int fin, String termino) {
+        int largo = termino.length();
+        if (largo == 0 || largo > fin - inicio) {
+            return 0;
+        }
+        if (texto.startsWith(termino, inicio)) {
+            return largo == fin - inicio ? EXACTO : PREFIJO;
+        }
+        double mejor = 0;
+        int desde = inicio + 1;
+        while (desde <= fin - largo) {
+            int pos = texto.indexOf(termino, desde);
+            if (pos < 0 || pos > fin - largo) {
+                break;
+            }
+            if (!esAlfanumerico(texto.charAt(pos - 1))) {
+                return INICIO_PALABRA;
+            }
+            mejor = CONTIENE;
+            desde = pos + 1;
+        }
+        return mejor;
+    }
+
+    private static boolean esAlfanumerico(char c) {
+        int codigo = codigoCaracter(c);
+        return codigo >= 1 && codigo <= 36;
+    }
+
+    // ---------------------------------------------------------------------
+    // Escritura (bajo el write lock)
+    // ---------------------------------------------------------------------
+
+    private int insertar(LeadBusquedaRow fila, String texto) {
+        int ordinal = documentos;
+        if (ordinal == ids.length) {
+            int capacidad = ordinal + (ordinal >> 1);
+            ids = Arrays.copyOf(ids, capacidad);
+            textos = Arrays.copyOf(textos, capacidad);
+            estados = Arrays.copyOf(estados, capacidad);
+            fuentes = Arrays.copyOf(fuentes, capacidad);
+        }
+        ids[ordinal] = fila.getId();
+        textos[ordinal] = texto;
+        estados[ordinal] = codigo(fila.getEstado());
+        fuentes[ordinal] = codigo(fila.getFuenteTipo());
+        documentos++;
+
+        // Los ordinales crecen, así que cada lista se mantiene ordenada
+        for (int codigo : trigramas(texto)) {
+            int[] lista = postings[codigo];
+            int largo = largos[codigo];
+            if (lista == null) {
+                lista = new int[4];
+                postings[codigo] = lista;
+            } else if (largo == lista.length) {
+                lista = Arrays.copyOf(lista, largo + (largo >> 1) + 1);
+                postings[codigo] = lista;
+            }
+            lista[largo] = ordinal;
+            largos[codigo] = largo + 1;
+        }
+        return ordinal;
+    }
+
+    private void marcarBorrado(int ordinal) {
+        borrados.set(ordinal);
+        textos[ordinal] = null;
+    }
+
+    private static byte codigo(Enum<?> valor) {
+        return valor != null ? (byte) valor.ordinal() : -1;
+    }
+}
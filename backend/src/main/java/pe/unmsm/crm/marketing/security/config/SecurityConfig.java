@@ -1,5 +1,6 @@
 package pe.unmsm.crm.marketing.security.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,7 +16,13 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.expression.WebExpressionAuthorizationManager;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.DispatcherTypeRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -55,10 +62,18 @@ public class SecurityConfig {
 
                 // Configurar autorización de requests
                 .authorizeHttpRequests(auth -> auth
+                        // Despacho ASYNC de las exportaciones en streaming: la petición
+                        // original ya fue autorizada y el filtro JWT no corre en ese despacho
+                        .requestMatchers(despachoAsyncExportaciones()).permitAll()
+
                         // Rutas públicas
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/debug/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Métricas (scrape de Prometheus) solo desde la máquina local
+                        .requestMatchers("/actuator/prometheus", "/actuator/metrics/**")
+                        .access(new WebExpressionAuthorizationManager(
+                                "hasIpAddress('127.0.0.1') or hasIpAddress('::1')"))
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/public/v1/**").permitAll() // Endpoints públicos de encuestas
                         .requestMatchers("/api/v1/public/v1/**").permitAll() // Endpoints públicos anidados en api/v1
@@ -84,6 +99,19 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Despacho ASYNC de los endpoints que responden con StreamingResponseBody
+     */
+    private static RequestMatcher despachoAsyncExportaciones() {
+        PathPatternRequestMatcher.Builder rutas = PathPatternRequestMatcher.withDefaults();
+        return new AndRequestMatcher(
+                new DispatcherTypeRequestMatcher(DispatcherType.ASYNC),
+                new OrRequestMatcher(
+                        rutas.matcher("/api/v1/leads/export"),
+                        rutas.matcher("/api/v1/leads/export/selected"),
+                        rutas.matcher("/api/v1/segmentos/{id}/export")));
+    }
+
     /**
      * Configuración de CORS
      */
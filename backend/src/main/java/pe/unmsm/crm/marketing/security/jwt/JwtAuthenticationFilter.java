@@ -9,7 +9,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -19,15 +18,15 @@ import pe.unmsm.crm.marketing.security.config.JwtConfig;
 import java.io.IOException;
 
 /**
- * Filtro que intercepta cada request para validar el token JWT
+ * Filtro que intercepta cada request para validar el token JWT.
+ * Claims y principal se resuelven desde JwtPrincipalCache.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final JwtPrincipalCache principalCache;
     private final JwtConfig jwtConfig;
 
     @Override
@@ -39,11 +38,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = extractTokenFromRequest(request);
 
-            if (token != null && jwtTokenProvider.validateToken(token)) {
-                String username = jwtTokenProvider.getUsernameFromToken(token);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = token != null ? principalCache.autenticar(token).orElse(null) : null;
 
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -53,7 +50,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                log.debug("Usuario autenticado: {}", username);
+                log.debug("Usuario autenticado: {}", userDetails.getUsername());
             }
         } catch (Exception e) {
             log.error("Error al autenticar usuario: {}", e.getMessage());
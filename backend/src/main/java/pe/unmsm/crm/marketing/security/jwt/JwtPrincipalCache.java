@@ -0,0 +1,153 @@
+package pe.unmsm.crm.marketing.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de autenticación para el filtro JWT.
+ *
+ * - Claims: por hash SHA-256 del token; la entrada vence junto con el token
+ *   (o antes, según {@code claims-ttl-seg}), así la firma se verifica una vez
+ * - Principales: {@code UserDetails} por (username, versión del token); la
+ *   versión cambia al modificar el usuario, así que un token emitido después
+ *   no reutiliza el principal anterior. Para los tokens ya emitidos, un cambio
+ *   de roles o de estado (que hoy solo se hace fuera de la aplicación) se
+ *   aplica al vencer la entrada: {@code ttl-seg}, 60 s por defecto
+ *
+ * Ambos cachés son acotados y publican sus estadísticas (hit ratio) en
+ * Micrometer; la latencia de la resolución se registra en
+ * {@code security.jwt.filter}.
+ */
+@Component
+@Slf4j
+public class JwtPrincipalCache {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserDetailsService userDetailsService;
+    private final Cache<String, Claims> claims;
+    private final Cache<ClavePrincipal, UserDetails> principales;
+    private final Timer filtroTimer;
+
+    record ClavePrincipal(String username, long version) {
+    }
+
+    public JwtPrincipalCache(JwtTokenProvider jwtTokenProvider,
+            UserDetailsService userDetailsService,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.principal-cache.maximo:10000}") long maximo,
+            @Value("${app.security.principal-cache.ttl-seg:60}") long ttlSeg,
+            @Value("${app.security.principal-cache.claims-ttl-seg:3600}") long claimsTtlSeg) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userDetailsService = userDetailsService;
+
+        long claimsTtlNanos = Duration.ofSeconds(claimsTtlSeg).toNanos();
+        this.claims = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims value, long currentTime) {
+                        long restante = Duration.ofMillis(
+                                value.getExpiration().getTime() - System.currentTimeMillis()).toNanos();
+                        return Math.max(0, Math.min(restante, claimsTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims value, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims value, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.principales = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeg))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, claims, "jwt.claims");
+        CaffeineCacheMetrics.monitor(meterRegistry, principales, "jwt.principales");
+        this.filtroTimer = Timer.builder("security.jwt.filter")
+                .description("Latencia de la resolución del principal en el filtro JWT")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resuelve el principal del token. Un token inválido devuelve vacío; un
+     * usuario inexistente o inactivo propaga la excepción de UserDetailsService
+     * (y no se cachea).
+     */
+    public Optional<UserDetails> autenticar(String token) {
+        long inicio = System.nanoTime();
+        try {
+            return obtenerClaims(token).map(this::obtenerPrincipal);
+        } finally {
+            filtroTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Descarta los principales cacheados de un usuario.
+     */
+    public void invalidar(String username) {
+        principales.asMap().keySet().removeIf(clave -> clave.username().equals(username));
+        log.debug("Principal cacheado invalidado para {}", username);
+    }
+
+    public void invalidarTodo() {
+        principales.invalidateAll();
+        claims.invalidateAll();
+    }
+
+    private Optional<Claims> obtenerClaims(String token) {
+        String hash = hash(token);
+        Claims cacheados = claims.getIfPresent(hash);
+        if (cacheados != null && cacheados.getExpiration().getTime() > System.currentTimeMillis()) {
+            return Optional.of(cacheados);
+        }
+        Optional<Claims> parseados = jwtTokenProvider.parseValidClaims(token);
+        parseados.filter(c -> c.getExpiration() != null).ifPresent(c -> claims.put(hash, c));
+        return parseados;
+    }
+
+    private UserDetails obtenerPrincipal(Claims tokenClaims) {
+        Number version = tokenClaims.get(JwtTokenProvider.CLAIM_VERSION, Number.class);
+        ClavePrincipal clave = new ClavePrincipal(tokenClaims.getSubject(),
+                version != null ? version.longValue() : 0L);
+        return principales.get(clave, c -> userDetailsService.loadUserByUsername(c.username()));
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
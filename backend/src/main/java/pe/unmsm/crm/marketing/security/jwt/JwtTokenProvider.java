@@ -14,6 +14,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -24,8 +25,14 @@ import java.util.stream.Collectors;
 @Slf4j
 public class JwtTokenProvider {
 
+    /** Claim con la versión del usuario (fecha de modificación en epoch ms) al emitir el token */
+    public static final String CLAIM_VERSION = "ver";
+
     private final JwtConfig jwtConfig;
 
+    // La clave se deriva una sola vez del secreto configurado
+    private volatile SecretKey signingKey;
+
     /**
      * Genera un token JWT para el usuario autenticado
      *
@@ -34,8 +41,22 @@ public class JwtTokenProvider {
      * @return token JWT
      */
     public String generateToken(UserDetails userDetails, Long userId) {
+        return generateToken(userDetails, userId, 0L);
+    }
+
+    /**
+     * Genera un token JWT incluyendo la versión del usuario, que forma parte de
+     * la clave del caché de principales
+     *
+     * @param userDetails detalles del usuario
+     * @param userId      ID del usuario
+     * @param version     versión del usuario (epoch ms de su última modificación)
+     * @return token JWT
+     */
+    public String generateToken(UserDetails userDetails, Long userId, long version) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
+        claims.put(CLAIM_VERSION, version);
         claims.put("roles", userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList()));
@@ -76,9 +97,18 @@ public class JwtTokenProvider {
      * @return true si el token es válido, false en caso contrario
      */
     public boolean validateToken(String token) {
+        return parseValidClaims(token).isPresent();
+    }
+
+    /**
+     * Verifica la firma y expiración del token y devuelve sus claims
+     *
+     * @param token token JWT
+     * @return claims, o vacío si el token no es válido
+     */
+    public Optional<Claims> parseValidClaims(String token) {
         try {
-            getClaims(token);
-            return true;
+            return Optional.of(getClaims(token));
         } catch (ExpiredJwtException e) {
             log.error("Token JWT expirado: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
@@ -88,7 +118,7 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException e) {
             log.error("Token JWT inválido: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
     /**
@@ -111,7 +141,12 @@ public class JwtTokenProvider {
      * @return clave de firma
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey key = signingKey;
+        if (key == null) {
+            byte[] keyBytes = jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8);
+            key = Keys.hmacShaKeyFor(keyBytes);
+            signingKey = key;
+        }
+        return key;
     }
 }
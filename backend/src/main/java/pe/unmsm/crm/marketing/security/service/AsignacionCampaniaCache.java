@@ -0,0 +1,110 @@
+package pe.unmsm.crm.marketing.security.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaCampanaMailingRepository;
+import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.repository.CampaniaAgenteRepository;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Caché compartido de asignaciones agente → campañas para las verificaciones
+ * de acceso de UserAuthorizationService.
+ *
+ * Cada agente se resuelve con dos consultas de solo IDs y se guarda como
+ * arreglos long ordenados (búsqueda binaria, sin boxing). Las entradas vencen
+ * a los {@code ttl-seg} segundos y se descartan al confirmarse un
+ * AsignacionCampaniaCambiadaEvent.
+ */
+@Component
+@Slf4j
+public class AsignacionCampaniaCache {
+
+    private final CampaniaAgenteRepository campaniaAgenteRepository;
+    private final JpaCampanaMailingRepository campanaMailingRepository;
+    private final LoadingCache<Integer, Asignaciones> asignaciones;
+
+    public AsignacionCampaniaCache(CampaniaAgenteRepository campaniaAgenteRepository,
+            JpaCampanaMailingRepository campanaMailingRepository,
+            @Value("${app.security.asignaciones.maximo:5000}") long maximo,
+            @Value("${app.security.asignaciones.ttl-seg:120}") long ttlSeg) {
+        this.campaniaAgenteRepository = campaniaAgenteRepository;
+        this.campanaMailingRepository = campanaMailingRepository;
+        this.asignaciones = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeg))
+                .build(this::cargar);
+    }
+
+    /**
+     * Conjuntos de campañas asignadas al agente.
+     */
+    public Asignaciones de(Integer idAgente) {
+        return asignaciones.get(idAgente);
+    }
+
+    public void invalidar(Integer idAgente) {
+        if (idAgente == null) {
+            asignaciones.invalidateAll();
+        } else {
+            asignaciones.invalidate(idAgente);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAsignacionCambiada(AsignacionCampaniaCambiadaEvent event) {
+        invalidar(event.idAgente());
+        log.debug("Asignaciones de campañas invalidadas para agente {}", event.idAgente());
+    }
+
+    private Asignaciones cargar(Integer idAgente) {
+        return new Asignaciones(
+                ordenados(campaniaAgenteRepository.findCampaniaIdsByAgente(idAgente)),
+                ordenados(campanaMailingRepository.findIdsByIdAgenteAsignado(idAgente)));
+    }
+
+    private static long[] ordenados(Collection<? extends Number> ids) {
+        long[] valores = ids.stream().mapToLong(Number::longValue).distinct().toArray();
+        Arrays.sort(valores);
+        return valores;
+    }
+
+    /**
+     * Campañas telefónicas y de mailing de un agente, como conjuntos long
+     * ordenados e inmutables.
+     */
+    public static final class Asignaciones {
+
+        private final long[] telefonicas;
+        private final long[] mailing;
+
+        Asignaciones(long[] telefonicas, long[] mailing) {
+            this.telefonicas = telefonicas;
+            this.mailing = mailing;
+        }
+
+        public boolean tieneTelefonica(long idCampania) {
+            return Arrays.binarySearch(telefonicas, idCampania) >= 0;
+        }
+
+        public boolean tieneMailing(long idCampania) {
+            return Arrays.binarySearch(mailing, idCampania) >= 0;
+        }
+
+        public List<Integer> idsTelefonicas() {
+            return Arrays.stream(telefonicas).mapToInt(Math::toIntExact).boxed().toList();
+        }
+
+        public List<Integer> idsMailing() {
+            return Arrays.stream(mailing).mapToInt(Math::toIntExact).boxed().toList();
+        }
+    }
+}
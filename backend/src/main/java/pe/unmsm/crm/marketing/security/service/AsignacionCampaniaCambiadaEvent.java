@@ -0,0 +1,11 @@
+package pe.unmsm.crm.marketing.security.service;
+
+/**
+ * Evento publicado cuando cambian las campañas (telefónicas o de mailing)
+ * asignadas a un agente. AsignacionCampaniaCache lo escucha para descartar
+ * el conjunto cacheado del agente.
+ *
+ * @param idAgente agente afectado; null invalida todos
+ */
+public record AsignacionCampaniaCambiadaEvent(Integer idAgente) {
+}
@@ -20,6 +20,7 @@ import pe.unmsm.crm.marketing.security.domain.UsuarioEntity;
 import pe.unmsm.crm.marketing.security.jwt.JwtTokenProvider;
 import pe.unmsm.crm.marketing.security.repository.UsuarioRepository;
 
+import java.time.ZoneId;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -62,7 +63,7 @@ public class AuthenticationService {
 
         // Generar token JWT
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = jwtTokenProvider.generateToken(userDetails, usuario.getIdUsuario());
+        String token = jwtTokenProvider.generateToken(userDetails, usuario.getIdUsuario(), versionDe(usuario));
 
         log.info("Usuario autenticado exitosamente: {}", loginRequest.getUsername());
 
@@ -144,4 +145,16 @@ public class AuthenticationService {
                 .campaniasTelefonicas(campaniasTelefonicas)
                 .build();
     }
+
+    /**
+     * Versión del usuario que viaja en el token: cambia cada vez que se
+     * modifica el registro (roles, estado), de modo que los tokens nuevos no
+     * reutilizan un principal cacheado con datos anteriores (los ya emitidos
+     * lo reutilizan hasta que vence en JwtPrincipalCache)
+     */
+    private long versionDe(UsuarioEntity usuario) {
+        return usuario.getFechaModificacion() != null
+                ? usuario.getFechaModificacion().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+    }
 }
@@ -7,26 +7,42 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaCampanaMailingRepository;
 import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.entity.AgenteMarketingEntity;
 import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.repository.AgenteMarketingRepository;
-import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.repository.CampaniaAgenteRepository;
 import pe.unmsm.crm.marketing.security.domain.UsuarioEntity;
 import pe.unmsm.crm.marketing.security.repository.UsuarioRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+/**
+ * Decisiones de acceso por usuario/agente.
+ *
+ * - Usuario y agente actuales se memorizan en los atributos del request, de
+ *   modo que varias verificaciones en un mismo request consultan la BD una vez
+ * - Las asignaciones agente → campañas salen de AsignacionCampaniaCache
+ *   (compartido, con TTL e invalidación por evento)
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserAuthorizationService {
 
+    private static final String ATTR_USUARIO = UserAuthorizationService.class.getName() + ".usuario";
+    private static final String ATTR_AGENTE = UserAuthorizationService.class.getName() + ".agente";
+
     private final UsuarioRepository usuarioRepository;
     private final AgenteMarketingRepository agenteMarketingRepository;
-    private final CampaniaAgenteRepository campaniaAgenteRepository;
     private final JpaCampanaMailingRepository campanaMailingRepository;
+    private final AsignacionCampaniaCache asignacionCampaniaCache;
+
+    // Valor memorizado junto al username que lo resolvió
+    private record Memo<T>(String username, Optional<T> valor) {
+    }
 
     public boolean isAdmin() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -35,8 +51,8 @@ public class UserAuthorizationService {
     }
 
     public Optional<AgenteMarketingEntity> getCurrentAgente() {
-        return getCurrentUsuario()
-                .flatMap(usuario -> agenteMarketingRepository.findByIdUsuario(usuario.getIdUsuario()));
+        return memorizar(ATTR_AGENTE, currentUsername(), () -> getCurrentUsuario()
+                .flatMap(usuario -> agenteMarketingRepository.findByIdUsuario(usuario.getIdUsuario())));
     }
 
     public Integer requireCurrentAgentId() {
@@ -82,7 +98,7 @@ public class UserAuthorizationService {
             return;
         }
         Integer agenteId = requireCurrentAgentId();
-        boolean asignado = campaniaAgenteRepository.existsByIdCampaniaAndIdAgente(idCampania.intValue(), agenteId);
+        boolean asignado = asignacionCampaniaCache.de(agenteId).tieneTelefonica(idCampania);
         if (!asignado) {
             log.warn("Agente {} intentó acceder a campaña telefónica {} sin permisos", agenteId, idCampania);
             throw new AccessDeniedException("No tienes acceso a esta campaña telefónica");
@@ -91,37 +107,59 @@ public class UserAuthorizationService {
 
     public void ensureCampaniaMailingAccess(Integer idCampania) {
         if (idCampania == null) {
-            throw new AccessDeniedException("Id de campa?a inv?lido");
+            throw new AccessDeniedException("Id de campaña inválido");
         }
         if (isAdmin()) {
             return;
         }
         Integer agenteId = requireCurrentAgentId();
-        boolean asignado = campanaMailingRepository.existsByIdAndIdAgenteAsignado(idCampania, agenteId);
+        boolean asignado = asignacionCampaniaCache.de(agenteId).tieneMailing(idCampania);
         if (!asignado) {
-            log.warn("Agente {} intent? acceder a campa?a de mailing {} sin permisos", agenteId, idCampania);
-            throw new AccessDeniedException("No tienes acceso a esta campa?a de mailing");
+            log.warn("Agente {} intentó acceder a campaña de mailing {} sin permisos", agenteId, idCampania);
+            throw new AccessDeniedException("No tienes acceso a esta campaña de mailing");
         }
     }
 
     public List<Integer> loadMailingCampaignIds(Integer agenteId) {
         if (agenteId == null) {
             if (isAdmin()) {
-                return campanaMailingRepository.findAll().stream()
-                        .map(CampanaMailing::getId)
-                        .toList();
+                return campanaMailingRepository.findAllIds();
             }
             return List.of();
         }
-        return campanaMailingRepository.findIdsByIdAgenteAsignado(agenteId);
+        return asignacionCampaniaCache.de(agenteId).idsMailing();
     }
 
     private Optional<UsuarioEntity> getCurrentUsuario() {
+        String username = currentUsername();
+        return memorizar(ATTR_USUARIO, username, () -> usuarioRepository.findByUsername(username));
+    }
+
+    private String currentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new AccessDeniedException("Usuario no autenticado");
         }
-        return usuarioRepository.findByUsername(authentication.getName());
+        return authentication.getName();
+    }
+
+    /**
+     * Resuelve el valor una vez por request. Fuera de un request (schedulers,
+     * hilos asíncronos) no hay memo y se consulta siempre.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Optional<T> memorizar(String atributo, String username, Supplier<Optional<T>> cargar) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return cargar.get();
+        }
+        Object memo = attributes.getAttribute(atributo, RequestAttributes.SCOPE_REQUEST);
+        if (memo instanceof Memo<?> previo && previo.username().equals(username)) {
+            return (Optional<T>) previo.valor();
+        }
+        Optional<T> valor = cargar.get();
+        attributes.setAttribute(atributo, new Memo<>(username, valor), RequestAttributes.SCOPE_REQUEST);
+        return valor;
     }
 
     public UsuarioEntity requireCurrentUsuario() {
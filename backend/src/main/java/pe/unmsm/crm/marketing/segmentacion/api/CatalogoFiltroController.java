@@ -1,30 +1,42 @@
 package pe.unmsm.crm.marketing.segmentacion.api;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import pe.unmsm.crm.marketing.segmentacion.infra.persistence.JpaCatalogoFiltroEntity;
-import pe.unmsm.crm.marketing.segmentacion.infra.persistence.JpaCatalogoFiltroRepository;
+import pe.unmsm.crm.marketing.segmentacion.infra.cache.CatalogoFiltroCache;
+import pe.unmsm.crm.marketing.segmentacion.infra.cache.CatalogoFiltroCache.FiltroCatalogo;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
- * Controlador para el catálogo de filtros de segmentación
+ * Controlador para el catálogo de filtros de segmentación.
+ * Responde desde la instantánea en memoria del catálogo.
  */
 @RestController
 @RequestMapping("/api/v1/catalogo-filtros")
-@RequiredArgsConstructor
 public class CatalogoFiltroController {
 
-    private final JpaCatalogoFiltroRepository catalogoRepository;
+    private final CatalogoFiltroCache catalogoCache;
+
+    // Filtros por tipo de audiencia; se recalcula solo cuando cambia la versión del catálogo
+    private final Supplier<Map<String, List<FiltroCatalogo>>> porAudiencia;
+
+    public CatalogoFiltroController(CatalogoFiltroCache catalogoCache) {
+        this.catalogoCache = catalogoCache;
+        this.porAudiencia = catalogoCache.derivar(catalogo -> Map.of(
+                "LEAD", filtrar(catalogo.todos(), tiposPermitidos("LEAD")),
+                "CLIENTE", filtrar(catalogo.todos(), tiposPermitidos("CLIENTE")),
+                "MIXTO", filtrar(catalogo.todos(), tiposPermitidos("MIXTO"))));
+    }
 
     /**
      * Obtiene todos los filtros disponibles
      */
     @GetMapping
-    public ResponseEntity<List<JpaCatalogoFiltroEntity>> obtenerTodos() {
-        return ResponseEntity.ok(catalogoRepository.findAll());
+    public ResponseEntity<List<FiltroCatalogo>> obtenerTodos() {
+        return ResponseEntity.ok(catalogoCache.findAll());
     }
 
     /**
@@ -33,19 +45,26 @@ public class CatalogoFiltroController {
      * @param tipoAudiencia LEAD, CLIENTE, o MIXTO
      */
     @GetMapping("/por-audiencia")
-    public ResponseEntity<List<JpaCatalogoFiltroEntity>> obtenerPorAudiencia(
+    public ResponseEntity<List<FiltroCatalogo>> obtenerPorAudiencia(
             @RequestParam String tipoAudiencia) {
 
-        List<String> tiposPermitidos;
+        List<FiltroCatalogo> filtros = porAudiencia.get().get(tipoAudiencia);
+        if (filtros == null) {
+            filtros = filtrar(catalogoCache.findAll(), tiposPermitidos(tipoAudiencia));
+        }
+        return ResponseEntity.ok(filtros);
+    }
+
+    private static List<String> tiposPermitidos(String tipoAudiencia) {
         if ("MIXTO".equals(tipoAudiencia)) {
             // Para MIXTO, mostrar todos los filtros
-            tiposPermitidos = Arrays.asList("LEAD", "CLIENTE", "AMBOS");
-        } else {
-            // Para LEAD o CLIENTE, mostrar los específicos + AMBOS
-            tiposPermitidos = Arrays.asList(tipoAudiencia, "AMBOS");
+            return Arrays.asList("LEAD", "CLIENTE", "AMBOS");
         }
+        // Para LEAD o CLIENTE, mostrar los específicos + AMBOS
+        return Arrays.asList(tipoAudiencia, "AMBOS");
+    }
 
-        List<JpaCatalogoFiltroEntity> filtros = catalogoRepository.findByTipoAudienciaIn(tiposPermitidos);
-        return ResponseEntity.ok(filtros);
+    private static List<FiltroCatalogo> filtrar(List<FiltroCatalogo> filtros, List<String> tipos) {
+        return filtros.stream().filter(f -> tipos.contains(f.tipoAudiencia())).toList();
     }
 }
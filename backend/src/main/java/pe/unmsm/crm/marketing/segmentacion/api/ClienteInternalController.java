@@ -18,10 +18,9 @@ public class ClienteInternalController {
 
     @PostMapping("/batch")
     public ResponseEntity<List<ClientePreviewDTO>> getClientesBatch(@RequestBody List<Long> clienteIds) {
-        List<MarketingClienteDTO> allClientes = clienteServicePort.getAllClientes();
+        List<MarketingClienteDTO> encontrados = clienteServicePort.getClientesByIds(clienteIds);
 
-        List<ClientePreviewDTO> clientes = allClientes.stream()
-                .filter(c -> clienteIds.contains(c.getClienteId()))
+        List<ClientePreviewDTO> clientes = encontrados.stream()
                 .map(c -> new ClientePreviewDTO(
                         c.getClienteId(),
                         c.getFullName(),
@@ -0,0 +1,48 @@
+package pe.unmsm.crm.marketing.segmentacion.api;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import pe.unmsm.crm.marketing.segmentacion.infra.replica.ReplicaClientes;
+import pe.unmsm.crm.marketing.shared.utils.ResponseUtils;
+
+import java.util.Map;
+
+/**
+ * Estado de la réplica local de clientes y sincronización manual.
+ */
+@RestController
+@RequestMapping("/api/v1/clientes/replica")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class ReplicaClientesController {
+
+    private final ReplicaClientes replicaClientes;
+
+    /**
+     * GET /api/v1/clientes/replica - Registros, versión y antigüedad de la réplica
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> estado() {
+        return ResponseUtils.success(replicaClientes.estado(), "Estado de la réplica de clientes");
+    }
+
+    /**
+     * POST /api/v1/clientes/replica/sincronizar?completa=false - Sincroniza en el momento
+     */
+    @PostMapping("/sincronizar")
+    public ResponseEntity<Map<String, Object>> sincronizar(
+            @RequestParam(defaultValue = "false") boolean completa) {
+        try {
+            if (completa) {
+                replicaClientes.sincronizarCompleta();
+            } else {
+                replicaClientes.sincronizarCambios();
+            }
+        } catch (Exception e) {
+            return ResponseUtils.error("No se pudo sincronizar la réplica: " + e.getMessage(), 502);
+        }
+        return ResponseUtils.success(replicaClientes.estado(), "Réplica sincronizada");
+    }
+}
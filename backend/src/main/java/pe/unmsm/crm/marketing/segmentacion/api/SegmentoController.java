@@ -4,13 +4,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pe.unmsm.crm.marketing.segmentacion.application.SegmentoExportService;
 import pe.unmsm.crm.marketing.segmentacion.application.SegmentoPreviewService;
 import pe.unmsm.crm.marketing.segmentacion.application.SegmentoService;
 import pe.unmsm.crm.marketing.segmentacion.domain.model.Segmento;
+import pe.unmsm.crm.marketing.shared.application.service.FormatoExportacion;
 import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -125,21 +126,22 @@ public class SegmentoController {
     }
 
     /**
-     * Exporta un segmento a Excel con información del segmento y sus miembros
+     * Exporta un segmento a Excel (o CSV) con información del segmento y sus miembros.
+     * El archivo se escribe en streaming sobre la respuesta.
      */
     @GetMapping("/{id}/export")
-    public ResponseEntity<byte[]> exportarSegmento(@PathVariable Long id) throws IOException {
+    public ResponseEntity<StreamingResponseBody> exportarSegmento(@PathVariable Long id,
+            @RequestParam(required = false) String formato) {
         Segmento segmento = segmentoService.obtenerSegmento(id)
                 .orElseThrow(() -> new NotFoundException("Segmento", id));
 
-        byte[] excelBytes = exportService.exportSegmentoToExcel(segmento);
+        FormatoExportacion formatoExportacion = FormatoExportacion.desde(formato);
         String filename = "segmento_" + segmento.getNombre().replaceAll("\\s+", "_") + "_"
-                + java.time.LocalDate.now() + ".xlsx";
+                + java.time.LocalDate.now() + "." + formatoExportacion.getExtension();
 
         return ResponseEntity.ok()
-                .contentType(
-                        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .contentType(MediaType.parseMediaType(formatoExportacion.getContentType()))
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .body(excelBytes);
+                .body(out -> exportService.exportSegmento(segmento, formatoExportacion, out));
     }
 }
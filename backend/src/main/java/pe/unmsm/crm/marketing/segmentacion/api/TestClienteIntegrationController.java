@@ -30,7 +30,7 @@ public class TestClienteIntegrationController {
     @GetMapping("/clientes")
     public ResponseEntity<Map<String, Object>> testClientesFetch() {
         try {
-            // Esto internamente llama a fetchAllClientes() que hace la paginación
+            // Filtra sobre la réplica local de clientes (la carga si aún no existe)
             List<MarketingClienteDTO> clientes = clienteAdapter.findClientesBySegmento(null)
                     .stream()
                     .limit(100) // Limitar a 100 para no sobrecargar la respuesta
@@ -65,11 +65,7 @@ public class TestClienteIntegrationController {
     @GetMapping("/clientes/sample")
     public ResponseEntity<Map<String, Object>> getSampleCliente() {
         try {
-            // Forzar la carga para obtener al menos un cliente
-            java.lang.reflect.Method method = RestClienteAdapter.class.getDeclaredMethod("fetchAllClientes");
-            method.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            List<MarketingClienteDTO> clientes = (List<MarketingClienteDTO>) method.invoke(clienteAdapter);
+            List<MarketingClienteDTO> clientes = clienteAdapter.getAllClientes();
 
             Map<String, Object> response = new HashMap<>();
             if (clientes != null && !clientes.isEmpty()) {
@@ -11,4 +11,9 @@ public interface ClienteServicePort {
     long countClientesBySegmento(Segmento segmento);
 
     List<MarketingClienteDTO> getAllClientes();
+
+    /**
+     * Clientes con esos ids, en el orden pedido; los inexistentes se omiten
+     */
+    List<MarketingClienteDTO> getClientesByIds(List<Long> clienteIds);
 }
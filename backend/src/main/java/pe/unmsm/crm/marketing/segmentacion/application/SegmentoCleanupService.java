@@ -1,11 +1,13 @@
 package pe.unmsm.crm.marketing.segmentacion.application;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import pe.unmsm.crm.marketing.segmentacion.domain.repository.SegmentoRepository;
+import pe.unmsm.crm.marketing.segmentacion.infra.retencion.SegmentosEliminadosRetencion;
+import pe.unmsm.crm.marketing.shared.infra.lease.CoordinadorJobs;
+import pe.unmsm.crm.marketing.shared.infra.retencion.MotorRetencion;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 
 /**
  * Servicio para tareas programadas de limpieza de segmentos
@@ -14,35 +16,31 @@ import java.time.LocalDateTime;
 @org.springframework.context.annotation.Profile("!console")
 public class SegmentoCleanupService {
 
-    private final SegmentoRepository segmentoRepository;
+    private static final String LEASE_JOB = "segmentos-retencion";
 
-    public SegmentoCleanupService(SegmentoRepository segmentoRepository) {
-        this.segmentoRepository = segmentoRepository;
+    private final MotorRetencion motorRetencion;
+    private final SegmentosEliminadosRetencion politica;
+    private final CoordinadorJobs coordinadorJobs;
+
+    @Value("${app.retencion.lease-minutos:10}")
+    private long leaseMinutos;
+
+    public SegmentoCleanupService(MotorRetencion motorRetencion, SegmentosEliminadosRetencion politica,
+            CoordinadorJobs coordinadorJobs) {
+        this.motorRetencion = motorRetencion;
+        this.politica = politica;
+        this.coordinadorJobs = coordinadorJobs;
     }
 
     /**
      * Elimina permanentemente segmentos que han estado en estado ELIMINADO por más
-     * de 10 días
-     * Se ejecuta diariamente a las 2:00 AM
+     * de 10 días (app.retencion.segmentos.dias), por bloques
+     * Se ejecuta diariamente a las 2:00 AM, en una sola instancia (lease
+     * "segmentos-retencion")
      */
-    @Scheduled(cron = "0 0 2 * * *")
-    @Transactional
+    @Scheduled(cron = "${app.retencion.segmentos.cron:0 0 2 * * *}")
     public void eliminarSegmentosAntiguos() {
-        LocalDateTime fechaLimite = LocalDateTime.now().minusDays(10);
-
-        var segmentosEliminados = segmentoRepository.findAll().stream()
-                .filter(s -> "ELIMINADO".equals(s.getEstado()))
-                .filter(s -> s.getFechaActualizacion().isBefore(fechaLimite))
-                .toList();
-
-        int count = 0;
-        for (var segmento : segmentosEliminados) {
-            segmentoRepository.deleteById(segmento.getId());
-            count++;
-        }
-
-        if (count > 0) {
-            System.out.println("✓ Eliminados permanentemente " + count + " segmentos antiguos");
-        }
+        coordinadorJobs.ejecutar(LEASE_JOB, Duration.ofMinutes(leaseMinutos),
+                lease -> motorRetencion.ejecutar(politica, lease));
     }
 }
@@ -3,35 +3,64 @@ package pe.unmsm.crm.marketing.segmentacion.application;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import pe.unmsm.crm.marketing.leads.domain.model.Lead;
-import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
+import pe.unmsm.crm.marketing.leads.application.service.LeadExportService;
+import pe.unmsm.crm.marketing.leads.domain.model.LeadExportRow;
 import pe.unmsm.crm.marketing.segmentacion.domain.model.Segmento;
 import pe.unmsm.crm.marketing.segmentacion.domain.model.ReglaSegmento;
 import pe.unmsm.crm.marketing.segmentacion.domain.model.ReglaSimple;
 import pe.unmsm.crm.marketing.segmentacion.domain.model.GrupoReglasAnd;
 import pe.unmsm.crm.marketing.segmentacion.domain.model.GrupoReglasOr;
 import pe.unmsm.crm.marketing.segmentacion.infra.persistence.JpaSegmentoMiembroRepository;
+import pe.unmsm.crm.marketing.shared.application.service.ExcelExportService;
+import pe.unmsm.crm.marketing.shared.application.service.ExcelExportService.ColumnConfig;
+import pe.unmsm.crm.marketing.shared.application.service.ExcelExportService.ExcelConfig;
+import pe.unmsm.crm.marketing.shared.application.service.FormatoExportacion;
+import pe.unmsm.crm.marketing.shared.application.service.KeysetIterator;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+/**
+ * Reporte de segmento: sección de información (nombre, descripción, filtros)
+ * seguida de la tabla de miembros.
+ *
+ * Los miembros se leen por páginas (clave id del lead) y se escriben en un
+ * workbook SXSSF directamente sobre la respuesta, así que el tamaño del
+ * segmento no afecta la memoria.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SegmentoExportService {
 
-    private final LeadRepository leadRepository;
     private final JpaSegmentoMiembroRepository miembroRepository;
+    private final ExcelExportService excelExportService;
+    private final LeadExportService leadExportService;
+
+    private static final int ANCHO_ETIQUETAS = 22;
+
+    public void exportSegmento(Segmento segmento, FormatoExportacion formato, OutputStream out) throws IOException {
+        Iterator<LeadExportRow> miembros = new KeysetIterator<>(
+                ultimoId -> miembroRepository.buscarPaginaExportacion(segmento.getId(), ultimoId,
+                        PageRequest.of(0, LeadExportService.TAMANIO_PAGINA)),
+                LeadExportRow::getId,
+                LeadExportService.TAMANIO_PAGINA);
+        List<ColumnConfig<LeadExportRow>> columnas = leadExportService.buildColumns(false);
+
+        if (formato == FormatoExportacion.CSV) {
+            // CSV: solo la tabla de miembros
+            excelExportService.exportToCsv(miembros, new ExcelConfig<>("Miembros", columnas), out);
+            return;
+        }
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-
-    public byte[] exportSegmentoToExcel(Segmento segmento) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+        SXSSFWorkbook workbook = excelExportService.createStreamingWorkbook();
+        try {
             Sheet sheet = workbook.createSheet("Reporte Segmento");
 
             // Styles
@@ -48,15 +77,14 @@ public class SegmentoExportService {
             currentRow++;
 
             // === SECCIÓN DE TABLA DE MIEMBROS ===
-            currentRow = writeMembersTable(sheet, segmento, headerStyle, currentRow);
-
-            // Auto-size columns
-            for (int i = 0; i < 10; i++) {
-                sheet.autoSizeColumn(i);
-            }
+            // Los anchos de columna vienen de la configuración (sin autoSizeColumn)
+            excelExportService.writeTable(sheet, currentRow, miembros, columnas, headerStyle);
+            // La primera columna también lleva las etiquetas de la sección de información
+            sheet.setColumnWidth(0, ANCHO_ETIQUETAS * 256);
 
             workbook.write(out);
-            return out.toByteArray();
+        } finally {
+            excelExportService.disposeWorkbook(workbook);
         }
     }
 
@@ -231,72 +259,6 @@ public class SegmentoExportService {
         valueCell.setCellStyle(valueStyle);
     }
 
-    private int writeMembersTable(Sheet sheet, Segmento segmento, CellStyle headerStyle, int startRow) {
-        int row = startRow;
-
-        // Header row
-        Row headerRow = sheet.createRow(row++);
-        String[] headers = { "ID", "Nombre Completo", "Email", "Teléfono", "Edad", "Género",
-                "Distrito", "Provincia", "Departamento", "Fecha Creación" };
-
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-
-        // Get members
-        List<Long> memberIds = miembroRepository.findByIdSegmento(segmento.getId()).stream()
-                .map(entity -> entity.getIdMiembro())
-                .collect(java.util.stream.Collectors.toList());
-        List<Lead> leads = memberIds.isEmpty() ? List.of() : leadRepository.findAllByIdWithLocation(memberIds);
-
-        // Data rows
-        for (Lead lead : leads) {
-            Row dataRow = sheet.createRow(row++);
-
-            dataRow.createCell(0).setCellValue(lead.getId());
-            dataRow.createCell(1).setCellValue(lead.getNombre() != null ? lead.getNombre() : "");
-            dataRow.createCell(2).setCellValue(
-                    lead.getContacto() != null && lead.getContacto().getEmail() != null
-                            ? lead.getContacto().getEmail()
-                            : "");
-            dataRow.createCell(3).setCellValue(
-                    lead.getContacto() != null && lead.getContacto().getTelefono() != null
-                            ? lead.getContacto().getTelefono()
-                            : "");
-            dataRow.createCell(4).setCellValue(
-                    lead.getDemograficos() != null && lead.getDemograficos().getEdad() != null
-                            ? lead.getDemograficos().getEdad()
-                            : 0);
-            dataRow.createCell(5).setCellValue(
-                    lead.getDemograficos() != null && lead.getDemograficos().getGenero() != null
-                            ? lead.getDemograficos().getGenero().toString()
-                            : "");
-
-            // Ubigeo data using object graph
-            if (lead.getDemograficos() != null && lead.getDemograficos().getDistrito() != null) {
-                var distrito = lead.getDemograficos().getDistrito();
-                dataRow.createCell(6).setCellValue(distrito.getNombre());
-                dataRow.createCell(7).setCellValue(
-                        distrito.getProvincia() != null ? distrito.getProvincia().getNombre() : "");
-                dataRow.createCell(8).setCellValue(
-                        distrito.getProvincia() != null && distrito.getProvincia().getDepartamento() != null
-                                ? distrito.getProvincia().getDepartamento().getNombre()
-                                : "");
-            } else {
-                dataRow.createCell(6).setCellValue("");
-                dataRow.createCell(7).setCellValue("");
-                dataRow.createCell(8).setCellValue("");
-            }
-
-            dataRow.createCell(9).setCellValue(
-                    lead.getFechaCreacion() != null ? lead.getFechaCreacion().format(DATE_FORMATTER) : "");
-        }
-
-        return row;
-    }
-
     private CellStyle createHeaderStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
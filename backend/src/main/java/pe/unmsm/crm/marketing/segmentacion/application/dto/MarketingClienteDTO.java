@@ -2,6 +2,8 @@ package pe.unmsm.crm.marketing.segmentacion.application.dto;
 
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 /**
  * DTO para datos de cliente desde API externa de Ventas
  * Mapea la respuesta de: GET
@@ -20,4 +22,5 @@ public class MarketingClienteDTO {
     private Integer monetaryScore; // RFM: Valor monetario
     private String ubicacion; // Ciudad/Departamento
     private Integer edad;
+    private LocalDateTime fechaActualizacion; // Si la API la envía: marca para la sincronización incremental
 }
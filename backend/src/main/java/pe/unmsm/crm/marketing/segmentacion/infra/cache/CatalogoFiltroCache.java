@@ -1,62 +1,96 @@
 package pe.unmsm.crm.marketing.segmentacion.infra.cache;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import pe.unmsm.crm.marketing.segmentacion.infra.persistence.JpaCatalogoFiltroEntity;
 import pe.unmsm.crm.marketing.segmentacion.infra.persistence.JpaCatalogoFiltroRepository;
+import pe.unmsm.crm.marketing.shared.infra.referencia.DatosReferencia;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 /**
- * Caché en memoria del catálogo de filtros para evitar queries lentas
+ * Caché en memoria del catálogo de filtros para evitar queries lentas.
+ *
+ * Es una instantánea inmutable indexada por id y por campo normalizado; una
+ * recarga arma la nueva aparte y la publica de una vez (ver DatosReferencia),
+ * así una evaluación de segmento concurrente nunca ve el catálogo vacío.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
-public class CatalogoFiltroCache {
+public class CatalogoFiltroCache extends DatosReferencia<CatalogoFiltroCache.Catalogo> {
+
+    public static final String NOMBRE = "catalogo-filtro";
 
     private final JpaCatalogoFiltroRepository repository;
 
-    // Mapa: campo (normalizado) -> Lista de filtros
-    private final Map<String, List<JpaCatalogoFiltroEntity>> cache = new ConcurrentHashMap<>();
+    public CatalogoFiltroCache(JpaCatalogoFiltroRepository repository) {
+        super(NOMBRE);
+        this.repository = repository;
+    }
 
     /**
-     * Carga el catálogo al iniciar la aplicación
+     * Fila inmutable de catalogo_filtro
      */
-    @EventListener(ApplicationReadyEvent.class)
-    public void loadCache() {
-        log.info("=== Cargando catálogo de filtros en caché ===");
-        List<JpaCatalogoFiltroEntity> allFiltros = repository.findAll();
+    public record FiltroCatalogo(Long idFiltro, String categoria, String campo, String tipoDato,
+            String operadoresPermitidos, String tipoAudiencia) {
+    }
+
+    public record Catalogo(List<FiltroCatalogo> todos, Map<Long, FiltroCatalogo> porId,
+            Map<String, List<FiltroCatalogo>> porCampo) {
+    }
+
+    @Override
+    protected Catalogo construir() {
+        List<FiltroCatalogo> todos = new ArrayList<>();
+        for (JpaCatalogoFiltroEntity e : repository.findAll()) {
+            todos.add(new FiltroCatalogo(e.getIdFiltro(), e.getCategoria(), e.getCampo(), e.getTipoDato(),
+                    e.getOperadoresPermitidos(), e.getTipoAudiencia()));
+        }
+        todos.sort(Comparator.comparing(FiltroCatalogo::idFiltro));
 
-        // Agrupar por campo normalizado
-        Map<String, List<JpaCatalogoFiltroEntity>> grouped = allFiltros.stream()
-                .collect(Collectors.groupingBy(
-                        f -> f.getCampo().toLowerCase().trim()));
+        Map<Long, FiltroCatalogo> porId = new HashMap<>();
+        Map<String, List<FiltroCatalogo>> porCampo = new HashMap<>();
+        for (FiltroCatalogo filtro : todos) {
+            porId.put(filtro.idFiltro(), filtro);
+            if (filtro.campo() != null) {
+                porCampo.computeIfAbsent(normalizar(filtro.campo()), k -> new ArrayList<>()).add(filtro);
+            }
+        }
+        Map<String, List<FiltroCatalogo>> porCampoInmutable = new HashMap<>();
+        porCampo.forEach((campo, filtros) -> porCampoInmutable.put(campo, List.copyOf(filtros)));
 
-        cache.putAll(grouped);
-        log.info("✓ Catálogo cargado: {} campos únicos, {} filtros totales",
-                cache.size(), allFiltros.size());
+        log.info("✓ Catálogo de filtros: {} campos únicos, {} filtros totales", porCampo.size(), todos.size());
+        return new Catalogo(List.copyOf(todos), Map.copyOf(porId), Map.copyOf(porCampoInmutable));
     }
 
     /**
      * Busca filtros por campo (desde caché, instantáneo)
      */
-    public List<JpaCatalogoFiltroEntity> findByCampo(String campo) {
-        String campoNormalizado = campo.toLowerCase().trim();
-        return cache.getOrDefault(campoNormalizado, List.of());
+    public List<FiltroCatalogo> findByCampo(String campo) {
+        return datos().porCampo().getOrDefault(normalizar(campo), List.of());
+    }
+
+    public Optional<FiltroCatalogo> findById(Long idFiltro) {
+        return idFiltro == null ? Optional.empty() : Optional.ofNullable(datos().porId().get(idFiltro));
+    }
+
+    public List<FiltroCatalogo> findAll() {
+        return datos().todos();
     }
 
     /**
      * Refresca el caché (llamar si se modifican filtros en BD)
      */
     public void refresh() {
-        cache.clear();
-        loadCache();
+        recargar();
+    }
+
+    private static String normalizar(String campo) {
+        return campo.toLowerCase().trim();
     }
 }
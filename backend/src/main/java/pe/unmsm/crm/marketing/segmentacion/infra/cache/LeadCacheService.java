@@ -2,6 +2,7 @@ package pe.unmsm.crm.marketing.segmentacion.infra.cache;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -12,7 +13,9 @@ import pe.unmsm.crm.marketing.segmentacion.infra.dto.LeadIntegrationResponse;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -154,6 +157,37 @@ public class LeadCacheService {
         }
     }
 
+    /**
+     * Actualiza varios leads con una llamada por cada 1000 ids (operaciones
+     * masivas). Los que la API no devuelve ya no cumplen los criterios y se
+     * quitan del caché
+     */
+    public void updateLeadsInCache(List<Long> leadIds) {
+        for (int i = 0; i < leadIds.size(); i += 1000) {
+            List<Long> bloque = leadIds.subList(i, Math.min(i + 1000, leadIds.size()));
+            try {
+                ResponseEntity<List<LeadIntegrationResponse>> response = restTemplate.exchange(
+                        LEAD_API_BASE_URL + "/by-ids",
+                        HttpMethod.POST,
+                        new HttpEntity<>(bloque),
+                        new ParameterizedTypeReference<List<LeadIntegrationResponse>>() {
+                        });
+
+                List<LeadIntegrationResponse> leads = response.getBody() != null ? response.getBody() : List.of();
+                Set<Long> vigentes = new HashSet<>();
+                for (LeadIntegrationResponse lead : leads) {
+                    leadCache.put(lead.getId(), lead);
+                    vigentes.add(lead.getId());
+                }
+                bloque.stream().filter(id -> !vigentes.contains(id)).forEach(leadCache::remove);
+                log.info("✓ [CACHE] {} leads actualizados en caché ({} removidos)",
+                        vigentes.size(), bloque.size() - vigentes.size());
+            } catch (Exception e) {
+                log.error("✗ [CACHE] Error al actualizar {} leads: {}", bloque.size(), e.getMessage());
+            }
+        }
+    }
+
     /**
      * Remueve un lead del caché (llamado por eventos de eliminación)
      */
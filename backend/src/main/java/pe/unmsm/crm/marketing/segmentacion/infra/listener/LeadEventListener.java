@@ -7,6 +7,8 @@ import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 import pe.unmsm.crm.marketing.leads.domain.event.LeadEstadoCambiadoEvent;
 import pe.unmsm.crm.marketing.leads.domain.event.LeadEliminadoEvent;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEliminadosEnLoteEvent;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEstadoCambiadoEnLoteEvent;
 import pe.unmsm.crm.marketing.segmentacion.infra.cache.LeadCacheService;
 
 /**
@@ -45,4 +47,19 @@ public class LeadEventListener {
         // Remover el lead del caché
         leadCacheService.removeLeadFromCache(event.getLeadId());
     }
+
+    /**
+     * Cambio de estado masivo: una sola llamada por bloque para refrescar el caché
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onLeadsEstadoCambiadoEnLote(LeadsEstadoCambiadoEnLoteEvent event) {
+        log.info(" [CACHE] Evento recibido: {} leads cambiaron a {}", event.getLeadIds().size(), event.getEstadoNuevo());
+        leadCacheService.updateLeadsInCache(event.getLeadIds());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onLeadsEliminadosEnLote(LeadsEliminadosEnLoteEvent event) {
+        log.info(" [CACHE] Evento recibido: {} leads eliminados", event.getLeadIds().size());
+        event.getLeadIds().forEach(leadCacheService::removeLeadFromCache);
+    }
 }
@@ -1,7 +1,12 @@
 package pe.unmsm.crm.marketing.segmentacion.infra.persistence;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import pe.unmsm.crm.marketing.leads.domain.model.LeadExportRow;
+import pe.unmsm.crm.marketing.leads.domain.repository.LeadRepository;
 
 import java.util.List;
 
@@ -12,4 +17,16 @@ public interface JpaSegmentoMiembroRepository extends JpaRepository<JpaSegmentoM
     long countByIdSegmento(Long idSegmento);
 
     List<JpaSegmentoMiembroEntity> findByIdSegmento(Long idSegmento);
+
+    /**
+     * Página (por clave id del lead) de los miembros LEAD del segmento, para
+     * exportación (un miembro CLIENTE con el mismo id no es ese lead)
+     */
+    @Query(LeadRepository.SELECT_EXPORT_ROW +
+            "JOIN JpaSegmentoMiembroEntity m ON m.idMiembro = l.id AND m.tipoMiembro = 'LEAD' " +
+            "WHERE m.idSegmento = :idSegmento AND l.id > :ultimoId " +
+            "ORDER BY l.id")
+    List<LeadExportRow> buscarPaginaExportacion(@Param("idSegmento") Long idSegmento,
+            @Param("ultimoId") Long ultimoId,
+            Pageable pageable);
 }
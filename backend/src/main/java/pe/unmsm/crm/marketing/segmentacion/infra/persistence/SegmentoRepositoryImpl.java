@@ -15,18 +15,15 @@ public class SegmentoRepositoryImpl implements SegmentoRepository {
 
     private final JpaSegmentoRepository jpaSegmentoRepository;
     private final JpaSegmentoFiltroRepository jpaSegmentoFiltroRepository;
-    private final JpaCatalogoFiltroRepository jpaCatalogoFiltroRepository;
     private final pe.unmsm.crm.marketing.segmentacion.infra.cache.CatalogoFiltroCache catalogoCache;
     private final SegmentoFiltroBatchRepository filtroBatchRepository;
 
     public SegmentoRepositoryImpl(JpaSegmentoRepository jpaSegmentoRepository,
             JpaSegmentoFiltroRepository jpaSegmentoFiltroRepository,
-            JpaCatalogoFiltroRepository jpaCatalogoFiltroRepository,
             pe.unmsm.crm.marketing.segmentacion.infra.cache.CatalogoFiltroCache catalogoCache,
             SegmentoFiltroBatchRepository filtroBatchRepository) {
         this.jpaSegmentoRepository = jpaSegmentoRepository;
         this.jpaSegmentoFiltroRepository = jpaSegmentoFiltroRepository;
-        this.jpaCatalogoFiltroRepository = jpaCatalogoFiltroRepository;
         this.catalogoCache = catalogoCache;
         this.filtroBatchRepository = filtroBatchRepository;
     }
@@ -114,8 +111,8 @@ public class SegmentoRepositoryImpl implements SegmentoRepository {
                 regla.setIdFiltro(filtro.getIdFiltro());
 
                 // Resolve field name from ID
-                jpaCatalogoFiltroRepository.findById(filtro.getIdFiltro())
-                        .ifPresent(cat -> regla.setCampo(cat.getCampo()));
+                catalogoCache.findById(filtro.getIdFiltro())
+                        .ifPresent(cat -> regla.setCampo(cat.campo()));
 
                 regla.setOperador(filtro.getOperador());
                 regla.setValorTexto(filtro.getValorTexto());
@@ -186,13 +183,14 @@ public class SegmentoRepositoryImpl implements SegmentoRepository {
                 String campoNormalizado = simple.getCampo().toLowerCase().trim();
                 System.out.println("Buscando en catálogo con campo normalizado: '" + campoNormalizado + "'");
 
-                List<JpaCatalogoFiltroEntity> catalogos = catalogoCache.findByCampo(campoNormalizado);
+                List<pe.unmsm.crm.marketing.segmentacion.infra.cache.CatalogoFiltroCache.FiltroCatalogo> catalogos =
+                        catalogoCache.findByCampo(campoNormalizado);
                 if (!catalogos.isEmpty()) {
                     if (catalogos.size() > 1) {
                         System.out.println("⚠ ADVERTENCIA: Se encontraron " + catalogos.size()
                                 + " filtros duplicados para '" + campoNormalizado + "'. Usando el primero.");
                     }
-                    idFiltro = catalogos.get(0).getIdFiltro();
+                    idFiltro = catalogos.get(0).idFiltro();
                     System.out.println("✓ Filtro encontrado! ID: " + idFiltro);
                 } else {
                     System.err.println(
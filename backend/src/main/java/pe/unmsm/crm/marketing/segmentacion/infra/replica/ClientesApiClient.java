@@ -0,0 +1,64 @@
+package pe.unmsm.crm.marketing.segmentacion.infra.replica;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+import pe.unmsm.crm.marketing.segmentacion.application.dto.PageMarketingClienteResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cliente HTTP de la API de clientes del módulo de Ventas
+ * (GET /api/clientes/integracion/marketing, paginada).
+ *
+ * Para la sincronización incremental envía la fecha desde la que se piden
+ * cambios en el parámetro {@code app.clientes.api.param-cambios}.
+ */
+@Component
+public class ClientesApiClient {
+
+    private static final String RUTA = "/api/clientes/integracion/marketing";
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final String parametroCambios;
+
+    public ClientesApiClient(RestTemplate restTemplate,
+            @Value("${app.clientes.api.url:https://mod-ventas.onrender.com}") String baseUrl,
+            @Value("${app.clientes.api.param-cambios:actualizadoDesde}") String parametroCambios) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+        this.parametroCambios = parametroCambios;
+    }
+
+    /**
+     * @param cambiadosDesde null para todos los clientes
+     * @throws org.springframework.web.client.RestClientException si la página no se pudo obtener
+     */
+    public PageMarketingClienteResponse pagina(int page, int size, LocalDateTime cambiadosDesde) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromHttpUrl(baseUrl + RUTA)
+                .queryParam("page", page)
+                .queryParam("size", size);
+        if (cambiadosDesde != null) {
+            uri.queryParam(parametroCambios, cambiadosDesde.toString());
+        }
+
+        PageMarketingClienteResponse respuesta = restTemplate.exchange(
+                uri.toUriString(),
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<PageMarketingClienteResponse>() {
+                }).getBody();
+        if (respuesta == null) {
+            throw new IllegalStateException("Respuesta vacía de la API de clientes en la página " + page);
+        }
+        return respuesta;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+}
@@ -0,0 +1,325 @@
+package pe.unmsm.crm.marketing.segmentacion.infra.replica;
+
+import pe.unmsm.crm.marketing.segmentacion.application.dto.MarketingClienteDTO;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.GrupoReglasAnd;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.GrupoReglasOr;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.ReglaSegmento;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.ReglaSimple;
+import pe.unmsm.crm.marketing.segmentacion.domain.visitor.ReglaVisitor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Índice inmutable de la réplica de clientes.
+ *
+ * Los clientes se guardan ordenados por id; cada regla de segmento se evalúa
+ * a un BitSet de posiciones:
+ * - texto IGUAL / DISTINTO: mapa valor (en minúsculas) -> posiciones
+ * - texto CONTIENE: recorrido de los valores ya normalizados
+ * - números: valores ordenados con sus posiciones, rango por búsqueda binaria
+ * - AND / OR: intersección / unión de los BitSet
+ *
+ * La semántica es la del filtrado anterior en RestClienteAdapter: campo
+ * desconocido = cumple, valor nulo = no cumple.
+ *
+ * Las instancias de {@link MarketingClienteDTO} son compartidas: no modificarlas.
+ */
+public final class IndiceClientes {
+
+    // Mismo getter para cada alias, así los alias comparten índice
+    private static final Function<MarketingClienteDTO, String> NOMBRE = MarketingClienteDTO::getFullName;
+    private static final Function<MarketingClienteDTO, Integer> MONETARIO = MarketingClienteDTO::getMonetaryScore;
+    private static final Function<MarketingClienteDTO, Integer> FRECUENCIA = MarketingClienteDTO::getFrequencyScore;
+    private static final Function<MarketingClienteDTO, Integer> RECENCIA = MarketingClienteDTO::getRecencyScore;
+
+    private static final Map<String, Function<MarketingClienteDTO, String>> CAMPOS_TEXTO = Map.of(
+            "email", MarketingClienteDTO::getEmail,
+            "nombre", NOMBRE,
+            "fullName", NOMBRE,
+            "dni", MarketingClienteDTO::getDni,
+            "categoria", MarketingClienteDTO::getCategoria,
+            "estado", MarketingClienteDTO::getEstado,
+            "ubicacion", MarketingClienteDTO::getUbicacion);
+
+    private static final Map<String, Function<MarketingClienteDTO, Integer>> CAMPOS_NUMERO = Map.of(
+            "edad", MarketingClienteDTO::getEdad,
+            "total_gastado", MONETARIO,
+            "monetaryScore", MONETARIO,
+            "total_transacciones", FRECUENCIA,
+            "frequencyScore", FRECUENCIA,
+            "score", RECENCIA,
+            "recencyScore", RECENCIA);
+
+    private final MarketingClienteDTO[] clientes;
+    private final Map<Long, Integer> posicionPorId;
+    private final Map<String, IndiceTexto> textos = new HashMap<>();
+    private final Map<String, IndiceNumero> numeros = new HashMap<>();
+
+    private IndiceClientes(Collection<MarketingClienteDTO> origen) {
+        // Último por id, ordenados por id
+        Map<Long, MarketingClienteDTO> porId = new LinkedHashMap<>();
+        for (MarketingClienteDTO cliente : origen) {
+            if (cliente != null && cliente.getClienteId() != null) {
+                porId.put(cliente.getClienteId(), cliente);
+            }
+        }
+        this.clientes = porId.values().stream()
+                .sorted(Comparator.comparing(MarketingClienteDTO::getClienteId))
+                .toArray(MarketingClienteDTO[]::new);
+
+        Map<Long, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < clientes.length; i++) {
+            posiciones.put(clientes[i].getClienteId(), i);
+        }
+        this.posicionPorId = Map.copyOf(posiciones);
+
+        Map<Function<MarketingClienteDTO, String>, IndiceTexto> porTexto = new HashMap<>();
+        CAMPOS_TEXTO.forEach((campo, getter) ->
+                textos.put(campo, porTexto.computeIfAbsent(getter, g -> new IndiceTexto(clientes, g))));
+        Map<Function<MarketingClienteDTO, Integer>, IndiceNumero> porNumero = new HashMap<>();
+        CAMPOS_NUMERO.forEach((campo, getter) ->
+                numeros.put(campo, porNumero.computeIfAbsent(getter, g -> new IndiceNumero(clientes, g))));
+    }
+
+    public static IndiceClientes de(Collection<MarketingClienteDTO> clientes) {
+        return new IndiceClientes(clientes);
+    }
+
+    public static IndiceClientes vacio() {
+        return new IndiceClientes(List.of());
+    }
+
+    public int size() {
+        return clientes.length;
+    }
+
+    public List<MarketingClienteDTO> todos() {
+        return List.of(clientes);
+    }
+
+    public Optional<MarketingClienteDTO> porId(Long clienteId) {
+        Integer posicion = clienteId != null ? posicionPorId.get(clienteId) : null;
+        return posicion != null ? Optional.of(clientes[posicion]) : Optional.empty();
+    }
+
+    /**
+     * Ids (ascendentes) de los clientes que cumplen la regla; todos si es null.
+     */
+    public List<Long> filtrar(ReglaSegmento regla) {
+        BitSet coincidencias = evaluar(regla);
+        List<Long> ids = new ArrayList<>(coincidencias.cardinality());
+        for (int i = coincidencias.nextSetBit(0); i >= 0; i = coincidencias.nextSetBit(i + 1)) {
+            ids.add(clientes[i].getClienteId());
+        }
+        return ids;
+    }
+
+    public long contar(ReglaSegmento regla) {
+        return evaluar(regla).cardinality();
+    }
+
+    /**
+     * Copia mutable id -> cliente, para aplicar cambios incrementales
+     */
+    Map<Long, MarketingClienteDTO> comoMapa() {
+        Map<Long, MarketingClienteDTO> mapa = new HashMap<>(clientes.length * 2);
+        for (MarketingClienteDTO cliente : clientes) {
+            mapa.put(cliente.getClienteId(), cliente);
+        }
+        return mapa;
+    }
+
+    private BitSet evaluar(ReglaSegmento regla) {
+        return regla == null ? todas() : regla.accept(new Evaluador());
+    }
+
+    private BitSet todas() {
+        BitSet todas = new BitSet(clientes.length);
+        todas.set(0, clientes.length);
+        return todas;
+    }
+
+    private class Evaluador implements ReglaVisitor<BitSet> {
+
+        @Override
+        public BitSet visit(ReglaSimple regla) {
+            String campo = regla.getCampo();
+            if (campo == null) {
+                return todas();
+            }
+            if (regla.getOperador() == null) {
+                return new BitSet();
+            }
+            IndiceTexto texto = textos.get(campo);
+            if (texto != null) {
+                return texto.evaluar(regla.getOperador(), regla.getValorTexto());
+            }
+            IndiceNumero numero = numeros.get(campo);
+            if (numero != null) {
+                return numero.evaluar(regla.getOperador(), regla.getValorNumeroDesde(), regla.getValorNumeroHasta());
+            }
+            return todas();
+        }
+
+        @Override
+        public BitSet visit(GrupoReglasAnd grupo) {
+            BitSet resultado = todas();
+            for (ReglaSegmento regla : grupo.getReglas()) {
+                if (resultado.isEmpty()) {
+                    break;
+                }
+                resultado.and(regla.accept(this));
+            }
+            return resultado;
+        }
+
+        @Override
+        public BitSet visit(GrupoReglasOr grupo) {
+            BitSet resultado = new BitSet(clientes.length);
+            for (ReglaSegmento regla : grupo.getReglas()) {
+                resultado.or(regla.accept(this));
+            }
+            return resultado;
+        }
+    }
+
+    private static String normalizar(String valor) {
+        return valor.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class IndiceTexto {
+
+        // Valor normalizado por posición (null si el cliente no tiene el dato)
+        private final String[] valores;
+        private final Map<String, BitSet> porValor = new HashMap<>();
+        private final BitSet noNulos = new BitSet();
+
+        private IndiceTexto(MarketingClienteDTO[] clientes, Function<MarketingClienteDTO, String> getter) {
+            valores = new String[clientes.length];
+            for (int i = 0; i < clientes.length; i++) {
+                String valor = getter.apply(clientes[i]);
+                if (valor != null) {
+                    valores[i] = normalizar(valor);
+                    porValor.computeIfAbsent(valores[i], k -> new BitSet()).set(i);
+                    noNulos.set(i);
+                }
+            }
+        }
+
+        private BitSet evaluar(String operador, String esperado) {
+            switch (operador) {
+                case "IGUAL":
+                    return igual(esperado);
+                case "DISTINTO": {
+                    BitSet distintos = (BitSet) noNulos.clone();
+                    distintos.andNot(igual(esperado));
+                    return distintos;
+                }
+                case "CONTIENE": {
+                    BitSet contienen = new BitSet();
+                    if (esperado == null) {
+                        return contienen;
+                    }
+                    String buscado = normalizar(esperado);
+                    for (int i = 0; i < valores.length; i++) {
+                        if (valores[i] != null && valores[i].contains(buscado)) {
+                            contienen.set(i);
+                        }
+                    }
+                    return contienen;
+                }
+                default:
+                    return new BitSet();
+            }
+        }
+
+        private BitSet igual(String esperado) {
+            BitSet iguales = esperado != null ? porValor.get(normalizar(esperado)) : null;
+            return iguales != null ? (BitSet) iguales.clone() : new BitSet();
+        }
+    }
+
+    private static final class IndiceNumero {
+
+        // Valores no nulos ordenados y la posición del cliente de cada uno
+        private final int[] valores;
+        private final int[] posiciones;
+
+        private IndiceNumero(MarketingClienteDTO[] clientes, Function<MarketingClienteDTO, Integer> getter) {
+            List<int[]> pares = new ArrayList<>();
+            for (int i = 0; i < clientes.length; i++) {
+                Integer valor = getter.apply(clientes[i]);
+                if (valor != null) {
+                    pares.add(new int[] { valor, i });
+                }
+            }
+            pares.sort(Comparator.comparingInt(par -> par[0]));
+            valores = new int[pares.size()];
+            posiciones = new int[pares.size()];
+            for (int i = 0; i < pares.size(); i++) {
+                valores[i] = pares.get(i)[0];
+                posiciones[i] = pares.get(i)[1];
+            }
+        }
+
+        private BitSet evaluar(String operador, BigDecimal desde, BigDecimal hasta) {
+            if (desde == null) {
+                return new BitSet();
+            }
+            long d = desde.intValue();
+            switch (operador) {
+                case "IGUAL":
+                    return rango(d, d);
+                case "MAYOR_QUE":
+                    return rango(d + 1, Long.MAX_VALUE);
+                case "MENOR_QUE":
+                    return rango(Long.MIN_VALUE, d - 1);
+                case "ENTRE":
+                    return hasta == null ? new BitSet() : rango(d, hasta.intValue());
+                default:
+                    return new BitSet();
+            }
+        }
+
+        /**
+         * Posiciones con valor en [minimo, maximo]
+         */
+        private BitSet rango(long minimo, long maximo) {
+            BitSet resultado = new BitSet();
+            for (int i = primeroMayorOIgual(minimo); i < valores.length && valores[i] <= maximo; i++) {
+                resultado.set(posiciones[i]);
+            }
+            return resultado;
+        }
+
+        private int primeroMayorOIgual(long minimo) {
+            if (minimo <= Integer.MIN_VALUE) {
+                return 0;
+            }
+            if (minimo > Integer.MAX_VALUE) {
+                return valores.length;
+            }
+            int i = Arrays.binarySearch(valores, (int) minimo);
+            if (i < 0) {
+                return -i - 1;
+            }
+            // Con repetidos binarySearch cae en cualquiera: retrocede al primero
+            while (i > 0 && valores[i - 1] == minimo) {
+                i--;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package pe.unmsm.crm.marketing.segmentacion.infra.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.unmsm.crm.marketing.segmentacion.application.dto.MarketingClienteDTO;
+import pe.unmsm.crm.marketing.segmentacion.application.dto.PageMarketingClienteResponse;
+import pe.unmsm.crm.marketing.shared.config.AsyncConfig;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Réplica local del directorio de clientes del módulo de Ventas.
+ *
+ * Antes cada vista previa o materialización de segmento descargaba todas las
+ * páginas de la API una tras otra y filtraba la lista completa. Ahora se
+ * sirve de un {@link IndiceClientes} en memoria que se mantiene así:
+ *
+ * - Completa: página 0 y luego el resto en paralelo
+ *   ({@code app.clientes.replica.paralelismo} descargas simultáneas). Al
+ *   arrancar y cada {@code app.clientes.replica.completa-ms}; es la única que
+ *   recoge clientes eliminados en Ventas.
+ * - Incremental: cada {@code app.clientes.replica.incremental-ms} pide solo
+ *   los clientes cambiados desde la última marca (menos
+ *   {@code margen-seg} de margen) y los fusiona con la réplica.
+ *
+ * Si falla cualquier página la sincronización se descarta entera y se sigue
+ * sirviendo la versión anterior. {@link #estado()} informa la antigüedad;
+ * pasados {@code max-antiguedad-min} sin sincronizar se marca desactualizada.
+ */
+@Service
+@Slf4j
+public class ReplicaClientes {
+
+    private final ClientesApiClient apiClient;
+    private final int tamanioPagina;
+    private final long completaMs;
+    private final boolean incremental;
+    private final Duration margen;
+    private final Duration maxAntiguedad;
+
+    private final ExecutorService descargas;
+    private final ReentrantLock sincronizando = new ReentrantLock();
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile IndiceClientes indice = IndiceClientes.vacio();
+    private volatile LocalDateTime ultimaSincronizacion;
+    private volatile LocalDateTime ultimaCompleta;
+    private volatile LocalDateTime marcaCambios;
+    private volatile String ultimoError;
+
+    public ReplicaClientes(ClientesApiClient apiClient,
+            MeterRegistry meterRegistry,
+            @Value("${app.clientes.replica.paralelismo:4}") int paralelismo,
+            @Value("${app.clientes.replica.tamanio-pagina:100}") int tamanioPagina,
+            @Value("${app.clientes.replica.completa-ms:21600000}") long completaMs,
+            @Value("${app.clientes.replica.incremental:true}") boolean incremental,
+            @Value("${app.clientes.replica.margen-seg:60}") long margenSeg,
+            @Value("${app.clientes.replica.max-antiguedad-min:30}") long maxAntiguedadMin) {
+        this.apiClient = apiClient;
+        this.tamanioPagina = tamanioPagina;
+        this.completaMs = completaMs;
+        this.incremental = incremental;
+        this.margen = Duration.ofSeconds(margenSeg);
+        this.maxAntiguedad = Duration.ofMinutes(maxAntiguedadMin);
+
+        AtomicInteger numero = new AtomicInteger();
+        this.descargas = Executors.newFixedThreadPool(Math.max(1, paralelismo), r -> {
+            Thread hilo = new Thread(r, "ReplicaClientes-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        Gauge.builder("clientes.replica.registros", this, r -> r.indice.size())
+                .register(meterRegistry);
+        Gauge.builder("clientes.replica.antiguedad.segundos", this, r -> {
+            Duration antiguedad = r.antiguedad();
+            return antiguedad != null ? antiguedad.getSeconds() : Double.NaN;
+        }).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void detener() {
+        descargas.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Async(AsyncConfig.EJECUTOR_IO)
+    public void cargarInicial() {
+        try {
+            sincronizarCompleta();
+        } catch (Exception e) {
+            // Ya registrado; el primer uso o la próxima pasada programada reintentan
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.clientes.replica.incremental-ms:300000}",
+            initialDelayString = "${app.clientes.replica.incremental-ms:300000}")
+    public void sincronizarProgramada() {
+        // Si ya hay una sincronización en curso, esta pasada sobra
+        if (!sincronizando.tryLock()) {
+            return;
+        }
+        try {
+            boolean tocaCompleta = ultimaCompleta == null
+                    || Duration.between(ultimaCompleta, LocalDateTime.now()).toMillis() >= completaMs;
+            if (tocaCompleta || !incremental) {
+                sincronizarCompleta();
+            } else {
+                sincronizarCambios();
+            }
+        } catch (Exception e) {
+            // Ya registrado en ultimoError
+        } finally {
+            sincronizando.unlock();
+        }
+    }
+
+    /**
+     * Descarga todo el directorio y reemplaza la réplica.
+     *
+     * @throws RuntimeException si alguna página falla (se conserva la réplica anterior)
+     */
+    public void sincronizarCompleta() {
+        sincronizando.lock();
+        try {
+            LocalDateTime inicio = LocalDateTime.now();
+            long t0 = System.currentTimeMillis();
+            List<MarketingClienteDTO> clientes = descargar(null);
+            publicar(IndiceClientes.de(clientes), inicio, clientes);
+            ultimaCompleta = inicio;
+            log.info("[CLIENTES] Réplica completa v{}: {} clientes en {} ms",
+                    version.get(), indice.size(), System.currentTimeMillis() - t0);
+        } catch (RuntimeException e) {
+            registrarError("completa", e);
+            throw e;
+        } finally {
+            sincronizando.unlock();
+        }
+    }
+
+    /**
+     * Pide solo los clientes cambiados desde la última marca y los fusiona.
+     * Sin una sincronización previa hace una completa.
+     *
+     * @throws RuntimeException si alguna página falla (se conserva la réplica anterior)
+     */
+    public void sincronizarCambios() {
+        sincronizando.lock();
+        try {
+            if (marcaCambios == null) {
+                sincronizarCompleta();
+                return;
+            }
+            LocalDateTime inicio = LocalDateTime.now();
+            List<MarketingClienteDTO> cambiados = descargar(marcaCambios.minus(margen));
+            if (cambiados.isEmpty()) {
+                ultimaSincronizacion = inicio;
+                ultimoError = null;
+                return;
+            }
+            Map<Long, MarketingClienteDTO> porId = indice.comoMapa();
+            for (MarketingClienteDTO cliente : cambiados) {
+                if (cliente != null && cliente.getClienteId() != null) {
+                    porId.put(cliente.getClienteId(), cliente);
+                }
+            }
+            publicar(IndiceClientes.de(porId.values()), inicio, cambiados);
+            log.info("[CLIENTES] Réplica incremental v{}: {} cambios, {} clientes",
+                    version.get(), cambiados.size(), indice.size());
+        } catch (RuntimeException e) {
+            registrarError("incremental", e);
+            throw e;
+        } finally {
+            sincronizando.unlock();
+        }
+    }
+
+    /**
+     * Índice vigente. Si aún no hubo una carga correcta (primer uso antes de
+     * la carga inicial) la hace en el momento; si falla devuelve lo que haya.
+     */
+    public IndiceClientes indice() {
+        if (ultimaSincronizacion == null) {
+            sincronizando.lock();
+            try {
+                if (ultimaSincronizacion == null) {
+                    sincronizarCompleta();
+                }
+            } catch (Exception e) {
+                log.warn("[CLIENTES] Réplica no disponible, se responde con {} clientes", indice.size());
+            } finally {
+                sincronizando.unlock();
+            }
+        }
+        return indice;
+    }
+
+    public EstadoReplica estado() {
+        Duration antiguedad = antiguedad();
+        return new EstadoReplica(
+                indice.size(),
+                version.get(),
+                ultimaSincronizacion,
+                ultimaCompleta,
+                marcaCambios,
+                antiguedad != null ? antiguedad.getSeconds() : null,
+                antiguedad == null || antiguedad.compareTo(maxAntiguedad) > 0,
+                ultimoError);
+    }
+
+    private Duration antiguedad() {
+        LocalDateTime ultima = ultimaSincronizacion;
+        return ultima != null ? Duration.between(ultima, LocalDateTime.now()) : null;
+    }
+
+    /**
+     * Todas las páginas: la 0 para conocer el total y el resto en paralelo.
+     */
+    private List<MarketingClienteDTO> descargar(LocalDateTime cambiadosDesde) {
+        PageMarketingClienteResponse primera = apiClient.pagina(0, tamanioPagina, cambiadosDesde);
+        int totalPaginas = primera.getTotalPages() != null ? primera.getTotalPages() : 1;
+
+        List<CompletableFuture<PageMarketingClienteResponse>> resto = new ArrayList<>();
+        for (int page = 1; page < totalPaginas; page++) {
+            int numero = page;
+            resto.add(CompletableFuture.supplyAsync(
+                    () -> apiClient.pagina(numero, tamanioPagina, cambiadosDesde), descargas));
+        }
+
+        List<MarketingClienteDTO> clientes = new ArrayList<>();
+        agregar(clientes, primera);
+        try {
+            for (CompletableFuture<PageMarketingClienteResponse> pagina : resto) {
+                agregar(clientes, pagina.join());
+            }
+        } catch (CompletionException e) {
+            resto.forEach(pagina -> pagina.cancel(true));
+            throw e.getCause() instanceof RuntimeException causa ? causa : e;
+        }
+        return clientes;
+    }
+
+    private static void agregar(List<MarketingClienteDTO> destino, PageMarketingClienteResponse pagina) {
+        if (pagina.getClientes() != null) {
+            destino.addAll(pagina.getClientes());
+        }
+    }
+
+    private void publicar(IndiceClientes nuevo, LocalDateTime inicio, List<MarketingClienteDTO> recibidos) {
+        indice = nuevo;
+        version.incrementAndGet();
+        ultimaSincronizacion = inicio;
+        ultimoError = null;
+        // Marca para la próxima incremental: la fecha de cambio más reciente
+        // que informó Ventas o, si no la envía, el inicio de esta sincronización
+        LocalDateTime masReciente = recibidos.stream()
+                .map(MarketingClienteDTO::getFechaActualizacion)
+                .filter(fecha -> fecha != null)
+                .max(LocalDateTime::compareTo)
+                .orElse(inicio);
+        if (marcaCambios == null || masReciente.isAfter(marcaCambios)) {
+            marcaCambios = masReciente;
+        }
+    }
+
+    private void registrarError(String tipo, RuntimeException e) {
+        ultimoError = LocalDateTime.now() + " " + tipo + ": " + e.getMessage();
+        log.warn("[CLIENTES] Falló la sincronización {} (se mantiene v{} con {} clientes): {}",
+                tipo, version.get(), indice.size(), e.getMessage());
+    }
+
+    public record EstadoReplica(
+            int registros,
+            long version,
+            LocalDateTime ultimaSincronizacion,
+            LocalDateTime ultimaCompleta,
+            LocalDateTime marcaCambios,
+            Long antiguedadSegundos,
+            boolean desactualizada,
+            String ultimoError) {
+    }
+}
@@ -0,0 +1,63 @@
+package pe.unmsm.crm.marketing.segmentacion.infra.retencion;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pe.unmsm.crm.marketing.shared.infra.retencion.DependienteRetencion;
+import pe.unmsm.crm.marketing.shared.infra.retencion.PoliticaRetencion;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Segmentos en estado ELIMINADO sin cambios en {@code app.retencion.segmentos.dias}.
+ *
+ * Se excluyen los segmentos que aún usa una campaña de mailing o telefónica
+ * (sus FK no tienen ON DELETE). Los miembros se borran en trozos de
+ * {@code app.retencion.tamanio-lote-dependientes} filas, cada uno en su
+ * transacción, antes que el segmento, en lugar de caer todos de una vez por
+ * ON DELETE CASCADE.
+ */
+@Component
+public class SegmentosEliminadosRetencion implements PoliticaRetencion {
+
+    @Value("${app.retencion.segmentos.dias:10}")
+    private long dias;
+
+    @Override
+    public String getNombre() {
+        return "segmentos-eliminados";
+    }
+
+    @Override
+    public String getTabla() {
+        return "segmento";
+    }
+
+    @Override
+    public String getColumnaId() {
+        return "id_segmento";
+    }
+
+    @Override
+    public String getColumnaFecha() {
+        return "fecha_actualizacion";
+    }
+
+    @Override
+    public String getCondicion() {
+        return "estado = 'ELIMINADO'" +
+                " AND NOT EXISTS (SELECT 1 FROM campanas_mailing cm WHERE cm.id_segmento = segmento.id_segmento)" +
+                " AND NOT EXISTS (SELECT 1 FROM campania_telefonica ct WHERE ct.id_segmento = segmento.id_segmento)";
+    }
+
+    @Override
+    public Duration getAntiguedad() {
+        return Duration.ofDays(dias);
+    }
+
+    @Override
+    public List<DependienteRetencion> getDependientes() {
+        // segmento_filtro (pocas filas por segmento) cae por ON DELETE CASCADE
+        return List.of(new DependienteRetencion("segmento_miembro", "id_segmento"));
+    }
+}
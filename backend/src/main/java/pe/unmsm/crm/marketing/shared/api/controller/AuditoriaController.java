@@ -0,0 +1,62 @@
+package pe.unmsm.crm.marketing.shared.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import pe.unmsm.crm.marketing.shared.api.dto.PageResponse;
+import pe.unmsm.crm.marketing.shared.logging.AccionLog;
+import pe.unmsm.crm.marketing.shared.logging.AuditoriaEvento;
+import pe.unmsm.crm.marketing.shared.logging.AuditoriaEventoRepository;
+import pe.unmsm.crm.marketing.shared.logging.ModuloLog;
+
+import java.time.LocalDateTime;
+
+/**
+ * Consulta paginada del registro de auditoría.
+ */
+@RestController
+@RequestMapping("/api/v1/auditoria")
+@RequiredArgsConstructor
+public class AuditoriaController {
+
+    private final AuditoriaEventoRepository auditoriaEventoRepository;
+
+    /**
+     * GET /api/v1/auditoria - Buscar eventos por módulo/entidad, usuario y rango de fechas
+     * (desde inclusivo, hasta exclusivo). Más recientes primero.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<PageResponse<AuditoriaEvento>> buscar(
+            @RequestParam(required = false) ModuloLog modulo,
+            @RequestParam(required = false) AccionLog accion,
+            @RequestParam(required = false) Long idEntidad,
+            @RequestParam(required = false) Long idUsuario,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        int safePage = Math.max(page, 0);
+        int safeSize = (size <= 0 || size > 100) ? 20 : size;
+
+        Page<AuditoriaEvento> eventos = auditoriaEventoRepository.buscar(
+                modulo, accion, idEntidad, idUsuario, desde, hasta, PageRequest.of(safePage, safeSize));
+
+        PageResponse<AuditoriaEvento> pageResponse = PageResponse.<AuditoriaEvento>builder()
+                .content(eventos.getContent())
+                .page(eventos.getNumber())
+                .size(eventos.getSize())
+                .totalElements(eventos.getTotalElements())
+                .totalPages(eventos.getTotalPages())
+                .first(eventos.isFirst())
+                .last(eventos.isLast())
+                .build();
+
+        return ResponseEntity.ok(pageResponse);
+    }
+}
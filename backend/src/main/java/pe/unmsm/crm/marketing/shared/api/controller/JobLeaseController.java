@@ -0,0 +1,52 @@
+package pe.unmsm.crm.marketing.shared.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pe.unmsm.crm.marketing.shared.infra.lease.LeaseRepository;
+import pe.unmsm.crm.marketing.shared.utils.ResponseUtils;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Qué instancia posee cada job programado (scheduler_lease).
+ */
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class JobLeaseController {
+
+    private final LeaseRepository leaseRepository;
+
+    /**
+     * GET /api/v1/jobs/leases - Propietario, token de fencing y vigencia por job
+     */
+    @GetMapping("/leases")
+    public ResponseEntity<Map<String, Object>> leases() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Map<String, Object>> leases = leaseRepository.listar().stream().map(lease -> {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("job", lease.nombreJob());
+            fila.put("propietario", lease.propietario());
+            fila.put("tokenFencing", lease.tokenFencing());
+            fila.put("adquiridoEn", lease.adquiridoEn());
+            fila.put("renovadoEn", lease.renovadoEn());
+            fila.put("expiraEn", lease.expiraEn());
+            fila.put("vigente", !lease.expiraEn().isBefore(ahora));
+            fila.put("estaInstancia", leaseRepository.getPropietario().equals(lease.propietario()));
+            return fila;
+        }).toList();
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("instancia", leaseRepository.getPropietario());
+        respuesta.put("leases", leases);
+        return ResponseUtils.success(respuesta, "Leases de jobs programados");
+    }
+}
@@ -0,0 +1,105 @@
+package pe.unmsm.crm.marketing.shared.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import pe.unmsm.crm.marketing.shared.api.dto.PageResponse;
+import pe.unmsm.crm.marketing.shared.infra.outbox.OutboxMensaje;
+import pe.unmsm.crm.marketing.shared.infra.outbox.OutboxRelay;
+import pe.unmsm.crm.marketing.shared.infra.outbox.OutboxRepository;
+import pe.unmsm.crm.marketing.shared.utils.ResponseUtils;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Supervisión del outbox de mensajes salientes: conteos por destino/estado,
+ * estado de los circuitos y dead letter (mensajes FALLIDO).
+ */
+@RestController
+@RequestMapping("/api/v1/outbox")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class OutboxController {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectProvider<OutboxRelay> outboxRelay;
+
+    /**
+     * GET /api/v1/outbox/resumen - Mensajes por destino y estado, y circuitos
+     */
+    @GetMapping("/resumen")
+    public ResponseEntity<Map<String, Object>> resumen() {
+        Map<String, Map<String, Object>> destinos = new LinkedHashMap<>();
+        for (Map<String, Object> fila : outboxRepository.resumen()) {
+            destinos.computeIfAbsent((String) fila.get("destino"), k -> new LinkedHashMap<>())
+                    .put((String) fila.get("estado"), fila.get("total"));
+        }
+
+        Map<String, Object> circuitos = new LinkedHashMap<>();
+        OutboxRelay relay = outboxRelay.getIfAvailable();
+        if (relay != null) {
+            relay.getCircuitos().forEach((destino, circuito) -> circuitos.put(destino, Map.of(
+                    "estado", circuito.getEstado(),
+                    "fallosSeguidos", circuito.getFallosSeguidos())));
+        }
+
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("destinos", destinos);
+        resumen.put("circuitos", circuitos);
+        return ResponseUtils.success(resumen, "Resumen del outbox");
+    }
+
+    /**
+     * GET /api/v1/outbox/fallidos - Dead letter, más recientes primero
+     */
+    @GetMapping("/fallidos")
+    public ResponseEntity<PageResponse<OutboxMensaje>> fallidos(
+            @RequestParam(required = false) String destino,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        int safePage = Math.max(page, 0);
+        int safeSize = (size <= 0 || size > 100) ? 20 : size;
+
+        long total = outboxRepository.contarFallidos(destino);
+        List<OutboxMensaje> contenido = outboxRepository.buscarFallidos(destino, safeSize,
+                (long) safePage * safeSize);
+        int totalPages = (int) ((total + safeSize - 1) / safeSize);
+
+        PageResponse<OutboxMensaje> pageResponse = PageResponse.<OutboxMensaje>builder()
+                .content(contenido)
+                .page(safePage)
+                .size(safeSize)
+                .totalElements(total)
+                .totalPages(totalPages)
+                .first(safePage == 0)
+                .last(safePage >= totalPages - 1)
+                .build();
+
+        return ResponseEntity.ok(pageResponse);
+    }
+
+    /**
+     * POST /api/v1/outbox/{id}/reintentar - Reencola un mensaje fallido
+     */
+    @PostMapping("/{id}/reintentar")
+    public ResponseEntity<Map<String, Object>> reintentar(@PathVariable Long id) {
+        int reencolados = outboxRepository.reencolarFallidos(id, null, LocalDateTime.now());
+        return ResponseUtils.success(Map.of("reencolados", reencolados), "Mensaje reencolado");
+    }
+
+    /**
+     * POST /api/v1/outbox/fallidos/reintentar - Reencola todos los fallidos
+     * (opcionalmente de un destino)
+     */
+    @PostMapping("/fallidos/reintentar")
+    public ResponseEntity<Map<String, Object>> reintentarFallidos(@RequestParam(required = false) String destino) {
+        int reencolados = outboxRepository.reencolarFallidos(null, destino, LocalDateTime.now());
+        return ResponseUtils.success(Map.of("reencolados", reencolados), "Mensajes reencolados");
+    }
+}
@@ -0,0 +1,41 @@
+package pe.unmsm.crm.marketing.shared.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import pe.unmsm.crm.marketing.shared.infra.referencia.RegistroReferencia;
+import pe.unmsm.crm.marketing.shared.utils.ResponseUtils;
+
+import java.util.Map;
+
+/**
+ * Versiones de los catálogos de referencia en memoria y recarga manual.
+ */
+@RestController
+@RequestMapping("/api/v1/referencia")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class ReferenciaController {
+
+    private final RegistroReferencia registroReferencia;
+
+    /**
+     * GET /api/v1/referencia - Versión vigente de cada catálogo
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> versiones() {
+        return ResponseUtils.success(registroReferencia.versiones(), "Versiones de catálogos de referencia");
+    }
+
+    /**
+     * POST /api/v1/referencia/{nombre}/recargar - Recarga en segundo plano
+     */
+    @PostMapping("/{nombre}/recargar")
+    public ResponseEntity<Map<String, Object>> recargar(@PathVariable String nombre) {
+        if (!registroReferencia.solicitarRecarga(nombre)) {
+            return ResponseUtils.error("Catálogo desconocido: " + nombre, 404);
+        }
+        return ResponseUtils.accepted(Map.of("catalogo", nombre), "Recarga programada");
+    }
+}
@@ -0,0 +1,51 @@
+package pe.unmsm.crm.marketing.shared.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pe.unmsm.crm.marketing.shared.api.dto.ReportJobResponse;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService.EstadoJob;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService.ReportJob;
+
+/**
+ * Consulta y descarga de reportes PDF generados en segundo plano.
+ * Los jobs se envían desde los endpoints POST .../jobs de cada módulo.
+ */
+@RestController
+@RequestMapping("/api/v1/reportes/jobs")
+@RequiredArgsConstructor
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    /**
+     * Estado del job
+     * GET /api/v1/reportes/jobs/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJobResponse> obtenerEstado(@PathVariable String id) {
+        return ResponseEntity.ok(ReportJobResponse.from(reportJobService.obtener(id)));
+    }
+
+    /**
+     * Descarga el PDF; 409 si el job aún no terminó o falló
+     * GET /api/v1/reportes/jobs/{id}/descarga
+     */
+    @GetMapping("/{id}/descarga")
+    public ResponseEntity<byte[]> descargar(@PathVariable String id) {
+        ReportJob job = reportJobService.obtener(id);
+        if (job.getEstado() != EstadoJob.COMPLETADO) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", job.getNombreArchivo());
+        headers.setContentLength(job.getContenido().length);
+        return new ResponseEntity<>(job.getContenido(), headers, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,50 @@
+package pe.unmsm.crm.marketing.shared.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService.EstadoJob;
+import pe.unmsm.crm.marketing.shared.services.ReportJobService.ReportJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de un reporte PDF generado en segundo plano.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+
+    private String id;
+    private String tipo;
+
+    /** PENDIENTE, EN_PROCESO, COMPLETADO o ERROR */
+    private String estado;
+
+    private LocalDateTime fechaCreacion;
+    private LocalDateTime fechaFin;
+    private String error;
+
+    /** URL para consultar el estado */
+    private String urlEstado;
+
+    /** URL de descarga (solo cuando el estado es COMPLETADO) */
+    private String urlDescarga;
+
+    public static ReportJobResponse from(ReportJob job) {
+        String base = "/api/v1/reportes/jobs/" + job.getId();
+        return ReportJobResponse.builder()
+                .id(job.getId())
+                .tipo(job.getTipo())
+                .estado(job.getEstado().name())
+                .fechaCreacion(job.getFechaCreacion())
+                .fechaFin(job.getFechaFin())
+                .error(job.getError())
+                .urlEstado(base)
+                .urlDescarga(job.getEstado() == EstadoJob.COMPLETADO ? base + "/descarga" : null)
+                .build();
+    }
+}
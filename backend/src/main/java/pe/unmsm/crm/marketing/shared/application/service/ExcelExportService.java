@@ -2,67 +2,146 @@ package pe.unmsm.crm.marketing.shared.application.service;
 
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
 
 /**
  * Generic Excel export service for creating Excel files from any type of data
  * Provides reusable functionality for Excel generation across the application
+ *
+ * Exports are streamed: rows are pulled from an Iterator (typically a
+ * KeysetIterator over the database) and written straight to the output, so
+ * heap usage stays flat regardless of the number of rows.
  */
 @Service
 @RequiredArgsConstructor
 public class ExcelExportService {
 
     /**
-     * Exports a list of data to Excel format
-     * 
-     * @param data   List of objects to export
+     * Rows kept in memory by SXSSF before flushing to the temp file
+     */
+    private static final int ROW_ACCESS_WINDOW = 100;
+
+    private static final int DEFAULT_COLUMN_WIDTH = 15;
+    private static final int MAX_COLUMN_WIDTH = 60;
+
+    /**
+     * Exports data to Excel format, writing directly to the given stream
+     *
+     * @param data   Rows to export, consumed once
      * @param config Configuration for Excel generation
+     * @param out    Destination stream (not closed)
      * @param <T>    Type of data being exported
-     * @return Byte array containing the Excel file
      * @throws IOException if Excel generation fails
      */
-    public <T> byte[] exportToExcel(List<T> data, ExcelConfig<T> config) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    public <T> void exportToExcel(Iterator<T> data, ExcelConfig<T> config, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = createStreamingWorkbook();
+        try {
             Sheet sheet = workbook.createSheet(config.getSheetName());
+            writeTable(sheet, 0, data, config.getColumns(), createHeaderStyle(workbook));
+            workbook.write(out);
+        } finally {
+            disposeWorkbook(workbook);
+        }
+    }
 
-            // Create header style
-            CellStyle headerStyle = createHeaderStyle(workbook);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            List<ColumnConfig<T>> columns = config.getColumns();
-
-            for (int i = 0; i < columns.size(); i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns.get(i).getHeader());
-                cell.setCellStyle(headerStyle);
+    /**
+     * Exports data to CSV (UTF-8 with BOM so Excel detects the encoding).
+     * Text cells starting with =, +, -, @, tab or carriage return are prefixed
+     * with ' so spreadsheet apps do not evaluate them as formulas.
+     *
+     * @param data   Rows to export, consumed once
+     * @param config Configuration (sheet name is ignored)
+     * @param out    Destination stream (flushed, not closed)
+     * @param <T>    Type of data being exported
+     * @throws IOException if writing fails
+     */
+    public <T> void exportToCsv(Iterator<T> data, ExcelConfig<T> config, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+
+        List<ColumnConfig<T>> columns = config.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
             }
+            writer.write(escapeCsv(columns.get(i).getHeader()));
+        }
+        writer.write("\r\n");
 
-            // Fill data rows
-            int rowNum = 1;
-            for (T item : data) {
-                Row row = sheet.createRow(rowNum++);
-                for (int i = 0; i < columns.size(); i++) {
-                    Cell cell = row.createCell(i);
-                    Object value = columns.get(i).getValueExtractor().apply(item);
-                    setCellValue(cell, value);
+        while (data.hasNext()) {
+            T item = data.next();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
                 }
+                Object value = columns.get(i).getValueExtractor().apply(item);
+                writer.write(value == null ? "" : escapeCsv(csvValue(value)));
             }
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
 
-            // Auto-size columns
+    /**
+     * Creates a streaming workbook (compressed temp files).
+     * Callers must release it with {@link #disposeWorkbook(SXSSFWorkbook)}.
+     */
+    public SXSSFWorkbook createStreamingWorkbook() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
+
+    /**
+     * Deletes the temp files backing the workbook and closes it
+     */
+    public void disposeWorkbook(SXSSFWorkbook workbook) throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    /**
+     * Writes a header row plus one row per item starting at startRow.
+     * Column widths come from each ColumnConfig (no autoSizeColumn, which
+     * would need every row in memory).
+     *
+     * @return index of the next free row
+     */
+    public <T> int writeTable(Sheet sheet, int startRow, Iterator<T> data, List<ColumnConfig<T>> columns,
+            CellStyle headerStyle) {
+        for (int i = 0; i < columns.size(); i++) {
+            sheet.setColumnWidth(i, Math.min(columns.get(i).getWidth(), MAX_COLUMN_WIDTH) * 256);
+        }
+
+        int rowNum = startRow;
+        Row headerRow = sheet.createRow(rowNum++);
+        for (int i = 0; i < columns.size(); i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(columns.get(i).getHeader());
+            cell.setCellStyle(headerStyle);
+        }
+
+        while (data.hasNext()) {
+            T item = data.next();
+            Row row = sheet.createRow(rowNum++);
             for (int i = 0; i < columns.size(); i++) {
-                sheet.autoSizeColumn(i);
+                Cell cell = row.createCell(i);
+                Object value = columns.get(i).getValueExtractor().apply(item);
+                setCellValue(cell, value);
             }
-
-            workbook.write(out);
-            return out.toByteArray();
         }
+        return rowNum;
     }
 
     /**
@@ -80,6 +159,22 @@ public class ExcelExportService {
         }
     }
 
+    private static String csvValue(Object value) {
+        String text = value.toString();
+        if (!(value instanceof Number) && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            return "'" + text;
+        }
+        return text;
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
     /**
      * Creates the default header cell style
      */
@@ -130,10 +225,19 @@ public class ExcelExportService {
     public static class ColumnConfig<T> {
         private final String header;
         private final Function<T, Object> valueExtractor;
+        private final int width;
 
         public ColumnConfig(String header, Function<T, Object> valueExtractor) {
+            this(header, valueExtractor, Math.max(DEFAULT_COLUMN_WIDTH, header.length() + 2));
+        }
+
+        /**
+         * @param width column width in characters
+         */
+        public ColumnConfig(String header, Function<T, Object> valueExtractor, int width) {
             this.header = header;
             this.valueExtractor = valueExtractor;
+            this.width = width;
         }
 
         public String getHeader() {
@@ -143,5 +247,9 @@ public class ExcelExportService {
         public Function<T, Object> getValueExtractor() {
             return valueExtractor;
         }
+
+        public int getWidth() {
+            return width;
+        }
     }
 }
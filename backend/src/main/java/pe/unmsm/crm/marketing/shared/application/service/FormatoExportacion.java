@@ -0,0 +1,36 @@
+package pe.unmsm.crm.marketing.shared.application.service;
+
+import lombok.Getter;
+
+/**
+ * Formatos de archivo soportados por las exportaciones
+ */
+@Getter
+public enum FormatoExportacion {
+
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    CSV("csv", "text/csv; charset=UTF-8");
+
+    private final String extension;
+    private final String contentType;
+
+    FormatoExportacion(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Resuelve el formato a partir del parámetro de la petición (xlsx por defecto)
+     */
+    public static FormatoExportacion desde(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return XLSX;
+        }
+        for (FormatoExportacion formato : values()) {
+            if (formato.extension.equalsIgnoreCase(valor.trim())) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato de exportación no soportado: " + valor);
+    }
+}
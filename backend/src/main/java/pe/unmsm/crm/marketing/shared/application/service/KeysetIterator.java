@@ -0,0 +1,63 @@
+package pe.unmsm.crm.marketing.shared.application.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Recorre una consulta paginada por clave (WHERE id > :ultimoId ORDER BY id LIMIT n).
+ *
+ * Solo mantiene en memoria la página actual; la siguiente se pide cuando se
+ * agota. A diferencia de OFFSET, el costo de cada página no crece con la
+ * posición.
+ *
+ * @param <T> tipo de fila
+ */
+public class KeysetIterator<T> implements Iterator<T> {
+
+    private final Function<Long, List<T>> siguientePagina;
+    private final Function<T, Long> clave;
+    private final int tamanioPagina;
+
+    private List<T> pagina = List.of();
+    private int posicion;
+    private long ultimoId;
+    private boolean agotado;
+
+    /**
+     * @param siguientePagina consulta que recibe el último id leído (0 al inicio)
+     * @param clave           extrae el id (orden ascendente) de cada fila
+     * @param tamanioPagina   límite usado por la consulta; una página menor indica el final
+     */
+    public KeysetIterator(Function<Long, List<T>> siguientePagina, Function<T, Long> clave, int tamanioPagina) {
+        this.siguientePagina = siguientePagina;
+        this.clave = clave;
+        this.tamanioPagina = tamanioPagina;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (posicion < pagina.size()) {
+            return true;
+        }
+        if (agotado) {
+            return false;
+        }
+
+        pagina = siguientePagina.apply(ultimoId);
+        posicion = 0;
+        agotado = pagina.size() < tamanioPagina;
+        return !pagina.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T fila = pagina.get(posicion++);
+        ultimoId = clave.apply(fila);
+        return fila;
+    }
+}
@@ -0,0 +1,252 @@
+package pe.unmsm.crm.marketing.shared.application.service;
+
+import pe.unmsm.crm.marketing.shared.domain.model.Departamento;
+import pe.unmsm.crm.marketing.shared.domain.model.Distrito;
+import pe.unmsm.crm.marketing.shared.domain.model.Provincia;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Índice inmutable de ubigeo (departamento → provincia → distrito) en memoria.
+ *
+ * Se arma una sola vez a partir de los distritos con su provincia y
+ * departamento ya cargados; todas las búsquedas responden sin consultar la BD
+ * y devuelven las mismas instancias de {@link Distrito}.
+ *
+ * - Por ID: mapa id → distrito
+ * - Por ruta "Distrito, Provincia, Departamento": mapa por nombres
+ *   normalizados (sin tildes, mayúsculas, espacios colapsados)
+ * - Aproximada: si la ruta exacta no existe se resuelve nivel por nivel con
+ *   distancia de edición acotada; solo se acepta un candidato único
+ */
+public final class UbigeoIndex {
+
+    private static final String SEPARADOR_RUTA = "|";
+
+    private final Map<String, Distrito> distritosPorId;
+    private final Map<String, Distrito> distritosPorRuta;
+    private final Map<String, List<Departamento>> departamentosPorNombre;
+    private final Map<String, List<Provincia>> provinciasPorDepartamento;
+    private final Map<String, List<Distrito>> distritosPorProvincia;
+    // Nombre normalizado por id de distrito y por "P" + id de provincia
+    private final Map<String, String> nombresNormalizados;
+
+    private UbigeoIndex(Collection<Distrito> distritos) {
+        Map<String, Distrito> porId = new HashMap<>();
+        Map<String, Distrito> porRuta = new HashMap<>();
+        Map<String, Departamento> departamentos = new HashMap<>();
+        Map<String, Provincia> provincias = new HashMap<>();
+        Map<String, List<Distrito>> porProvincia = new HashMap<>();
+        Map<String, String> normalizados = new HashMap<>();
+
+        for (Distrito distrito : distritos) {
+            Provincia provincia = distrito.getProvincia();
+            Departamento departamento = provincia != null ? provincia.getDepartamento() : null;
+            porId.put(distrito.getId(), distrito);
+            normalizados.put(distrito.getId(), normalizar(distrito.getNombre()));
+            if (provincia == null || departamento == null) {
+                continue;
+            }
+            provincias.putIfAbsent(provincia.getId(), provincia);
+            departamentos.putIfAbsent(departamento.getId(), departamento);
+            normalizados.putIfAbsent("P" + provincia.getId(), normalizar(provincia.getNombre()));
+            porProvincia.computeIfAbsent(provincia.getId(), k -> new ArrayList<>()).add(distrito);
+            porRuta.putIfAbsent(ruta(normalizar(distrito.getNombre()), normalizar(provincia.getNombre()),
+                    normalizar(departamento.getNombre())), distrito);
+        }
+
+        Map<String, List<Departamento>> depPorNombre = new HashMap<>();
+        departamentos.values().forEach(dep -> depPorNombre
+                .computeIfAbsent(normalizar(dep.getNombre()), k -> new ArrayList<>()).add(dep));
+        Map<String, List<Provincia>> provPorDep = new HashMap<>();
+        provincias.values().forEach(prov -> provPorDep
+                .computeIfAbsent(prov.getDepartamentoId(), k -> new ArrayList<>()).add(prov));
+
+        this.distritosPorId = Map.copyOf(porId);
+        this.distritosPorRuta = Map.copyOf(porRuta);
+        this.departamentosPorNombre = copiar(depPorNombre);
+        this.provinciasPorDepartamento = copiar(provPorDep);
+        this.distritosPorProvincia = copiar(porProvincia);
+        this.nombresNormalizados = Map.copyOf(normalizados);
+    }
+
+    /**
+     * @param distritos distritos con provincia y departamento inicializados
+     */
+    public static UbigeoIndex de(Collection<Distrito> distritos) {
+        return new UbigeoIndex(distritos);
+    }
+
+    public int size() {
+        return distritosPorId.size();
+    }
+
+    public Optional<Distrito> porId(String distritoId) {
+        return distritoId == null ? Optional.empty() : Optional.ofNullable(distritosPorId.get(distritoId.trim()));
+    }
+
+    /**
+     * Ruta exacta (salvo tildes, mayúsculas y espacios).
+     */
+    public Optional<Distrito> porRuta(String distrito, String provincia, String departamento) {
+        return Optional.ofNullable(distritosPorRuta.get(
+                ruta(normalizar(distrito), normalizar(provincia), normalizar(departamento))));
+    }
+
+    /**
+     * Ruta exacta y, si no existe, aproximada por distancia de edición.
+     */
+    public Optional<Distrito> porRutaAproximada(String distrito, String provincia, String departamento) {
+        Optional<Distrito> exacto = porRuta(distrito, provincia, departamento);
+        if (exacto.isPresent()) {
+            return exacto;
+        }
+
+        Departamento dep = unico(departamentosPorNombre.keySet(), normalizar(departamento),
+                departamentosPorNombre::get);
+        if (dep == null) {
+            return Optional.empty();
+        }
+        List<Provincia> provincias = provinciasPorDepartamento.getOrDefault(dep.getId(), List.of());
+        Provincia prov = masCercano(provincias, normalizar(provincia), p -> nombresNormalizados.get("P" + p.getId()));
+        if (prov == null) {
+            return Optional.empty();
+        }
+        List<Distrito> distritos = distritosPorProvincia.getOrDefault(prov.getId(), List.of());
+        return Optional.ofNullable(masCercano(distritos, normalizar(distrito), d -> nombresNormalizados.get(d.getId())));
+    }
+
+    /**
+     * Acepta un ID de 6 dígitos o "Distrito, Provincia, Departamento".
+     */
+    public Optional<Distrito> resolver(String idOCadena) {
+        if (idOCadena == null || idOCadena.isBlank()) {
+            return Optional.empty();
+        }
+        String[] partes = idOCadena.split(",");
+        if (partes.length == 1) {
+            return porId(partes[0]);
+        }
+        if (partes.length < 3) {
+            return Optional.empty();
+        }
+        return porRutaAproximada(partes[0], partes[1], partes[2]);
+    }
+
+    /**
+     * Nombres del distrito, su provincia y departamento (claves distrito,
+     * provincia, departamento); vacío si el ID no existe.
+     */
+    public Map<String, String> nombres(String distritoId) {
+        Distrito distrito = distritoId != null ? distritosPorId.get(distritoId) : null;
+        if (distrito == null) {
+            return new HashMap<>();
+        }
+        Map<String, String> resultado = new HashMap<>();
+        resultado.put("distrito", distrito.getNombre());
+        Provincia provincia = distrito.getProvincia();
+        if (provincia != null) {
+            resultado.put("provincia", provincia.getNombre());
+            if (provincia.getDepartamento() != null) {
+                resultado.put("departamento", provincia.getDepartamento().getNombre());
+            }
+        }
+        return resultado;
+    }
+
+    static String normalizar(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        String sinTildes = Normalizer.normalize(valor, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return sinTildes.trim().replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Distancia de edición tolerada según el largo del nombre buscado.
+     */
+    static int tolerancia(String nombre) {
+        return nombre.length() <= 4 ? 0 : nombre.length() <= 8 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein con corte: devuelve {@code maximo + 1} en cuanto se supera.
+     */
+    static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[] previa = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previa[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, previa[j] + 1), previa[j - 1] + costo);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > maximo) {
+                return maximo + 1;
+            }
+            int[] tmp = previa;
+            previa = actual;
+            actual = tmp;
+        }
+        return previa[b.length()];
+    }
+
+    private static <T> T masCercano(List<T> candidatos, String buscado,
+            Function<T, String> nombre) {
+        int maximo = tolerancia(buscado);
+        T mejor = null;
+        int mejorDistancia = maximo + 1;
+        boolean empate = false;
+        for (T candidato : candidatos) {
+            int d = distancia(buscado, nombre.apply(candidato), maximo);
+            if (d < mejorDistancia) {
+                mejor = candidato;
+                mejorDistancia = d;
+                empate = false;
+            } else if (d == mejorDistancia && d <= maximo) {
+                empate = true;
+            }
+        }
+        return empate ? null : mejor;
+    }
+
+    private static <T> T unico(Collection<String> nombresNormalizados, String buscado,
+            Function<String, List<T>> porNombre) {
+        List<T> exactos = porNombre.apply(buscado);
+        if (exactos != null) {
+            return exactos.size() == 1 ? exactos.get(0) : null;
+        }
+        String nombre = masCercano(new ArrayList<>(nombresNormalizados), buscado, n -> n);
+        if (nombre == null) {
+            return null;
+        }
+        List<T> aproximados = porNombre.apply(nombre);
+        return aproximados.size() == 1 ? aproximados.get(0) : null;
+    }
+
+    private static String ruta(String distrito, String provincia, String departamento) {
+        return distrito + SEPARADOR_RUTA + provincia + SEPARADOR_RUTA + departamento;
+    }
+
+    private static <K, V> Map<K, List<V>> copiar(Map<K, List<V>> mapa) {
+        Map<K, List<V>> copia = new HashMap<>();
+        mapa.forEach((clave, valores) -> copia.put(clave, List.copyOf(valores)));
+        return Map.copyOf(copia);
+    }
+}
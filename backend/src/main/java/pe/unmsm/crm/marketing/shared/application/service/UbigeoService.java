@@ -2,13 +2,24 @@ package pe.unmsm.crm.marketing.shared.application.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import pe.unmsm.crm.marketing.shared.domain.model.Distrito;
 import pe.unmsm.crm.marketing.shared.domain.repository.DistritoRepository;
 
-import org.springframework.cache.annotation.Cacheable;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Resolución de ubigeo sobre {@link UbigeoIndex}.
+ *
+ * El índice se carga una vez (una consulta con JOIN FETCH) al arrancar o en el
+ * primer uso; desde ahí las búsquedas no tocan la BD y pueden usarse por lote
+ * desde la importación y la captura web. {@link #recargar()} lo reemplaza
+ * completo si cambian las tablas de ubigeo.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -16,65 +27,65 @@ public class UbigeoService {
 
     private final DistritoRepository distRepo;
 
-    @Cacheable("ubigeo_nombres")
-    public Map<String, String> obtenerNombresUbigeo(String distritoId) {
-        if (distritoId == null || distritoId.length() != 6) {
-            return new HashMap<>();
-        }
-
-        // OPTIMIZACIÓN: Una sola consulta para traer todo
-        Map<String, String> result = distRepo.findNombresCompletos(distritoId);
+    private volatile UbigeoIndex indice;
 
-        return result != null ? result : new HashMap<>();
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        indice();
     }
 
-    public String buscarUbigeoPorCadena(String cadenaDireccion) {
-        log.info("🔍 [UBIGEO] Buscando ubicación para: '{}'", cadenaDireccion);
-
-        if (cadenaDireccion == null || cadenaDireccion.isEmpty()) {
-            log.warn("⚠️ [UBIGEO] Cadena de dirección vacía o nula");
-            return null;
+    public UbigeoIndex indice() {
+        UbigeoIndex actual = indice;
+        if (actual == null) {
+            synchronized (this) {
+                actual = indice;
+                if (actual == null) {
+                    actual = cargar();
+                    indice = actual;
+                }
+            }
         }
+        return actual;
+    }
 
-        // Separar por comas (ej: "Miraflores, Lima, Lima")
-        String[] partes = cadenaDireccion.split(",");
-        log.debug("📍 [UBIGEO] Partes separadas: {} parte(s)", partes.length);
+    public synchronized void recargar() {
+        indice = cargar();
+    }
 
-        // Si no tiene 3 partes, intentamos buscar solo por distrito si es único
-        // (opcional, pero mejor ser estricto por ahora)
-        // O si el usuario envía solo el ID, lo validamos
-        if (partes.length == 1) {
-            String posibleId = partes[0].trim();
-            log.debug("🔢 [UBIGEO] Verificando si '{}' es un ID de 6 dígitos", posibleId);
-            if (posibleId.matches("\\d{6}") && distRepo.existsById(posibleId)) {
-                log.info("✅ [UBIGEO] ID válido encontrado: {}", posibleId);
-                return posibleId;
-            }
-            log.warn("❌ [UBIGEO] No es un ID válido de 6 dígitos o no existe en BD");
-            return null; // No es un ID válido y no tiene formato de dirección completa
+    public Map<String, String> obtenerNombresUbigeo(String distritoId) {
+        if (distritoId == null || distritoId.length() != 6) {
+            return new HashMap<>();
         }
+        return indice().nombres(distritoId);
+    }
 
-        if (partes.length < 3) {
-            log.warn("❌ [UBIGEO] Formato incompleto: se requieren 3 partes (Distrito, Provincia, Departamento)");
-            return null; // Formato incompleto
-        }
+    /**
+     * Distrito precargado por ID, sin consulta.
+     */
+    public Optional<Distrito> buscarDistrito(String distritoId) {
+        return indice().porId(distritoId);
+    }
 
-        String distritoNombre = partes[0].trim();
-        String provinciaNombre = partes[1].trim();
-        String departamentoNombre = partes[2].trim();
+    /**
+     * Resuelve un ID de 6 dígitos o "Distrito, Provincia, Departamento" (con
+     * tolerancia a tildes, mayúsculas y errores de tipeo menores).
+     */
+    public Optional<Distrito> resolverDistrito(String cadenaDireccion) {
+        Optional<Distrito> distrito = indice().resolver(cadenaDireccion);
+        if (distrito.isEmpty()) {
+            log.debug("[UBIGEO] No se encontró ubicación para: '{}'", cadenaDireccion);
+        }
+        return distrito;
+    }
 
-        log.info("📋 [UBIGEO] Buscando: Distrito='{}', Provincia='{}', Departamento='{}'",
-                distritoNombre, provinciaNombre, departamentoNombre);
+    public String buscarUbigeoPorCadena(String cadenaDireccion) {
+        return resolverDistrito(cadenaDireccion).map(Distrito::getId).orElse(null);
+    }
 
-        // 1. OPTIMIZACIÓN: Usar una sola consulta con JOINs
-        return distRepo.findIdByNombres(distritoNombre, provinciaNombre, departamentoNombre)
-                .map(id -> {
-                    log.info("✅ [UBIGEO] Ubicación encontrada: {} -> ID: {}", cadenaDireccion, id);
-                    return id;
-                })
-                .orElseGet(() -> {
-                    log.warn("❌ [UBIGEO] No se encontró ubicación exacta para: '{}'", cadenaDireccion);
-                    return null;
-                });
+    private UbigeoIndex cargar() {
+        long inicio = System.currentTimeMillis();
+        UbigeoIndex nuevo = UbigeoIndex.de(distRepo.findAllConProvinciaYDepartamento());
+        log.info("[UBIGEO] Índice cargado: {} distritos en {} ms", nuevo.size(), System.currentTimeMillis() - inicio);
+        return nuevo;
     }
 }
@@ -1,9 +1,138 @@
 package pe.unmsm.crm.marketing.shared.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import pe.unmsm.crm.marketing.shared.infra.async.DecoradorTareas;
+import pe.unmsm.crm.marketing.shared.infra.async.PoliticaRechazo;
 
+import java.util.concurrent.Executor;
+
+/**
+ * Ejecutores de @Async separados por tipo de carga, para que una importación
+ * pesada no deje sin hilos a las actualizaciones de métricas por webhook:
+ *
+ * - {@link #EJECUTOR_CPU}: trabajo de cómputo largo (importaciones, índice de
+ *   búsqueda). Pocos hilos; con la cola llena rechaza.
+ * - {@link #EJECUTOR_IO}: llamadas bloqueantes a servicios externos
+ *   (transcripción, almacenamiento). Con {@code app.async.io.virtual=true} y
+ *   JDK 21+ usa hilos virtuales limitados a {@code hilos} tareas simultáneas
+ *   (al llegar al límite el que encola espera). Es también el ejecutor por
+ *   defecto de los @Async sin nombre.
+ * - {@link #EJECUTOR_LATENCIA}: tareas cortas sensibles a latencia
+ *   (observers de mailing). Con la cola llena corre en el hilo que encola.
+ * - {@link #EJECUTOR_ENVIOS}: envíos de campañas de mailing (largos), fuera
+ *   del TaskScheduler para no dejar sin hilos a los @Scheduled. Con la cola
+ *   llena rechaza; el barrido de mailing retoma el envío.
+ *
+ * Por ejecutor: {@code app.async.<cpu|io|latencia|envios>.hilos}, {@code .capacidad}
+ * y {@code .politica} (RECHAZAR | EJECUTAR_EN_LLAMADOR).
+ *
+ * Todos propagan MDC y contexto de seguridad y publican async.ejecutor.activos,
+ * async.ejecutor.cola, async.ejecutor.rechazos, async.tareas.espera y
+ * async.tareas.ejecucion con tag ejecutor.
+ */
 @Configuration
 @EnableAsync
-public class AsyncConfig {
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    public static final String EJECUTOR_CPU = "ejecutorCpu";
+    public static final String EJECUTOR_IO = "ejecutorIo";
+    public static final String EJECUTOR_LATENCIA = "ejecutorLatencia";
+    public static final String EJECUTOR_ENVIOS = "ejecutorEnvios";
+
+    private final Environment environment;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public AsyncConfig(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean(name = EJECUTOR_CPU)
+    public ThreadPoolTaskExecutor ejecutorCpu() {
+        return crearPool("cpu", Runtime.getRuntime().availableProcessors(), 50, PoliticaRechazo.RECHAZAR);
+    }
+
+    @Bean(name = EJECUTOR_IO)
+    public AsyncTaskExecutor ejecutorIo() {
+        int hilos = propiedad("io", "hilos", Integer.class, 16);
+        if (propiedad("io", "virtual", Boolean.class, false)) {
+            if (Runtime.version().feature() >= 21) {
+                SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("async-io-");
+                virtual.setVirtualThreads(true);
+                virtual.setConcurrencyLimit(hilos);
+                virtual.setTaskDecorator(new DecoradorTareas("io", meterRegistry.getObject()));
+                log.info("[ASYNC] Ejecutor io con hilos virtuales (máx. {} tareas simultáneas)", hilos);
+                return virtual;
+            }
+            log.warn("[ASYNC] app.async.io.virtual requiere JDK 21+ (actual {}); se usa un pool de hilos",
+                    Runtime.version().feature());
+        }
+        return crearPool("io", 16, 200, PoliticaRechazo.RECHAZAR);
+    }
+
+    @Bean(name = EJECUTOR_LATENCIA)
+    public ThreadPoolTaskExecutor ejecutorLatencia() {
+        return crearPool("latencia", 4, 1000, PoliticaRechazo.EJECUTAR_EN_LLAMADOR);
+    }
+
+    @Bean(name = EJECUTOR_ENVIOS)
+    public ThreadPoolTaskExecutor ejecutorEnvios() {
+        return crearPool("envios", 2, 100, PoliticaRechazo.RECHAZAR);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return ejecutorIo();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, metodo, parametros) -> log.error("[ASYNC] Error no controlado en {}.{}: {}",
+                metodo.getDeclaringClass().getSimpleName(), metodo.getName(), ex.getMessage(), ex);
+    }
+
+    private ThreadPoolTaskExecutor crearPool(String nombre, int hilosPorDefecto, int capacidadPorDefecto,
+            PoliticaRechazo politicaPorDefecto) {
+        MeterRegistry registry = meterRegistry.getObject();
+        int hilos = propiedad(nombre, "hilos", Integer.class, hilosPorDefecto);
+        int capacidad = propiedad(nombre, "capacidad", Integer.class, capacidadPorDefecto);
+        PoliticaRechazo politica = propiedad(nombre, "politica", PoliticaRechazo.class, politicaPorDefecto);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("async-" + nombre + "-");
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(capacidad);
+        executor.setRejectedExecutionHandler(politica.handler(nombre, registry));
+        executor.setTaskDecorator(new DecoradorTareas(nombre, registry));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        Gauge.builder("async.ejecutor.cola", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .tag("ejecutor", nombre)
+                .register(registry);
+        Gauge.builder("async.ejecutor.hilos", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .tag("ejecutor", nombre)
+                .register(registry);
+
+        log.info("[ASYNC] Ejecutor {}: {} hilos, cola {}, política {}", nombre, hilos, capacidad, politica);
+        return executor;
+    }
+
+    private <T> T propiedad(String ejecutor, String clave, Class<T> tipo, T porDefecto) {
+        return environment.getProperty("app.async." + ejecutor + "." + clave, tipo, porDefecto);
+    }
 }
@@ -30,4 +30,8 @@ public interface DistritoRepository extends JpaRepository<Distrito, String> {
         java.util.Optional<String> findIdByNombres(@Param("distrito") String distrito,
                         @Param("provincia") String provincia,
                         @Param("departamento") String departamento);
+
+        // Carga completa para el índice de ubigeo en memoria (UbigeoIndex)
+        @Query("SELECT d FROM Distrito d JOIN FETCH d.provincia p JOIN FETCH p.departamento")
+        List<Distrito> findAllConProvinciaYDepartamento();
 }
@@ -0,0 +1,67 @@
+package pe.unmsm.crm.marketing.shared.infra.async;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decorador de las tareas de un ejecutor asíncrono:
+ * - propaga el MDC y el contexto de seguridad del hilo que encola
+ * - mide la espera en cola (async.tareas.espera) y la ejecución
+ *   (async.tareas.ejecucion)
+ * - lleva la cuenta de tareas en ejecución (gauge async.ejecutor.activos)
+ */
+public class DecoradorTareas implements TaskDecorator {
+
+    private final Timer espera;
+    private final Timer ejecucion;
+    private final AtomicInteger activas = new AtomicInteger();
+
+    public DecoradorTareas(String ejecutor, MeterRegistry meterRegistry) {
+        this.espera = Timer.builder("async.tareas.espera").tag("ejecutor", ejecutor).register(meterRegistry);
+        this.ejecucion = Timer.builder("async.tareas.ejecucion").tag("ejecutor", ejecutor).register(meterRegistry);
+        meterRegistry.gauge("async.ejecutor.activos", Tags.of("ejecutor", ejecutor), activas);
+    }
+
+    @Override
+    public Runnable decorate(Runnable tarea) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        long encolada = System.nanoTime();
+
+        Runnable medida = () -> {
+            long inicio = System.nanoTime();
+            espera.record(inicio - encolada, TimeUnit.NANOSECONDS);
+            Map<String, String> mdcAnterior = MDC.getCopyOfContextMap();
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            } else {
+                MDC.clear();
+            }
+            activas.incrementAndGet();
+            try {
+                tarea.run();
+            } finally {
+                activas.decrementAndGet();
+                ejecucion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                // Con caller-runs la tarea corre en el hilo que encola: se restaura su MDC
+                if (mdcAnterior != null) {
+                    MDC.setContextMap(mdcAnterior);
+                } else {
+                    MDC.clear();
+                }
+            }
+        };
+        return new DelegatingSecurityContextRunnable(medida);
+    }
+
+    public int getActivas() {
+        return activas.get();
+    }
+}
@@ -0,0 +1,34 @@
+package pe.unmsm.crm.marketing.shared.infra.async;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Qué hacer cuando la cola de un ejecutor está llena.
+ *
+ * - RECHAZAR: lanza TaskRejectedException al que encola (el llamador decide)
+ * - EJECUTAR_EN_LLAMADOR: la tarea corre en el hilo que encola, lo que frena
+ *   al productor sin perder la tarea
+ */
+public enum PoliticaRechazo {
+    RECHAZAR,
+    EJECUTAR_EN_LLAMADOR;
+
+    /**
+     * Handler que cuenta cada rechazo (async.ejecutor.rechazos) antes de aplicar la política.
+     */
+    public RejectedExecutionHandler handler(String ejecutor, MeterRegistry meterRegistry) {
+        Counter rechazos = meterRegistry.counter("async.ejecutor.rechazos", "ejecutor", ejecutor,
+                "politica", name());
+        RejectedExecutionHandler delegado = this == RECHAZAR
+                ? new ThreadPoolExecutor.AbortPolicy()
+                : new ThreadPoolExecutor.CallerRunsPolicy();
+        return (tarea, executor) -> {
+            rechazos.increment();
+            delegado.rejectedExecution(tarea, executor);
+        };
+    }
+}
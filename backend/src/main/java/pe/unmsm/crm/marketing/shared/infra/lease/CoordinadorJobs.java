@@ -0,0 +1,120 @@
+package pe.unmsm.crm.marketing.shared.infra.lease;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Ejecuta jobs programados en una sola instancia del clúster.
+ *
+ * {@link #ejecutar} adquiere el lease del job en scheduler_lease; si otra
+ * instancia lo posee, omite la ejecución. Mientras la tarea corre, un hilo de
+ * heartbeat renueva el lease cada ttl/3; si la renovación falla porque otra
+ * instancia lo tomó, el {@link LeaseJob} queda marcado como perdido y su
+ * siguiente {@link LeaseJob#verificar()} lanza {@link LeaseVencidoException}.
+ *
+ * Al terminar el lease no se libera: se deja expirar, así un job por cron que
+ * se dispara con unos segundos de diferencia en otra instancia no se repite.
+ *
+ * Uso:
+ * <pre>
+ * coordinadorJobs.ejecutar("mi-job", Duration.ofMinutes(5), lease -> {
+ *     ...
+ *     transactionTemplate.executeWithoutResult(s -> { lease.verificar(); ... });
+ * });
+ * </pre>
+ */
+@Component
+@Slf4j
+public class CoordinadorJobs {
+
+    private final LeaseRepository leaseRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> enCurso = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "CoordinadorJobs-heartbeat");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public CoordinadorJobs(LeaseRepository leaseRepository, MeterRegistry meterRegistry) {
+        this.leaseRepository = leaseRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PreDestroy
+    public void detener() {
+        heartbeat.shutdownNow();
+    }
+
+    /**
+     * Ejecuta {@code tarea} si esta instancia obtiene el lease de {@code nombreJob}.
+     *
+     * @return true si la tarea se ejecutó aquí (aunque haya perdido el lease a mitad)
+     */
+    public boolean ejecutar(String nombreJob, Duration ttl, Consumer<LeaseJob> tarea) {
+        if (!enCurso.add(nombreJob)) {
+            log.debug("[JOBS] {} ya está en curso en esta instancia, omitiendo", nombreJob);
+            contar(nombreJob, "en_curso");
+            return false;
+        }
+        try {
+            OptionalLong token = leaseRepository.adquirirConToken(nombreJob, ttl);
+            if (token.isEmpty()) {
+                log.debug("[JOBS] {} activo en otra instancia, omitiendo", nombreJob);
+                contar(nombreJob, "omitido");
+                return false;
+            }
+
+            LeaseJob lease = new LeaseJob(leaseRepository, nombreJob, token.getAsLong());
+            long periodoMs = Math.max(ttl.toMillis() / 3, 1);
+            ScheduledFuture<?> latido = heartbeat.scheduleWithFixedDelay(
+                    () -> renovar(lease, ttl), periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+            contar(nombreJob, "ejecutado");
+            try {
+                tarea.accept(lease);
+            } catch (LeaseVencidoException e) {
+                log.warn("[JOBS] {} perdió el lease (token {}) durante la ejecución; se detiene",
+                        nombreJob, lease.getToken());
+                contar(nombreJob, "perdido");
+            } finally {
+                latido.cancel(false);
+            }
+            return true;
+        } finally {
+            enCurso.remove(nombreJob);
+        }
+    }
+
+    private void renovar(LeaseJob lease, Duration ttl) {
+        if (lease.isPerdido()) {
+            return;
+        }
+        try {
+            if (!leaseRepository.renovar(lease.getNombreJob(), lease.getToken(), ttl)) {
+                lease.marcarPerdido();
+                log.warn("[JOBS] {}: otra instancia tomó el lease (token {} ya no vigente)",
+                        lease.getNombreJob(), lease.getToken());
+            }
+        } catch (Exception e) {
+            // Si la BD no responde el lease puede expirar; verificar() lo detecta
+            log.warn("[JOBS] {}: no se pudo renovar el lease: {}", lease.getNombreJob(), e.getMessage());
+        }
+    }
+
+    private void contar(String nombreJob, String resultado) {
+        meterRegistry.counter("jobs.lease.ejecuciones", "job", nombreJob, "resultado", resultado).increment();
+    }
+}
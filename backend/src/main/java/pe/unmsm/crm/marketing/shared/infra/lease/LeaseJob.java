@@ -0,0 +1,48 @@
+package pe.unmsm.crm.marketing.shared.infra.lease;
+
+/**
+ * Lease que posee una ejecución de job en curso (ver {@link CoordinadorJobs}).
+ *
+ * Las escrituras del job deben llamar a {@link #verificar()} dentro de su
+ * transacción, antes de escribir.
+ */
+public class LeaseJob {
+
+    private final LeaseRepository leaseRepository;
+    private final String nombreJob;
+    private final long token;
+    private volatile boolean perdido;
+
+    LeaseJob(LeaseRepository leaseRepository, String nombreJob, long token) {
+        this.leaseRepository = leaseRepository;
+        this.nombreJob = nombreJob;
+        this.token = token;
+    }
+
+    /**
+     * @throws LeaseVencidoException si el heartbeat ya detectó que el lease se
+     *         perdió o si la BD tiene otro token vigente
+     */
+    public void verificar() {
+        if (perdido) {
+            throw new LeaseVencidoException(nombreJob, token);
+        }
+        leaseRepository.verificar(nombreJob, token);
+    }
+
+    public String getNombreJob() {
+        return nombreJob;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    public boolean isPerdido() {
+        return perdido;
+    }
+
+    void marcarPerdido() {
+        perdido = true;
+    }
+}
@@ -0,0 +1,170 @@
+package pe.unmsm.crm.marketing.shared.infra.lease;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Lease en BD para coordinar tareas programadas entre varias instancias.
+ *
+ * Tabla: scheduler_lease (nombre_job PK, propietario, expira_en, token_fencing,
+ * adquirido_en, renovado_en)
+ *
+ * Una instancia posee el lease si el registro es suyo o si el anterior
+ * propietario lo dejó expirar. La adquisición es un INSERT o un UPDATE
+ * condicional, ambos atómicos, así que solo una instancia gana.
+ *
+ * Cada cambio de propietario incrementa token_fencing. Quien escribe en nombre
+ * del job verifica su token dentro de la misma transacción ({@link #verificar}):
+ * un propietario anterior (pausado por GC, red, etc.) no puede escribir una vez
+ * que otro tomó el lease.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class LeaseRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String propietario = generarPropietario();
+
+    public record EstadoLease(String nombreJob, String propietario, long tokenFencing,
+            LocalDateTime adquiridoEn, LocalDateTime renovadoEn, LocalDateTime expiraEn) {
+    }
+
+    /**
+     * Intenta adquirir (o renovar) el lease del job.
+     *
+     * @return true si esta instancia es la propietaria hasta ahora + ttl
+     */
+    public boolean adquirir(String nombreJob, Duration ttl) {
+        return adquirirConToken(nombreJob, ttl).isPresent();
+    }
+
+    /**
+     * Como {@link #adquirir}, pero devuelve el token de fencing vigente. El
+     * token solo cambia si el lease cambia de manos (o expiró).
+     *
+     * @return el token si esta instancia es la propietaria hasta ahora + ttl
+     */
+    public OptionalLong adquirirConToken(String nombreJob, Duration ttl) {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime expiraEn = ahora.plus(ttl);
+
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO scheduler_lease (nombre_job, propietario, expira_en, token_fencing, adquirido_en, renovado_en) " +
+                    "VALUES (?, ?, ?, 1, ?, ?)",
+                    nombreJob, propietario, expiraEn, ahora, ahora);
+            return OptionalLong.of(1);
+        } catch (DuplicateKeyException e) {
+            // Ya existe: se intenta tomar o renovar
+        }
+
+        // El token y adquirido_en se calculan antes de asignar propietario/expira_en
+        // (MySQL evalúa las asignaciones de izquierda a derecha)
+        int actualizados = jdbcTemplate.update(
+                "UPDATE scheduler_lease SET " +
+                "token_fencing = CASE WHEN propietario = ? AND expira_en >= ? THEN token_fencing ELSE token_fencing + 1 END, " +
+                "adquirido_en = CASE WHEN propietario = ? AND expira_en >= ? THEN adquirido_en ELSE ? END, " +
+                "propietario = ?, expira_en = ?, renovado_en = ? " +
+                "WHERE nombre_job = ? AND (propietario = ? OR expira_en < ?)",
+                propietario, ahora, propietario, ahora, ahora,
+                propietario, expiraEn, ahora,
+                nombreJob, propietario, ahora);
+        if (actualizados == 0) {
+            return OptionalLong.empty();
+        }
+
+        List<Long> tokens = jdbcTemplate.queryForList(
+                "SELECT token_fencing FROM scheduler_lease WHERE nombre_job = ? AND propietario = ?",
+                Long.class, nombreJob, propietario);
+        return tokens.isEmpty() ? OptionalLong.empty() : OptionalLong.of(tokens.get(0));
+    }
+
+    /**
+     * Heartbeat: extiende el lease si sigue siendo de esta instancia con el mismo token.
+     *
+     * @return false si el lease pasó a otra instancia
+     */
+    public boolean renovar(String nombreJob, long token, Duration ttl) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return jdbcTemplate.update(
+                "UPDATE scheduler_lease SET expira_en = ?, renovado_en = ? " +
+                "WHERE nombre_job = ? AND propietario = ? AND token_fencing = ?",
+                ahora.plus(ttl), ahora, nombreJob, propietario, token) == 1;
+    }
+
+    /**
+     * Guarda de fencing: comprueba que el lease sigue vigente con este token.
+     *
+     * Dentro de una transacción deja bloqueada la fila del lease hasta el
+     * commit, así que nadie puede tomarlo entre la verificación y las
+     * escrituras de esa transacción.
+     *
+     * @throws LeaseVencidoException si el token ya no es el vigente o el lease expiró
+     */
+    public void verificar(String nombreJob, long token) {
+        // UPDATE sin cambios: toma el bloqueo de fila y devuelve las filas encontradas
+        int vigentes = jdbcTemplate.update(
+                "UPDATE scheduler_lease SET token_fencing = token_fencing " +
+                "WHERE nombre_job = ? AND propietario = ? AND token_fencing = ? AND expira_en >= ?",
+                nombreJob, propietario, token, LocalDateTime.now());
+        if (vigentes == 0) {
+            throw new LeaseVencidoException(nombreJob, token);
+        }
+    }
+
+    /**
+     * Libera el lease si pertenece a esta instancia
+     */
+    public void liberar(String nombreJob) {
+        jdbcTemplate.update(
+                "UPDATE scheduler_lease SET expira_en = ? WHERE nombre_job = ? AND propietario = ?",
+                LocalDateTime.now(), nombreJob, propietario);
+    }
+
+    /**
+     * Todos los leases, para ver qué instancia posee cada job
+     */
+    public List<EstadoLease> listar() {
+        return jdbcTemplate.query(
+                "SELECT nombre_job, propietario, token_fencing, adquirido_en, renovado_en, expira_en " +
+                "FROM scheduler_lease ORDER BY nombre_job",
+                (rs, i) -> new EstadoLease(
+                        rs.getString("nombre_job"),
+                        rs.getString("propietario"),
+                        rs.getLong("token_fencing"),
+                        aLocalDateTime(rs.getTimestamp("adquirido_en")),
+                        aLocalDateTime(rs.getTimestamp("renovado_en")),
+                        aLocalDateTime(rs.getTimestamp("expira_en"))));
+    }
+
+    public String getPropietario() {
+        return propietario;
+    }
+
+    private static LocalDateTime aLocalDateTime(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+
+    private static String generarPropietario() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "desconocido";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
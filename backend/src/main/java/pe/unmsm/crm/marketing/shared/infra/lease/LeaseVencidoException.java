@@ -0,0 +1,25 @@
+package pe.unmsm.crm.marketing.shared.infra.lease;
+
+/**
+ * El job intentó escribir con un token de fencing que ya no es el vigente:
+ * otra instancia tomó el lease (o expiró sin renovarse).
+ */
+public class LeaseVencidoException extends RuntimeException {
+
+    private final String nombreJob;
+    private final long token;
+
+    public LeaseVencidoException(String nombreJob, long token) {
+        super("Lease del job '" + nombreJob + "' ya no es vigente para el token " + token);
+        this.nombreJob = nombreJob;
+        this.token = token;
+    }
+
+    public String getNombreJob() {
+        return nombreJob;
+    }
+
+    public long getToken() {
+        return token;
+    }
+}
@@ -0,0 +1,50 @@
+package pe.unmsm.crm.marketing.shared.infra.metrics;
+
+/**
+ * Contadores JDBC del request en curso (por hilo): número de sentencias
+ * ejecutadas y tiempo acumulado en ellas.
+ *
+ * PerformanceInterceptor los inicia y finaliza; JdbcTimingDataSourcePostProcessor
+ * los alimenta. Fuera de un request no se acumula nada.
+ */
+public final class JdbcRequestStats {
+
+    private static final ThreadLocal<JdbcRequestStats> ACTUAL = new ThreadLocal<>();
+
+    private int consultas;
+    private long nanos;
+
+    private JdbcRequestStats() {
+    }
+
+    public static void iniciar() {
+        ACTUAL.set(new JdbcRequestStats());
+    }
+
+    /**
+     * Retira los contadores del hilo.
+     *
+     * @return contadores acumulados, o null si no se iniciaron
+     */
+    public static JdbcRequestStats finalizar() {
+        JdbcRequestStats stats = ACTUAL.get();
+        ACTUAL.remove();
+        return stats;
+    }
+
+    static void registrar(long duracionNanos) {
+        JdbcRequestStats stats = ACTUAL.get();
+        if (stats != null) {
+            stats.consultas++;
+            stats.nanos += duracionNanos;
+        }
+    }
+
+    public int getConsultas() {
+        return consultas;
+    }
+
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+}
@@ -0,0 +1,103 @@
+package pe.unmsm.crm.marketing.shared.infra.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Envuelve el DataSource para medir cada ejecución de sentencia (execute*,
+ * executeQuery, executeUpdate, executeBatch) y acumularla en JdbcRequestStats.
+ *
+ * Proxies JDK sobre las interfaces JDBC; unwrap/isWrapperFor se delegan al
+ * objeto real, así las métricas del pool (Hikari) siguen encontrándolo.
+ */
+@Component
+public class JdbcTimingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, dataSource, new DataSourceHandler(dataSource));
+        }
+        return bean;
+    }
+
+    private static <T> T proxy(Class<T> tipo, T target, InvocationHandler handler) {
+        return tipo.cast(Proxy.newProxyInstance(
+                JdbcTimingDataSourcePostProcessor.class.getClassLoader(), new Class<?>[] { tipo }, handler));
+    }
+
+    private static Object invocar(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // Identidad del proxy (se usa como clave, p.ej. el DataSource en la sincronización de transacciones)
+        switch (method.getName()) {
+            case "equals" -> {
+                return args != null && args.length == 1 && proxy == args[0];
+            }
+            case "hashCode" -> {
+                if (method.getParameterCount() == 0) {
+                    return System.identityHashCode(proxy);
+                }
+            }
+            default -> {
+            }
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private record DataSourceHandler(DataSource target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object resultado = invocar(proxy, target, method, args);
+            if (resultado instanceof Connection connection && method.getName().equals("getConnection")) {
+                return proxy(Connection.class, connection, new ConnectionHandler(connection));
+            }
+            return resultado;
+        }
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object resultado = invocar(proxy, target, method, args);
+            // El tipo de retorno del método indica la interfaz a exponer
+            if (resultado instanceof CallableStatement cs && method.getReturnType() == CallableStatement.class) {
+                return proxy(CallableStatement.class, cs, new StatementHandler(cs));
+            }
+            if (resultado instanceof PreparedStatement ps && method.getReturnType() == PreparedStatement.class) {
+                return proxy(PreparedStatement.class, ps, new StatementHandler(ps));
+            }
+            if (resultado instanceof Statement st && method.getReturnType() == Statement.class) {
+                return proxy(Statement.class, st, new StatementHandler(st));
+            }
+            return resultado;
+        }
+    }
+
+    private record StatementHandler(Statement target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return invocar(proxy, target, method, args);
+            }
+            long inicio = System.nanoTime();
+            try {
+                return invocar(proxy, target, method, args);
+            } finally {
+                JdbcRequestStats.registrar(System.nanoTime() - inicio);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package pe.unmsm.crm.marketing.shared.infra.outbox;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Circuit breaker de un destino del outbox.
+ *
+ * - CERRADO: se envía normalmente; {@code umbral} fallos reintentables
+ *   seguidos lo abren
+ * - ABIERTO: no se reclaman mensajes del destino durante {@code espera}
+ * - SEMI_ABIERTO: pasada la espera se permite un único envío de prueba; si
+ *   funciona se cierra, si falla vuelve a abrirse
+ *
+ * Los errores no reintentables (4xx) indican un problema del mensaje, no del
+ * destino, y no cuentan.
+ */
+public class CircuitoDestino {
+
+    public enum Estado {
+        CERRADO, ABIERTO, SEMI_ABIERTO
+    }
+
+    private final int umbral;
+    private final Duration espera;
+    private final Clock clock;
+
+    private Estado estado = Estado.CERRADO;
+    private int fallosSeguidos;
+    private Instant abiertoHasta = Instant.MIN;
+    private boolean pruebaEnCurso;
+
+    public CircuitoDestino(int umbral, Duration espera, Clock clock) {
+        this.umbral = umbral;
+        this.espera = espera;
+        this.clock = clock;
+    }
+
+    /**
+     * Cuántos mensajes se pueden reclamar ahora: 0 si está abierto, 1 en
+     * semi-abierto (envío de prueba) y {@code maximo} si está cerrado.
+     */
+    public synchronized int cupo(int maximo) {
+        if (estado == Estado.ABIERTO && !clock.instant().isBefore(abiertoHasta)) {
+            estado = Estado.SEMI_ABIERTO;
+            pruebaEnCurso = false;
+        }
+        return switch (estado) {
+            case CERRADO -> maximo;
+            case ABIERTO -> 0;
+            case SEMI_ABIERTO -> pruebaEnCurso ? 0 : 1;
+        };
+    }
+
+    /**
+     * @return true si se puede enviar el siguiente mensaje ya reclamado
+     */
+    public synchronized boolean permiteEnvio() {
+        if (estado == Estado.CERRADO) {
+            return true;
+        }
+        if (cupo(1) == 1) {
+            pruebaEnCurso = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void registrarExito() {
+        estado = Estado.CERRADO;
+        fallosSeguidos = 0;
+        pruebaEnCurso = false;
+    }
+
+    public synchronized void registrarFallo() {
+        fallosSeguidos++;
+        if (estado == Estado.SEMI_ABIERTO || fallosSeguidos >= umbral) {
+            estado = Estado.ABIERTO;
+            abiertoHasta = clock.instant().plus(espera);
+            pruebaEnCurso = false;
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    public synchronized int getFallosSeguidos() {
+        return fallosSeguidos;
+    }
+}
@@ -0,0 +1,28 @@
+package pe.unmsm.crm.marketing.shared.infra.outbox;
+
+import java.util.Map;
+
+/**
+ * Destino HTTP del outbox. Los mensajes solo guardan el nombre; URL,
+ * cabeceras y límites se leen de la configuración al momento de enviar.
+ */
+public interface OutboxDestino {
+
+    String getNombre();
+
+    /**
+     * URL del POST; null o vacío deja los mensajes del destino en espera.
+     */
+    String getUrl();
+
+    default Map<String, String> getCabeceras() {
+        return Map.of();
+    }
+
+    /**
+     * Envíos simultáneos máximos hacia este destino.
+     */
+    default int getConcurrencia() {
+        return 2;
+    }
+}
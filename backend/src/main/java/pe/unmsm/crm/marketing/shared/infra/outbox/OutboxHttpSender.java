@@ -0,0 +1,45 @@
+package pe.unmsm.crm.marketing.shared.infra.outbox;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+/**
+ * POST de un mensaje del outbox con timeouts propios.
+ *
+ * Clasifica la respuesta: 2xx éxito; 408, 429, 5xx y errores de E/S son
+ * reintentables; el resto de 4xx es definitivo (el mensaje va a FALLIDO).
+ */
+public class OutboxHttpSender {
+
+    public record Resultado(boolean exito, boolean reintentable, Integer status, String error) {
+    }
+
+    private final RestClient restClient;
+
+    public OutboxHttpSender(int timeoutMs) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(timeoutMs);
+        factory.setReadTimeout(timeoutMs);
+        this.restClient = RestClient.builder().requestFactory(factory).build();
+    }
+
+    public Resultado enviar(OutboxDestino destino, String payload) {
+        try {
+            int status = restClient.post()
+                    .uri(destino.getUrl())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .headers(headers -> destino.getCabeceras().forEach(headers::set))
+                    .body(payload)
+                    .exchange((request, response) -> response.getStatusCode().value());
+            if (status >= 200 && status < 300) {
+                return new Resultado(true, false, status, null);
+            }
+            boolean reintentable = status == 408 || status == 429 || status >= 500;
+            return new Resultado(false, reintentable, status, "HTTP " + status);
+        } catch (Exception e) {
+            // Conexión rechazada, timeout, DNS...
+            return new Resultado(false, true, null, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package pe.unmsm.crm.marketing.shared.infra.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de outbox_mensaje.
+ */
+@Getter
+@AllArgsConstructor
+public class OutboxMensaje {
+
+    public enum Estado {
+        PENDIENTE, EN_PROCESO, ENVIADO, FALLIDO
+    }
+
+    private final Long id;
+    private final String destino;
+    private final String claveIdempotencia;
+    private final String payload;
+    private final Estado estado;
+    private final int intentos;
+    private final LocalDateTime proximoIntento;
+    private final Integer ultimoStatus;
+    private final String ultimoError;
+    private final LocalDateTime fechaCreacion;
+    private final LocalDateTime fechaEnvio;
+}
@@ -0,0 +1,263 @@
+package pe.unmsm.crm.marketing.shared.infra.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unmsm.crm.marketing.shared.infra.lease.CoordinadorJobs;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envía en segundo plano los mensajes del outbox.
+ *
+ * En cada ciclo, por destino:
+ * - si el circuito lo permite, reclama un lote (token propio, bloqueo
+ *   temporal) y lo envía con a lo sumo {@link OutboxDestino#getConcurrencia()}
+ *   peticiones simultáneas
+ * - 2xx: ENVIADO; error reintentable: PENDIENTE con backoff exponencial (con
+ *   jitter) hasta {@code app.outbox.max-intentos}; error definitivo o intentos
+ *   agotados: FALLIDO (dead letter, ver /api/v1/outbox)
+ * - si el circuito se abre a mitad de lote, el resto se libera sin consumir
+ *   intentos
+ *
+ * Los envíos corren en los hilos propios del relay: el hilo de @Scheduled
+ * solo reclama y no espera las respuestas HTTP. Un destino cuyo lote anterior
+ * sigue enviándose se salta en ese ciclo, así un destino lento no bloquea a
+ * los demás ni a otros jobs programados.
+ *
+ * Los mensajes de una instancia caída quedan EN_PROCESO hasta que vence su
+ * bloqueo y otro ciclo los reclama de nuevo.
+ */
+@Component
+@Profile("!console")
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxHttpSender sender;
+    private final MeterRegistry meterRegistry;
+    private final CoordinadorJobs coordinadorJobs;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, OutboxDestino> destinos = new LinkedHashMap<>();
+    private final Map<String, CircuitoDestino> circuitos = new LinkedHashMap<>();
+    private final ExecutorService executor;
+    // Lote en curso por destino (solo lo usa el hilo de procesar())
+    private final Map<String, CompletableFuture<Void>> enCurso = new HashMap<>();
+
+    @Value("${app.outbox.tamanio-lote:100}")
+    private int tamanioLote;
+
+    @Value("${app.outbox.max-intentos:10}")
+    private int maxIntentos;
+
+    @Value("${app.outbox.backoff-inicial-seg:5}")
+    private long backoffInicialSeg;
+
+    @Value("${app.outbox.backoff-max-seg:900}")
+    private long backoffMaxSeg;
+
+    @Value("${app.outbox.bloqueo-seg:300}")
+    private long bloqueoSeg;
+
+    @Value("${app.outbox.retencion-dias:7}")
+    private int retencionDias;
+
+    public OutboxRelay(OutboxRepository outboxRepository, List<OutboxDestino> destinos, MeterRegistry meterRegistry,
+            CoordinadorJobs coordinadorJobs, PlatformTransactionManager transactionManager,
+            @Value("${app.outbox.timeout-ms:5000}") int timeoutMs,
+            @Value("${app.outbox.circuito.umbral:5}") int umbralCircuito,
+            @Value("${app.outbox.circuito.espera-seg:30}") long esperaCircuitoSeg) {
+        this.outboxRepository = outboxRepository;
+        this.sender = new OutboxHttpSender(timeoutMs);
+        this.meterRegistry = meterRegistry;
+        this.coordinadorJobs = coordinadorJobs;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int hilos = 0;
+        for (OutboxDestino destino : destinos) {
+            this.destinos.put(destino.getNombre(), destino);
+            this.circuitos.put(destino.getNombre(),
+                    new CircuitoDestino(umbralCircuito, Duration.ofSeconds(esperaCircuitoSeg), Clock.systemUTC()));
+            hilos += Math.max(1, destino.getConcurrencia());
+        }
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, hilos), r -> {
+            Thread hilo = new Thread(r, "OutboxRelay-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-ms:1000}", initialDelayString = "${app.outbox.relay-ms:1000}")
+    public void procesar() {
+        for (OutboxDestino destino : destinos.values()) {
+            if (destino.getUrl() == null || destino.getUrl().isBlank()) {
+                continue;
+            }
+            CompletableFuture<Void> anterior = enCurso.get(destino.getNombre());
+            if (anterior != null && !anterior.isDone()) {
+                continue;
+            }
+            try {
+                List<CompletableFuture<Void>> envios = procesarDestino(destino);
+                enCurso.put(destino.getNombre(), CompletableFuture.allOf(envios.toArray(CompletableFuture[]::new)));
+            } catch (Exception e) {
+                log.error("[OUTBOX] Error al reclamar mensajes de {}: {}", destino.getNombre(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Purga diaria de mensajes ya enviados, en bloques y en una sola instancia
+     * (lease "outbox-purga"). Cada bloque se borra en la transacción que
+     * verifica el lease.
+     */
+    @Scheduled(cron = "${app.outbox.purga-cron:0 30 3 * * ?}")
+    public void purgarEnviados() {
+        coordinadorJobs.ejecutar("outbox-purga", Duration.ofMinutes(10), lease -> {
+            LocalDateTime limite = LocalDateTime.now().minusDays(retencionDias);
+            int total = 0;
+            int borrados;
+            do {
+                borrados = transactionTemplate.execute(status -> {
+                    lease.verificar();
+                    return outboxRepository.purgarEnviados(limite, 5000);
+                });
+                total += borrados;
+            } while (borrados == 5000);
+            if (total > 0) {
+                log.info("[OUTBOX] {} mensajes enviados purgados (anteriores a {})", total, limite);
+            }
+        });
+    }
+
+    public Map<String, CircuitoDestino> getCircuitos() {
+        return Map.copyOf(circuitos);
+    }
+
+    private List<CompletableFuture<Void>> procesarDestino(OutboxDestino destino) {
+        CircuitoDestino circuito = circuitos.get(destino.getNombre());
+        int cupo = circuito.cupo(tamanioLote);
+        if (cupo == 0) {
+            return List.of();
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        String token = UUID.randomUUID().toString();
+        List<OutboxMensaje> lote = outboxRepository.reclamar(destino.getNombre(), token, cupo, ahora,
+                ahora.plusSeconds(bloqueoSeg));
+        if (lote.isEmpty()) {
+            return List.of();
+        }
+        log.debug("[OUTBOX] {} mensajes reclamados para {}", lote.size(), destino.getNombre());
+
+        Queue<OutboxMensaje> cola = new ConcurrentLinkedQueue<>(lote);
+        int trabajadores = Math.min(Math.max(1, destino.getConcurrencia()), lote.size());
+        List<CompletableFuture<Void>> envios = new ArrayList<>(trabajadores);
+        for (int i = 0; i < trabajadores; i++) {
+            envios.add(CompletableFuture.runAsync(() -> {
+                OutboxMensaje mensaje;
+                while ((mensaje = cola.poll()) != null) {
+                    enviar(destino, circuito, mensaje, token);
+                }
+            }, executor));
+        }
+        return envios;
+    }
+
+    private void enviar(OutboxDestino destino, CircuitoDestino circuito, OutboxMensaje mensaje, String token) {
+        if (!circuito.permiteEnvio()) {
+            outboxRepository.liberar(mensaje.getId(), token);
+            return;
+        }
+
+        OutboxHttpSender.Resultado resultado;
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        try {
+            resultado = sender.enviar(destino, mensaje.getPayload());
+        } finally {
+            muestra.stop(meterRegistry.timer("outbox.envio", "destino", destino.getNombre()));
+        }
+
+        try {
+            if (resultado.exito()) {
+                circuito.registrarExito();
+                outboxRepository.marcarEnviado(mensaje.getId(), token, resultado.status(), LocalDateTime.now());
+                contar(destino, "enviado");
+                return;
+            }
+
+            int intentos = mensaje.getIntentos() + 1;
+            if (resultado.reintentable()) {
+                circuito.registrarFallo();
+            } else {
+                // El destino respondió: el problema es del mensaje, no del destino
+                circuito.registrarExito();
+            }
+            if (resultado.reintentable() && intentos < maxIntentos) {
+                LocalDateTime proximo = LocalDateTime.now().plus(backoff(intentos));
+                outboxRepository.reprogramar(mensaje.getId(), token, resultado.status(), resultado.error(), proximo);
+                contar(destino, "reintento");
+                log.warn("[OUTBOX] Envío {} a {} falló ({}); intento {} de {}, próximo {}",
+                        mensaje.getId(), destino.getNombre(), resultado.error(), intentos, maxIntentos, proximo);
+            } else {
+                outboxRepository.marcarFallido(mensaje.getId(), token, resultado.status(), resultado.error());
+                contar(destino, "fallido");
+                log.error("[OUTBOX] Mensaje {} a {} movido a FALLIDO tras {} intento(s): {}",
+                        mensaje.getId(), destino.getNombre(), intentos, resultado.error());
+            }
+        } catch (Exception e) {
+            // El bloqueo vence y otro ciclo lo vuelve a intentar
+            log.error("[OUTBOX] No se pudo registrar el resultado del mensaje {}: {}", mensaje.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * inicial * 2^(intentos-1), acotado, con ±20% de jitter.
+     */
+    Duration backoff(int intentos) {
+        long base = backoffInicialSeg * (1L << Math.min(intentos - 1, 20));
+        long acotado = Math.min(base, backoffMaxSeg);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (acotado * 1000 * jitter));
+    }
+
+    private void contar(OutboxDestino destino, String resultado) {
+        Counter.builder("outbox.mensajes")
+                .tag("destino", destino.getNombre())
+                .tag("resultado", resultado)
+                .register(meterRegistry)
+                .increment();
+    }
+}
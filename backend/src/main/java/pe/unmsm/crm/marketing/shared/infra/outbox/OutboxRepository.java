@@ -0,0 +1,162 @@
+package pe.unmsm.crm.marketing.shared.infra.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acceso JDBC a outbox_mensaje.
+ *
+ * Un lote se reclama con un UPDATE ... ORDER BY ... LIMIT que marca las filas
+ * con un token propio (atómico en InnoDB, así que dos instancias nunca toman el
+ * mismo mensaje). Las transiciones posteriores exigen el mismo token: si el
+ * bloqueo expiró y otro relay reclamó el mensaje, la escritura tardía no aplica.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    private static final String COLUMNAS = "id_mensaje, destino, clave_idempotencia, payload, estado, intentos, " +
+            "proximo_intento, ultimo_status, ultimo_error, fecha_creacion, fecha_envio";
+
+    private static final RowMapper<OutboxMensaje> MAPPER = (rs, i) -> new OutboxMensaje(
+            rs.getLong("id_mensaje"),
+            rs.getString("destino"),
+            rs.getString("clave_idempotencia"),
+            rs.getString("payload"),
+            OutboxMensaje.Estado.valueOf(rs.getString("estado")),
+            rs.getInt("intentos"),
+            aFecha(rs.getTimestamp("proximo_intento")),
+            (Integer) rs.getObject("ultimo_status"),
+            rs.getString("ultimo_error"),
+            aFecha(rs.getTimestamp("fecha_creacion")),
+            aFecha(rs.getTimestamp("fecha_envio")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return false si ya existía un mensaje con la misma clave para el destino
+     */
+    public boolean insertar(String destino, String claveIdempotencia, String payload, LocalDateTime ahora) {
+        return jdbcTemplate.update(
+                "INSERT IGNORE INTO outbox_mensaje (destino, clave_idempotencia, payload, estado, intentos, " +
+                        "proximo_intento, fecha_creacion) VALUES (?, ?, ?, 'PENDIENTE', 0, ?, ?)",
+                destino, claveIdempotencia, payload, ahora, ahora) == 1;
+    }
+
+    /**
+     * Reclama hasta {@code limite} mensajes listos del destino (pendientes
+     * vencidos o en proceso con el bloqueo expirado).
+     */
+    public List<OutboxMensaje> reclamar(String destino, String token, int limite, LocalDateTime ahora,
+            LocalDateTime bloqueadoHasta) {
+        int reclamados = jdbcTemplate.update(
+                "UPDATE outbox_mensaje SET estado = 'EN_PROCESO', token_reclamo = ?, bloqueado_hasta = ? " +
+                        "WHERE destino = ? AND ((estado = 'PENDIENTE' AND proximo_intento <= ?) " +
+                        "OR (estado = 'EN_PROCESO' AND bloqueado_hasta < ?)) " +
+                        "ORDER BY proximo_intento, id_mensaje LIMIT ?",
+                token, bloqueadoHasta, destino, ahora, ahora, limite);
+        if (reclamados == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNAS + " FROM outbox_mensaje WHERE token_reclamo = ? ORDER BY id_mensaje",
+                MAPPER, token);
+    }
+
+    public boolean marcarEnviado(long id, String token, int status, LocalDateTime ahora) {
+        return jdbcTemplate.update(
+                "UPDATE outbox_mensaje SET estado = 'ENVIADO', intentos = intentos + 1, ultimo_status = ?, " +
+                        "ultimo_error = NULL, fecha_envio = ?, token_reclamo = NULL, bloqueado_hasta = NULL " +
+                        "WHERE id_mensaje = ? AND token_reclamo = ?",
+                status, ahora, id, token) == 1;
+    }
+
+    public boolean reprogramar(long id, String token, Integer status, String error, LocalDateTime proximoIntento) {
+        return jdbcTemplate.update(
+                "UPDATE outbox_mensaje SET estado = 'PENDIENTE', intentos = intentos + 1, ultimo_status = ?, " +
+                        "ultimo_error = ?, proximo_intento = ?, token_reclamo = NULL, bloqueado_hasta = NULL " +
+                        "WHERE id_mensaje = ? AND token_reclamo = ?",
+                status, truncar(error), proximoIntento, id, token) == 1;
+    }
+
+    public boolean marcarFallido(long id, String token, Integer status, String error) {
+        return jdbcTemplate.update(
+                "UPDATE outbox_mensaje SET estado = 'FALLIDO', intentos = intentos + 1, ultimo_status = ?, " +
+                        "ultimo_error = ?, token_reclamo = NULL, bloqueado_hasta = NULL " +
+                        "WHERE id_mensaje = ? AND token_reclamo = ?",
+                status, truncar(error), id, token) == 1;
+    }
+
+    /**
+     * Devuelve el mensaje a PENDIENTE sin contar el intento (p.ej. circuito abierto).
+     */
+    public void liberar(long id, String token) {
+        jdbcTemplate.update(
+                "UPDATE outbox_mensaje SET estado = 'PENDIENTE', token_reclamo = NULL, bloqueado_hasta = NULL " +
+                        "WHERE id_mensaje = ? AND token_reclamo = ?",
+                id, token);
+    }
+
+    // ------------------------------------------------------------------
+    // Dead letter
+    // ------------------------------------------------------------------
+
+    public List<OutboxMensaje> buscarFallidos(String destino, int limite, long offset) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNAS + " FROM outbox_mensaje WHERE estado = 'FALLIDO' " +
+                        "AND (? IS NULL OR destino = ?) ORDER BY id_mensaje DESC LIMIT ? OFFSET ?",
+                MAPPER, destino, destino, limite, offset);
+    }
+
+    public long contarFallidos(String destino) {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_mensaje WHERE estado = 'FALLIDO' AND (? IS NULL OR destino = ?)",
+                Long.class, destino, destino);
+        return total != null ? total : 0;
+    }
+
+    /**
+     * Vuelve a encolar mensajes fallidos con los intentos en cero.
+     *
+     * @param id      mensaje puntual, o null para todos los del destino
+     * @param destino null para todos los destinos
+     */
+    public int reencolarFallidos(Long id, String destino, LocalDateTime ahora) {
+        return jdbcTemplate.update(
+                "UPDATE outbox_mensaje SET estado = 'PENDIENTE', intentos = 0, proximo_intento = ? " +
+                        "WHERE estado = 'FALLIDO' AND (? IS NULL OR id_mensaje = ?) AND (? IS NULL OR destino = ?)",
+                ahora, id, id, destino, destino);
+    }
+
+    /**
+     * Filas (destino, estado, total).
+     */
+    public List<Map<String, Object>> resumen() {
+        return jdbcTemplate.queryForList(
+                "SELECT destino, estado, COUNT(*) AS total FROM outbox_mensaje GROUP BY destino, estado");
+    }
+
+    /**
+     * Borra hasta {@code limite} mensajes ENVIADO anteriores a la fecha.
+     */
+    public int purgarEnviados(LocalDateTime antesDe, int limite) {
+        return jdbcTemplate.update(
+                "DELETE FROM outbox_mensaje WHERE estado = 'ENVIADO' AND fecha_creacion < ? LIMIT ?",
+                antesDe, limite);
+    }
+
+    private static LocalDateTime aFecha(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static String truncar(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
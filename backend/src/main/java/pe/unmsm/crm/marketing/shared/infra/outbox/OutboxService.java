@@ -0,0 +1,50 @@
+package pe.unmsm.crm.marketing.shared.infra.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de mensajes salientes en el outbox.
+ *
+ * {@link #encolar} se une a la transacción del llamador: el mensaje se
+ * confirma junto con el cambio de estado que lo origina (o se descarta con
+ * él). El envío HTTP lo hace {@link OutboxRelay} en segundo plano, con
+ * entrega al menos una vez.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param destino           nombre de un {@link OutboxDestino}
+     * @param claveIdempotencia evita duplicar el mismo envío (null = sin control)
+     * @param payload           objeto serializado a JSON como cuerpo del POST
+     * @return false si ya existía un mensaje con esa clave
+     */
+    @Transactional
+    public boolean encolar(String destino, String claveIdempotencia, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload no serializable para " + destino, e);
+        }
+        boolean insertado = outboxRepository.insertar(destino, claveIdempotencia, json, LocalDateTime.now());
+        if (insertado) {
+            log.debug("[OUTBOX] Mensaje encolado: destino={}, clave={}", destino, claveIdempotencia);
+        } else {
+            log.info("[OUTBOX] Mensaje duplicado ignorado: destino={}, clave={}", destino, claveIdempotencia);
+        }
+        return insertado;
+    }
+}
@@ -0,0 +1,110 @@
+package pe.unmsm.crm.marketing.shared.infra.referencia;
+
+import java.time.Instant;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Datos de referencia (catálogos) publicados como instantáneas inmutables.
+ *
+ * {@link #construir()} arma la instantánea completa (ya indexada) fuera de
+ * cualquier bloqueo de lectura; {@link #recargar()} la publica con una sola
+ * escritura volátil. Los lectores nunca ven un catálogo a medio cargar ni
+ * toman bloqueos: leen la referencia actual y consultan sus mapas.
+ *
+ * La versión solo avanza si los datos cambiaron (equals), así las cachés
+ * derivadas ({@link #derivar}) se recalculan únicamente cuando hace falta.
+ *
+ * Las subclases son beans; {@link RegistroReferencia} las carga al arrancar y
+ * las refresca periódicamente o a pedido.
+ */
+public abstract class DatosReferencia<T> {
+
+    private final String nombre;
+    private final Object cargaLock = new Object();
+    private volatile InstantaneaReferencia<T> actual;
+
+    protected DatosReferencia(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Lee la fuente y arma una instantánea inmutable (con equals por valor).
+     */
+    protected abstract T construir();
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Instantánea vigente; si aún no se cargó, la carga en el hilo actual.
+     */
+    public InstantaneaReferencia<T> instantanea() {
+        InstantaneaReferencia<T> vigente = actual;
+        if (vigente == null) {
+            synchronized (cargaLock) {
+                if (actual == null) {
+                    recargar();
+                }
+                vigente = actual;
+            }
+        }
+        return vigente;
+    }
+
+    public T datos() {
+        return instantanea().datos();
+    }
+
+    /**
+     * @return versión vigente, 0 si aún no se cargó
+     */
+    public long version() {
+        InstantaneaReferencia<T> vigente = actual;
+        return vigente != null ? vigente.version() : 0;
+    }
+
+    /**
+     * Construye una instantánea nueva y la publica si difiere de la vigente.
+     * Las recargas concurrentes se serializan; las lecturas no se bloquean.
+     *
+     * @return true si se publicó una versión nueva
+     */
+    public boolean recargar() {
+        synchronized (cargaLock) {
+            T nuevos = construir();
+            InstantaneaReferencia<T> anterior = actual;
+            if (anterior != null && anterior.datos().equals(nuevos)) {
+                return false;
+            }
+            long version = anterior != null ? anterior.version() + 1 : 1;
+            actual = new InstantaneaReferencia<>(nuevos, version, Instant.now());
+            return true;
+        }
+    }
+
+    /**
+     * Caché derivada de los datos: se recalcula (una vez) cuando cambia la
+     * versión y mientras tanto devuelve el mismo resultado sin bloquear.
+     */
+    public <R> Supplier<R> derivar(Function<T, R> calculo) {
+        return new Supplier<>() {
+            private volatile Derivado<R> cache;
+
+            @Override
+            public R get() {
+                InstantaneaReferencia<T> vigente = instantanea();
+                Derivado<R> c = cache;
+                if (c == null || c.version() != vigente.version()) {
+                    c = new Derivado<>(vigente.version(), calculo.apply(vigente.datos()));
+                    cache = c;
+                }
+                return c.valor();
+            }
+        };
+    }
+
+    private record Derivado<R>(long version, R valor) {
+    }
+}
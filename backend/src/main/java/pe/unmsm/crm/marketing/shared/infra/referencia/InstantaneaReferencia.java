@@ -0,0 +1,13 @@
+package pe.unmsm.crm.marketing.shared.infra.referencia;
+
+import java.time.Instant;
+
+/**
+ * Versión publicada de unos datos de referencia.
+ *
+ * @param datos     contenido inmutable e indexado
+ * @param version   correlativo por catálogo; avanza solo si el contenido cambió
+ * @param cargadaEn momento de publicación
+ */
+public record InstantaneaReferencia<T>(T datos, long version, Instant cargadaEn) {
+}
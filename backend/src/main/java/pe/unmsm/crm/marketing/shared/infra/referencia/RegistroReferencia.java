@@ -0,0 +1,96 @@
+package pe.unmsm.crm.marketing.shared.infra.referencia;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Registro de todos los {@link DatosReferencia} de la aplicación.
+ *
+ * Las cargas corren en un hilo propio, así que ni el arranque ni las
+ * peticiones esperan a que se arme un catálogo (salvo el primer uso antes de
+ * la carga inicial). Una carga fallida conserva la instantánea anterior.
+ *
+ * - Al arrancar: carga de todos
+ * - Cada {@code app.referencia.refresco-ms}: recarga de todos (los catálogos
+ *   solo se modifican fuera de la aplicación)
+ * - A pedido ({@link #solicitarRecarga}, expuesto en ReferenciaController):
+ *   recarga del catálogo indicado sin esperar al refresco
+ */
+@Component
+@Slf4j
+public class RegistroReferencia {
+
+    private final Map<String, DatosReferencia<?>> datos = new LinkedHashMap<>();
+    private final ExecutorService cargador = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "RegistroReferencia");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public RegistroReferencia(List<DatosReferencia<?>> datos) {
+        datos.forEach(d -> this.datos.put(d.getNombre(), d));
+    }
+
+    @PreDestroy
+    public void detener() {
+        cargador.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarInicial() {
+        log.info("=== Cargando {} catálogos de referencia ===", datos.size());
+        datos.values().forEach(this::programar);
+    }
+
+    @Scheduled(fixedDelayString = "${app.referencia.refresco-ms:300000}",
+            initialDelayString = "${app.referencia.refresco-ms:300000}")
+    public void refrescar() {
+        datos.values().forEach(this::programar);
+    }
+
+    /**
+     * Programa la recarga de un catálogo.
+     *
+     * @return false si no existe un catálogo con ese nombre
+     */
+    public boolean solicitarRecarga(String nombre) {
+        DatosReferencia<?> referencia = datos.get(nombre);
+        if (referencia == null) {
+            return false;
+        }
+        programar(referencia);
+        return true;
+    }
+
+    /**
+     * Versión vigente de cada catálogo (0 si aún no se cargó)
+     */
+    public Map<String, Long> versiones() {
+        Map<String, Long> versiones = new LinkedHashMap<>();
+        datos.forEach((nombre, referencia) -> versiones.put(nombre, referencia.version()));
+        return versiones;
+    }
+
+    private void programar(DatosReferencia<?> referencia) {
+        cargador.execute(() -> {
+            try {
+                if (referencia.recargar()) {
+                    log.info("[REFERENCIA] {} publicado en versión {}", referencia.getNombre(), referencia.version());
+                }
+            } catch (Exception e) {
+                log.warn("[REFERENCIA] No se pudo recargar {} (se mantiene la versión {}): {}",
+                        referencia.getNombre(), referencia.version(), e.getMessage());
+            }
+        });
+    }
+}
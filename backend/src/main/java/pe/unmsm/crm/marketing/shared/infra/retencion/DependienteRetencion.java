@@ -0,0 +1,15 @@
+package pe.unmsm.crm.marketing.shared.infra.retencion;
+
+/**
+ * Tabla dependiente de una política de retención.
+ *
+ * @param tabla             tabla dependiente
+ * @param columnaReferencia columna que apunta al id de la tabla principal
+ * @param condicion         filtro SQL adicional sin parámetros, o null
+ */
+public record DependienteRetencion(String tabla, String columnaReferencia, String condicion) {
+
+    public DependienteRetencion(String tabla, String columnaReferencia) {
+        this(tabla, columnaReferencia, null);
+    }
+}
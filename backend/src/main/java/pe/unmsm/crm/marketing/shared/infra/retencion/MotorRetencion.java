@@ -0,0 +1,256 @@
+package pe.unmsm.crm.marketing.shared.infra.retencion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unmsm.crm.marketing.shared.infra.lease.LeaseJob;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Purga por bloques según una {@link PoliticaRetencion}.
+ *
+ * Por cada bloque de hasta {@code app.retencion.tamanio-lote} filas:
+ * - selecciona los ids candidatos recorriendo la PK (keyset, sin transacción)
+ * - borra sus dependientes en trozos de hasta
+ *   {@code app.retencion.tamanio-lote-dependientes} filas (DELETE ... LIMIT),
+ *   cada trozo en su propia transacción que antes vuelve a bloquear (FOR
+ *   UPDATE) los candidatos que siguen cumpliendo la política
+ * - en una última transacción corta los vuelve a bloquear, borra los
+ *   dependientes que aparecieran mientras tanto y luego las filas principales
+ * - pausa {@code app.retencion.pausa-ms} antes del siguiente
+ *
+ * Ninguna transacción toca más de un bloque de filas principales ni más de
+ * un trozo de dependientes, así que una purga grande (p. ej. un segmento con
+ * millones de miembros) no retiene bloqueos ni memoria. Un candidato que deja
+ * de cumplir la política a mitad de la purga se conserva, con los
+ * dependientes que aún no se hubieran borrado.
+ * Una ejecución se corta al superar {@code app.retencion.max-minutos}; lo
+ * pendiente queda para la siguiente.
+ *
+ * Con un {@link LeaseJob} cada borrado verifica el token de fencing en su
+ * transacción: si otra instancia tomó el job, la purga se detiene con
+ * LeaseVencidoException sin escribir nada más.
+ */
+@Component
+@Slf4j
+public class MotorRetencion {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.retencion.tamanio-lote:500}")
+    private int tamanioLote;
+
+    @Value("${app.retencion.tamanio-lote-dependientes:5000}")
+    private int tamanioLoteDependientes;
+
+    @Value("${app.retencion.pausa-ms:200}")
+    private long pausaMs;
+
+    @Value("${app.retencion.max-minutos:60}")
+    private long maxMinutos;
+
+    private volatile boolean activo = true;
+
+    public MotorRetencion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+    }
+
+    public record Resultado(String politica, long eliminados, long dependientesEliminados, int lotes,
+            Duration duracion, boolean completo) {
+    }
+
+    public Resultado ejecutar(PoliticaRetencion politica) {
+        return ejecutar(politica, null);
+    }
+
+    public Resultado ejecutar(PoliticaRetencion politica, LeaseJob lease) {
+        long inicio = System.nanoTime();
+        long limite = inicio + Duration.ofMinutes(maxMinutos).toNanos();
+        LocalDateTime corte = LocalDateTime.now().minus(politica.getAntiguedad());
+        String filtro = "(" + politica.getCondicion() + ") AND " + politica.getColumnaFecha() + " < ?";
+
+        Counter filas = meterRegistry.counter("retencion.filas",
+                "politica", politica.getNombre(), "tabla", politica.getTabla());
+        Timer tiempoLote = meterRegistry.timer("retencion.lote", "politica", politica.getNombre());
+
+        log.info("[RETENCION] {}: purgando {} anteriores a {}", politica.getNombre(), politica.getTabla(), corte);
+
+        long eliminados = 0;
+        long dependientes = 0;
+        int lotes = 0;
+        long ultimoId = 0;
+        boolean completo = false;
+
+        while (activo && System.nanoTime() < limite) {
+            List<Long> candidatos = jdbcTemplate.queryForList(
+                    "SELECT " + politica.getColumnaId() + " FROM " + politica.getTabla() +
+                    " WHERE " + politica.getColumnaId() + " > ? AND " + filtro +
+                    " ORDER BY " + politica.getColumnaId() + " LIMIT ?",
+                    Long.class, ultimoId, corte, tamanioLote);
+            if (candidatos.isEmpty()) {
+                completo = true;
+                break;
+            }
+            ultimoId = candidatos.get(candidatos.size() - 1);
+
+            long inicioLote = System.nanoTime();
+            Lote lote = eliminarLote(politica, filtro, candidatos, corte, lease);
+            tiempoLote.record(Duration.ofNanos(System.nanoTime() - inicioLote));
+
+            eliminados += lote.principales();
+            dependientes += lote.dependientes();
+            filas.increment(lote.principales());
+            lotes++;
+            if (lotes % 20 == 0) {
+                log.info("[RETENCION] {}: {} filas eliminadas en {} bloques (último id {})",
+                        politica.getNombre(), eliminados, lotes, ultimoId);
+            }
+
+            if (candidatos.size() < tamanioLote) {
+                completo = true;
+                break;
+            }
+            if (!pausar()) {
+                break;
+            }
+        }
+
+        Duration duracion = Duration.ofNanos(System.nanoTime() - inicio);
+        if (completo) {
+            log.info("[RETENCION] {}: {} filas eliminadas ({} dependientes) en {} bloques, {} ms",
+                    politica.getNombre(), eliminados, dependientes, lotes, duracion.toMillis());
+        } else {
+            log.warn("[RETENCION] {}: interrumpida tras {} filas en {} bloques, {} ms; se continúa en la próxima ejecución",
+                    politica.getNombre(), eliminados, lotes, duracion.toMillis());
+        }
+        return new Resultado(politica.getNombre(), eliminados, dependientes, lotes, duracion, completo);
+    }
+
+    private record Lote(int principales, long dependientes) {
+    }
+
+    /**
+     * Borra los dependientes de los candidatos por trozos y después, en una
+     * transacción, los candidatos que siguen cumpliendo la política.
+     */
+    private Lote eliminarLote(PoliticaRetencion politica, String filtro, List<Long> candidatos,
+            LocalDateTime corte, LeaseJob lease) {
+        List<DependienteRetencion> tablasDependientes = politica.getDependientes();
+        long[] porDependiente = new long[tablasDependientes.size()];
+
+        for (int i = 0; i < tablasDependientes.size(); i++) {
+            DependienteRetencion dependiente = tablasDependientes.get(i);
+            int trozo;
+            do {
+                Integer n = transactionTemplate.execute(status -> {
+                    List<Long> ids = bloquearVigentes(politica, filtro, candidatos, corte, lease);
+                    return ids.isEmpty() ? 0 : eliminarDependientes(dependiente, ids, tamanioLoteDependientes);
+                });
+                trozo = n != null ? n : 0;
+                porDependiente[i] += trozo;
+            } while (trozo >= tamanioLoteDependientes && activo);
+        }
+
+        Integer borrados = activo ? transactionTemplate.execute(status -> {
+            List<Long> ids = bloquearVigentes(politica, filtro, candidatos, corte, lease);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            // Dependientes creados mientras se borraban los trozos (normalmente ninguno)
+            for (int i = 0; i < tablasDependientes.size(); i++) {
+                porDependiente[i] += eliminarDependientes(tablasDependientes.get(i), ids, 0);
+            }
+            int n = jdbcTemplate.update(
+                    "DELETE FROM " + politica.getTabla() +
+                    " WHERE " + politica.getColumnaId() + " IN (" + marcadores(ids) + ")",
+                    ids.toArray());
+            politica.alEliminar(ids);
+            return n;
+        }) : 0;
+
+        long dependientes = 0;
+        for (int i = 0; i < tablasDependientes.size(); i++) {
+            meterRegistry.counter("retencion.filas",
+                    "politica", politica.getNombre(), "tabla", tablasDependientes.get(i).tabla())
+                    .increment(porDependiente[i]);
+            dependientes += porDependiente[i];
+        }
+        return new Lote(borrados != null ? borrados : 0, dependientes);
+    }
+
+    /**
+     * Dentro de la transacción en curso: verifica el lease y vuelve a evaluar
+     * la política sobre los candidatos (la fila pudo cambiar desde la
+     * selección), bloqueando los que la siguen cumpliendo.
+     */
+    private List<Long> bloquearVigentes(PoliticaRetencion politica, String filtro, List<Long> candidatos,
+            LocalDateTime corte, LeaseJob lease) {
+        if (lease != null) {
+            lease.verificar();
+        }
+        List<Object> parametros = new ArrayList<>(candidatos);
+        parametros.add(corte);
+        return jdbcTemplate.queryForList(
+                "SELECT " + politica.getColumnaId() + " FROM " + politica.getTabla() +
+                " WHERE " + politica.getColumnaId() + " IN (" + marcadores(candidatos) + ") AND " + filtro +
+                " FOR UPDATE OF " + politica.getTabla(),
+                Long.class, parametros.toArray());
+    }
+
+    /**
+     * @param limite máximo de filas a borrar, o 0 para todas
+     */
+    private int eliminarDependientes(DependienteRetencion dependiente, List<Long> ids, int limite) {
+        return jdbcTemplate.update(
+                "DELETE FROM " + dependiente.tabla() +
+                " WHERE " + dependiente.columnaReferencia() + " IN (" + marcadores(ids) + ")" +
+                (dependiente.condicion() != null ? " AND (" + dependiente.condicion() + ")" : "") +
+                (limite > 0 ? " LIMIT " + limite : ""),
+                ids.toArray());
+    }
+
+    /**
+     * @return false si hay que detenerse (apagado o interrupción)
+     */
+    private boolean pausar() {
+        if (!activo) {
+            return false;
+        }
+        if (pausaMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pausaMs);
+            return activo;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String marcadores(List<?> valores) {
+        return String.join(",", Collections.nCopies(valores.size(), "?"));
+    }
+}
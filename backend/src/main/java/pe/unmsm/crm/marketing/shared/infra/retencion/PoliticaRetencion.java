@@ -0,0 +1,42 @@
+package pe.unmsm.crm.marketing.shared.infra.retencion;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Política de retención de una tabla: qué filas se purgan y con qué antigüedad.
+ *
+ * Se purgan las filas que cumplen {@link #getCondicion()} y cuya
+ * {@link #getColumnaFecha()} es anterior a ahora - {@link #getAntiguedad()}.
+ * La condición es SQL sin parámetros y puede referirse a la tabla por su
+ * nombre (p. ej. en un NOT EXISTS).
+ */
+public interface PoliticaRetencion {
+
+    String getNombre();
+
+    String getTabla();
+
+    String getColumnaId();
+
+    String getColumnaFecha();
+
+    String getCondicion();
+
+    Duration getAntiguedad();
+
+    /**
+     * Filas dependientes que se borran por trozos acotados antes que sus filas
+     * principales, en lugar de un ON DELETE CASCADE sin acotar.
+     */
+    default List<DependienteRetencion> getDependientes() {
+        return List.of();
+    }
+
+    /**
+     * Se invoca dentro de la transacción de cada bloque con los ids borrados
+     * (p. ej. para publicar eventos AFTER_COMMIT).
+     */
+    default void alEliminar(List<Long> ids) {
+    }
+}
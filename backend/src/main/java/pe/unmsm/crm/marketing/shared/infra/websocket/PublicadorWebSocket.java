@@ -0,0 +1,200 @@
+package pe.unmsm.crm.marketing.shared.infra.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publicación de estado por WebSocket con conflación y límite de tasa.
+ *
+ * {@link #publicar} no envía: deja el payload como pendiente de su
+ * (destino, clave) y reemplaza al anterior si aún no salió. Un hilo envía lo
+ * pendiente de cada destino a lo sumo una vez por intervalo:
+ * - intervalo por tema: {@code app.ws.intervalos.<tema>} (p. ej.
+ *   app.ws.intervalos.metricas para /topic/metricas), por defecto
+ *   {@code app.ws.intervalo-ms}
+ * - a lo sumo {@code app.ws.max-pendientes} claves por destino; al superarlo
+ *   se descarta la más antigua
+ * - los destinos sin actividad se retiran tras {@code app.ws.retiro-ms}
+ *
+ * Es para mensajes de estado (el último reemplaza a los anteriores); la
+ * contrapresión por sesión se configura en WebSocketConfig.
+ */
+@Component
+@Slf4j
+public class PublicadorWebSocket {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Environment environment;
+    private final long intervaloMs;
+    private final int maxPendientes;
+    private final long tickMs;
+    private final long retiroMs;
+
+    private final Map<String, Destino> destinos = new ConcurrentHashMap<>();
+    private final Counter enviados;
+    private final Counter conflados;
+    private final Counter descartados;
+
+    private ScheduledExecutorService programador;
+
+    public PublicadorWebSocket(SimpMessagingTemplate messagingTemplate, Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${app.ws.intervalo-ms:250}") long intervaloMs,
+            @Value("${app.ws.max-pendientes:500}") int maxPendientes,
+            @Value("${app.ws.tick-ms:50}") long tickMs,
+            @Value("${app.ws.retiro-ms:60000}") long retiroMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.environment = environment;
+        this.intervaloMs = intervaloMs;
+        this.maxPendientes = maxPendientes;
+        this.tickMs = tickMs;
+        this.retiroMs = retiroMs;
+        this.enviados = meterRegistry.counter("ws.publicador.mensajes", "resultado", "enviado");
+        this.conflados = meterRegistry.counter("ws.publicador.mensajes", "resultado", "conflado");
+        this.descartados = meterRegistry.counter("ws.publicador.mensajes", "resultado", "descartado");
+        meterRegistry.gauge("ws.publicador.pendientes", destinos, PublicadorWebSocket::contarPendientes);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "PublicadorWebSocket");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                enviarPendientes(System.nanoTime(), false);
+            } catch (Exception e) {
+                log.error("[WS] Error enviando mensajes pendientes: {}", e.getMessage(), e);
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        programador.shutdown();
+        programador.awaitTermination(2, TimeUnit.SECONDS);
+        enviarPendientes(System.nanoTime(), true);
+    }
+
+    /**
+     * Deja {@code payload} como último estado de ({@code destino}, {@code clave}).
+     * Con clave null el destino tiene un único estado.
+     */
+    public void publicar(String destino, Object clave, Object payload) {
+        Object claveEfectiva = Objects.requireNonNullElse(clave, destino);
+        while (true) {
+            Destino d = destinos.computeIfAbsent(destino, this::crearDestino);
+            synchronized (d) {
+                if (d.retirado) {
+                    // Se retiró entre computeIfAbsent y el lock: se crea otro
+                    continue;
+                }
+                if (d.pendientes.remove(claveEfectiva) != null) {
+                    conflados.increment();
+                } else if (d.pendientes.size() >= maxPendientes) {
+                    Iterator<Object> masAntigua = d.pendientes.keySet().iterator();
+                    masAntigua.next();
+                    masAntigua.remove();
+                    descartados.increment();
+                }
+                d.pendientes.put(claveEfectiva, payload);
+                d.ultimoUso = System.nanoTime();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Envía lo pendiente de cada destino cuyo intervalo ya venció (o de todos
+     * con {@code forzar}) y retira los destinos inactivos.
+     */
+    void enviarPendientes(long ahora, boolean forzar) {
+        for (Destino d : destinos.values()) {
+            List<Object> lote;
+            synchronized (d) {
+                if (d.pendientes.isEmpty()) {
+                    if (ahora - d.ultimoUso > TimeUnit.MILLISECONDS.toNanos(retiroMs)) {
+                        d.retirado = true;
+                        destinos.remove(d.nombre, d);
+                    }
+                    continue;
+                }
+                if (!forzar && ahora - d.proximoEnvio < 0) {
+                    continue;
+                }
+                lote = new ArrayList<>(d.pendientes.values());
+                d.pendientes.clear();
+                d.proximoEnvio = ahora + d.intervaloNanos;
+            }
+            for (Object payload : lote) {
+                try {
+                    messagingTemplate.convertAndSend(d.nombre, payload);
+                    enviados.increment();
+                } catch (Exception e) {
+                    log.warn("[WS] No se pudo enviar a {}: {}", d.nombre, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Destino crearDestino(String nombre) {
+        Long intervalo = environment.getProperty("app.ws.intervalos." + tema(nombre), Long.class, intervaloMs);
+        return new Destino(nombre, TimeUnit.MILLISECONDS.toNanos(intervalo));
+    }
+
+    /**
+     * "/topic/import-progress/15" -> "import-progress"
+     */
+    static String tema(String destino) {
+        String[] partes = destino.split("/");
+        return partes.length > 2 ? partes[2] : destino;
+    }
+
+    private static double contarPendientes(Map<String, Destino> destinos) {
+        int total = 0;
+        for (Destino d : destinos.values()) {
+            synchronized (d) {
+                total += d.pendientes.size();
+            }
+        }
+        return total;
+    }
+
+    private static final class Destino {
+
+        private final String nombre;
+        private final long intervaloNanos;
+        // Guardados por el propio Destino
+        private final LinkedHashMap<Object, Object> pendientes = new LinkedHashMap<>();
+        private long proximoEnvio;
+        private long ultimoUso;
+        private boolean retirado;
+
+        private Destino(String nombre, long intervaloNanos) {
+            this.nombre = nombre;
+            this.intervaloNanos = intervaloNanos;
+            this.proximoEnvio = System.nanoTime();
+            this.ultimoUso = this.proximoEnvio;
+        }
+    }
+}
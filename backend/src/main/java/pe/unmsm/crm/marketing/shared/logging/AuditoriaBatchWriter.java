@@ -0,0 +1,214 @@
+package pe.unmsm.crm.marketing.shared.logging;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escritor en lote de eventos de auditoría.
+ *
+ * Los llamadores solo encolan (offer sobre un buffer acotado, sin bloqueo ni
+ * E/S); un único hilo vacía el buffer e inserta con JDBC batch fuera de la
+ * transacción del llamador.
+ *
+ * - Un lote se cierra al llegar a {@code tamanio-lote} o cuando el buffer queda vacío
+ * - Con el buffer lleno se aplica {@code app.auditoria.politica}:
+ *   LOG (por defecto) escribe el evento en el appender AUDITORIA sin pasar por la BD,
+ *   ESPERAR reintenta hasta {@code espera-ms} y luego cae a LOG,
+ *   DESCARTAR solo lo cuenta
+ * - Si un lote falla al insertarse, sus eventos se vuelcan al appender AUDITORIA
+ * - Cada evento insertado se replica también en el appender AUDITORIA (mismo
+ *   formato que antes), desde el hilo del writer
+ */
+@Component
+public class AuditoriaBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaBatchWriter.class);
+    private static final Logger auditoria = LoggerFactory.getLogger("AUDITORIA");
+
+    private static final String SQL_INSERTAR = """
+            INSERT INTO auditoria_evento (modulo, accion, id_entidad, id_usuario, detalle, fecha_evento)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int MAX_DETALLE = 1000;
+
+    public enum PoliticaSaturacion {
+        LOG, ESPERAR, DESCARTAR
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AuditoriaEvento> buffer;
+    private final PoliticaSaturacion politica;
+
+    @Value("${app.auditoria.tamanio-lote:500}")
+    private int tamanioLote;
+
+    @Value("${app.auditoria.espera-ms:5}")
+    private long esperaMs;
+
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong desbordados = new AtomicLong();
+    private final AtomicLong escritos = new AtomicLong();
+
+    private Thread worker;
+    private volatile boolean activo = true;
+
+    public AuditoriaBatchWriter(JdbcTemplate jdbcTemplate,
+            @Value("${app.auditoria.capacidad:10000}") int capacidad,
+            @Value("${app.auditoria.politica:LOG}") PoliticaSaturacion politica) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new ArrayBlockingQueue<>(capacidad);
+        this.politica = politica;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        worker = new Thread(this::procesar, "AuditoriaWriter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Encola el evento. No bloquea salvo con la política ESPERAR.
+     */
+    public void encolar(AuditoriaEvento evento) {
+        if (buffer.offer(evento)) {
+            return;
+        }
+
+        switch (politica) {
+            case ESPERAR -> {
+                try {
+                    if (buffer.offer(evento, esperaMs, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                desbordar(evento);
+            }
+            case DESCARTAR -> {
+                if (descartados.incrementAndGet() % 1000 == 1) {
+                    log.warn("Buffer de auditoría lleno: {} eventos descartados", descartados.get());
+                }
+            }
+            default -> desbordar(evento);
+        }
+    }
+
+    public int pendientes() {
+        return buffer.size();
+    }
+
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    public long getDesbordados() {
+        return desbordados.get();
+    }
+
+    public long getEscritos() {
+        return escritos.get();
+    }
+
+    private void procesar() {
+        List<AuditoriaEvento> lote = new ArrayList<>(tamanioLote);
+        while (activo || !buffer.isEmpty()) {
+            try {
+                AuditoriaEvento primero = buffer.poll(1, TimeUnit.SECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                buffer.drainTo(lote, tamanioLote - 1);
+                escribir(lote);
+            } catch (InterruptedException e) {
+                if (activo) {
+                    continue;
+                }
+                // Apagado: vaciar lo pendiente
+                buffer.drainTo(lote);
+                escribir(lote);
+            } catch (Exception e) {
+                log.error("Error inesperado en el writer de auditoría: {}", e.getMessage(), e);
+                lote.forEach(AuditoriaBatchWriter::registrarEnLog);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribir(List<AuditoriaEvento> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(SQL_INSERTAR, lote, lote.size(), (ps, evento) -> {
+                ps.setString(1, evento.getModulo().name());
+                ps.setString(2, evento.getAccion().name());
+                setLong(ps, 3, evento.getIdEntidad());
+                setLong(ps, 4, evento.getIdUsuario());
+                if (evento.getDetalle() != null) {
+                    ps.setString(5, truncar(evento.getDetalle()));
+                } else {
+                    ps.setNull(5, Types.VARCHAR);
+                }
+                ps.setTimestamp(6, Timestamp.valueOf(evento.getFechaEvento()));
+            });
+            escritos.addAndGet(lote.size());
+        } catch (Exception e) {
+            log.error("No se pudo insertar un lote de {} eventos de auditoría ({}); se registran en el log",
+                    lote.size(), e.getMessage());
+        }
+        lote.forEach(AuditoriaBatchWriter::registrarEnLog);
+    }
+
+    private void desbordar(AuditoriaEvento evento) {
+        if (desbordados.incrementAndGet() % 1000 == 1) {
+            log.warn("Buffer de auditoría lleno: {} eventos registrados solo en el log", desbordados.get());
+        }
+        registrarEnLog(evento);
+    }
+
+    private static void registrarEnLog(AuditoriaEvento evento) {
+        auditoria.info("modulo={}, accion={}, entidadId={}, usuarioId={}, detalle={}",
+                evento.getModulo(), evento.getAccion(), evento.getIdEntidad(), evento.getIdUsuario(),
+                evento.getDetalle());
+    }
+
+    private static void setLong(PreparedStatement ps, int indice, Long valor) throws SQLException {
+        if (valor != null) {
+            ps.setLong(indice, valor);
+        } else {
+            ps.setNull(indice, Types.BIGINT);
+        }
+    }
+
+    private static String truncar(String detalle) {
+        return detalle.length() > MAX_DETALLE ? detalle.substring(0, MAX_DETALLE) : detalle;
+    }
+}
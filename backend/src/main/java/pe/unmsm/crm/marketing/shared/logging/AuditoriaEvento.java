@@ -0,0 +1,53 @@
+package pe.unmsm.crm.marketing.shared.logging;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de auditoría persistido.
+ *
+ * Solo lectura desde JPA: las inserciones las hace AuditoriaBatchWriter en lote.
+ */
+@Entity
+@Table(name = "auditoria_evento")
+@Data
+@NoArgsConstructor
+public class AuditoriaEvento {
+
+    @Id
+    @Column(name = "id_evento")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "modulo", nullable = false, length = 40)
+    private ModuloLog modulo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "accion", nullable = false, length = 40)
+    private AccionLog accion;
+
+    @Column(name = "id_entidad")
+    private Long idEntidad;
+
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(name = "detalle", length = 1000)
+    private String detalle;
+
+    @Column(name = "fecha_evento", nullable = false)
+    private LocalDateTime fechaEvento;
+
+    public AuditoriaEvento(ModuloLog modulo, AccionLog accion, Long idEntidad, Long idUsuario, String detalle,
+            LocalDateTime fechaEvento) {
+        this.modulo = modulo;
+        this.accion = accion;
+        this.idEntidad = idEntidad;
+        this.idUsuario = idUsuario;
+        this.detalle = detalle;
+        this.fechaEvento = fechaEvento;
+    }
+}
@@ -0,0 +1,40 @@
+package pe.unmsm.crm.marketing.shared.logging;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface AuditoriaEventoRepository extends JpaRepository<AuditoriaEvento, Long> {
+
+    // Búsqueda por entidad, usuario y rango de fechas (todos opcionales), más
+    // recientes primero
+    @Query(value = "SELECT a FROM AuditoriaEvento a WHERE " +
+            "(:modulo IS NULL OR a.modulo = :modulo) AND " +
+            "(:accion IS NULL OR a.accion = :accion) AND " +
+            "(:idEntidad IS NULL OR a.idEntidad = :idEntidad) AND " +
+            "(:idUsuario IS NULL OR a.idUsuario = :idUsuario) AND " +
+            "(:desde IS NULL OR a.fechaEvento >= :desde) AND " +
+            "(:hasta IS NULL OR a.fechaEvento < :hasta) " +
+            "ORDER BY a.fechaEvento DESC, a.id DESC",
+            countQuery = "SELECT COUNT(a) FROM AuditoriaEvento a WHERE " +
+                    "(:modulo IS NULL OR a.modulo = :modulo) AND " +
+                    "(:accion IS NULL OR a.accion = :accion) AND " +
+                    "(:idEntidad IS NULL OR a.idEntidad = :idEntidad) AND " +
+                    "(:idUsuario IS NULL OR a.idUsuario = :idUsuario) AND " +
+                    "(:desde IS NULL OR a.fechaEvento >= :desde) AND " +
+                    "(:hasta IS NULL OR a.fechaEvento < :hasta)")
+    Page<AuditoriaEvento> buscar(
+            @Param("modulo") ModuloLog modulo,
+            @Param("accion") AccionLog accion,
+            @Param("idEntidad") Long idEntidad,
+            @Param("idUsuario") Long idUsuario,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            Pageable pageable);
+}
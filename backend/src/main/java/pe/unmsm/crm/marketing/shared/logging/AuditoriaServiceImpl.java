@@ -1,17 +1,23 @@
 package pe.unmsm.crm.marketing.shared.logging;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
+/**
+ * Registra eventos de auditoría de forma asíncrona: solo se encolan en
+ * AuditoriaBatchWriter, que los persiste en lote (tabla auditoria_evento) y
+ * los replica en el appender AUDITORIA.
+ */
 @Service
+@RequiredArgsConstructor
 public class AuditoriaServiceImpl implements AuditoriaService {
 
-    private static final Logger logger = LoggerFactory.getLogger("AUDITORIA");
+    private final AuditoriaBatchWriter batchWriter;
 
     @Override
     public void registrarEvento(ModuloLog modulo, AccionLog accion, Long idEntidad, Long idUsuario, String detalle) {
-        logger.info("modulo={}, accion={}, entidadId={}, usuarioId={}, detalle={}",
-                modulo, accion, idEntidad, idUsuario, detalle);
+        batchWriter.encolar(new AuditoriaEvento(modulo, accion, idEntidad, idUsuario, detalle, LocalDateTime.now()));
     }
 }
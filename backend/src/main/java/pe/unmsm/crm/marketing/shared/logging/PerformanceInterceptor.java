@@ -1,38 +1,93 @@
 package pe.unmsm.crm.marketing.shared.logging;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import pe.unmsm.crm.marketing.shared.infra.metrics.JdbcRequestStats;
 
+/**
+ * Muestreo de requests lentos.
+ *
+ * La latencia por ruta/método/status la registra Micrometer
+ * ({@code http.server.requests}, con histograma y SLOs configurados en
+ * application.yml). Este interceptor solo escribe en el log PERFORMANCE los
+ * requests que superan {@code app.metrics.slow-request-ms}, con el número de
+ * consultas y el tiempo pasado en JDBC, y los cuenta en
+ * {@code http.server.requests.slow}.
+ */
 @Component
 public class PerformanceInterceptor implements HandlerInterceptor {
 
     private static final Logger logger = LoggerFactory.getLogger("PERFORMANCE");
     private static final String START_TIME_ATTRIBUTE = "startTime";
 
+    private final MeterRegistry meterRegistry;
+    private final long umbralNanos;
+
+    public PerformanceInterceptor(MeterRegistry meterRegistry,
+            @Value("${app.metrics.slow-request-ms:1000}") long umbralMs) {
+        this.meterRegistry = meterRegistry;
+        this.umbralNanos = umbralMs * 1_000_000;
+    }
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
             throws Exception {
-        long startTime = System.currentTimeMillis();
-        request.setAttribute(START_TIME_ATTRIBUTE, startTime);
+        // En el despacho ASYNC se conserva el inicio del request original
+        if (request.getAttribute(START_TIME_ATTRIBUTE) == null) {
+            request.setAttribute(START_TIME_ATTRIBUTE, System.nanoTime());
+        }
+        JdbcRequestStats.iniciar();
         return true;
     }
 
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        JdbcRequestStats.finalizar();
+    }
+
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex)
             throws Exception {
+        JdbcRequestStats jdbc = JdbcRequestStats.finalizar();
         Long startTime = (Long) request.getAttribute(START_TIME_ATTRIBUTE);
-        if (startTime != null) {
-            long duration = System.currentTimeMillis() - startTime;
-
-            logger.info("method={}, uri={}, status={}, durationMs={}",
-                    request.getMethod(),
-                    request.getRequestURI(),
-                    response.getStatus(),
-                    duration);
+        if (startTime == null) {
+            return;
+        }
+        long duration = System.nanoTime() - startTime;
+        if (duration < umbralNanos) {
+            return;
         }
+
+        String ruta = rutaDe(request);
+        Counter.builder("http.server.requests.slow")
+                .description("Requests que superan el umbral de lentitud")
+                .tag("method", request.getMethod())
+                .tag("uri", ruta)
+                .register(meterRegistry)
+                .increment();
+
+        logger.info("method={}, uri={}, route={}, status={}, durationMs={}, queries={}, jdbcMs={}",
+                request.getMethod(),
+                request.getRequestURI(),
+                ruta,
+                response.getStatus(),
+                duration / 1_000_000,
+                jdbc != null ? jdbc.getConsultas() : 0,
+                jdbc != null ? jdbc.getMillis() : 0);
+    }
+
+    // Plantilla de la ruta (p.ej. /api/v1/segmentos/{id}); acota la cardinalidad del tag
+    private static String rutaDe(HttpServletRequest request) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return patron != null ? patron.toString() : "UNKNOWN";
     }
 }
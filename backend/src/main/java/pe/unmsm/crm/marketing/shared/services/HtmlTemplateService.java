@@ -8,15 +8,21 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Servicio para procesar plantillas HTML con datos dinámicos.
  * Permite cargar plantillas desde resources y reemplazar placeholders con
  * valores reales.
+ *
+ * Cada plantilla de templates/pdf se lee y normaliza a XHTML una sola vez
+ * (caché por recurso); por llamada solo se reemplazan los placeholders sobre
+ * el texto y se parsea el resultado una vez.
  */
 @Service
 @RequiredArgsConstructor
@@ -25,6 +31,10 @@ public class HtmlTemplateService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
+    public static final String TEMPLATES_PATH = "templates/pdf/";
+
+    private final Map<String, String> templateCache = new ConcurrentHashMap<>();
+
     /**
      * Carga una plantilla HTML desde resources y la procesa con datos dinámicos.
      * Los placeholders en la plantilla siguen el formato {{clave}}
@@ -36,19 +46,18 @@ public class HtmlTemplateService {
      * @throws IOException si no se puede leer la plantilla
      */
     public String processTemplate(String templateName, Map<String, Object> data) throws IOException {
-        // Cargar plantilla desde resources/templates/pdf/
-        ClassPathResource resource = new ClassPathResource("templates/pdf/" + templateName);
-        String template = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        // Plantilla ya normalizada (resources/templates/pdf/), cargada una sola vez
+        String template = loadTemplate(templateName);
 
-        // Parsear HTML con Jsoup para manipulación segura
-        Document doc = Jsoup.parse(template);
-        doc.outputSettings().syntax(Document.OutputSettings.Syntax.xml);
-
-        // Reemplazar placeholders
-        replacePlaceholders(doc, data);
+        // Reemplazar placeholders y devolver HTML válido
+        return toXhtml(replacePlaceholders(template, data));
+    }
 
-        // Retornar HTML válido
-        return doc.html();
+    /**
+     * Descarta las plantillas en caché (se vuelven a leer en el siguiente uso)
+     */
+    public void clearCache() {
+        templateCache.clear();
     }
 
     /**
@@ -60,9 +69,31 @@ public class HtmlTemplateService {
      * @return HTML procesado
      */
     public String processTemplateFromString(String templateContent, Map<String, Object> data) {
-        Document doc = Jsoup.parse(templateContent);
+        return toXhtml(replacePlaceholders(toXhtml(templateContent), data));
+    }
+
+    private String loadTemplate(String templateName) throws IOException {
+        String cached = templateCache.get(templateName);
+        if (cached != null) {
+            return cached;
+        }
+
+        ClassPathResource resource = new ClassPathResource(TEMPLATES_PATH + templateName);
+        String template;
+        try (InputStream in = resource.getInputStream()) {
+            template = toXhtml(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        templateCache.putIfAbsent(templateName, template);
+        log.debug("Plantilla {} cargada en caché", templateName);
+        return template;
+    }
+
+    /**
+     * Parsea el HTML con Jsoup y lo serializa como XHTML (requerido por Flying Saucer)
+     */
+    private String toXhtml(String html) {
+        Document doc = Jsoup.parse(html);
         doc.outputSettings().syntax(Document.OutputSettings.Syntax.xml);
-        replacePlaceholders(doc, data);
         return doc.html();
     }
 
@@ -70,20 +101,17 @@ public class HtmlTemplateService {
      * Reemplaza placeholders en el HTML con valores del mapa de datos.
      * Los placeholders siguen el formato {{clave}}
      */
-    private void replacePlaceholders(Document doc, Map<String, Object> data) {
+    private String replacePlaceholders(String html, Map<String, Object> data) {
         if (data == null || data.isEmpty()) {
-            return;
+            return html;
         }
 
+        String result = html;
         for (Map.Entry<String, Object> entry : data.entrySet()) {
             String placeholder = "{{" + entry.getKey() + "}}";
-            String value = formatValue(entry.getValue());
-
-            // Reemplazar en todo el documento
-            String html = doc.html();
-            html = html.replace(placeholder, value);
-            doc.html(html);
+            result = result.replace(placeholder, formatValue(entry.getValue()));
         }
+        return result;
     }
 
     /**
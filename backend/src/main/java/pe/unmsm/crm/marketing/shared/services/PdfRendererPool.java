@@ -0,0 +1,118 @@
+package pe.unmsm.crm.marketing.shared.services;
+
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.BaseFont;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool acotado de renderers de Flying Saucer.
+ *
+ * Crear un ITextRenderer por PDF obliga a reconstruir su contexto (resolución
+ * de fuentes, caché de CSS e imágenes del user agent). Aquí se reutilizan:
+ * - Como máximo {@code app.reportes.pdf.renderers} renders simultáneos; el resto
+ *   espera hasta {@code app.reportes.pdf.espera-ms}
+ * - Las fuentes de {@code app.reportes.pdf.fuentes-dir} se registran una vez por
+ *   renderer, al crearlo
+ * - Los recursos relativos (imágenes, CSS) se resuelven contra templates/pdf
+ * - Un renderer que falla se descarta en lugar de devolverse al pool
+ *
+ * ITextRenderer no es thread-safe: cada instancia se usa por un solo hilo a la vez.
+ */
+@Component
+@Slf4j
+public class PdfRendererPool {
+
+    private final Semaphore permisos;
+    private final Queue<ITextRenderer> libres = new ConcurrentLinkedQueue<>();
+    private final long esperaMs;
+    private final String fuentesDir;
+    private final String baseUrl;
+
+    public PdfRendererPool(
+            @Value("${app.reportes.pdf.renderers:4}") int renderers,
+            @Value("${app.reportes.pdf.espera-ms:30000}") long esperaMs,
+            @Value("${app.reportes.pdf.fuentes-dir:}") String fuentesDir) {
+        this.permisos = new Semaphore(renderers, true);
+        this.esperaMs = esperaMs;
+        this.fuentesDir = fuentesDir;
+        this.baseUrl = resolverBaseUrl();
+    }
+
+    /**
+     * Ejecuta el trabajo con un renderer del pool
+     *
+     * @throws IOException si no hay renderer disponible a tiempo o el render falla
+     */
+    public <T> T ejecutar(RenderTask<T> tarea) throws IOException {
+        try {
+            if (!permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException("No hay renderers de PDF disponibles, intente nuevamente");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generación de PDF interrumpida", e);
+        }
+
+        ITextRenderer renderer = null;
+        boolean reutilizable = false;
+        try {
+            renderer = libres.poll();
+            if (renderer == null) {
+                renderer = crearRenderer();
+            }
+            T resultado = tarea.ejecutar(renderer, baseUrl);
+            reutilizable = true;
+            return resultado;
+        } finally {
+            if (renderer != null && reutilizable) {
+                libres.offer(renderer);
+            }
+            permisos.release();
+        }
+    }
+
+    public int disponibles() {
+        return permisos.availablePermits();
+    }
+
+    private ITextRenderer crearRenderer() throws IOException {
+        ITextRenderer renderer = new ITextRenderer();
+        if (fuentesDir != null && !fuentesDir.isBlank() && new File(fuentesDir).isDirectory()) {
+            try {
+                renderer.getFontResolver().addFontDirectory(fuentesDir, BaseFont.EMBEDDED);
+            } catch (DocumentException e) {
+                throw new IOException("Error al registrar fuentes de " + fuentesDir, e);
+            }
+        }
+        log.debug("Renderer de PDF creado (libres: {}, permisos: {})", libres.size(), permisos.availablePermits());
+        return renderer;
+    }
+
+    private static String resolverBaseUrl() {
+        try {
+            return new ClassPathResource(HtmlTemplateService.TEMPLATES_PATH).getURL().toExternalForm();
+        } catch (IOException e) {
+            log.warn("No se pudo resolver la URL base de plantillas PDF: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Trabajo de render sobre un renderer prestado
+     */
+    @FunctionalInterface
+    public interface RenderTask<T> {
+        T ejecutar(ITextRenderer renderer, String baseUrl) throws IOException;
+    }
+}
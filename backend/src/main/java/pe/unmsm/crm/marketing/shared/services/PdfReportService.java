@@ -4,7 +4,6 @@ import com.lowagie.text.DocumentException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.xhtmlrenderer.pdf.ITextRenderer;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -15,50 +14,54 @@ import org.jsoup.nodes.Document;
 /**
  * Servicio para generar archivos PDF a partir de contenido HTML.
  * Utiliza Flying Saucer (xhtmlrenderer) con iText como backend.
+ *
+ * Los renderers se toman de PdfRendererPool (acotado y reutilizable) en lugar
+ * de crear uno por PDF.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PdfReportService {
 
+    private final PdfRendererPool rendererPool;
+
     /**
      * Genera un PDF a partir de contenido HTML.
      * El HTML debe ser XHTML válido para que Flying Saucer pueda procesarlo
      * correctamente.
-     * 
+     *
      * @param htmlContent HTML bien formado (XHTML válido)
      * @return byte array del PDF generado
      * @throws IOException si hay error al generar el PDF
      */
     public byte[] generatePdfFromHtml(String htmlContent) throws IOException {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            ITextRenderer renderer = new ITextRenderer();
-
-            // Usar Jsoup para limpiar y convertir a XHTML válido
-            Document document = Jsoup.parse(htmlContent);
-            document.outputSettings().syntax(Document.OutputSettings.Syntax.xml);
-            String xhtmlPayload = document.html();
+        // Usar Jsoup para limpiar y convertir a XHTML válido (fuera del pool)
+        Document document = Jsoup.parse(htmlContent);
+        document.outputSettings().syntax(Document.OutputSettings.Syntax.xml);
+        String xhtmlPayload = document.html();
 
-            // Configurar el HTML limpio
-            renderer.setDocumentFromString(xhtmlPayload);
-            renderer.layout();
+        byte[] pdfBytes = rendererPool.ejecutar((renderer, baseUrl) -> {
+            try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+                // Configurar el HTML limpio
+                renderer.setDocumentFromString(xhtmlPayload, baseUrl);
+                renderer.layout();
 
-            // Generar PDF
-            renderer.createPDF(outputStream);
+                // Generar PDF
+                renderer.createPDF(outputStream);
+                return outputStream.toByteArray();
+            } catch (DocumentException e) {
+                log.error("Error al generar PDF: {}", e.getMessage());
+                throw new IOException("Error al generar PDF", e);
+            }
+        });
 
-            byte[] pdfBytes = outputStream.toByteArray();
-            log.info("PDF generado exitosamente, tamaño: {} bytes", pdfBytes.length);
-            return pdfBytes;
-
-        } catch (DocumentException e) {
-            log.error("Error al generar PDF: {}", e.getMessage());
-            throw new IOException("Error al generar PDF", e);
-        }
+        log.info("PDF generado exitosamente, tamaño: {} bytes", pdfBytes.length);
+        return pdfBytes;
     }
 
     /**
      * Genera un PDF y opcionalmente lo guarda con un nombre específico.
-     * 
+     *
      * @param htmlContent HTML bien formado
      * @param fileName    nombre sugerido para el archivo (sin extensión)
      * @return byte array del PDF generado
@@ -0,0 +1,194 @@
+package pe.unmsm.crm.marketing.shared.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import pe.unmsm.crm.marketing.shared.infra.exception.BusinessException;
+import pe.unmsm.crm.marketing.shared.infra.exception.NotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generación de reportes PDF en segundo plano.
+ *
+ * Los controladores encolan el trabajo y responden 202 con el id del job; el
+ * cliente consulta el estado y descarga el resultado cuando está COMPLETADO.
+ * Así un pico de reportes ocupa los hilos de este executor (acotado) y no los
+ * de Tomcat.
+ *
+ * - {@code app.reportes.jobs.hilos} trabajos en paralelo y hasta
+ *   {@code app.reportes.jobs.capacidad} en cola; si la cola está llena el envío
+ *   se rechaza
+ * - Los resultados se conservan {@code app.reportes.jobs.retencion-min} minutos,
+ *   hasta un total de {@code app.reportes.jobs.max-mb} MB de PDFs; superado ese
+ *   peso se descartan antes los menos usados
+ * - Solo el usuario que envió el job puede consultarlo o descargarlo
+ * - El job se ejecuta con el SecurityContext de quien lo envió
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, ReportJob> jobs;
+
+    public ReportJobService(
+            @Value("${app.reportes.jobs.hilos:2}") int hilos,
+            @Value("${app.reportes.jobs.capacidad:50}") int capacidad,
+            @Value("${app.reportes.jobs.retencion-min:30}") long retencionMin,
+            @Value("${app.reportes.jobs.max-mb:256}") long maxMb) {
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidad),
+                r -> {
+                    Thread t = new Thread(r, "report-job-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.jobs = Caffeine.newBuilder()
+                .maximumWeight(maxMb * 1024 * 1024)
+                .weigher((String id, ReportJob job) -> job.peso())
+                .expireAfterWrite(retencionMin, TimeUnit.MINUTES)
+                .build();
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Encola la generación de un reporte
+     *
+     * @param tipo          identificador legible del reporte (para logs y estado)
+     * @param nombreArchivo nombre con el que se descargará el PDF
+     * @param generador     genera el contenido del PDF
+     * @return job en estado PENDIENTE
+     * @throws BusinessException si la cola de reportes está llena
+     */
+    public ReportJob enviar(String tipo, String nombreArchivo, ReportGenerator generador) {
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), tipo, nombreArchivo, usuarioActual());
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(new DelegatingSecurityContextRunnable(() -> ejecutar(job, generador)));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            throw new BusinessException("REPORT_QUEUE_FULL",
+                    "Hay demasiados reportes en proceso. Intente nuevamente en unos minutos.");
+        }
+        log.info("Reporte {} encolado (job {}, en cola: {})", tipo, job.getId(), executor.getQueue().size());
+        return job;
+    }
+
+    /**
+     * Estado del job del usuario actual
+     *
+     * @throws NotFoundException si no existe, expiró o pertenece a otro usuario
+     */
+    public ReportJob obtener(String id) {
+        ReportJob job = jobs.getIfPresent(id);
+        if (job == null || !Objects.equals(job.getUsuario(), usuarioActual())) {
+            throw new NotFoundException("Reporte", id);
+        }
+        return job;
+    }
+
+    private void ejecutar(ReportJob job, ReportGenerator generador) {
+        job.iniciar();
+        long inicio = System.currentTimeMillis();
+        try {
+            byte[] contenido = generador.generar();
+            job.completar(contenido);
+            log.info("Reporte {} generado (job {}) en {}ms, {} bytes",
+                    job.getTipo(), job.getId(), System.currentTimeMillis() - inicio, contenido.length);
+        } catch (Exception e) {
+            job.fallar(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            log.error("Error generando reporte {} (job {}): {}", job.getTipo(), job.getId(), e.getMessage(), e);
+        }
+        // Reinicia la retención desde el fin de la generación y vuelve a pesar el job con su PDF
+        jobs.put(job.getId(), job);
+    }
+
+    private static String usuarioActual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : null;
+    }
+
+    /**
+     * Genera el contenido del reporte
+     */
+    @FunctionalInterface
+    public interface ReportGenerator {
+        byte[] generar() throws Exception;
+    }
+
+    public enum EstadoJob {
+        PENDIENTE, EN_PROCESO, COMPLETADO, ERROR
+    }
+
+    /**
+     * Job de reporte. Los cambios de estado los hace el hilo del executor.
+     */
+    @Getter
+    public static class ReportJob {
+
+        private static final int PESO_BASE = 1024;
+
+        private final String id;
+        private final String tipo;
+        private final String nombreArchivo;
+        private final String usuario;
+        private final LocalDateTime fechaCreacion = LocalDateTime.now();
+        private volatile EstadoJob estado = EstadoJob.PENDIENTE;
+        private volatile LocalDateTime fechaFin;
+        private volatile String error;
+        private volatile byte[] contenido;
+
+        ReportJob(String id, String tipo, String nombreArchivo, String usuario) {
+            this.id = id;
+            this.tipo = tipo;
+            this.nombreArchivo = nombreArchivo;
+            this.usuario = usuario;
+        }
+
+        void iniciar() {
+            estado = EstadoJob.EN_PROCESO;
+        }
+
+        void completar(byte[] contenido) {
+            this.contenido = contenido;
+            this.fechaFin = LocalDateTime.now();
+            this.estado = EstadoJob.COMPLETADO;
+        }
+
+        /**
+         * Peso en la caché: el PDF más una cantidad fija por job, así que los
+         * pendientes también cuentan
+         */
+        int peso() {
+            byte[] actual = contenido;
+            return PESO_BASE + (actual != null ? actual.length : 0);
+        }
+
+        void fallar(String error) {
+            this.error = error;
+            this.fechaFin = LocalDateTime.now();
+            this.estado = EstadoJob.ERROR;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+-- Lease para coordinar tareas programadas entre varias instancias
+CREATE TABLE IF NOT EXISTS scheduler_lease (
+    nombre_job VARCHAR(100) NOT NULL PRIMARY KEY,
+    propietario VARCHAR(150) NOT NULL COMMENT 'host-uuid de la instancia que posee el lease',
+    expira_en DATETIME(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Leases de jobs programados (coordinación multi-instancia)';
+
+-- Índices para los barridos de estado del scheduler de mailing
+CREATE INDEX idx_mailing_estado_fecha_inicio ON campanas_mailing (id_estado, fecha_inicio);
+CREATE INDEX idx_mailing_estado_fecha_fin ON campanas_mailing (id_estado, fecha_fin);
@@ -0,0 +1,13 @@
+-- Un lead responde una encuesta una sola vez: la restricción reemplaza la
+-- pre-consulta existsByLeadAndEncuesta del registro de respuestas.
+
+-- Limpieza previa: conservar solo la primera respuesta de cada (encuesta, lead).
+-- Los detalles se eliminan por ON DELETE CASCADE.
+DELETE r1 FROM Respuesta_Encuesta r1
+INNER JOIN Respuesta_Encuesta r2
+    ON r1.id_encuesta = r2.id_encuesta
+    AND r1.lead_id = r2.lead_id
+    AND r1.id_respuesta_encuesta > r2.id_respuesta_encuesta;
+
+ALTER TABLE Respuesta_Encuesta
+    ADD CONSTRAINT uk_respuesta_encuesta_lead UNIQUE (id_encuesta, lead_id);
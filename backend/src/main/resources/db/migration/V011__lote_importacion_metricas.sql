@@ -0,0 +1,5 @@
+-- Métricas de rendimiento por lote de importación
+ALTER TABLE lotes_importacion
+    ADD COLUMN duracion_ms BIGINT NULL COMMENT 'Duración total del procesamiento',
+    ADD COLUMN filas_por_segundo DECIMAL(12,2) NULL COMMENT 'Throughput del procesamiento',
+    ADD COLUMN heap_pico_mb INT NULL COMMENT 'Heap usado máximo observado durante el procesamiento';
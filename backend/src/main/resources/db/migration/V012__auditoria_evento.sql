@@ -0,0 +1,14 @@
+-- Registro durable de auditoría (antes solo en el appender AUDITORIA de logback)
+CREATE TABLE IF NOT EXISTS auditoria_evento (
+    id_evento BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    modulo VARCHAR(40) NOT NULL,
+    accion VARCHAR(40) NOT NULL,
+    id_entidad BIGINT NULL,
+    id_usuario BIGINT NULL,
+    detalle VARCHAR(1000) NULL,
+    fecha_evento DATETIME(3) NOT NULL COMMENT 'Momento en que se registró el evento (no el de inserción)',
+    INDEX idx_auditoria_entidad (modulo, id_entidad, fecha_evento),
+    INDEX idx_auditoria_usuario (id_usuario, fecha_evento),
+    INDEX idx_auditoria_fecha (fecha_evento)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Eventos de auditoría escritos en lote por AuditoriaBatchWriter';
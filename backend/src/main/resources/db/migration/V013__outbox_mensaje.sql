@@ -0,0 +1,21 @@
+-- Outbox transaccional para envíos HTTP salientes (derivación de leads a Ventas)
+CREATE TABLE IF NOT EXISTS outbox_mensaje (
+    id_mensaje BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    destino VARCHAR(60) NOT NULL COMMENT 'Destino lógico; URL y credenciales se resuelven al enviar',
+    clave_idempotencia VARCHAR(150) NULL,
+    payload MEDIUMTEXT NOT NULL COMMENT 'Cuerpo JSON del POST',
+    estado VARCHAR(20) NOT NULL COMMENT 'PENDIENTE, EN_PROCESO, ENVIADO, FALLIDO (dead letter)',
+    intentos INT NOT NULL DEFAULT 0,
+    proximo_intento DATETIME(3) NOT NULL,
+    token_reclamo VARCHAR(64) NULL COMMENT 'Lote del relay que tiene reclamado el mensaje',
+    bloqueado_hasta DATETIME(3) NULL,
+    ultimo_status INT NULL,
+    ultimo_error VARCHAR(1000) NULL,
+    fecha_creacion DATETIME(3) NOT NULL,
+    fecha_envio DATETIME(3) NULL,
+    UNIQUE KEY uk_outbox_clave (destino, clave_idempotencia),
+    INDEX idx_outbox_reclamo (destino, estado, proximo_intento),
+    INDEX idx_outbox_token (token_reclamo),
+    INDEX idx_outbox_estado_fecha (estado, fecha_creacion)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Mensajes salientes escritos en la transacción de origen y enviados por OutboxRelay';
@@ -0,0 +1,26 @@
+-- Timers durables del Gestor de campañas (activación, pausa y finalización programadas)
+CREATE TABLE IF NOT EXISTS campana_timer (
+    id_timer BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    id_campana BIGINT NOT NULL,
+    accion VARCHAR(20) NOT NULL COMMENT 'ACTIVAR, PAUSAR, FINALIZAR',
+    due_at DATETIME(3) NOT NULL COMMENT 'Momento en que debe ejecutarse la transición',
+    intentos INT NOT NULL DEFAULT 0,
+    token_reclamo VARCHAR(64) NULL COMMENT 'Ciclo del poller que tiene reclamado el timer',
+    bloqueado_hasta DATETIME(3) NULL,
+    ultimo_error VARCHAR(1000) NULL,
+    UNIQUE KEY uk_campana_timer (id_campana, accion),
+    INDEX idx_campana_timer_due (due_at),
+    INDEX idx_campana_timer_token (token_reclamo)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Transiciones programadas de campañas; las dispara CampanaTimerPoller';
+
+-- Campañas ya programadas: antes se reconstruían en memoria al arrancar
+INSERT IGNORE INTO campana_timer (id_campana, accion, due_at)
+SELECT id_campana, 'ACTIVAR', fecha_programada_inicio
+FROM campana
+WHERE estado = 'Programada' AND fecha_programada_inicio IS NOT NULL;
+
+INSERT IGNORE INTO campana_timer (id_campana, accion, due_at)
+SELECT id_campana, 'FINALIZAR', fecha_programada_fin
+FROM campana
+WHERE estado = 'Programada' AND fecha_programada_fin IS NOT NULL;
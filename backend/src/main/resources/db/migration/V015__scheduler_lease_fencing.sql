@@ -0,0 +1,5 @@
+-- Token de fencing y heartbeat para los leases de jobs programados
+ALTER TABLE scheduler_lease
+    ADD COLUMN token_fencing BIGINT NOT NULL DEFAULT 0 COMMENT 'Se incrementa cada vez que el lease cambia de propietario',
+    ADD COLUMN adquirido_en DATETIME(3) NULL COMMENT 'Inicio de la posesión actual',
+    ADD COLUMN renovado_en DATETIME(3) NULL COMMENT 'Último heartbeat del propietario';
@@ -0,0 +1,13 @@
+-- Avance de los envíos de campañas de mailing, para retomar un envío
+-- interrumpido sin volver a escribir a quienes ya recibieron el correo
+CREATE TABLE IF NOT EXISTS mailing_envio_progreso (
+    id_campana_mailing INT NOT NULL PRIMARY KEY,
+    token BIGINT NOT NULL COMMENT 'Se incrementa cada vez que una ejecución reclama o retoma el envío',
+    ultimo_lead BIGINT NOT NULL DEFAULT 0 COMMENT 'Último lead procesado (el cursor del segmento es keyset por lead)',
+    enviados INT NOT NULL DEFAULT 0,
+    fallidos INT NOT NULL DEFAULT 0,
+    latido DATETIME(3) NOT NULL COMMENT 'Último avance registrado',
+    completado_en DATETIME(3) NULL,
+    INDEX idx_envio_progreso_pendiente (completado_en, latido)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Progreso por destinatario de los envíos de mailing (EnvioMailingTask)';
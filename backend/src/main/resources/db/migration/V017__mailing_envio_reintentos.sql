@@ -0,0 +1,4 @@
+-- Reintentos con backoff de los envíos de mailing en los que no salió ningún correo
+ALTER TABLE mailing_envio_progreso
+    ADD COLUMN intentos_fallidos INT NOT NULL DEFAULT 0 COMMENT 'Envíos seguidos en los que fallaron todos los destinatarios',
+    ADD COLUMN reintentar_desde DATETIME(3) NULL COMMENT 'La campaña no se vuelve a reclamar antes de esta fecha';
@@ -6,9 +6,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import pe.unmsm.crm.marketing.campanas.encuestas.api.dto.CreateEncuestaDto;
 import pe.unmsm.crm.marketing.campanas.encuestas.api.dto.EncuestaCompletaDto;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.model.Encuesta;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.EncuestaModificadaEvent;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.EncuestaRepository;
 import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.CampanaExternalRepository;
 import pe.unmsm.crm.marketing.security.domain.UsuarioEntity;
@@ -40,6 +42,9 @@ class EncuestaServiceTest {
     @Mock
     private UserAuthorizationService userAuthorizationService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private EncuestaService encuestaService;
 
@@ -141,5 +146,6 @@ class EncuestaServiceTest {
                 eq(100L),
                 eq(1L),
                 contains("Encuesta archivada (ID: 100)"));
+        verify(eventPublisher).publishEvent(any(EncuestaModificadaEvent.class));
     }
 }
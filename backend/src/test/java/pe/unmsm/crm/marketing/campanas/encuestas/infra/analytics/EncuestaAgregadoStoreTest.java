@@ -0,0 +1,143 @@
+package pe.unmsm.crm.marketing.campanas.encuestas.infra.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.EncuestaModificadaEvent;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.observer.RespuestaRegistradaEvent;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.repository.RespuestaEncuestaRepository;
+import pe.unmsm.crm.marketing.campanas.encuestas.domain.strategy.EstadisticaPregunta;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EncuestaAgregadoStoreTest {
+
+    @Mock
+    private RespuestaEncuestaRepository respuestaEncuestaRepository;
+
+    @InjectMocks
+    private EncuestaAgregadoStore store;
+
+    @Test
+    void onRespuestaRegistrada_AcumulaContadoresPorPregunta() {
+        when(respuestaEncuestaRepository.findMaxIdRespuesta(1)).thenReturn(null);
+
+        store.onRespuestaRegistrada(evento(1, LocalDateTime.now(), 1L,
+                new RespuestaRegistradaEvent.Detalle(10, 100, null),
+                new RespuestaRegistradaEvent.Detalle(20, null, 4)));
+        store.onRespuestaRegistrada(evento(2, LocalDateTime.now(), 0L,
+                new RespuestaRegistradaEvent.Detalle(10, 101, null),
+                new RespuestaRegistradaEvent.Detalle(20, null, 2)));
+
+        EncuestaAgregadoStore.BucketAgregado total = store.rango(1, null);
+        assertEquals(2, total.getRespuestas());
+        assertEquals(1, total.getAlertasUrgentes());
+
+        EstadisticaPregunta opciones = total.getEstadistica(10);
+        assertEquals(1, opciones.conteoOpcion(100));
+        assertEquals(1, opciones.conteoOpcion(101));
+        assertEquals(2, opciones.getRespondentesUnicos());
+
+        EstadisticaPregunta escala = total.getEstadistica(20);
+        assertEquals(2, escala.getEscalaCantidad());
+        assertEquals(6, escala.getEscalaSuma());
+        assertEquals(20, escala.getEscalaSumaCuadrados());
+    }
+
+    @Test
+    void rango_SoloIncluyeBucketsDesdeLaFecha() {
+        when(respuestaEncuestaRepository.findMaxIdRespuesta(1)).thenReturn(null);
+
+        store.onRespuestaRegistrada(evento(1, LocalDateTime.now().minusDays(20), 0L,
+                new RespuestaRegistradaEvent.Detalle(10, 100, null)));
+        store.onRespuestaRegistrada(evento(2, LocalDateTime.now(), 0L,
+                new RespuestaRegistradaEvent.Detalle(10, 100, null)));
+
+        assertEquals(1, store.rango(1, LocalDate.now().minusDays(7)).getRespuestas());
+        assertEquals(2, store.rango(1, LocalDate.now().minusDays(28)).getRespuestas());
+        assertEquals(2, store.respuestasPorDia(1).values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void onRespuestaRegistrada_IgnoraRespuestasYaCargadas() {
+        when(respuestaEncuestaRepository.findMaxIdRespuesta(1)).thenReturn(5);
+        when(respuestaEncuestaRepository.contarRespuestasPorDia(eq(1), eq(5)))
+                .thenReturn(Collections.singletonList(new Object[] { LocalDate.now(), 5L }));
+        when(respuestaEncuestaRepository.contarAlertasUrgentesPorDia(eq(1), any())).thenReturn(List.of());
+        when(respuestaEncuestaRepository.agregarDetallesPorDia(eq(1), any())).thenReturn(List.of());
+        when(respuestaEncuestaRepository.contarRespondentesPorDia(eq(1), any())).thenReturn(List.of());
+
+        // id 5 ya está incluido en la carga; id 6 es nuevo
+        store.onRespuestaRegistrada(evento(5, LocalDateTime.now(), 0L));
+        store.onRespuestaRegistrada(evento(6, LocalDateTime.now(), 0L));
+
+        assertEquals(6, store.rango(1, null).getRespuestas());
+    }
+
+    @Test
+    void onRespuestaRegistrada_AplicaEventosFueraDeOrdenUnaSolaVez() {
+        when(respuestaEncuestaRepository.findMaxIdRespuesta(1)).thenReturn(null);
+
+        // El commit de la 8 llega antes que el de la 7; la 8 se reintenta
+        store.onRespuestaRegistrada(evento(8, LocalDateTime.now(), 0L));
+        store.onRespuestaRegistrada(evento(7, LocalDateTime.now(), 0L));
+        store.onRespuestaRegistrada(evento(8, LocalDateTime.now(), 0L));
+
+        assertEquals(2, store.rango(1, null).getRespuestas());
+    }
+
+    @Test
+    void onEncuestaModificada_RecargaDesdeLaBd() {
+        when(respuestaEncuestaRepository.findMaxIdRespuesta(1)).thenReturn(null);
+        store.onRespuestaRegistrada(evento(1, LocalDateTime.now(), 0L));
+
+        store.onEncuestaModificada(new EncuestaModificadaEvent(1));
+
+        assertEquals(0, store.rango(1, null).getRespuestas());
+        verify(respuestaEncuestaRepository, times(2)).findMaxIdRespuesta(1);
+    }
+
+    @Test
+    void reconstruir_ConservaLasRespuestasAplicadasDuranteLaCarga() {
+        when(respuestaEncuestaRepository.findMaxIdRespuesta(1))
+                .thenReturn(null)
+                .thenAnswer(inv -> {
+                    // La respuesta 3 se confirma mientras se reconstruye (fuera de la marca 1)
+                    store.onRespuestaRegistrada(evento(3, LocalDateTime.now(), 0L));
+                    return 1;
+                });
+        when(respuestaEncuestaRepository.contarRespuestasPorDia(eq(1), eq(1)))
+                .thenReturn(Collections.singletonList(new Object[] { LocalDate.now(), 1L }));
+        when(respuestaEncuestaRepository.contarAlertasUrgentesPorDia(eq(1), any())).thenReturn(List.of());
+        when(respuestaEncuestaRepository.agregarDetallesPorDia(eq(1), any())).thenReturn(List.of());
+        when(respuestaEncuestaRepository.contarRespondentesPorDia(eq(1), any())).thenReturn(List.of());
+
+        store.onRespuestaRegistrada(evento(1, LocalDateTime.now(), 0L));
+        store.onRespuestaRegistrada(evento(2, LocalDateTime.now(), 0L));
+
+        store.reconstruir();
+
+        // 1 viene de la carga; 2 y 3 se traspasan del agregado anterior
+        assertEquals(3, store.rango(1, null).getRespuestas());
+        store.onRespuestaRegistrada(evento(3, LocalDateTime.now(), 0L));
+        assertEquals(3, store.rango(1, null).getRespuestas());
+    }
+
+    private RespuestaRegistradaEvent evento(int idRespuesta, LocalDateTime fecha, long alertas,
+            RespuestaRegistradaEvent.Detalle... detalles) {
+        return new RespuestaRegistradaEvent(1, idRespuesta, fecha, List.of(detalles), alertas);
+    }
+}
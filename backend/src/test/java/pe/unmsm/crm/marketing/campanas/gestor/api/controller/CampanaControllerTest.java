@@ -0,0 +1,107 @@
+package pe.unmsm.crm.marketing.campanas.gestor.api.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pe.unmsm.crm.marketing.campanas.gestor.api.dto.response.HistorialItemResponse;
+import pe.unmsm.crm.marketing.campanas.gestor.application.mapper.CampanaMapper;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.model.HistorialCampana;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.model.TipoAccion;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.port.input.IGestorCampanaUseCase;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.port.output.AgenteRepositoryPort;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.port.output.HistorialRepositoryPort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CampanaControllerTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Mock
+    private IGestorCampanaUseCase gestorCampanaUseCase;
+    @Mock
+    private HistorialRepositoryPort historialRepository;
+    @Mock
+    private AgenteRepositoryPort agenteRepository;
+
+    private CampanaController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new CampanaController(gestorCampanaUseCase, historialRepository,
+                new CampanaMapper(agenteRepository));
+    }
+
+    @Test
+    void historialCampana_EmpatesEnFechaAccion_RecorreCadaRegistroUnaVez() {
+        // 1..4 comparten fecha_accion: solo id_historial los ordena
+        List<HistorialCampana> historial = List.of(
+                historial(1L, T), historial(2L, T), historial(3L, T), historial(4L, T),
+                historial(5L, T.plusSeconds(1)));
+        when(historialRepository.findPaginaPorCampana(eq(7L), any(), any(), anyInt()))
+                .thenAnswer(inv -> pagina(historial, inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+
+        List<Long> recorridos = new ArrayList<>();
+        LocalDateTime antesDeFecha = null;
+        Long antesDeId = null;
+        Map<String, Object> respuesta;
+        int paginas = 0;
+        do {
+            respuesta = controller.historialCampana(7L, antesDeFecha, antesDeId, 2).getBody();
+            contenido(respuesta).forEach(item -> recorridos.add(item.getIdHistorial()));
+            antesDeFecha = (LocalDateTime) respuesta.get("next_fecha_accion");
+            antesDeId = (Long) respuesta.get("next_id_historial");
+            paginas++;
+        } while ((Boolean) respuesta.get("has_more"));
+
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), recorridos);
+        assertEquals(3, paginas);
+        assertFalse(respuesta.containsKey("next_id_historial"));
+        verify(historialRepository).findPaginaPorCampana(7L, T, 4L, 3);
+        verify(historialRepository).findPaginaPorCampana(7L, T, 2L, 3);
+    }
+
+    /**
+     * Misma semántica que la consulta keyset: (fecha_accion, id_historial)
+     * estrictamente anteriores al cursor, de más reciente a más antiguo.
+     */
+    private static List<HistorialCampana> pagina(List<HistorialCampana> historial, LocalDateTime antesDeFecha,
+            Long antesDeId, int limite) {
+        return historial.stream()
+                .filter(h -> antesDeFecha == null || h.getFechaAccion().isBefore(antesDeFecha)
+                        || (h.getFechaAccion().isEqual(antesDeFecha) && h.getIdHistorial() < antesDeId))
+                .sorted(Comparator.comparing(HistorialCampana::getFechaAccion)
+                        .thenComparing(HistorialCampana::getIdHistorial).reversed())
+                .limit(limite)
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<HistorialItemResponse> contenido(Map<String, Object> respuesta) {
+        return (List<HistorialItemResponse>) respuesta.get("content");
+    }
+
+    private static HistorialCampana historial(Long id, LocalDateTime fecha) {
+        return HistorialCampana.builder()
+                .idHistorial(id)
+                .idCampana(7L)
+                .fechaAccion(fecha)
+                .tipoAccion(TipoAccion.EDICION)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package pe.unmsm.crm.marketing.campanas.gestor.infra.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.model.HistorialCampana;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.model.TipoAccion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Escritura agrupada del historial contra una BD embebida en modo MySQL.
+ */
+class HistorialBatchWriterTest {
+
+    private static final String URL = "jdbc:h2:mem:historial;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private JdbcTemplate jdbcTemplate;
+    private HistorialBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS historial_campana (" +
+                "id_historial BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "id_campana BIGINT NOT NULL, " +
+                "fecha_accion DATETIME(3) NOT NULL, " +
+                "tipo_accion VARCHAR(100) NOT NULL, " +
+                "usuario_responsable VARCHAR(100) NULL, " +
+                "descripcion_detalle VARCHAR(255) NULL)");
+        jdbcTemplate.update("DELETE FROM historial_campana");
+
+        writer = new HistorialBatchWriter(jdbcTemplate, new DataSourceTransactionManager(dataSource), 100);
+        ReflectionTestUtils.setField(writer, "esperaMs", 100L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.detener();
+    }
+
+    @Test
+    void encolar_LoteCompleto_SeInsertaSinEsperarLaVentana() {
+        iniciar(3, 60_000L);
+
+        IntStream.range(0, 3).forEach(i -> writer.encolar(historial(1L, "h" + i)));
+
+        esperar(() -> writer.getEscritos() == 3);
+        assertEquals(3, contar());
+    }
+
+    @Test
+    void encolar_LoteIncompleto_SeInsertaAlVencerLaVentana() {
+        iniciar(100, 50L);
+
+        writer.encolar(historial(1L, "h0"));
+
+        esperar(() -> writer.getEscritos() == 1);
+        assertEquals(1, contar());
+    }
+
+    @Test
+    void escribir_LoteConUnRegistroInvalido_ReintentaUnoPorUno() {
+        iniciar(3, 60_000L);
+
+        writer.encolar(historial(1L, "h0"));
+        HistorialCampana invalido = historial(1L, "h1");
+        invalido.setTipoAccion(null);
+        writer.encolar(invalido);
+        writer.encolar(historial(1L, "h2"));
+
+        esperar(() -> writer.getEscritos() == 2 && writer.getPerdidos() == 1);
+        assertEquals(List.of("h0", "h2"), detalles(1L));
+    }
+
+    @Test
+    void encolar_ConservaElOrdenDeCadaCampana() {
+        iniciar(4, 20L);
+
+        IntStream.range(0, 20).forEach(i -> writer.encolar(historial(i % 2 + 1L, "h" + i)));
+
+        esperar(() -> writer.getEscritos() == 20);
+        assertEquals(List.of("h0", "h2", "h4", "h6", "h8", "h10", "h12", "h14", "h16", "h18"), detalles(1L));
+        assertEquals(List.of("h1", "h3", "h5", "h7", "h9", "h11", "h13", "h15", "h17", "h19"), detalles(2L));
+    }
+
+    @Test
+    void detener_EscribeElBufferYLoQueLlegaDespues() throws InterruptedException {
+        iniciar(100, 500L);
+        IntStream.range(0, 5).forEach(i -> writer.encolar(historial(1L, "h" + i)));
+
+        writer.detener();
+        assertEquals(5, contar());
+
+        // Ya apagado: se escribe en el hilo del llamador
+        writer.encolar(historial(1L, "h5"));
+        assertEquals(0, writer.pendientes());
+        assertEquals(6, contar());
+        assertEquals(0, writer.getPerdidos());
+    }
+
+    private void iniciar(int tamanioLote, long ventanaMs) {
+        ReflectionTestUtils.setField(writer, "tamanioLote", tamanioLote);
+        ReflectionTestUtils.setField(writer, "ventanaMs", ventanaMs);
+        writer.iniciar();
+    }
+
+    private static HistorialCampana historial(Long idCampana, String detalle) {
+        return HistorialCampana.builder()
+                .idCampana(idCampana)
+                .fechaAccion(LocalDateTime.now())
+                .tipoAccion(TipoAccion.EDICION)
+                .usuarioResponsable("admin")
+                .descripcionDetalle(detalle)
+                .build();
+    }
+
+    private List<String> detalles(Long idCampana) {
+        return jdbcTemplate.queryForList(
+                "SELECT descripcion_detalle FROM historial_campana WHERE id_campana = ? ORDER BY id_historial",
+                String.class, idCampana);
+    }
+
+    private int contar() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM historial_campana", Integer.class);
+    }
+
+    private static void esperar(BooleanSupplier condicion) {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condicion.getAsBoolean() && System.currentTimeMillis() < limite) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        assertTrue(condicion.getAsBoolean(), "condición no alcanzada en 5 s");
+    }
+}
@@ -0,0 +1,95 @@
+package pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.exception.EstadoIlegalException;
+import pe.unmsm.crm.marketing.campanas.gestor.domain.port.input.IGestorCampanaUseCase;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CampanaTimerPollerTest {
+
+    @Mock
+    private CampanaTimerRepository timerRepository;
+    @Mock
+    private IGestorCampanaUseCase gestorCampanaUseCase;
+
+    private CampanaTimerPoller poller;
+
+    @BeforeEach
+    void setUp() {
+        poller = new CampanaTimerPoller(timerRepository, gestorCampanaUseCase);
+        ReflectionTestUtils.setField(poller, "tamanioLote", 50);
+        ReflectionTestUtils.setField(poller, "bloqueoSeg", 120L);
+        ReflectionTestUtils.setField(poller, "maxIntentos", 3);
+    }
+
+    @Test
+    void dispararVencidos_EjecutaLaTransicionYBorraElTimerConSuToken() {
+        vencidos(new CampanaTimer(1L, 10L, AccionProgramada.ACTIVAR, LocalDateTime.now(), 0));
+
+        assertEquals(1, poller.dispararVencidos());
+
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(timerRepository).reclamarVencidos(token.capture(), eq(50), any(), any());
+        verify(gestorCampanaUseCase).activar(10L);
+        verify(timerRepository).completar(1L, token.getValue());
+    }
+
+    @Test
+    void dispararVencidos_TransicionQueYaNoAplica_DescartaElTimer() {
+        vencidos(new CampanaTimer(1L, 10L, AccionProgramada.FINALIZAR, LocalDateTime.now(), 0));
+        when(gestorCampanaUseCase.finalizar(10L)).thenThrow(new EstadoIlegalException("Ya finalizada"));
+
+        poller.dispararVencidos();
+
+        verify(timerRepository).completar(eq(1L), anyString());
+        verify(timerRepository, never()).reintentar(anyLong(), anyString(), any(), any());
+    }
+
+    @Test
+    void dispararVencidos_ErrorTransitorio_ReprogramaConBackoff() {
+        vencidos(new CampanaTimer(1L, 10L, AccionProgramada.PAUSAR, LocalDateTime.now(), 0));
+        when(gestorCampanaUseCase.pausar(eq(10L), anyString())).thenThrow(new IllegalStateException("BD caída"));
+
+        LocalDateTime antes = LocalDateTime.now();
+        poller.dispararVencidos();
+
+        ArgumentCaptor<LocalDateTime> reintento = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(timerRepository).reintentar(eq(1L), anyString(), reintento.capture(), eq("BD caída"));
+        assertFalse(reintento.getValue().isBefore(antes.plusSeconds(30)));
+        verify(timerRepository, never()).completar(anyLong(), anyString());
+    }
+
+    @Test
+    void dispararVencidos_IntentosAgotados_DescartaElTimer() {
+        vencidos(new CampanaTimer(1L, 10L, AccionProgramada.ACTIVAR, LocalDateTime.now(), 2));
+        when(gestorCampanaUseCase.activar(10L)).thenThrow(new IllegalStateException("BD caída"));
+
+        poller.dispararVencidos();
+
+        verify(timerRepository).completar(eq(1L), anyString());
+        verify(timerRepository, never()).reintentar(anyLong(), anyString(), any(), any());
+    }
+
+    private void vencidos(CampanaTimer... timers) {
+        when(timerRepository.reclamarVencidos(anyString(), eq(50), any(), any())).thenReturn(List.of(timers));
+    }
+}
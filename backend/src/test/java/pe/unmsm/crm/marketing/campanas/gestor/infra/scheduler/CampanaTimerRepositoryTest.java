@@ -0,0 +1,101 @@
+package pe.unmsm.crm.marketing.campanas.gestor.infra.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reclamo y fencing de campana_timer contra una BD embebida en modo MySQL.
+ */
+class CampanaTimerRepositoryTest {
+
+    private static final String URL = "jdbc:h2:mem:timers;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private final LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private JdbcTemplate jdbcTemplate;
+    private CampanaTimerRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS campana_timer (" +
+                "id_timer BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "id_campana BIGINT NOT NULL, " +
+                "accion VARCHAR(20) NOT NULL, " +
+                "due_at DATETIME(3) NOT NULL, " +
+                "intentos INT NOT NULL DEFAULT 0, " +
+                "token_reclamo VARCHAR(64) NULL, " +
+                "bloqueado_hasta DATETIME(3) NULL, " +
+                "ultimo_error VARCHAR(1000) NULL, " +
+                "CONSTRAINT uk_campana_timer UNIQUE (id_campana, accion))");
+        jdbcTemplate.update("DELETE FROM campana_timer");
+        repository = new CampanaTimerRepository(jdbcTemplate);
+    }
+
+    @Test
+    void reclamarVencidos_CadaTimerLoReclamaUnSoloCiclo() {
+        repository.programar(1L, AccionProgramada.ACTIVAR, ahora.minusMinutes(1));
+        repository.programar(2L, AccionProgramada.FINALIZAR, ahora.minusSeconds(1));
+        repository.programar(3L, AccionProgramada.ACTIVAR, ahora.plusHours(1));
+
+        List<CampanaTimer> primero = repository.reclamarVencidos("A", 10, ahora, ahora.plusMinutes(2));
+        List<CampanaTimer> segundo = repository.reclamarVencidos("B", 10, ahora, ahora.plusMinutes(2));
+
+        assertEquals(List.of(1L, 2L), campanas(primero));
+        assertTrue(segundo.isEmpty());
+        assertEquals(ahora.plusHours(1), repository.proximoVencimiento(ahora));
+
+        // Vencido el bloqueo (el ciclo A se cayó), otro ciclo los retoma
+        List<CampanaTimer> tercero = repository.reclamarVencidos("C", 10, ahora.plusMinutes(3),
+                ahora.plusMinutes(5));
+        assertEquals(List.of(1L, 2L), campanas(tercero));
+    }
+
+    @Test
+    void completar_ConTokenAnterior_NoBorraUnaReprogramacion() {
+        repository.programar(1L, AccionProgramada.ACTIVAR, ahora.minusMinutes(1));
+        CampanaTimer reclamado = repository.reclamarVencidos("A", 10, ahora, ahora.plusMinutes(2)).get(0);
+
+        // Se reprograma mientras el ciclo A lo está disparando
+        repository.programar(1L, AccionProgramada.ACTIVAR, ahora.plusDays(1));
+        repository.completar(reclamado.getId(), "A");
+
+        assertEquals(1, contar());
+        assertEquals(ahora.plusDays(1), repository.proximoVencimiento(ahora));
+    }
+
+    @Test
+    void reintentar_DevuelveElTimerALaColaConUnIntentoMas() {
+        repository.programar(1L, AccionProgramada.PAUSAR, ahora.minusMinutes(1));
+        CampanaTimer reclamado = repository.reclamarVencidos("A", 10, ahora, ahora.plusMinutes(2)).get(0);
+
+        repository.reintentar(reclamado.getId(), "otro", ahora.plusMinutes(1), "ignorado");
+        repository.reintentar(reclamado.getId(), "A", ahora.plusMinutes(1), "BD caída");
+
+        assertTrue(repository.reclamarVencidos("B", 10, ahora, ahora.plusMinutes(2)).isEmpty());
+        List<CampanaTimer> reintento = repository.reclamarVencidos("B", 10, ahora.plusMinutes(1),
+                ahora.plusMinutes(3));
+        assertEquals(1, reintento.size());
+        assertEquals(1, reintento.get(0).getIntentos());
+
+        repository.completar(reintento.get(0).getId(), "B");
+        assertEquals(0, contar());
+    }
+
+    private static List<Long> campanas(List<CampanaTimer> timers) {
+        return timers.stream().map(CampanaTimer::getIdCampana).toList();
+    }
+
+    private int contar() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM campana_timer", Integer.class);
+    }
+}
@@ -0,0 +1,136 @@
+package pe.unmsm.crm.marketing.campanas.mailing.infra.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EstadoCampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.ISegmentoPort;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaCampanaMailingRepository;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaInteraccionLogRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InteraccionDedupIndexTest {
+
+    @Mock
+    private JpaInteraccionLogRepository interaccionRepo;
+
+    @Mock
+    private JpaCampanaMailingRepository campanaRepo;
+
+    @Mock
+    private ISegmentoPort segmentoPort;
+
+    private InteraccionDedupIndex dedupIndex;
+
+    @BeforeEach
+    void setUp() {
+        dedupIndex = new InteraccionDedupIndex(interaccionRepo, campanaRepo, segmentoPort, 2);
+
+        List<Object[]> existentes = new ArrayList<>();
+        existentes.add(new Object[] { 10L, 1 });
+        lenient().when(interaccionRepo.findClavesByCampana(7)).thenReturn(existentes);
+        lenient().when(campanaRepo.findById(7)).thenReturn(Optional.of(campana(7, EstadoCampanaMailing.ENVIADO)));
+        lenient().when(segmentoPort.contarMiembros(70L)).thenReturn(100);
+    }
+
+    @Test
+    void registrarSiNueva_ShouldDetectDuplicatesWithoutQuerying() {
+        assertFalse(dedupIndex.registrarSiNueva(7, 10L, 1));
+        assertTrue(dedupIndex.registrarSiNueva(7, 10L, 2));
+        assertFalse(dedupIndex.registrarSiNueva(7, 10L, 2));
+        assertTrue(dedupIndex.registrarSiNueva(7, 11L, 1));
+
+        verify(interaccionRepo, times(1)).findClavesByCampana(7);
+        verify(interaccionRepo, never())
+                .existsByIdCampanaMailingIdAndIdContactoCrmAndIdTipoEvento(any(), any(), any());
+    }
+
+    @Test
+    void registrarSiNueva_ShouldNotIndexCampaignsThatAreNotSent() {
+        when(campanaRepo.findById(8)).thenReturn(Optional.of(campana(8, EstadoCampanaMailing.FINALIZADO)));
+        when(campanaRepo.findById(9)).thenReturn(Optional.empty());
+        when(interaccionRepo.existsByIdCampanaMailingIdAndIdContactoCrmAndIdTipoEvento(any(), any(), any()))
+                .thenReturn(false);
+
+        assertTrue(dedupIndex.registrarSiNueva(8, 10L, 2));
+        assertTrue(dedupIndex.registrarSiNueva(8, 11L, 2));
+        assertTrue(dedupIndex.registrarSiNueva(9, 10L, 2));
+
+        assertEquals(0, dedupIndex.campanasIndexadas());
+        // El estado se consulta una vez por campaña; el resto va a la BD
+        verify(campanaRepo, times(1)).findById(8);
+        verify(interaccionRepo, never()).findClavesByCampana(any());
+        verify(segmentoPort, never()).contarMiembros(any());
+    }
+
+    @Test
+    void liberar_ShouldAcceptRetryOfUnsavedInteraction() {
+        assertTrue(dedupIndex.registrarSiNueva(7, 10L, 2));
+        dedupIndex.liberar(7, 10L, 2);
+
+        assertTrue(dedupIndex.registrarSiNueva(7, 10L, 2));
+        assertFalse(dedupIndex.registrarSiNueva(7, 10L, 2));
+    }
+
+    @Test
+    void descartarCampana_ShouldFallBackToDatabase() {
+        dedupIndex.registrarSiNueva(7, 10L, 2);
+        dedupIndex.descartarCampana(7);
+
+        when(interaccionRepo.existsByIdCampanaMailingIdAndIdContactoCrmAndIdTipoEvento(7, 10L, 2))
+                .thenReturn(true);
+
+        assertFalse(dedupIndex.registrarSiNueva(7, 10L, 2));
+        assertEquals(0, dedupIndex.campanasIndexadas());
+    }
+
+    @Test
+    void indiceCampana_ShouldKeepAnsweringOnceSaturated() {
+        InteraccionDedupIndex.IndiceCampana indice = new InteraccionDedupIndex.IndiceCampana(1_000, 100);
+        for (long lead = 0; lead < 1_000; lead++) {
+            indice.cargar(InteraccionDedupIndex.clave(lead, 1));
+        }
+
+        assertTrue(indice.saturado());
+        assertEquals(100, indice.tamanio());
+        for (long lead = 0; lead < 1_000; lead++) {
+            assertTrue(indice.posiblementeContiene(InteraccionDedupIndex.clave(lead, 1)));
+        }
+    }
+
+    @Test
+    void indiceCampana_ShouldReserveKeysAtomicallyOnceSaturated() {
+        InteraccionDedupIndex.IndiceCampana indice = new InteraccionDedupIndex.IndiceCampana(100, 1);
+        indice.cargar(InteraccionDedupIndex.clave(1L, 1));
+        long clave = InteraccionDedupIndex.clave(2L, 1);
+
+        // Pendiente de guardar: el segundo registro se descarta sin ir a la BD
+        assertTrue(indice.registrar(clave, () -> false));
+        assertFalse(indice.registrar(clave, () -> fail("la clave está reservada")));
+
+        // Guardada: deja el Set y el repetido se confirma en la BD
+        indice.confirmar(clave);
+        assertEquals(1, indice.tamanio());
+        assertFalse(indice.registrar(clave, () -> true));
+        assertEquals(1, indice.tamanio());
+    }
+
+    private static CampanaMailing campana(Integer id, EstadoCampanaMailing estado) {
+        return CampanaMailing.builder()
+                .id(id)
+                .idSegmento(id * 10L)
+                .idEstado(estado.getId())
+                .build();
+    }
+}
@@ -0,0 +1,250 @@
+package pe.unmsm.crm.marketing.campanas.mailing.infra.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.CampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.DestinatarioMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.EstadoCampanaMailing;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.model.MetricaCampana;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IGestorCampanaPort;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.IMailingPort;
+import pe.unmsm.crm.marketing.campanas.mailing.domain.port.output.ISegmentoPort;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaCampanaMailingRepository;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaMetricaMailingRepository;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.ProgresoEnvioRepository;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.ProgresoEnvioRepository.Progreso;
+import pe.unmsm.crm.marketing.shared.infra.exception.ExternalServiceException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EnvioMailingTaskTest {
+
+    private static final Integer ID = 7;
+
+    @Mock
+    private JpaCampanaMailingRepository campanaRepo;
+    @Mock
+    private JpaMetricaMailingRepository metricasRepo;
+    @Mock
+    private ProgresoEnvioRepository progresoRepo;
+    @Mock
+    private IMailingPort mailAdapter;
+    @Mock
+    private ISegmentoPort segmentoPort;
+    @Mock
+    private IGestorCampanaPort gestorPort;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EnvioMailingTask task;
+    private CampanaMailing campana;
+
+    @BeforeEach
+    void setUp() {
+        task = crearTask(Runnable::run);
+        campana = CampanaMailing.builder()
+                .id(ID)
+                .idSegmento(3L)
+                .idCampanaGestion(30L)
+                .idEstado(EstadoCampanaMailing.ENVIADO.getId())
+                .nombre("Campaña")
+                .fechaInicio(LocalDateTime.now())
+                .build();
+        lenient().when(campanaRepo.findById(ID)).thenReturn(Optional.of(campana));
+    }
+
+    @Test
+    void ejecutar_ShouldSendOutsideClaimAndRecordEachRecipient() {
+        when(campanaRepo.cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.LISTO.getId()),
+                eq(EstadoCampanaMailing.ENVIADO.getId()), any())).thenReturn(1);
+        when(progresoRepo.iniciar(ID)).thenReturn(new Progreso(ID, 1, 0, 0, 0));
+        when(segmentoPort.abrirCursorDestinatarios(3L, 0L)).thenReturn(List.of(
+                destinatario(10L), destinatario(11L)).iterator());
+        doNothing().when(mailAdapter).enviarEmail(eq(campana), any());
+        when(progresoRepo.avanzar(eq(ID), eq(1L), anyLong(), anyBoolean())).thenReturn(true);
+        when(progresoRepo.completar(ID, 1)).thenReturn(Optional.of(new Progreso(ID, 1, 11, 2, 0)));
+        MetricaCampana metricas = new MetricaCampana();
+        when(metricasRepo.findByCampanaMailingId(ID)).thenReturn(Optional.of(metricas));
+
+        task.ejecutar(ID);
+
+        // El reclamo se confirma antes del primer envío
+        InOrder orden = inOrder(transactionManager, mailAdapter);
+        orden.verify(transactionManager, calls(1)).commit(any());
+        orden.verify(mailAdapter, calls(2)).enviarEmail(eq(campana), any());
+        verify(progresoRepo).avanzar(ID, 1, 10L, true);
+        verify(progresoRepo).avanzar(ID, 1, 11L, true);
+        assertEquals(2, metricas.getEnviados());
+    }
+
+    @Test
+    void ejecutar_ShouldCancelCampaignWithEmptySegment() {
+        when(campanaRepo.cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.LISTO.getId()),
+                eq(EstadoCampanaMailing.ENVIADO.getId()), any())).thenReturn(1);
+        when(progresoRepo.iniciar(ID)).thenReturn(new Progreso(ID, 1, 0, 0, 0));
+        when(segmentoPort.abrirCursorDestinatarios(3L, 0L)).thenReturn(Collections.emptyIterator());
+        when(progresoRepo.completar(ID, 1)).thenReturn(Optional.of(new Progreso(ID, 1, 0, 0, 0)));
+        when(campanaRepo.cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.ENVIADO.getId()),
+                eq(EstadoCampanaMailing.CANCELADO.getId()), any())).thenReturn(1);
+
+        task.ejecutar(ID);
+
+        verify(campanaRepo).cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.ENVIADO.getId()),
+                eq(EstadoCampanaMailing.CANCELADO.getId()), any());
+        verify(gestorPort).pausarCampana(eq(30L), any());
+        verifyNoInteractions(mailAdapter);
+    }
+
+    @Test
+    void ejecutar_ShouldReturnToListoWithBackoffWhenNothingWasSent() {
+        when(campanaRepo.cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.LISTO.getId()),
+                eq(EstadoCampanaMailing.ENVIADO.getId()), any())).thenReturn(1);
+        when(progresoRepo.iniciar(ID)).thenReturn(new Progreso(ID, 1, 0, 0, 0));
+        when(segmentoPort.abrirCursorDestinatarios(3L, 0L)).thenReturn(List.of(destinatario(10L)).iterator());
+        doThrow(new ExternalServiceException("Resend", "caído")).when(mailAdapter).enviarEmail(eq(campana), any());
+        when(progresoRepo.avanzar(ID, 1, 10L, false)).thenReturn(true);
+        when(progresoRepo.completar(ID, 1)).thenReturn(Optional.of(new Progreso(ID, 1, 10, 0, 1)));
+        when(campanaRepo.cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.ENVIADO.getId()),
+                eq(EstadoCampanaMailing.LISTO.getId()), any())).thenReturn(1);
+        when(progresoRepo.posponer(eq(ID), eq(1L), any())).thenReturn(2);
+
+        LocalDateTime antes = LocalDateTime.now();
+        task.ejecutar(ID);
+
+        // Backoff: 5 min * 2^(intentos-1)
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<IntFunction<LocalDateTime>> reintento = ArgumentCaptor.forClass(IntFunction.class);
+        verify(progresoRepo).posponer(eq(ID), eq(1L), reintento.capture());
+        assertFalse(reintento.getValue().apply(2).isBefore(antes.plusMinutes(10)));
+        verify(campanaRepo).cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.ENVIADO.getId()),
+                eq(EstadoCampanaMailing.LISTO.getId()), any());
+        verifyNoInteractions(metricasRepo, gestorPort);
+    }
+
+    @Test
+    void ejecutar_ShouldCancelAfterLastFailedAttempt() {
+        when(campanaRepo.cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.LISTO.getId()),
+                eq(EstadoCampanaMailing.ENVIADO.getId()), any())).thenReturn(1);
+        when(progresoRepo.iniciar(ID)).thenReturn(new Progreso(ID, 1, 0, 0, 0));
+        when(segmentoPort.abrirCursorDestinatarios(3L, 0L)).thenReturn(List.of(destinatario(10L)).iterator());
+        doThrow(new ExternalServiceException("Resend", "caído")).when(mailAdapter).enviarEmail(eq(campana), any());
+        when(progresoRepo.avanzar(ID, 1, 10L, false)).thenReturn(true);
+        when(progresoRepo.completar(ID, 1)).thenReturn(Optional.of(new Progreso(ID, 1, 10, 0, 1)));
+        when(progresoRepo.posponer(eq(ID), eq(1L), any())).thenReturn(3);
+        when(campanaRepo.cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.ENVIADO.getId()),
+                eq(EstadoCampanaMailing.CANCELADO.getId()), any())).thenReturn(1);
+
+        task.ejecutar(ID);
+
+        verify(campanaRepo, never()).cambiarEstadoSiCoincide(any(), eq(EstadoCampanaMailing.ENVIADO.getId()),
+                eq(EstadoCampanaMailing.LISTO.getId()), any());
+        verify(gestorPort).pausarCampana(eq(30L), any());
+    }
+
+    @Test
+    void ejecutar_ShouldNotClaimWhileBackingOff() {
+        when(progresoRepo.enEspera(eq(ID), any())).thenReturn(true);
+
+        task.ejecutar(ID);
+
+        verify(campanaRepo, never()).cambiarEstadoSiCoincide(any(), any(), any(), any());
+        verify(progresoRepo, never()).iniciar(any());
+        verifyNoInteractions(mailAdapter);
+    }
+
+    @Test
+    void ejecutar_ShouldReturnOnceClaimedAndSendOnSendExecutor() {
+        List<Runnable> encolados = new ArrayList<>();
+        task = crearTask(encolados::add);
+        when(campanaRepo.cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.LISTO.getId()),
+                eq(EstadoCampanaMailing.ENVIADO.getId()), any())).thenReturn(1);
+        when(progresoRepo.iniciar(ID)).thenReturn(new Progreso(ID, 1, 0, 0, 0));
+
+        task.ejecutar(ID);
+
+        assertEquals(1, encolados.size());
+        verifyNoInteractions(segmentoPort, mailAdapter);
+
+        when(segmentoPort.abrirCursorDestinatarios(3L, 0L)).thenReturn(List.of(destinatario(10L)).iterator());
+        when(progresoRepo.avanzar(ID, 1, 10L, true)).thenReturn(true);
+        when(progresoRepo.completar(ID, 1)).thenReturn(Optional.of(new Progreso(ID, 1, 10, 1, 0)));
+        when(metricasRepo.findByCampanaMailingId(ID)).thenReturn(Optional.of(new MetricaCampana()));
+        encolados.get(0).run();
+
+        verify(mailAdapter).enviarEmail(eq(campana), any());
+    }
+
+    @Test
+    void reanudar_ShouldContinueAfterLastProcessedLead() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(10);
+        when(progresoRepo.retomar(ID, limite)).thenReturn(Optional.of(new Progreso(ID, 2, 10, 1, 0)));
+        when(segmentoPort.abrirCursorDestinatarios(3L, 10L)).thenReturn(List.of(destinatario(11L)).iterator());
+        when(progresoRepo.avanzar(ID, 2, 11L, true)).thenReturn(true);
+        when(progresoRepo.completar(ID, 2)).thenReturn(Optional.of(new Progreso(ID, 2, 11, 2, 0)));
+        when(metricasRepo.findByCampanaMailingId(ID)).thenReturn(Optional.of(new MetricaCampana()));
+
+        task.reanudar(ID, limite);
+
+        verify(mailAdapter, times(1)).enviarEmail(eq(campana), any());
+        verify(campanaRepo, never()).cambiarEstadoSiCoincide(any(), eq(EstadoCampanaMailing.LISTO.getId()), any(), any());
+    }
+
+    @Test
+    void enviar_ShouldStopWhenAnotherRunTookOver() {
+        when(campanaRepo.cambiarEstadoSiCoincide(eq(ID), eq(EstadoCampanaMailing.LISTO.getId()),
+                eq(EstadoCampanaMailing.ENVIADO.getId()), any())).thenReturn(1);
+        when(progresoRepo.iniciar(ID)).thenReturn(new Progreso(ID, 1, 0, 0, 0));
+        when(segmentoPort.abrirCursorDestinatarios(3L, 0L)).thenReturn(List.of(
+                destinatario(10L), destinatario(11L)).iterator());
+        when(progresoRepo.avanzar(ID, 1, 10L, true)).thenReturn(false);
+
+        task.ejecutar(ID);
+
+        verify(mailAdapter, times(1)).enviarEmail(eq(campana), any());
+        verify(progresoRepo, never()).completar(any(), anyLong());
+    }
+
+    @Test
+    void ejecutar_ShouldNotClaimWhenGuardFails() {
+        assertThrows(IllegalStateException.class, () -> task.ejecutar(ID, () -> {
+            throw new IllegalStateException("lease perdido");
+        }));
+
+        verify(campanaRepo, never()).cambiarEstadoSiCoincide(any(), any(), any(), any());
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(progresoRepo, mailAdapter);
+    }
+
+    private EnvioMailingTask crearTask(Executor ejecutorEnvios) {
+        EnvioMailingTask nueva = new EnvioMailingTask(campanaRepo, metricasRepo, progresoRepo, mailAdapter,
+                segmentoPort, gestorPort, transactionManager, ejecutorEnvios);
+        ReflectionTestUtils.setField(nueva, "maxIntentos", 3);
+        ReflectionTestUtils.setField(nueva, "backoffMin", 5L);
+        return nueva;
+    }
+
+    private static DestinatarioMailing destinatario(Long idLead) {
+        return new DestinatarioMailing(idLead, "lead" + idLead + "@x.pe", "Lead " + idLead);
+    }
+}
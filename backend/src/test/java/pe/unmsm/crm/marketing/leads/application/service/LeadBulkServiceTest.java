@@ -0,0 +1,112 @@
+package pe.unmsm.crm.marketing.leads.application.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEliminadosEnLoteEvent;
+import pe.unmsm.crm.marketing.leads.domain.event.LeadsEstadoCambiadoEnLoteEvent;
+import pe.unmsm.crm.marketing.leads.infra.persistence.LeadBulkJdbcRepository;
+import pe.unmsm.crm.marketing.leads.infra.persistence.LeadBulkJdbcRepository.FilaEstado;
+import pe.unmsm.crm.marketing.security.domain.UsuarioEntity;
+import pe.unmsm.crm.marketing.security.service.UserAuthorizationService;
+import pe.unmsm.crm.marketing.shared.logging.AccionLog;
+import pe.unmsm.crm.marketing.shared.logging.AuditoriaService;
+import pe.unmsm.crm.marketing.shared.logging.ModuloLog;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeadBulkServiceTest {
+
+    private LeadBulkJdbcRepository bulkRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private AuditoriaService auditoriaService;
+    private LeadBulkService service;
+
+    @BeforeEach
+    void setUp() {
+        bulkRepository = mock(LeadBulkJdbcRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        auditoriaService = mock(AuditoriaService.class);
+        UserAuthorizationService userAuthorizationService = mock(UserAuthorizationService.class);
+        when(userAuthorizationService.requireCurrentUsuario())
+                .thenReturn(UsuarioEntity.builder().idUsuario(9L).username("admin").build());
+
+        service = new LeadBulkService(bulkRepository, eventPublisher, auditoriaService, userAuthorizationService,
+                transactionManager, 1, 1, 1);
+        ReflectionTestUtils.setField(service, "tamanioBloque", 2);
+    }
+
+    @Test
+    void cambiarEstado_ValidaEnBloqueYPublicaUnEventoPorBloque() {
+        // Bloque 1: 1 válido, 2 ya calificado; bloque 2: 3 sin teléfono, 4 no existe
+        when(bulkRepository.bloquearParaCambioEstado(List.of(1L, 2L))).thenReturn(List.of(
+                new FilaEstado(1L, EstadoLead.NUEVO, true, true),
+                new FilaEstado(2L, EstadoLead.CALIFICADO, true, true)));
+        when(bulkRepository.bloquearParaCambioEstado(List.of(3L, 4L))).thenReturn(List.of(
+                new FilaEstado(3L, EstadoLead.NUEVO, false, true)));
+
+        LeadBulkService.Resultado resultado = service.cambiarEstado(
+                Arrays.asList(4L, 3L, 2L, 1L, 1L, null), EstadoLead.CALIFICADO, "prueba");
+
+        assertEquals(1, resultado.getAfectados());
+        assertEquals(4, resultado.getProcesados());
+        assertEquals(1, resultado.getOmitidos().get("SIN_CAMBIO"));
+        assertEquals(1, resultado.getOmitidos().get("SIN_TELEFONO"));
+        assertEquals(1, resultado.getOmitidos().get("NO_ENCONTRADO"));
+
+        verify(bulkRepository).actualizarEstado(List.of(1L), EstadoLead.CALIFICADO);
+        ArgumentCaptor<Object> eventos = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(1)).publishEvent(eventos.capture());
+        LeadsEstadoCambiadoEnLoteEvent evento = (LeadsEstadoCambiadoEnLoteEvent) eventos.getValue();
+        assertEquals(List.of(1L), evento.getLeadIds());
+        assertEquals(EstadoLead.NUEVO, evento.getEstadosAnteriores().get(1L));
+        verify(auditoriaService).registrarEvento(eq(ModuloLog.LEADS), eq(AccionLog.CAMBIAR_ESTADO), isNull(),
+                eq(9L), contains("a estado CALIFICADO"));
+    }
+
+    @Test
+    void eliminar_SoloBorraLosEliminablesDelBloque() {
+        when(bulkRepository.bloquearEliminables(List.of(1L, 2L))).thenReturn(List.of(2L));
+        when(bulkRepository.eliminar(List.of(2L))).thenReturn(1);
+
+        LeadBulkService.Resultado resultado = service.eliminar(List.of(1L, 2L));
+
+        assertEquals(1, resultado.getAfectados());
+        assertEquals(1, resultado.getOmitidos().get("NO_ENCONTRADO_O_EN_USO"));
+        ArgumentCaptor<ApplicationEvent> eventos = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher).publishEvent(eventos.capture());
+        assertEquals(List.of(2L), ((LeadsEliminadosEnLoteEvent) eventos.getValue()).getLeadIds());
+    }
+
+    @Test
+    void eliminar_BloqueSinEliminablesNoBorraNiPublica() {
+        when(bulkRepository.bloquearEliminables(anyList())).thenReturn(List.of());
+
+        service.eliminar(List.of(5L));
+
+        verify(bulkRepository, never()).eliminar(anyList());
+        verify(eventPublisher, never()).publishEvent(any(ApplicationEvent.class));
+    }
+}
@@ -0,0 +1,92 @@
+package pe.unmsm.crm.marketing.leads.infra.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pe.unmsm.crm.marketing.leads.domain.enums.EstadoLead;
+import pe.unmsm.crm.marketing.leads.domain.enums.TipoFuente;
+import pe.unmsm.crm.marketing.leads.domain.model.LeadBusquedaRow;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeadSearchIndexTest {
+
+    private LeadSearchIndex indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new LeadSearchIndex();
+        indice.actualizar(fila(1L, "José Pérez Núñez", "jperez@gmail.com", "+51 987-654-321", EstadoLead.NUEVO));
+        indice.actualizar(fila(2L, "Ana Perales", "ana.perales@unmsm.edu.pe", "912345678", EstadoLead.CALIFICADO));
+        indice.actualizar(fila(3L, "Pérez", "otro@correo.com", "999888777", EstadoLead.NUEVO));
+        indice.actualizar(fila(4L, "Carlos Díaz", "cdiaz@correo.com", "955444333", EstadoLead.DESCARTADO));
+    }
+
+    @Test
+    void buscar_SinTildes_EncuentraNombresAcentuados() {
+        assertEquals(List.of(3L, 1L), ids(indice.buscar("perez", null, null, 0, 10).orElseThrow()));
+        assertEquals(List.of(1L), ids(indice.buscar("NUNEZ jose", null, null, 0, 10).orElseThrow()));
+    }
+
+    @Test
+    void buscar_PuntuaExactoSobrePrefijoYContiene() {
+        LeadSearchIndex.Resultado resultado = indice.buscar("per", null, null, 0, 10).orElseThrow();
+
+        // "Pérez" (prefijo del nombre), "José Pérez" y "Ana Perales" (inicio de palabra)
+        assertEquals(3, resultado.total());
+        assertEquals(3L, resultado.coincidencias().get(0).id());
+        assertTrue(resultado.coincidencias().get(0).relevancia() > resultado.coincidencias().get(1).relevancia());
+    }
+
+    @Test
+    void buscar_PorEmailYTelefono() {
+        assertEquals(List.of(2L), ids(indice.buscar("unmsm.edu", null, null, 0, 10).orElseThrow()));
+        assertEquals(List.of(1L), ids(indice.buscar("987-654", null, null, 0, 10).orElseThrow()));
+        assertEquals(List.of(1L), ids(indice.buscar("654321", null, null, 0, 10).orElseThrow()));
+    }
+
+    @Test
+    void buscar_AplicaFiltrosYPaginacion() {
+        assertEquals(List.of(3L, 1L), ids(indice.buscar("perez", EstadoLead.NUEVO, TipoFuente.WEB, 0, 10).orElseThrow()));
+
+        LeadSearchIndex.Resultado segunda = indice.buscar("perez", null, null, 1, 1).orElseThrow();
+        assertEquals(2, segunda.total());
+        assertEquals(List.of(1L), ids(segunda));
+    }
+
+    @Test
+    void buscar_TerminoCorto_NoUsaElIndice() {
+        assertTrue(indice.buscar("pe", null, null, 0, 10).isEmpty());
+        // Un término corto junto a uno indexable solo se verifica
+        assertEquals(List.of(1L), ids(indice.buscar("jo perez", null, null, 0, 10).orElseThrow()));
+    }
+
+    @Test
+    void actualizarYEliminar_MantienenElIndiceAlDia() {
+        indice.actualizar(fila(3L, "Lucía Torres", "otro@correo.com", "999888777", EstadoLead.NUEVO));
+        indice.eliminar(1L);
+
+        assertTrue(ids(indice.buscar("perez", null, null, 0, 10).orElseThrow()).isEmpty());
+        assertEquals(List.of(3L), ids(indice.buscar("lucia", null, null, 0, 10).orElseThrow()));
+        assertEquals(3, indice.getDocumentos());
+        assertEquals(2, indice.getBorrados());
+    }
+
+    @Test
+    void actualizar_SoloEstado_NoCreaDocumentoNuevo() {
+        indice.actualizar(fila(4L, "Carlos Díaz", "cdiaz@correo.com", "955444333", EstadoLead.NUEVO));
+
+        assertEquals(0, indice.getBorrados());
+        assertEquals(List.of(4L), ids(indice.buscar("diaz", EstadoLead.NUEVO, null, 0, 10).orElseThrow()));
+    }
+
+    private static LeadBusquedaRow fila(Long id, String nombre, String email, String telefono, EstadoLead estado) {
+        return new LeadBusquedaRow(id, nombre, email, telefono, estado, TipoFuente.WEB);
+    }
+
+    private static List<Long> ids(LeadSearchIndex.Resultado resultado) {
+        return resultado.coincidencias().stream().map(LeadSearchIndex.Coincidencia::id).toList();
+    }
+}
@@ -0,0 +1,81 @@
+package pe.unmsm.crm.marketing.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+import pe.unmsm.crm.marketing.security.config.JwtConfig;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtPrincipalCacheTest {
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JwtTokenProvider tokenProvider;
+    private JwtPrincipalCache cache;
+    private UserDetails agente;
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "secret",
+                "MySecretKeyForJWTTokenGenerationAndValidationShouldBeAtLeast256BitsLong");
+        ReflectionTestUtils.setField(jwtConfig, "expiration", 60_000L);
+        tokenProvider = new JwtTokenProvider(jwtConfig);
+        cache = new JwtPrincipalCache(tokenProvider, userDetailsService, meterRegistry, 100, 300, 3600);
+
+        agente = new User("agente1", "x", List.of(new SimpleGrantedAuthority("ROLE_AGENTE")));
+        when(userDetailsService.loadUserByUsername("agente1")).thenReturn(agente);
+    }
+
+    @Test
+    void autenticar_MismoToken_CargaElUsuarioUnaSolaVez() {
+        String token = tokenProvider.generateToken(agente, 1L, 10L);
+
+        assertEquals("agente1", cache.autenticar(token).orElseThrow().getUsername());
+        assertEquals("agente1", cache.autenticar(token).orElseThrow().getUsername());
+
+        verify(userDetailsService, times(1)).loadUserByUsername("agente1");
+        assertEquals(2, meterRegistry.get("security.jwt.filter").timer().count());
+    }
+
+    @Test
+    void autenticar_OtraVersionDelUsuario_NoReutilizaElPrincipal() {
+        cache.autenticar(tokenProvider.generateToken(agente, 1L, 10L));
+        cache.autenticar(tokenProvider.generateToken(agente, 1L, 11L));
+
+        verify(userDetailsService, times(2)).loadUserByUsername("agente1");
+    }
+
+    @Test
+    void invalidar_DescartaElPrincipalCacheado() {
+        String token = tokenProvider.generateToken(agente, 1L, 10L);
+        cache.autenticar(token);
+
+        cache.invalidar("agente1");
+        cache.autenticar(token);
+
+        verify(userDetailsService, times(2)).loadUserByUsername("agente1");
+    }
+
+    @Test
+    void autenticar_TokenInvalido_DevuelveVacioSinConsultarUsuarios() {
+        assertTrue(cache.autenticar("no-es-un-jwt").isEmpty());
+
+        verify(userDetailsService, never()).loadUserByUsername("agente1");
+    }
+}
@@ -0,0 +1,53 @@
+package pe.unmsm.crm.marketing.security.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pe.unmsm.crm.marketing.campanas.mailing.infra.persistence.repository.JpaCampanaMailingRepository;
+import pe.unmsm.crm.marketing.campanas.telefonicas.infra.jpa.repository.CampaniaAgenteRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsignacionCampaniaCacheTest {
+
+    private final CampaniaAgenteRepository campaniaAgenteRepository = mock(CampaniaAgenteRepository.class);
+    private final JpaCampanaMailingRepository campanaMailingRepository = mock(JpaCampanaMailingRepository.class);
+
+    private AsignacionCampaniaCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AsignacionCampaniaCache(campaniaAgenteRepository, campanaMailingRepository, 100, 120);
+        when(campaniaAgenteRepository.findCampaniaIdsByAgente(7)).thenReturn(List.of(30, 10, 20));
+        when(campanaMailingRepository.findIdsByIdAgenteAsignado(7)).thenReturn(List.of(5));
+    }
+
+    @Test
+    void de_VariasVerificaciones_ConsultaUnaSolaVez() {
+        assertTrue(cache.de(7).tieneTelefonica(20));
+        assertFalse(cache.de(7).tieneTelefonica(25));
+        assertTrue(cache.de(7).tieneMailing(5));
+        assertEquals(List.of(5), cache.de(7).idsMailing());
+
+        verify(campaniaAgenteRepository, times(1)).findCampaniaIdsByAgente(7);
+        verify(campanaMailingRepository, times(1)).findIdsByIdAgenteAsignado(7);
+    }
+
+    @Test
+    void onAsignacionCambiada_RecargaLasAsignacionesDelAgente() {
+        assertFalse(cache.de(7).tieneTelefonica(40));
+
+        when(campaniaAgenteRepository.findCampaniaIdsByAgente(7)).thenReturn(List.of(10, 20, 30, 40));
+        cache.onAsignacionCambiada(new AsignacionCampaniaCambiadaEvent(7));
+
+        assertTrue(cache.de(7).tieneTelefonica(40));
+        verify(campaniaAgenteRepository, times(2)).findCampaniaIdsByAgente(7);
+    }
+}
@@ -0,0 +1,202 @@
+package pe.unmsm.crm.marketing.segmentacion.infra.replica;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.GrupoReglasAnd;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.GrupoReglasOr;
+import pe.unmsm.crm.marketing.segmentacion.domain.model.ReglaSimple;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sincronización contra un servidor local que sirve el JSON paginado de la
+ * API de Ventas, y filtrado por índice.
+ */
+class ReplicaClientesTest {
+
+    private static final int TAMANIO_PAGINA = 2;
+
+    private HttpServer servidor;
+    private final List<String> clientes = new CopyOnWriteArrayList<>();
+    private final List<String> cambiados = new CopyOnWriteArrayList<>();
+    private final List<String> consultas = new CopyOnWriteArrayList<>();
+    private final Set<Integer> paginasCaidas = ConcurrentHashMap.newKeySet();
+    private ReplicaClientes replica;
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        clientes.add(cliente(1, "ana@x.pe", "Oro", "ACTIVO", 25, 80));
+        clientes.add(cliente(2, "beto@x.pe", "Plata", "ACTIVO", 40, 30));
+        clientes.add(cliente(3, "carla@x.pe", "ORO", "INACTIVO", 33, 55));
+        clientes.add(cliente(4, "dario@x.pe", "Bronce", "ACTIVO", 61, 10));
+        clientes.add(cliente(5, "elena@x.pe", null, "ACTIVO", null, 90));
+
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/api/clientes/integracion/marketing", intercambio -> {
+            String consulta = intercambio.getRequestURI().getQuery();
+            consultas.add(consulta);
+            Map<String, String> parametros = new HashMap<>();
+            for (String par : consulta.split("&")) {
+                String[] kv = par.split("=", 2);
+                parametros.put(kv[0], kv.length > 1 ? kv[1] : "");
+            }
+            int page = Integer.parseInt(parametros.get("page"));
+            if (paginasCaidas.contains(page)) {
+                intercambio.sendResponseHeaders(503, -1);
+                intercambio.close();
+                return;
+            }
+            List<String> origen = parametros.containsKey("actualizadoDesde") ? cambiados : clientes;
+            byte[] cuerpo = pagina(origen, page).getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        servidor.start();
+
+        ClientesApiClient apiClient = new ClientesApiClient(new RestTemplate(),
+                "http://127.0.0.1:" + servidor.getAddress().getPort(), "actualizadoDesde");
+        replica = new ReplicaClientes(apiClient, new SimpleMeterRegistry(), 3, TAMANIO_PAGINA,
+                21600000L, true, 60, 30);
+    }
+
+    @AfterEach
+    void detener() {
+        replica.detener();
+        servidor.stop(0);
+    }
+
+    @Test
+    void sincronizacionCompletaDescargaTodasLasPaginas() {
+        assertTrue(replica.estado().desactualizada());
+
+        replica.sincronizarCompleta();
+
+        IndiceClientes indice = replica.indice();
+        assertEquals(5, indice.size());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), indice.filtrar(null));
+        assertEquals(3, consultas.size());
+        assertTrue(consultas.stream().noneMatch(c -> c.contains("actualizadoDesde")));
+
+        ReplicaClientes.EstadoReplica estado = replica.estado();
+        assertEquals(5, estado.registros());
+        assertEquals(1, estado.version());
+        assertFalse(estado.desactualizada());
+        assertNotNull(estado.antiguedadSegundos());
+        assertNull(estado.ultimoError());
+    }
+
+    @Test
+    void incrementalPideSoloCambiosYLosFusiona() {
+        replica.sincronizarCompleta();
+        consultas.clear();
+        cambiados.add(cliente(2, "beto@x.pe", "Oro", "ACTIVO", 41, 30));
+        cambiados.add(cliente(6, "fabio@x.pe", "Plata", "ACTIVO", 22, 70));
+
+        replica.sincronizarCambios();
+
+        assertEquals(1, consultas.size());
+        assertTrue(consultas.get(0).contains("actualizadoDesde=2025-01-"));
+        IndiceClientes indice = replica.indice();
+        assertEquals(6, indice.size());
+        assertEquals(41, indice.porId(2L).orElseThrow().getEdad());
+        assertEquals(List.of(1L, 2L, 3L), indice.filtrar(regla("categoria", "IGUAL", "oro", null, null)));
+        assertEquals(2, replica.estado().version());
+    }
+
+    @Test
+    void filtraPorIndiceConLaSemanticaDeLasReglas() {
+        replica.sincronizarCompleta();
+        IndiceClientes indice = replica.indice();
+
+        assertEquals(List.of(2L, 4L), indice.filtrar(regla("categoria", "DISTINTO", "oro", null, null)));
+        assertEquals(List.of(1L, 3L, 5L), indice.filtrar(regla("email", "CONTIENE", "A@", null, null)));
+        assertEquals(List.of(2L, 3L), indice.filtrar(regla("edad", "ENTRE", null, 30, 40)));
+        assertEquals(List.of(4L), indice.filtrar(regla("edad", "MAYOR_QUE", null, 40, null)));
+        assertEquals(List.of(1L), indice.filtrar(regla("edad", "MENOR_QUE", null, 33, null)));
+        assertEquals(List.of(3L), indice.filtrar(regla("monetaryScore", "IGUAL", null, 55, null)));
+        assertEquals(5, indice.contar(regla("desconocido", "IGUAL", "x", null, null)));
+
+        GrupoReglasAnd activosOro = new GrupoReglasAnd();
+        activosOro.addRegla(regla("estado", "IGUAL", "ACTIVO", null, null));
+        activosOro.addRegla(regla("categoria", "IGUAL", "Oro", null, null));
+        assertEquals(List.of(1L), indice.filtrar(activosOro));
+
+        GrupoReglasOr mayoresOGastadores = new GrupoReglasOr();
+        mayoresOGastadores.addRegla(regla("edad", "MAYOR_QUE", null, 50, null));
+        mayoresOGastadores.addRegla(regla("total_gastado", "MAYOR_QUE", null, 85, null));
+        assertEquals(List.of(4L, 5L), indice.filtrar(mayoresOGastadores));
+    }
+
+    @Test
+    void paginaCaidaConservaLaReplicaAnterior() {
+        replica.sincronizarCompleta();
+        clientes.add(cliente(6, "fabio@x.pe", "Plata", "ACTIVO", 22, 70));
+        paginasCaidas.add(2);
+
+        assertThrows(RuntimeException.class, replica::sincronizarCompleta);
+
+        assertEquals(5, replica.indice().size());
+        ReplicaClientes.EstadoReplica estado = replica.estado();
+        assertEquals(1, estado.version());
+        assertNotNull(estado.ultimoError());
+    }
+
+    private static ReglaSimple regla(String campo, String operador, String texto, Integer desde, Integer hasta) {
+        ReglaSimple regla = new ReglaSimple();
+        regla.setCampo(campo);
+        regla.setOperador(operador);
+        regla.setValorTexto(texto);
+        regla.setValorNumeroDesde(desde != null ? BigDecimal.valueOf(desde) : null);
+        regla.setValorNumeroHasta(hasta != null ? BigDecimal.valueOf(hasta) : null);
+        return regla;
+    }
+
+    private static String cliente(long id, String email, String categoria, String estado, Integer edad,
+            int monetario) {
+        return "{\"clienteId\":" + id
+                + ",\"email\":\"" + email + "\""
+                + ",\"categoria\":" + (categoria != null ? "\"" + categoria + "\"" : "null")
+                + ",\"estado\":\"" + estado + "\""
+                + ",\"edad\":" + edad
+                + ",\"monetaryScore\":" + monetario
+                + ",\"fechaActualizacion\":\"2025-01-0" + Math.min(id, 9) + "T10:00:00\"}";
+    }
+
+    private static String pagina(List<String> origen, int page) {
+        int totalPaginas = Math.max(1, (origen.size() + TAMANIO_PAGINA - 1) / TAMANIO_PAGINA);
+        List<String> contenido = new ArrayList<>();
+        for (int i = page * TAMANIO_PAGINA; i < Math.min(origen.size(), (page + 1) * TAMANIO_PAGINA); i++) {
+            contenido.add(origen.get(i));
+        }
+        return "{\"clientes\":[" + String.join(",", contenido) + "]"
+                + ",\"currentPage\":" + page
+                + ",\"totalPages\":" + totalPaginas
+                + ",\"totalElements\":" + origen.size()
+                + ",\"pageSize\":" + TAMANIO_PAGINA + "}";
+    }
+}
@@ -0,0 +1,79 @@
+package pe.unmsm.crm.marketing.shared.application.service;
+
+import org.junit.jupiter.api.Test;
+import pe.unmsm.crm.marketing.shared.application.service.ExcelExportService.ColumnConfig;
+import pe.unmsm.crm.marketing.shared.application.service.ExcelExportService.ExcelConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExcelExportServiceTest {
+
+    private final ExcelExportService service = new ExcelExportService();
+
+    @Test
+    void keysetIterator_RecorrePaginasHastaUnaIncompleta() {
+        List<Long> consultas = new ArrayList<>();
+        List<Long> datos = LongStream.rangeClosed(1, 5).boxed().collect(Collectors.toList());
+
+        KeysetIterator<Long> iterator = new KeysetIterator<>(ultimoId -> {
+            consultas.add(ultimoId);
+            return datos.stream().filter(id -> id > ultimoId).limit(2).collect(Collectors.toList());
+        }, id -> id, 2);
+
+        List<Long> leidos = new ArrayList<>();
+        iterator.forEachRemaining(leidos::add);
+
+        assertEquals(datos, leidos);
+        // 1-2, 3-4, 5 (página incompleta: no hay más consultas)
+        assertEquals(List.of(0L, 2L, 4L), consultas);
+    }
+
+    @Test
+    void exportToCsv_EscapaValoresConSeparadores() throws Exception {
+        ExcelConfig<String[]> config = new ExcelConfig<>("Datos", List.of(
+                new ColumnConfig<>("Nombre", fila -> fila[0]),
+                new ColumnConfig<>("Nota", fila -> fila[1])));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportToCsv(List.<String[]>of(
+                new String[] { "Ana", "simple" },
+                new String[] { "Luis, Pérez", "dijo \"hola\"" }).iterator(), config, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals("\uFEFFNombre,Nota\r\n"
+                + "Ana,simple\r\n"
+                + "\"Luis, Pérez\",\"dijo \"\"hola\"\"\"\r\n", csv);
+    }
+
+    @Test
+    void exportToCsv_NeutralizaFormulas() throws Exception {
+        ExcelConfig<Object[]> config = new ExcelConfig<>("Datos", List.of(
+                new ColumnConfig<>("Texto", fila -> fila[0]),
+                new ColumnConfig<>("Numero", fila -> fila[1])));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportToCsv(List.<Object[]>of(
+                new Object[] { "=HYPERLINK(\"x\")", -5 },
+                new Object[] { "@SUM(A1)", 3 },
+                new Object[] { "+51 999", 0 },
+                new Object[] { "-", 1 },
+                new Object[] { "\t=1+1", 2 },
+                new Object[] { "\r=1+1", 4 }).iterator(), config, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals("\uFEFFTexto,Numero\r\n"
+                + "\"'=HYPERLINK(\"\"x\"\")\",-5\r\n"
+                + "'@SUM(A1),3\r\n"
+                + "'+51 999,0\r\n"
+                + "'-,1\r\n"
+                + "'\t=1+1,2\r\n"
+                + "\"'\r=1+1\",4\r\n", csv);
+    }
+}
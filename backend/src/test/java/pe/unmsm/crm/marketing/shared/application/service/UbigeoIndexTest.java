@@ -0,0 +1,96 @@
+package pe.unmsm.crm.marketing.shared.application.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pe.unmsm.crm.marketing.shared.domain.model.Departamento;
+import pe.unmsm.crm.marketing.shared.domain.model.Distrito;
+import pe.unmsm.crm.marketing.shared.domain.model.Provincia;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UbigeoIndexTest {
+
+    private static UbigeoIndex indice;
+    private static Distrito miraflores;
+
+    @BeforeAll
+    static void setUp() {
+        Departamento lima = departamento("15", "Lima");
+        Departamento arequipa = departamento("04", "Arequipa");
+        Provincia provLima = provincia("1501", "Lima", lima);
+        Provincia provArequipa = provincia("0401", "Arequipa", arequipa);
+
+        miraflores = distrito("150122", "Miraflores", provLima);
+        indice = UbigeoIndex.de(List.of(
+                distrito("150101", "Lima", provLima),
+                miraflores,
+                distrito("150140", "Santiago de Surco", provLima),
+                distrito("040101", "Arequipa", provArequipa),
+                distrito("040112", "Miraflores", provArequipa)));
+    }
+
+    @Test
+    void resolver_PorId_DevuelveLaInstanciaPrecargada() {
+        assertSame(miraflores, indice.resolver(" 150122 ").orElseThrow());
+        assertTrue(indice.resolver("999999").isEmpty());
+    }
+
+    @Test
+    void resolver_RutaSinTildesNiMayusculas() {
+        assertEquals("150122", id(indice.resolver("MIRAFLORES, lima, Líma")));
+        assertEquals("040112", id(indice.resolver("Miraflores, Arequipa, Arequipa")));
+        assertEquals("150140", id(indice.resolver("santiago  de surco,Lima,LIMA")));
+    }
+
+    @Test
+    void resolver_RutaConErroresDeTipeo() {
+        assertEquals("150122", id(indice.resolver("Miraflorez, Lima, Lima")));
+        assertEquals("150140", id(indice.resolver("Santiago de Surko, Lima, Lima")));
+        assertEquals("040112", id(indice.resolver("Miraflores, Arequipa, Arequippa")));
+    }
+
+    @Test
+    void resolver_DemasiadoDistinto_NoResuelve() {
+        assertTrue(indice.resolver("Barranco, Lima, Lima").isEmpty());
+        assertTrue(indice.resolver("Miraflores, Lima").isEmpty());
+    }
+
+    @Test
+    void nombres_DevuelveLaRutaCompleta() {
+        assertEquals("Arequipa", indice.nombres("040112").get("departamento"));
+        assertEquals("Miraflores", indice.nombres("040112").get("distrito"));
+        assertTrue(indice.nombres("000000").isEmpty());
+    }
+
+    private static String id(Optional<Distrito> distrito) {
+        return distrito.map(Distrito::getId).orElse(null);
+    }
+
+    private static Departamento departamento(String id, String nombre) {
+        Departamento departamento = new Departamento();
+        departamento.setId(id);
+        departamento.setNombre(nombre);
+        return departamento;
+    }
+
+    private static Provincia provincia(String id, String nombre, Departamento departamento) {
+        Provincia provincia = new Provincia();
+        provincia.setId(id);
+        provincia.setNombre(nombre);
+        provincia.setDepartamento(departamento);
+        return provincia;
+    }
+
+    private static Distrito distrito(String id, String nombre, Provincia provincia) {
+        Distrito distrito = new Distrito();
+        distrito.setId(id);
+        distrito.setNombre(nombre);
+        distrito.setProvincia(provincia);
+        return distrito;
+    }
+}
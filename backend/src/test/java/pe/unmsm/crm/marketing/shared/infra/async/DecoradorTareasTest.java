@@ -0,0 +1,86 @@
+package pe.unmsm.crm.marketing.shared.infra.async;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DecoradorTareasTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void limpiar() {
+        MDC.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void propagaMdcYSeguridadYMideLaTarea() throws Exception {
+        DecoradorTareas decorador = new DecoradorTareas("prueba", registry);
+        Authentication usuario = new UsernamePasswordAuthenticationToken("ana", null);
+        SecurityContextHolder.getContext().setAuthentication(usuario);
+        MDC.put("lote", "15");
+
+        AtomicReference<String> mdcEnTarea = new AtomicReference<>();
+        AtomicReference<Authentication> usuarioEnTarea = new AtomicReference<>();
+        Runnable tarea = decorador.decorate(() -> {
+            mdcEnTarea.set(MDC.get("lote"));
+            usuarioEnTarea.set(SecurityContextHolder.getContext().getAuthentication());
+        });
+        CompletableFuture.runAsync(tarea).get(5, TimeUnit.SECONDS);
+
+        assertEquals("15", mdcEnTarea.get());
+        assertSame(usuario, usuarioEnTarea.get());
+        assertEquals(1, registry.get("async.tareas.ejecucion").tag("ejecutor", "prueba").timer().count());
+        assertEquals(1, registry.get("async.tareas.espera").tag("ejecutor", "prueba").timer().count());
+        assertEquals(0, decorador.getActivas());
+    }
+
+    @Test
+    void ejecutarEnLlamador_RestauraElMdcDelLlamador() {
+        DecoradorTareas decorador = new DecoradorTareas("prueba", registry);
+        Runnable tarea = decorador.decorate(() -> MDC.put("dentro", "1"));
+        MDC.put("llamador", "1");
+
+        tarea.run();
+
+        assertEquals("1", MDC.get("llamador"));
+        assertNull(MDC.get("dentro"));
+    }
+
+    @Test
+    void rechazos_SeCuentanYAplicanLaPolitica() {
+        ThreadPoolExecutor lleno = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+        try {
+            assertThrows(RejectedExecutionException.class, () ->
+                    PoliticaRechazo.RECHAZAR.handler("prueba", registry).rejectedExecution(() -> { }, lleno));
+
+            AtomicReference<Thread> hilo = new AtomicReference<>();
+            PoliticaRechazo.EJECUTAR_EN_LLAMADOR.handler("prueba", registry)
+                    .rejectedExecution(() -> hilo.set(Thread.currentThread()), lleno);
+            assertSame(Thread.currentThread(), hilo.get());
+
+            assertEquals(1, registry.get("async.ejecutor.rechazos").tag("politica", "RECHAZAR").counter().count());
+            assertEquals(1, registry.get("async.ejecutor.rechazos")
+                    .tag("politica", "EJECUTAR_EN_LLAMADOR").counter().count());
+        } finally {
+            lleno.shutdownNow();
+        }
+    }
+}
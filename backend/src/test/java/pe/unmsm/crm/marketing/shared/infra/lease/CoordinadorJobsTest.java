@@ -0,0 +1,181 @@
+package pe.unmsm.crm.marketing.shared.infra.lease;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Dos contextos de aplicación (dos "instancias") contra la misma BD embebida.
+ */
+class CoordinadorJobsTest {
+
+    private static final String URL = "jdbc:h2:mem:leases;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private AnnotationConfigApplicationContext nodoA;
+    private AnnotationConfigApplicationContext nodoB;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        nodoA = new AnnotationConfigApplicationContext(ConfigNodo.class);
+        nodoB = new AnnotationConfigApplicationContext(ConfigNodo.class);
+        jdbcTemplate = nodoA.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS scheduler_lease (" +
+                "nombre_job VARCHAR(100) NOT NULL PRIMARY KEY, " +
+                "propietario VARCHAR(150) NOT NULL, " +
+                "expira_en DATETIME(3) NOT NULL, " +
+                "token_fencing BIGINT NOT NULL DEFAULT 0, " +
+                "adquirido_en DATETIME(3) NULL, " +
+                "renovado_en DATETIME(3) NULL)");
+        jdbcTemplate.update("DELETE FROM scheduler_lease");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodoA.close();
+        nodoB.close();
+    }
+
+    @Test
+    void soloUnaInstanciaEjecutaElJob() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salir = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> enA = CompletableFuture.supplyAsync(() ->
+                coordinador(nodoA).ejecutar("job", Duration.ofSeconds(30), lease -> {
+                    dentro.countDown();
+                    esperar(salir);
+                }));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        boolean enB = coordinador(nodoB).ejecutar("job", Duration.ofSeconds(30),
+                lease -> fail("El job no debe correr en dos instancias"));
+
+        salir.countDown();
+        assertFalse(enB);
+        assertTrue(enA.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void leaseExpirado_OtraInstanciaLoTomaConTokenMayorYElAnteriorQuedaCercado() throws Exception {
+        LeaseRepository repoA = nodoA.getBean(LeaseRepository.class);
+        LeaseRepository repoB = nodoB.getBean(LeaseRepository.class);
+
+        long tokenA = repoA.adquirirConToken("job", Duration.ofMillis(200)).getAsLong();
+        assertFalse(repoB.adquirir("job", Duration.ofSeconds(30)));
+
+        Thread.sleep(300);
+        long tokenB = repoB.adquirirConToken("job", Duration.ofSeconds(30)).getAsLong();
+
+        assertEquals(tokenA + 1, tokenB);
+        assertThrows(LeaseVencidoException.class, () -> repoA.verificar("job", tokenA));
+        assertFalse(repoA.renovar("job", tokenA, Duration.ofSeconds(30)));
+        assertDoesNotThrow(() -> repoB.verificar("job", tokenB));
+        assertEquals(repoB.getPropietario(), repoA.listar().get(0).propietario());
+    }
+
+    @Test
+    void renovacionDelPropietario_ConservaElToken() {
+        LeaseRepository repoA = nodoA.getBean(LeaseRepository.class);
+
+        long primero = repoA.adquirirConToken("job", Duration.ofSeconds(30)).getAsLong();
+        long segundo = repoA.adquirirConToken("job", Duration.ofSeconds(30)).getAsLong();
+
+        assertEquals(primero, segundo);
+    }
+
+    @Test
+    void heartbeat_MantieneElLeaseDeEjecucionesLargas() {
+        AtomicBoolean enB = new AtomicBoolean(true);
+
+        boolean ejecutado = coordinador(nodoA).ejecutar("job", Duration.ofMillis(300), lease -> {
+            dormir(800);
+            enB.set(coordinador(nodoB).ejecutar("job", Duration.ofMillis(300), l -> { }));
+            lease.verificar();
+        });
+
+        assertTrue(ejecutado);
+        assertFalse(enB.get());
+    }
+
+    @Test
+    void leasePerdido_DetieneLaTareaSinPropagarLaExcepcion() {
+        AtomicBoolean escribioTrasPerderlo = new AtomicBoolean();
+
+        boolean ejecutado = coordinador(nodoA).ejecutar("job", Duration.ofSeconds(30), lease -> {
+            // Simula una pausa larga de A: su lease vence y B lo toma
+            jdbcTemplate.update("UPDATE scheduler_lease SET expira_en = ? WHERE nombre_job = 'job'",
+                    LocalDateTime.now().minusSeconds(1));
+            assertTrue(nodoB.getBean(LeaseRepository.class).adquirir("job", Duration.ofSeconds(30)));
+
+            lease.verificar();
+            escribioTrasPerderlo.set(true);
+        });
+
+        assertTrue(ejecutado);
+        assertFalse(escribioTrasPerderlo.get());
+    }
+
+    private static CoordinadorJobs coordinador(AnnotationConfigApplicationContext nodo) {
+        return nodo.getBean(CoordinadorJobs.class);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Configuration
+    @Import({LeaseRepository.class, CoordinadorJobs.class})
+    static class ConfigNodo {
+
+        @Bean
+        DataSource dataSource() {
+            return new DriverManagerDataSource(URL);
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package pe.unmsm.crm.marketing.shared.infra.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JdbcTimingDataSourcePostProcessorTest {
+
+    private final JdbcTimingDataSourcePostProcessor postProcessor = new JdbcTimingDataSourcePostProcessor();
+
+    @AfterEach
+    void limpiar() {
+        JdbcRequestStats.finalizar();
+    }
+
+    @Test
+    void ejecucionesDentroDeUnRequest_SeCuentan() throws Exception {
+        DataSource real = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(real.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT 1")).thenReturn(statement);
+
+        DataSource dataSource = (DataSource) postProcessor.postProcessAfterInitialization(real, "dataSource");
+        assertNotEquals(real, dataSource);
+
+        JdbcRequestStats.iniciar();
+        try (Connection c = dataSource.getConnection()) {
+            PreparedStatement ps = c.prepareStatement("SELECT 1");
+            ps.setInt(1, 1);
+            ps.executeQuery();
+            ps.executeQuery();
+        }
+
+        JdbcRequestStats stats = JdbcRequestStats.finalizar();
+        assertEquals(2, stats.getConsultas());
+        assertNull(JdbcRequestStats.finalizar());
+    }
+
+    @Test
+    void otrosBeans_NoSeEnvuelven() {
+        Object bean = new Object();
+        assertEquals(bean, postProcessor.postProcessAfterInitialization(bean, "otro"));
+    }
+}
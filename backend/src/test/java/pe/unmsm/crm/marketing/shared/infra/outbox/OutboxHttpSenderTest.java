@@ -0,0 +1,188 @@
+package pe.unmsm.crm.marketing.shared.infra.outbox;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Envío contra un servidor HTTP local de prueba y transiciones del circuito.
+ */
+class OutboxHttpSenderTest {
+
+    private HttpServer servidor;
+    private final AtomicReference<String> cuerpoRecibido = new AtomicReference<>();
+    private final AtomicReference<String> autorizacionRecibida = new AtomicReference<>();
+
+    @BeforeEach
+    void iniciarServidor() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/ok", intercambio -> {
+            try (InputStream cuerpo = intercambio.getRequestBody()) {
+                cuerpoRecibido.set(new String(cuerpo.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            autorizacionRecibida.set(intercambio.getRequestHeaders().getFirst("Authorization"));
+            intercambio.sendResponseHeaders(200, -1);
+            intercambio.close();
+        });
+        servidor.createContext("/caido", intercambio -> {
+            intercambio.sendResponseHeaders(503, -1);
+            intercambio.close();
+        });
+        servidor.createContext("/invalido", intercambio -> {
+            intercambio.sendResponseHeaders(400, -1);
+            intercambio.close();
+        });
+        servidor.createContext("/lento", intercambio -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            intercambio.sendResponseHeaders(200, -1);
+            intercambio.close();
+        });
+        servidor.start();
+    }
+
+    @AfterEach
+    void detenerServidor() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void respuesta2xx_EsExitoYEnviaCuerpoYCabeceras() {
+        OutboxHttpSender sender = new OutboxHttpSender(2000);
+
+        OutboxHttpSender.Resultado resultado = sender.enviar(
+                destino("/ok", Map.of("Authorization", "Bearer clave")), "{\"idLead\":1}");
+
+        assertTrue(resultado.exito());
+        assertEquals(200, resultado.status());
+        assertEquals("{\"idLead\":1}", cuerpoRecibido.get());
+        assertEquals("Bearer clave", autorizacionRecibida.get());
+    }
+
+    @Test
+    void respuesta5xx_EsReintentable() {
+        OutboxHttpSender.Resultado resultado = new OutboxHttpSender(2000).enviar(destino("/caido", Map.of()), "{}");
+
+        assertFalse(resultado.exito());
+        assertTrue(resultado.reintentable());
+        assertEquals(503, resultado.status());
+    }
+
+    @Test
+    void respuesta4xx_EsDefinitiva() {
+        OutboxHttpSender.Resultado resultado = new OutboxHttpSender(2000).enviar(destino("/invalido", Map.of()), "{}");
+
+        assertFalse(resultado.exito());
+        assertFalse(resultado.reintentable());
+        assertEquals(400, resultado.status());
+    }
+
+    @Test
+    void timeout_EsReintentableSinStatus() {
+        OutboxHttpSender.Resultado resultado = new OutboxHttpSender(200).enviar(destino("/lento", Map.of()), "{}");
+
+        assertFalse(resultado.exito());
+        assertTrue(resultado.reintentable());
+        assertNull(resultado.status());
+    }
+
+    @Test
+    void circuito_SeAbreTrasUmbralYPruebaUnSoloEnvioAlVencerLaEspera() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        CircuitoDestino circuito = new CircuitoDestino(3, Duration.ofSeconds(30), clock);
+
+        circuito.registrarFallo();
+        circuito.registrarFallo();
+        assertEquals(100, circuito.cupo(100));
+        circuito.registrarFallo();
+        assertEquals(CircuitoDestino.Estado.ABIERTO, circuito.getEstado());
+        assertEquals(0, circuito.cupo(100));
+        assertFalse(circuito.permiteEnvio());
+
+        clock.avanzar(Duration.ofSeconds(31));
+        assertEquals(1, circuito.cupo(100));
+        assertTrue(circuito.permiteEnvio());
+        assertEquals(CircuitoDestino.Estado.SEMI_ABIERTO, circuito.getEstado());
+        // Solo un envío de prueba a la vez
+        assertFalse(circuito.permiteEnvio());
+        assertEquals(0, circuito.cupo(100));
+
+        circuito.registrarFallo();
+        assertEquals(CircuitoDestino.Estado.ABIERTO, circuito.getEstado());
+
+        clock.avanzar(Duration.ofSeconds(31));
+        assertTrue(circuito.permiteEnvio());
+        circuito.registrarExito();
+        assertEquals(CircuitoDestino.Estado.CERRADO, circuito.getEstado());
+        assertEquals(100, circuito.cupo(100));
+    }
+
+    private OutboxDestino destino(String ruta, Map<String, String> cabeceras) {
+        String url = "http://127.0.0.1:" + servidor.getAddress().getPort() + ruta;
+        return new OutboxDestino() {
+            @Override
+            public String getNombre() {
+                return "PRUEBA";
+            }
+
+            @Override
+            public String getUrl() {
+                return url;
+            }
+
+            @Override
+            public Map<String, String> getCabeceras() {
+                return cabeceras;
+            }
+        };
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant ahora;
+
+        MutableClock(Instant inicio) {
+            this.ahora = inicio;
+        }
+
+        void avanzar(Duration duracion) {
+            ahora = ahora.plus(duracion);
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
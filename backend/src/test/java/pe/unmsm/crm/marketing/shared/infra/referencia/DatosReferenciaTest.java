@@ -0,0 +1,73 @@
+package pe.unmsm.crm.marketing.shared.infra.referencia;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatosReferenciaTest {
+
+    private static class Catalogo extends DatosReferencia<Map<String, Integer>> {
+
+        private volatile Map<String, Integer> fuente = Map.of("A", 1);
+
+        Catalogo() {
+            super("prueba");
+        }
+
+        @Override
+        protected Map<String, Integer> construir() {
+            return Map.copyOf(fuente);
+        }
+    }
+
+    @Test
+    void primerUso_CargaLaVersionUno() {
+        Catalogo catalogo = new Catalogo();
+
+        assertEquals(0, catalogo.version());
+        assertEquals(1, catalogo.datos().get("A"));
+        assertEquals(1, catalogo.version());
+    }
+
+    @Test
+    void recargaSinCambios_NoAvanzaLaVersionNiReemplazaLaInstantanea() {
+        Catalogo catalogo = new Catalogo();
+        InstantaneaReferencia<Map<String, Integer>> inicial = catalogo.instantanea();
+
+        assertFalse(catalogo.recargar());
+        assertSame(inicial, catalogo.instantanea());
+
+        catalogo.fuente = Map.of("A", 1, "B", 2);
+        assertTrue(catalogo.recargar());
+        assertEquals(2, catalogo.version());
+        assertEquals(2, catalogo.datos().get("B"));
+    }
+
+    @Test
+    void derivado_SeRecalculaSoloAlCambiarLaVersion() {
+        Catalogo catalogo = new Catalogo();
+        AtomicInteger calculos = new AtomicInteger();
+        Supplier<List<String>> claves = catalogo.derivar(datos -> {
+            calculos.incrementAndGet();
+            return datos.keySet().stream().sorted().toList();
+        });
+
+        assertEquals(List.of("A"), claves.get());
+        claves.get();
+        catalogo.recargar();
+        assertEquals(1, calculos.get());
+
+        catalogo.fuente = Map.of("A", 1, "B", 2);
+        catalogo.recargar();
+        assertEquals(List.of("A", "B"), claves.get());
+        assertEquals(2, calculos.get());
+    }
+}
@@ -0,0 +1,177 @@
+package pe.unmsm.crm.marketing.shared.infra.retencion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import pe.unmsm.crm.marketing.shared.infra.lease.LeaseJob;
+import pe.unmsm.crm.marketing.shared.infra.lease.LeaseVencidoException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Purga por bloques contra una BD embebida en modo MySQL.
+ */
+class MotorRetencionTest {
+
+    private static final String URL = "jdbc:h2:mem:retencion;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private JdbcTemplate jdbcTemplate;
+    private MotorRetencion motor;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS evento (" +
+                "id BIGINT NOT NULL PRIMARY KEY, " +
+                "estado VARCHAR(20) NOT NULL, " +
+                "creado_en DATETIME(3) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS evento_detalle (" +
+                "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "id_evento BIGINT NOT NULL)");
+        jdbcTemplate.update("DELETE FROM evento_detalle");
+        jdbcTemplate.update("DELETE FROM evento");
+
+        motor = new MotorRetencion(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(motor, "tamanioLote", 2);
+        ReflectionTestUtils.setField(motor, "tamanioLoteDependientes", 1);
+        ReflectionTestUtils.setField(motor, "pausaMs", 0L);
+        ReflectionTestUtils.setField(motor, "maxMinutos", 60L);
+    }
+
+    @Test
+    void ejecutar_BorraPorBloquesLasFilasVencidasYSusDependientes() {
+        LocalDateTime viejo = LocalDateTime.now().minusDays(40);
+        for (long id = 1; id <= 5; id++) {
+            evento(id, "CERRADO", viejo);
+        }
+        evento(6L, "CERRADO", LocalDateTime.now());
+        evento(7L, "ABIERTO", viejo);
+
+        MotorRetencion.Resultado resultado = motor.ejecutar(new EventosCerrados());
+
+        assertEquals(5, resultado.eliminados());
+        assertEquals(10, resultado.dependientesEliminados());
+        assertEquals(3, resultado.lotes());
+        assertTrue(resultado.completo());
+        assertEquals(List.of(6L, 7L), jdbcTemplate.queryForList("SELECT id FROM evento ORDER BY id", Long.class));
+        assertEquals(List.of(6L, 6L, 7L, 7L), jdbcTemplate.queryForList(
+                "SELECT id_evento FROM evento_detalle ORDER BY id_evento", Long.class));
+    }
+
+    @Test
+    void ejecutar_FilaQueDejaDeCumplirLaPolitica_ConservaSusDependientes() {
+        LocalDateTime viejo = LocalDateTime.now().minusDays(40);
+        evento(1L, "CERRADO", viejo);
+        evento(2L, "CERRADO", viejo);
+
+        // El evento 1 se reabre entre la selección y el borrado del bloque
+        LeaseJob lease = mock(LeaseJob.class);
+        doAnswer(inv -> jdbcTemplate.update("UPDATE evento SET estado = 'ABIERTO' WHERE id = 1"))
+                .when(lease).verificar();
+
+        MotorRetencion.Resultado resultado = motor.ejecutar(new EventosCerrados(), lease);
+
+        assertEquals(1, resultado.eliminados());
+        assertEquals(2, resultado.dependientesEliminados());
+        assertEquals(List.of(1L, 1L), jdbcTemplate.queryForList(
+                "SELECT id_evento FROM evento_detalle ORDER BY id_evento", Long.class));
+    }
+
+    @Test
+    void ejecutar_FilaQueDejaDeCumplirLaPoliticaEntreTrozos_SeConserva() {
+        evento(1L, "CERRADO", LocalDateTime.now().minusDays(40));
+
+        // Cada trozo de dependientes vuelve a evaluar la política; tras el
+        // primero el evento se reabre
+        LeaseJob lease = mock(LeaseJob.class);
+        AtomicInteger verificaciones = new AtomicInteger();
+        doAnswer(inv -> {
+            if (verificaciones.incrementAndGet() == 2) {
+                jdbcTemplate.update("UPDATE evento SET estado = 'ABIERTO' WHERE id = 1");
+            }
+            return null;
+        }).when(lease).verificar();
+
+        MotorRetencion.Resultado resultado = motor.ejecutar(new EventosCerrados(), lease);
+
+        assertEquals(0, resultado.eliminados());
+        assertEquals(1, resultado.dependientesEliminados());
+        assertEquals(1, contar("evento"));
+        assertEquals(1, contar("evento_detalle"));
+    }
+
+    @Test
+    void ejecutar_LeasePerdido_NoBorraNada() {
+        evento(1L, "CERRADO", LocalDateTime.now().minusDays(40));
+        LeaseJob lease = mock(LeaseJob.class);
+        doThrow(new LeaseVencidoException("retencion", 1L)).when(lease).verificar();
+
+        assertThrows(LeaseVencidoException.class, () -> motor.ejecutar(new EventosCerrados(), lease));
+
+        assertEquals(1, contar("evento"));
+        assertEquals(2, contar("evento_detalle"));
+    }
+
+    private void evento(Long id, String estado, LocalDateTime creadoEn) {
+        jdbcTemplate.update("INSERT INTO evento (id, estado, creado_en) VALUES (?, ?, ?)", id, estado, creadoEn);
+        jdbcTemplate.update("INSERT INTO evento_detalle (id_evento) VALUES (?), (?)", id, id);
+    }
+
+    private int contar(String tabla) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabla, Integer.class);
+    }
+
+    private static class EventosCerrados implements PoliticaRetencion {
+
+        @Override
+        public String getNombre() {
+            return "eventos-cerrados";
+        }
+
+        @Override
+        public String getTabla() {
+            return "evento";
+        }
+
+        @Override
+        public String getColumnaId() {
+            return "id";
+        }
+
+        @Override
+        public String getColumnaFecha() {
+            return "creado_en";
+        }
+
+        @Override
+        public String getCondicion() {
+            return "estado = 'CERRADO'";
+        }
+
+        @Override
+        public Duration getAntiguedad() {
+            return Duration.ofDays(30);
+        }
+
+        @Override
+        public List<DependienteRetencion> getDependientes() {
+            return List.of(new DependienteRetencion("evento_detalle", "id_evento"));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package pe.unmsm.crm.marketing.shared.infra.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PublicadorWebSocketTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private PublicadorWebSocket publicador;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.ws.intervalos.metricas", "1000");
+        publicador = new PublicadorWebSocket(messagingTemplate, environment, meterRegistry, 250, 2, 50, 60000);
+    }
+
+    @Test
+    void misma_clave_soloSaleElUltimoEstado() {
+        publicador.publicar("/topic/metricas", "1:7", "v1");
+        publicador.publicar("/topic/metricas", "1:7", "v2");
+        publicador.publicar("/topic/metricas", "1:8", "w1");
+
+        publicador.enviarPendientes(System.nanoTime(), false);
+
+        var orden = inOrder(messagingTemplate);
+        orden.verify(messagingTemplate).convertAndSend("/topic/metricas", (Object) "v2");
+        orden.verify(messagingTemplate).convertAndSend("/topic/metricas", (Object) "w1");
+        verify(messagingTemplate, never()).convertAndSend("/topic/metricas", (Object) "v1");
+        assertEquals(1.0, meterRegistry.counter("ws.publicador.mensajes", "resultado", "conflado").count());
+    }
+
+    @Test
+    void respetaElIntervaloDelTema() {
+        publicador.publicar("/topic/metricas", null, "a");
+        long inicio = System.nanoTime();
+        publicador.enviarPendientes(inicio, false);
+
+        publicador.publicar("/topic/metricas", null, "b");
+        publicador.enviarPendientes(inicio + TimeUnit.MILLISECONDS.toNanos(500), false);
+        verify(messagingTemplate, never()).convertAndSend("/topic/metricas", (Object) "b");
+
+        publicador.enviarPendientes(inicio + TimeUnit.MILLISECONDS.toNanos(1001), false);
+        verify(messagingTemplate).convertAndSend("/topic/metricas", (Object) "b");
+    }
+
+    @Test
+    void alSuperarMaxPendientes_descartaLaClaveMasAntigua() {
+        publicador.publicar("/topic/llamadas", 1L, "l1");
+        publicador.publicar("/topic/llamadas", 2L, "l2");
+        publicador.publicar("/topic/llamadas", 3L, "l3");
+
+        publicador.enviarPendientes(System.nanoTime(), true);
+
+        verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+        verify(messagingTemplate, never()).convertAndSend("/topic/llamadas", (Object) "l1");
+        assertEquals(1.0, meterRegistry.counter("ws.publicador.mensajes", "resultado", "descartado").count());
+    }
+
+    @Test
+    void tema_esElSegundoSegmentoDelDestino() {
+        assertEquals("import-progress", PublicadorWebSocket.tema("/topic/import-progress/15"));
+        assertEquals("cola", PublicadorWebSocket.tema("/topic/cola"));
+    }
+}
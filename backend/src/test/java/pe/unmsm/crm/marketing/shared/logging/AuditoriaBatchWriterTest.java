@@ -0,0 +1,109 @@
+package pe.unmsm.crm.marketing.shared.logging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AuditoriaBatchWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void encolar_ConBufferLlenoYPoliticaDescartar_NoBloqueaYCuenta() {
+        // Sin iniciar el worker: el buffer no se vacía
+        AuditoriaBatchWriter writer = new AuditoriaBatchWriter(jdbcTemplate, 2,
+                AuditoriaBatchWriter.PoliticaSaturacion.DESCARTAR);
+
+        for (int i = 0; i < 5; i++) {
+            writer.encolar(evento(i));
+        }
+
+        assertEquals(2, writer.pendientes());
+        assertEquals(3, writer.getDescartados());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void encolar_ConBufferLlenoYPoliticaLog_DesbordaAlLog() {
+        AuditoriaBatchWriter writer = new AuditoriaBatchWriter(jdbcTemplate, 1,
+                AuditoriaBatchWriter.PoliticaSaturacion.LOG);
+
+        writer.encolar(evento(1));
+        writer.encolar(evento(2));
+
+        assertEquals(1, writer.pendientes());
+        assertEquals(1, writer.getDesbordados());
+        assertEquals(0, writer.getDescartados());
+    }
+
+    @Test
+    void iniciar_InsertaLosEventosEnLote() throws InterruptedException {
+        JdbcTemplate bd = baseDeDatos();
+        AuditoriaBatchWriter writer = new AuditoriaBatchWriter(bd, 100,
+                AuditoriaBatchWriter.PoliticaSaturacion.LOG);
+        ReflectionTestUtils.setField(writer, "tamanioLote", 500);
+        for (int i = 1; i <= 3; i++) {
+            writer.encolar(evento(i));
+        }
+
+        writer.iniciar();
+        try {
+            long limite = System.currentTimeMillis() + 5_000;
+            while (writer.getEscritos() < 3 && System.currentTimeMillis() < limite) {
+                Thread.sleep(10);
+            }
+            assertEquals(3, writer.getEscritos());
+            assertEquals(List.of(1L, 2L, 3L), bd.queryForList(
+                    "SELECT id_entidad FROM auditoria_evento WHERE modulo = 'LEADS' AND accion = 'CREAR' ORDER BY id_entidad",
+                    Long.class));
+        } finally {
+            writer.detener();
+        }
+    }
+
+    @Test
+    void detener_VaciaElBufferAntesDeTerminar() throws InterruptedException {
+        JdbcTemplate bd = baseDeDatos();
+        AuditoriaBatchWriter writer = new AuditoriaBatchWriter(bd, 100,
+                AuditoriaBatchWriter.PoliticaSaturacion.LOG);
+        ReflectionTestUtils.setField(writer, "tamanioLote", 2);
+        for (int i = 1; i <= 7; i++) {
+            writer.encolar(evento(i));
+        }
+
+        writer.iniciar();
+        writer.detener();
+
+        assertEquals(0, writer.pendientes());
+        assertEquals(7, writer.getEscritos());
+        assertEquals(7, bd.queryForObject("SELECT COUNT(*) FROM auditoria_evento", Integer.class));
+        assertEquals(0, writer.getDesbordados());
+    }
+
+    private static JdbcTemplate baseDeDatos() {
+        JdbcTemplate bd = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:auditoria;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        bd.execute("CREATE TABLE IF NOT EXISTS auditoria_evento (" +
+                "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "modulo VARCHAR(30) NOT NULL, " +
+                "accion VARCHAR(30) NOT NULL, " +
+                "id_entidad BIGINT NULL, " +
+                "id_usuario BIGINT NULL, " +
+                "detalle VARCHAR(1000) NULL, " +
+                "fecha_evento DATETIME(3) NOT NULL)");
+        bd.update("DELETE FROM auditoria_evento");
+        return bd;
+    }
+
+    private AuditoriaEvento evento(long idEntidad) {
+        return new AuditoriaEvento(ModuloLog.LEADS, AccionLog.CREAR, idEntidad, 1L, "detalle", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,34 @@
+package pe.unmsm.crm.marketing.shared.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HtmlTemplateServiceTest {
+
+    private final HtmlTemplateService service = new HtmlTemplateService();
+
+    @Test
+    void processTemplateFromString_ReemplazaPlaceholdersYDevuelveXhtml() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("titulo", "Reporte");
+        data.put("fecha", LocalDate.of(2025, 11, 30));
+        data.put("filas", "<p>uno<br>dos</p>");
+
+        String html = service.processTemplateFromString(
+                "<html><head><style>p { color: red; }</style></head>"
+                        + "<body><h1>{{titulo}}</h1><span>{{fecha}}</span><div>{{filas}}</div></body></html>",
+                data);
+
+        assertTrue(html.contains("<h1>Reporte</h1>"));
+        assertTrue(html.contains("30/11/2025"));
+        assertTrue(html.contains("<br />"), "El fragmento insertado debe serializarse como XHTML");
+        assertTrue(html.contains("<style>"));
+        assertFalse(html.contains("{{"));
+    }
+}